@@ -0,0 +1,87 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.FieldSolver;
+import org.openpixi.pixi.physics.fields.FusedTYMSolver;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.grid.EmptyInterpolator;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.Random;
+
+/**
+ * Common setup of the benchmarks.
+ */
+public class BenchmarkSettings {
+
+	/**
+	 * Creates settings for a periodic cubic lattice.
+	 *
+	 * @param colors    Number of colors
+	 * @param size      Number of cells in each direction
+	 * @param threads   Number of threads
+	 * @param solver    Name of the field solver ("tym", "fast" or "fused")
+	 * @return          Settings instance
+	 */
+	public static Settings getSettings(int colors, int size, int threads, String solver) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(getFieldSolver(solver));
+		s.useGrid(true);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.5);
+		for (int i = 0; i < 3; i++) {
+			s.setGridCells(i, size);
+		}
+
+		s.setNumberOfColors(colors);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(threads);
+
+		return s;
+	}
+
+	public static FieldSolver getFieldSolver(String solver) {
+		if (solver.equals("tym")) {
+			return new TemporalYangMillsSolver();
+		} else if (solver.equals("fast")) {
+			return new FastTYMSolver();
+		} else if (solver.equals("fused")) {
+			return new FusedTYMSolver();
+		}
+		throw new RuntimeException("Unknown field solver: " + solver);
+	}
+
+	/**
+	 * Fills the grid with random gauge links and electric fields.
+	 */
+	public static void randomizeFields(Grid grid, long seed) {
+		Random random = new Random(seed);
+		ElementFactory factory = grid.getElementFactory();
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+				grid.setE(i, d, getRandomAlgebraElement(factory, random));
+				grid.setU(i, d, getRandomAlgebraElement(factory, random).getLink());
+				grid.setUnext(i, d, grid.getU(i, d));
+			}
+		}
+	}
+
+	public static AlgebraElement getRandomAlgebraElement(ElementFactory factory, Random random) {
+		AlgebraElement a = factory.algebraZero();
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			a.set(c, random.nextDouble() - 0.5);
+		}
+		return a;
+	}
+}
@@ -0,0 +1,55 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complex 3D FFT of a lattice sized array. The input is restored before every transform, which is included in
+ * the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FFTBenchmark {
+
+	@Param({"16", "32", "64"})
+	public int size;
+
+	private DoubleFFTWrapper fft;
+	private double[] input;
+	private double[] data;
+
+	@Setup
+	public void setup() {
+		fft = new DoubleFFTWrapper(new int[]{size, size, size});
+		input = new double[fft.getFFTArraySize()];
+		data = new double[input.length];
+		Random random = new Random(1);
+		for (int i = 0; i < input.length; i++) {
+			input[i] = random.nextDouble();
+		}
+	}
+
+	@Benchmark
+	public double[] complexForward() {
+		System.arraycopy(input, 0, data, 0, input.length);
+		fft.complexForward(data);
+		return data;
+	}
+}
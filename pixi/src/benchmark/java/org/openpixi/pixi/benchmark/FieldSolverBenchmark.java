@@ -0,0 +1,70 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single step of the field solvers for several lattice sizes and thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldSolverBenchmark {
+
+	@Param({"tym", "fast"})
+	public String solver;
+
+	@Param({"2", "3"})
+	public int colors;
+
+	@Param({"16", "32", "64"})
+	public int size;
+
+	@Param({"1", "2", "4"})
+	public int threads;
+
+	@Param({"false", "true"})
+	public boolean flatGrid;
+
+	private Settings settings;
+	private Grid grid;
+	private double timeStep;
+
+	@Setup
+	public void setup() {
+		settings = BenchmarkSettings.getSettings(colors, size, threads, solver);
+		settings.useFlatGrid(flatGrid);
+		Simulation s = new Simulation(settings);
+		grid = s.grid;
+		timeStep = s.getTimeStep();
+		BenchmarkSettings.randomizeFields(grid, 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		settings.terminateThreads();
+	}
+
+	@Benchmark
+	public void step() {
+		grid.getFsolver().step(grid, timeStep);
+	}
+}
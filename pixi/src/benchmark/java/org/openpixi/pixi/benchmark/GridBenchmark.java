@@ -0,0 +1,66 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plaquettes and staples at a single lattice site.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+	@Param({"2", "3"})
+	public int colors;
+
+	@Param({"false", "true"})
+	public boolean flatGrid;
+
+	private Settings settings;
+	private Grid grid;
+	private int index;
+
+	@Setup
+	public void setup() {
+		settings = BenchmarkSettings.getSettings(colors, 16, 1, "tym");
+		settings.useFlatGrid(flatGrid);
+		grid = new Simulation(settings).grid;
+		BenchmarkSettings.randomizeFields(grid, 1);
+		index = grid.getCellIndex(new int[]{5, 7, 9});
+	}
+
+	@TearDown
+	public void tearDown() {
+		settings.terminateThreads();
+	}
+
+	@Benchmark
+	public GroupElement getPlaquette() {
+		return grid.getPlaquette(index, 0, 1, 1, 1, 0);
+	}
+
+	@Benchmark
+	public GroupElement getStapleSum() {
+		return grid.getStapleSum(index, 0);
+	}
+}
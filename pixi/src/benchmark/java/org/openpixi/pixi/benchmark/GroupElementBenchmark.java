@@ -0,0 +1,73 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Basic operations of SU(2) and SU(3) group elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupElementBenchmark {
+
+	@Param({"2", "3"})
+	public int colors;
+
+	private GroupElement a;
+	private GroupElement b;
+	private GroupElement out;
+
+	@Setup
+	public void setup() {
+		ElementFactory factory = new ElementFactory(colors);
+		Random random = new Random(1);
+		a = BenchmarkSettings.getRandomAlgebraElement(factory, random).getLink();
+		b = BenchmarkSettings.getRandomAlgebraElement(factory, random).getLink();
+		out = factory.groupZero();
+	}
+
+	@Benchmark
+	public GroupElement mult() {
+		return a.mult(b);
+	}
+
+	@Benchmark
+	public GroupElement multInto() {
+		a.multInto(b, out);
+		return out;
+	}
+
+	@Benchmark
+	public GroupElement adj() {
+		return a.adj();
+	}
+
+	@Benchmark
+	public GroupElement pow() {
+		return a.pow(0.3);
+	}
+
+	@Benchmark
+	public AlgebraElement getAlgebraElement() {
+		return a.getAlgebraElement();
+	}
+}
@@ -0,0 +1,95 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.grid.LocalInterpolation;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current deposition of CGC particles which move along the x-axis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterpolationBenchmark {
+
+	@Param({"2", "3"})
+	public int colors;
+
+	@Param({"1", "2", "4"})
+	public int threads;
+
+	/**
+	 * Particles per cell.
+	 */
+	@Param({"0.5", "4"})
+	public double density;
+
+	private Settings settings;
+	private Grid grid;
+	private LocalInterpolation interpolation;
+	private List<IParticle> particles;
+
+	@Setup
+	public void setup() {
+		int size = 32;
+		settings = BenchmarkSettings.getSettings(colors, size, threads, "fast");
+		Simulation s = new Simulation(settings);
+		grid = s.grid;
+		BenchmarkSettings.randomizeFields(grid, 1);
+
+		double threshold = (threads > 1) ? settings.getDepositionBufferThreshold() : Double.POSITIVE_INFINITY;
+		interpolation = new LocalInterpolation(new CGCParticleInterpolation(), settings.getParticleIterator(),
+				threshold);
+
+		Random random = new Random(2);
+		int numberOfParticles = (int) (density * grid.getTotalNumberOfCells());
+		double dt = grid.getTemporalSpacing();
+		particles = new ArrayList<IParticle>();
+		for (int i = 0; i < numberOfParticles; i++) {
+			CGCParticle p = new CGCParticle(3, colors, 0);
+			for (int d = 0; d < 3; d++) {
+				double x = (d == 0) ? 1 + random.nextDouble() * (size - 3) : random.nextDouble() * size;
+				p.pos0[d] = x;
+				p.pos1[d] = x;
+			}
+			p.pos1[0] += dt;
+			p.Q0 = BenchmarkSettings.getRandomAlgebraElement(grid.getElementFactory(), random);
+			particles.add(p);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		settings.terminateThreads();
+	}
+
+	@Benchmark
+	public void interpolateToGrid() {
+		grid.resetCurrent();
+		interpolation.interpolateToGrid(particles, grid);
+	}
+}
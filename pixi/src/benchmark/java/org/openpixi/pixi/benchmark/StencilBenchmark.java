@@ -0,0 +1,92 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest neighbour stencils with and without the neighbour table of the grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StencilBenchmark {
+
+	@Param({"16", "32"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean neighbourTable;
+
+	@Param({"false", "true"})
+	public boolean flatGrid;
+
+	private Settings settings;
+	private Grid grid;
+	private double timeStep;
+
+	@Setup
+	public void setup() {
+		settings = BenchmarkSettings.getSettings(2, size, 1, "tym");
+		settings.useFlatGrid(flatGrid);
+		settings.useNeighbourTable(neighbourTable);
+		Simulation s = new Simulation(settings);
+		grid = s.grid;
+		timeStep = s.getTimeStep();
+		BenchmarkSettings.randomizeFields(grid, 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		settings.terminateThreads();
+	}
+
+	/**
+	 * Visits all nearest neighbours of every cell.
+	 */
+	@Benchmark
+	public int neighbourSweep() {
+		int sum = 0;
+		int numberOfDimensions = grid.getNumberOfDimensions();
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			for (int d = 0; d < numberOfDimensions; d++) {
+				sum += grid.shift(index, d, 1) - grid.shift(index, d, -1);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Decodes a single coordinate of every cell.
+	 */
+	@Benchmark
+	public int coordinateSweep() {
+		int sum = 0;
+		for (int index = 0; index < grid.getTotalNumberOfCells(); index++) {
+			sum += grid.getCellPos(index, 1);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void step() {
+		grid.getFsolver().step(grid, timeStep);
+	}
+}
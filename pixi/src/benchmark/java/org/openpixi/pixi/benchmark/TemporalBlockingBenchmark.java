@@ -0,0 +1,79 @@
+package org.openpixi.pixi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eight steps of the field solvers including the storage of the links and the reset of the currents, advanced in
+ * blocks of several steps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemporalBlockingBenchmark {
+
+	private static final int STEPS = 8;
+
+	@Param({"fast", "fused"})
+	public String solver;
+
+	@Param({"2", "3"})
+	public int colors;
+
+	@Param({"32", "64"})
+	public int size;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	@Param({"1", "2", "4", "8"})
+	public int blocking;
+
+	private Settings settings;
+	private Grid grid;
+	private double timeStep;
+
+	@Setup
+	public void setup() {
+		settings = BenchmarkSettings.getSettings(colors, size, threads, solver);
+		settings.useFlatGrid(true);
+		Simulation s = new Simulation(settings);
+		grid = s.grid;
+		timeStep = s.getTimeStep();
+		BenchmarkSettings.randomizeFields(grid, 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		settings.terminateThreads();
+	}
+
+	@Benchmark
+	public void steps() {
+		for (int t = 0; t < STEPS; t += blocking) {
+			grid.storeFields();
+			grid.updateGrid(timeStep, blocking);
+			if (blocking == 1 && !grid.getFsolver().resetsCurrent(grid)) {
+				grid.resetCurrent();
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.openpixi.pixi.diagnostics;
+
+/**
+ * Diagnostics which can be calculated on a snapshot of the simulation by a background thread (see
+ * {@link DiagnosticsPipeline}). Such diagnostics must only read from the grid and particles which are passed to
+ * {@link #calculate}, must not modify the simulation and must not depend on the state of the simulation at the time
+ * of the calculation.
+ */
+public interface AsynchronousDiagnostics extends Diagnostics {
+
+	/**
+	 * Flag for {@link #getRequiredFields()} if a copy of the particles is needed.
+	 */
+	int PARTICLES = 1 << 16;
+
+	/**
+	 * Returns the fields which are read by {@link #calculate}. Only these fields are copied into the snapshot.
+	 *
+	 * @return  Combination of the field flags of {@link org.openpixi.pixi.physics.grid.Grid} (e.g.
+	 *          {@link org.openpixi.pixi.physics.grid.Grid#FIELD_E}) and {@link #PARTICLES}.
+	 */
+	int getRequiredFields();
+
+	/**
+	 * Checks whether the diagnostic has anything to calculate at the given simulation step, so that snapshots are
+	 * only taken when needed.
+	 *
+	 * @param steps     Total simulation steps so far.
+	 * @return          True if {@link #calculate} has to be called.
+	 */
+	boolean isDue(int steps);
+}
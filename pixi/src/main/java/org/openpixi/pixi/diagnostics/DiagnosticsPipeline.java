@@ -0,0 +1,159 @@
+package org.openpixi.pixi.diagnostics;
+
+import org.openpixi.pixi.physics.grid.FlatGrid;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Calculates {@link AsynchronousDiagnostics} on a background thread while the simulation continues.
+ * <br>
+ * For every submitted diagnostic the fields it requires are copied into a snapshot grid, which is then passed to the
+ * diagnostic on the background thread. All diagnostics are calculated by a single thread in the order of submission,
+ * so the output is identical to the synchronous calculation. At most queueDepth snapshots are pending at any time;
+ * if the background thread falls behind, {@link #submit} blocks until a snapshot becomes free again.
+ */
+public class DiagnosticsPipeline {
+
+	private final int queueDepth;
+
+	private final Semaphore freeSlots;
+
+	/**
+	 * Snapshot grids which are not in use. Their number never exceeds queueDepth.
+	 */
+	private final ConcurrentLinkedQueue<Grid> snapshots = new ConcurrentLinkedQueue<Grid>();
+
+	private final ExecutorService executor;
+
+	/**
+	 * First error which occurred on the background thread. It is thrown by the next call of submit or flush.
+	 */
+	private volatile Throwable error;
+
+	/**
+	 * @param queueDepth    Maximal number of snapshots which wait for their calculation
+	 */
+	public DiagnosticsPipeline(int queueDepth) {
+		this.queueDepth = queueDepth;
+		this.freeSlots = new Semaphore(queueDepth);
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "DiagnosticsPipeline");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * Takes a snapshot of the fields required by the diagnostic and schedules its calculation. Blocks if queueDepth
+	 * snapshots are already pending.
+	 *
+	 * @param diagnostic    Diagnostic to be calculated
+	 * @param grid          Grid of the simulation
+	 * @param particles     Particles of the simulation
+	 * @param steps         Total simulation steps so far
+	 * @throws IOException  if a previously submitted diagnostic has failed
+	 */
+	public void submit(final AsynchronousDiagnostics diagnostic, Grid grid, ArrayList<IParticle> particles,
+					   final int steps) throws IOException {
+		checkError();
+		try {
+			freeSlots.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("DiagnosticsPipeline: interrupted while waiting for a free snapshot.");
+		}
+
+		int fields = diagnostic.getRequiredFields();
+		final Grid snapshot = getSnapshot(grid);
+		snapshot.copyValuesFrom(grid, fields & Grid.ALL_FIELDS);
+		snapshot.setSimulationSteps(grid.getSimulationSteps());
+		final ArrayList<IParticle> particleSnapshot = new ArrayList<IParticle>();
+		if ((fields & AsynchronousDiagnostics.PARTICLES) != 0) {
+			for (IParticle p : particles) {
+				particleSnapshot.add(p.copy());
+			}
+		}
+
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					if (error == null) {
+						diagnostic.calculate(snapshot, particleSnapshot, steps);
+					}
+				} catch (Throwable t) {
+					if (error == null) {
+						error = t;
+					}
+				} finally {
+					snapshots.add(snapshot);
+					freeSlots.release();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits until all submitted diagnostics have been calculated.
+	 *
+	 * @throws IOException  if a submitted diagnostic has failed
+	 */
+	public void flush() throws IOException {
+		try {
+			freeSlots.acquire(queueDepth);
+			freeSlots.release(queueDepth);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("DiagnosticsPipeline: interrupted while waiting for diagnostics.");
+		}
+		checkError();
+	}
+
+	/**
+	 * Waits for all pending diagnostics and stops the background thread.
+	 *
+	 * @throws IOException  if a submitted diagnostic has failed
+	 */
+	public void shutdown() throws IOException {
+		try {
+			flush();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private Grid getSnapshot(Grid grid) {
+		Grid snapshot = snapshots.poll();
+		if (snapshot == null || snapshot.getTotalNumberOfCells() != grid.getTotalNumberOfCells()) {
+			if (grid instanceof FlatGrid) {
+				snapshot = new FlatGrid(grid);
+			} else {
+				snapshot = new Grid(grid);
+			}
+		}
+		return snapshot;
+	}
+
+	private void checkError() throws IOException {
+		Throwable t = error;
+		if (t != null) {
+			if (t instanceof IOException) {
+				throw (IOException) t;
+			}
+			throw new IOException("DiagnosticsPipeline: Error in diagnostics.", t);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Running means and variances of the diagnostics output of an ensemble of simulations (events) which are calculated
+ * in the same JVM.
+ * <br>
+ * Every event registers itself for the thread which initializes its diagnostics (see {@link #beginEvent()}). Output
+ * files which are created by this thread (see {@link OutputFile#create(String, String)}) forward their records to a
+ * {@link Recorder}. The values are added to the statistics as soon as a record is complete, so the outputs of the
+ * single events do not have to be read again. Since all events use the same template, the k-th output file of every
+ * event belongs to the k-th output of the ensemble.
+ * <br>
+ * The statistics are written to a single ensemble file by {@link #write(String)}. For every output the file contains a
+ * block with the means and a block with the (sample) variances. The first column of every row is the number of events
+ * which have contributed to the row.
+ */
+public class EnsembleStatistics {
+
+	/**
+	 * Statistics of the current thread. Null if the thread does not calculate an event of an ensemble.
+	 */
+	private static final ThreadLocal<Event> currentEvent = new ThreadLocal<Event>();
+
+	private final ArrayList<Output> outputs = new ArrayList<Output>();
+
+	private int numberOfEvents = 0;
+
+	/**
+	 * Registers an event for the calling thread. All output files which are created by this thread until
+	 * {@link #endEvent()} contribute to the statistics.
+	 */
+	public void beginEvent() {
+		currentEvent.set(new Event());
+	}
+
+	/**
+	 * Ends the event of the calling thread and closes its output files.
+	 */
+	public void endEvent() throws IOException {
+		Event event = currentEvent.get();
+		currentEvent.remove();
+		if (event != null) {
+			for (OutputFile file : event.files) {
+				file.close();
+			}
+		}
+		synchronized (this) {
+			numberOfEvents++;
+		}
+	}
+
+	/**
+	 * Returns the event of the calling thread (used to tell apart the files of different events), or null if the
+	 * thread does not calculate an event of an ensemble.
+	 */
+	static Object getCurrentEvent() {
+		return currentEvent.get();
+	}
+
+	/**
+	 * Returns a recorder for an output file which is created by the calling thread, or null if the thread does not
+	 * calculate an event of an ensemble.
+	 *
+	 * @param file  Output file of the event
+	 * @return      Recorder or null
+	 */
+	static Recorder createRecorder(OutputFile file) {
+		Event event = currentEvent.get();
+		if (event == null) {
+			return null;
+		}
+		return event.createRecorder(file);
+	}
+
+	/**
+	 * Writes the current means and variances to a text file.
+	 *
+	 * @param path  Path of the ensemble file
+	 */
+	public void write(String path) throws IOException {
+		OutputFile file = OutputFile.create(path, OutputFile.TEXT);
+		Output[] currentOutputs;
+		synchronized (this) {
+			file.writeHeader("# events: " + numberOfEvents);
+			currentOutputs = outputs.toArray(new Output[outputs.size()]);
+		}
+		for (Output output : currentOutputs) {
+			output.write(file);
+		}
+		file.close();
+	}
+
+	private synchronized Output getOutput(int k, String path) {
+		while (outputs.size() <= k) {
+			outputs.add(null);
+		}
+		Output output = outputs.get(k);
+		if (output == null) {
+			output = new Output(path);
+			outputs.set(k, output);
+		}
+		return output;
+	}
+
+	/**
+	 * Output files of a single event.
+	 */
+	private class Event {
+
+		private final ArrayList<OutputFile> files = new ArrayList<OutputFile>();
+
+		private Recorder createRecorder(OutputFile file) {
+			Output output = getOutput(files.size(), file.getPath());
+			files.add(file);
+			return new Recorder(output);
+		}
+	}
+
+	/**
+	 * Collects the values of a record of an output file and adds complete records to the statistics.
+	 */
+	static class Recorder {
+
+		private final Output output;
+		private double[] values = new double[16];
+		private int numberOfValues = 0;
+		private int row = 0;
+
+		private Recorder(Output output) {
+			this.output = output;
+		}
+
+		void value(double value) {
+			if (numberOfValues == values.length) {
+				values = Arrays.copyOf(values, 2 * values.length);
+			}
+			values[numberOfValues++] = value;
+		}
+
+		void endLine() {
+			if (numberOfValues > 0) {
+				output.add(row, values, numberOfValues);
+				row++;
+			}
+			numberOfValues = 0;
+		}
+	}
+
+	/**
+	 * Running means and variances of one output (Welford's algorithm). Rows and columns may have different numbers of
+	 * contributions if the events have not finished yet or write records of different length.
+	 */
+	private static class Output {
+
+		/**
+		 * Path of the output file of the first event which has created it.
+		 */
+		private final String label;
+
+		private final ArrayList<int[]> counts = new ArrayList<int[]>();
+		private final ArrayList<double[]> means = new ArrayList<double[]>();
+		private final ArrayList<double[]> squares = new ArrayList<double[]>();
+
+		private Output(String label) {
+			this.label = label;
+		}
+
+		private synchronized void add(int row, double[] values, int numberOfValues) {
+			while (counts.size() <= row) {
+				counts.add(new int[0]);
+				means.add(new double[0]);
+				squares.add(new double[0]);
+			}
+			int[] n = counts.get(row);
+			double[] mean = means.get(row);
+			double[] m2 = squares.get(row);
+			if (n.length < numberOfValues) {
+				n = Arrays.copyOf(n, numberOfValues);
+				mean = Arrays.copyOf(mean, numberOfValues);
+				m2 = Arrays.copyOf(m2, numberOfValues);
+				counts.set(row, n);
+				means.set(row, mean);
+				squares.set(row, m2);
+			}
+			for (int c = 0; c < numberOfValues; c++) {
+				n[c]++;
+				double delta = values[c] - mean[c];
+				mean[c] += delta / n[c];
+				m2[c] += delta * (values[c] - mean[c]);
+			}
+		}
+
+		private synchronized void write(OutputFile file) throws IOException {
+			file.writeHeader("# mean: " + label);
+			for (int row = 0; row < counts.size(); row++) {
+				int[] n = counts.get(row);
+				file.writeValue(n.length > 0 ? n[0] : 0);
+				file.writeValues(means.get(row));
+				file.endLine();
+			}
+			file.writeHeader("");
+			file.writeHeader("# variance: " + label);
+			for (int row = 0; row < counts.size(); row++) {
+				int[] n = counts.get(row);
+				double[] m2 = squares.get(row);
+				file.writeValue(n.length > 0 ? n[0] : 0);
+				for (int c = 0; c < n.length; c++) {
+					file.writeValue((n[c] > 1) ? m2[c] / (n[c] - 1) : 0.0);
+				}
+				file.endLine();
+			}
+			file.writeHeader("");
+		}
+	}
+}
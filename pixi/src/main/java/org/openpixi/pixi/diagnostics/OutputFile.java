@@ -0,0 +1,544 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Long-lived, buffered output file for diagnostics.
+ * <br>
+ * Diagnostics write values with {@link #writeValue(double)} and end records with {@link #endLine()}. Depending on the
+ * format the values are written as
+ * <ul>
+ *     <li>"text": tab-separated (or any other separator) values, one record per line,</li>
+ *     <li>"gzip": the same text, but gzip compressed. ".gz" is appended to the file name,</li>
+ *     <li>"binary": raw little-endian doubles without separators. The file starts with the magic number
+ *     "PIXIBIN1", the length of the header (int) and the header lines (UTF-8) which were written by
+ *     {@link #writeHeader(String)}.</li>
+ * </ul>
+ * When a simulation is resumed from a checkpoint, the files are cut back to their positions at the time of the
+ * checkpoint and continued from there (see {@link #getPositions()} and {@link #setResumePositions(Map)}), so the
+ * records between the checkpoint and the end of the earlier run are not written twice.
+ * Files stay open for the whole run. They are flushed periodically by a background thread, at the end of a
+ * simulation (see {@link #flushAll()}) and closed when the JVM exits. Opening a file again closes the old instance.
+ * <br>
+ * Files which are created for an event of an ensemble also add their records to the {@link EnsembleStatistics}.
+ * Events which run at the same time must write to different files: opening a file which is still open in another
+ * event fails.
+ */
+public class OutputFile {
+
+	public static final String TEXT = "text";
+	public static final String GZIP = "gzip";
+	public static final String BINARY = "binary";
+
+	private static final long MAGIC = 0x5049584942494E31L;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Interval of the background flushing in milliseconds.
+	 */
+	private static final long FLUSH_INTERVAL = 1000;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Open files by absolute path.
+	 */
+	private static final Map<String, OutputFile> openFiles = new LinkedHashMap<String, OutputFile>();
+
+	private static ScheduledExecutorService flusher;
+
+	/**
+	 * Positions of the files which are continued by the calling thread (see {@link #setResumePositions(Map)}).
+	 */
+	private static final ThreadLocal<Map<String, Long>> resumePositions = new ThreadLocal<Map<String, Long>>();
+
+	private final String path;
+	private final String format;
+
+	private OutputStream out;
+	private CountingOutputStream counter;
+	private Writer writer;
+	private ByteBuffer buffer;
+
+	/**
+	 * Header lines of binary files which are written before the first value.
+	 */
+	private StringBuilder header = new StringBuilder();
+	private boolean headerWritten = false;
+
+	private String separator = "\t";
+	private boolean lineStart = true;
+	private boolean useDecimalFormat = true;
+	private DecimalFormat decimalFormat = new DecimalFormat("0.################E0");
+	private StringBuffer formatBuffer = new StringBuffer(32);
+	private FieldPosition fieldPosition = new FieldPosition(0);
+	private char[] chars = new char[32];
+
+	private boolean dirty = false;
+
+	/**
+	 * Position up to which an existing file is continued, or -1 if the file is truncated.
+	 */
+	private long resumePosition = -1;
+
+	/**
+	 * Whether the file already contained data when it was opened. Headers are not written again.
+	 */
+	private boolean continued = false;
+
+	/**
+	 * Adds the records to the ensemble statistics. Null if the file does not belong to an event of an ensemble.
+	 */
+	private EnsembleStatistics.Recorder recorder;
+
+	/**
+	 * Event of an ensemble which has created the file. Null if the file does not belong to an event.
+	 */
+	private Object event;
+
+	/**
+	 * Creates (or truncates) an output file. Directories are created if they do not exist yet. If the file cannot be
+	 * opened, an error is printed and all writes are ignored.
+	 *
+	 * @param path      Path of the file
+	 * @param format    "text", "gzip" or "binary". Null is treated as "text".
+	 * @return          Output file
+	 * @throws IllegalStateException if the file is still open in another event of an ensemble
+	 */
+	public static OutputFile create(String path, String format) {
+		if (format == null) {
+			format = TEXT;
+		}
+		if (!format.equals(TEXT) && !format.equals(GZIP) && !format.equals(BINARY)) {
+			System.out.println("OutputFile: unsupported format " + format + ". Allowed formats are "
+					+ TEXT + " " + GZIP + " " + BINARY + ". Using " + TEXT + ".");
+			format = TEXT;
+		}
+		if (format.equals(GZIP) && !path.endsWith(".gz")) {
+			path = path + ".gz";
+		}
+
+		OutputFile file = new OutputFile(path, format);
+		file.event = EnsembleStatistics.getCurrentEvent();
+		String key = new File(path).getAbsolutePath();
+		Map<String, Long> positions = resumePositions.get();
+		if (positions != null && positions.containsKey(key)) {
+			file.resumePosition = positions.get(key);
+		}
+		OutputFile previous;
+		synchronized (openFiles) {
+			previous = openFiles.get(key);
+			if (previous != null && previous.event != null && previous.event != file.event) {
+				throw new IllegalStateException("OutputFile: " + path + " is already open in another event. "
+						+ "Use %i% in the output paths of the ensemble template.");
+			}
+			openFiles.put(key, file);
+			startFlusher();
+		}
+		file.recorder = EnsembleStatistics.createRecorder(file);
+		if (previous != null) {
+			try {
+				previous.close();
+			} catch (IOException e) {
+				System.out.println("OutputFile: Error closing " + previous.path);
+			}
+		}
+		file.open();
+		return file;
+	}
+
+	/**
+	 * Selects the files which are continued instead of truncated when they are created by the calling thread. A file
+	 * is cut back to its position and continued from there. Header lines are only written to new or empty files.
+	 * Files without a position are truncated. Used when a simulation is resumed from a checkpoint.
+	 *
+	 * @param positions Positions by absolute path (see {@link #getPositions()}) or null to truncate all files
+	 */
+	public static void setResumePositions(Map<String, Long> positions) {
+		if (positions != null) {
+			resumePositions.set(positions);
+		} else {
+			resumePositions.remove();
+		}
+	}
+
+	/**
+	 * Flushes the open files of the calling thread's event (or all files which do not belong to an event) and
+	 * returns their positions, i.e. the number of uncompressed bytes which have been written.
+	 *
+	 * @return  Positions by absolute path
+	 * @throws IOException
+	 */
+	public static Map<String, Long> getPositions() throws IOException {
+		Object event = EnsembleStatistics.getCurrentEvent();
+		Map<String, Long> positions = new LinkedHashMap<String, Long>();
+		for (OutputFile file : getOpenFiles()) {
+			if (file.event == event) {
+				synchronized (file) {
+					if (file.out != null) {
+						file.dirty = true;
+						file.flush();
+						positions.put(new File(file.path).getAbsolutePath(), file.counter.count);
+					}
+				}
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Flushes all open files.
+	 */
+	public static void flushAll() {
+		for (OutputFile file : getOpenFiles()) {
+			try {
+				file.flush();
+			} catch (IOException e) {
+				System.out.println("OutputFile: Error writing to " + file.path);
+			}
+		}
+	}
+
+	private OutputFile(String path, String format) {
+		this.path = path;
+		this.format = format;
+	}
+
+	private void open() {
+		boolean append = resumePosition >= 0;
+		if (!append) {
+			FileFunctions.clearFile(path);
+		}
+		File file = FileFunctions.getFile(path);
+		try {
+			if (append) {
+				cutBack(file);
+			}
+			continued = append && resumePosition > 0;
+			headerWritten = continued;
+			OutputStream stream = new FileOutputStream(file, append);
+			if (format.equals(GZIP)) {
+				stream = new GZIPOutputStream(stream, BUFFER_SIZE, true);
+			}
+			counter = new CountingOutputStream(stream, append ? resumePosition : 0);
+			out = new BufferedOutputStream(counter, BUFFER_SIZE);
+			if (format.equals(BINARY)) {
+				buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			} else {
+				writer = new OutputStreamWriter(out, UTF8);
+			}
+		} catch (IOException e) {
+			System.out.println("OutputFile: Error opening " + path);
+			out = null;
+		}
+	}
+
+	/**
+	 * Removes everything after the resume position from an existing file. Gzip files are decompressed up to the
+	 * position and compressed again, since the compressed stream cannot be cut at an arbitrary position.
+	 */
+	private void cutBack(File file) throws IOException {
+		if (!format.equals(GZIP)) {
+			if (file.length() < resumePosition) {
+				throw new IOException("OutputFile: " + path + " is shorter than at the checkpoint.");
+			}
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(resumePosition);
+			} finally {
+				raf.close();
+			}
+			return;
+		}
+
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		// The earlier run may have ended without the gzip trailer, so only the needed bytes are read.
+		InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+		try {
+			OutputStream copy = new GZIPOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE);
+			try {
+				byte[] bytes = new byte[BUFFER_SIZE];
+				long remaining = resumePosition;
+				while (remaining > 0) {
+					int length = in.read(bytes, 0, (int) Math.min(bytes.length, remaining));
+					if (length < 0) {
+						throw new IOException("OutputFile: " + path + " is shorter than at the checkpoint.");
+					}
+					copy.write(bytes, 0, length);
+					remaining -= length;
+				}
+			} finally {
+				copy.close();
+			}
+		} finally {
+			in.close();
+		}
+		if (!file.delete() || !temporaryFile.renameTo(file)) {
+			throw new IOException("OutputFile: could not replace " + path);
+		}
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public boolean isBinary() {
+		return format.equals(BINARY);
+	}
+
+	/**
+	 * Sets the separator between values of text files. The default is a tab.
+	 */
+	public synchronized void setSeparator(String separator) {
+		this.separator = separator;
+	}
+
+	/**
+	 * Chooses between the scientific format "0.################E0" (default) and {@link Double#toString(double)} for
+	 * values in text files.
+	 */
+	public synchronized void useDecimalFormat(boolean useDecimalFormat) {
+		this.useDecimalFormat = useDecimalFormat;
+	}
+
+	/**
+	 * Writes a header line. In binary files the header lines are collected and written before the first value.
+	 */
+	public synchronized void writeHeader(String line) throws IOException {
+		if (out == null || continued) {
+			return;
+		}
+		if (isBinary()) {
+			if (headerWritten) {
+				System.out.println("OutputFile: header of " + path + " has already been written.");
+				return;
+			}
+			header.append(line).append('\n');
+		} else {
+			writer.write(line);
+			writer.write('\n');
+			lineStart = true;
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Writes free text. Only supported by text files, binary files ignore the text.
+	 */
+	public synchronized void writeText(String text) throws IOException {
+		if (out == null || isBinary()) {
+			return;
+		}
+		writer.write(text);
+		dirty = true;
+	}
+
+	/**
+	 * Writes a single value.
+	 */
+	public synchronized void writeValue(double value) throws IOException {
+		if (recorder != null) {
+			recorder.value(value);
+		}
+		if (out == null) {
+			return;
+		}
+		if (isBinary()) {
+			writeBinaryHeader();
+			if (buffer.remaining() < 8) {
+				drainBuffer();
+			}
+			buffer.putDouble(value);
+		} else {
+			if (!lineStart) {
+				writer.write(separator);
+			}
+			if (useDecimalFormat) {
+				formatBuffer.setLength(0);
+				decimalFormat.format(value, formatBuffer, fieldPosition);
+				int length = formatBuffer.length();
+				if (chars.length < length) {
+					chars = new char[length];
+				}
+				formatBuffer.getChars(0, length, chars, 0);
+				writer.write(chars, 0, length);
+			} else {
+				writer.write(Double.toString(value));
+			}
+			lineStart = false;
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Writes an array of values.
+	 */
+	public synchronized void writeValues(double[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			writeValue(values[i]);
+		}
+	}
+
+	/**
+	 * Ends a record. Text files start a new line.
+	 */
+	public synchronized void endLine() throws IOException {
+		if (recorder != null) {
+			recorder.endLine();
+		}
+		if (out == null) {
+			return;
+		}
+		if (!isBinary()) {
+			writer.write('\n');
+			dirty = true;
+		}
+		lineStart = true;
+	}
+
+	/**
+	 * Writes all buffered data to the file.
+	 */
+	public synchronized void flush() throws IOException {
+		if (out == null || !dirty) {
+			return;
+		}
+		if (isBinary()) {
+			writeBinaryHeader();
+			drainBuffer();
+		} else {
+			writer.flush();
+		}
+		out.flush();
+		dirty = false;
+	}
+
+	/**
+	 * Flushes and closes the file.
+	 */
+	public synchronized void close() throws IOException {
+		if (out == null) {
+			return;
+		}
+		dirty = true;
+		flush();
+		out.close();
+		out = null;
+		synchronized (openFiles) {
+			String key = new File(path).getAbsolutePath();
+			if (openFiles.get(key) == this) {
+				openFiles.remove(key);
+			}
+		}
+	}
+
+	private void writeBinaryHeader() throws IOException {
+		if (!headerWritten) {
+			byte[] bytes = header.toString().getBytes(UTF8);
+			// The magic number is written big-endian, so the file starts with the characters "PIXIBIN1".
+			ByteBuffer start = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+			start.putLong(MAGIC);
+			start.order(ByteOrder.LITTLE_ENDIAN);
+			start.putInt(bytes.length);
+			out.write(start.array());
+			out.write(bytes);
+			headerWritten = true;
+		}
+	}
+
+	private void drainBuffer() throws IOException {
+		out.write(buffer.array(), 0, buffer.position());
+		buffer.clear();
+	}
+
+	/**
+	 * Counts the (uncompressed) bytes which are written to a file.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out, long count) {
+			super(out);
+			this.count = count;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	private static ArrayList<OutputFile> getOpenFiles() {
+		synchronized (openFiles) {
+			return new ArrayList<OutputFile>(openFiles.values());
+		}
+	}
+
+	/**
+	 * Starts the background flushing and registers a shutdown hook which closes all files. Called with the lock on
+	 * openFiles.
+	 */
+	private static void startFlusher() {
+		if (flusher != null) {
+			return;
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "OutputFile");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		flusher.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				flushAll();
+			}
+		}, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				for (OutputFile file : getOpenFiles()) {
+					try {
+						file.close();
+					} catch (IOException e) {
+						System.out.println("OutputFile: Error closing " + file.path);
+					}
+				}
+			}
+		});
+	}
+}
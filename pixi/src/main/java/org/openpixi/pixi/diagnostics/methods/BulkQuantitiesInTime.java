@@ -1,25 +1,23 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.io.IOException;
-import java.util.Locale;
 
-import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.AsynchronousDiagnostics;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.measurements.FieldMeasurements;
 
-public class BulkQuantitiesInTime implements Diagnostics {
+public class BulkQuantitiesInTime implements AsynchronousDiagnostics {
 
 	private String path;
 	private double timeInterval;
 	private int stepInterval;
 	private boolean supressOutput;
+	private String format = OutputFile.TEXT;
+	private OutputFile file;
 	private Simulation s;
 	private FieldMeasurements fieldMeasurements;
 
@@ -42,6 +40,13 @@ public class BulkQuantitiesInTime implements Diagnostics {
 		this.supressOutput = supressOutput;
 	}
 
+	/**
+	 * Sets the format of the output file ("text", "gzip" or "binary").
+	 */
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
 	/**
 	 * Initializes the BulkQuantitiesInTime object.
 	 * It sets the step interval and creates/deletes the output file.
@@ -56,21 +61,25 @@ public class BulkQuantitiesInTime implements Diagnostics {
 
 		if(!supressOutput) {
 			// Create/delete file.
-			FileFunctions.clearFile("output/" + path);
+			file = OutputFile.create("output/" + path, format);
 
 			// Write first line.
-			File file = FileFunctions.getFile("output/" + path);
 			try {
-				FileWriter pw = new FileWriter(file, true);
-				pw.write("#time \t E^2 \t B^2 \t P_x \t P_y \t P_z \t G");
-				pw.write("\n");
-				pw.close();
+				file.writeHeader("#time \t E^2 \t B^2 \t P_x \t P_y \t P_z \t G");
 			} catch (IOException ex) {
 				System.out.println("BulkQuantitiesInTime Error: Could not write to file '" + path + "'.");
 			}
 		}
 	}
 
+	public int getRequiredFields() {
+		return Grid.FIELD_U | Grid.FIELD_UNEXT | Grid.FIELD_E | Grid.FIELD_RHO;
+	}
+
+	public boolean isDue(int steps) {
+		return steps % stepInterval == 0;
+	}
+
 	/**
 	 * Computes the average of the diagonal components of the stress-energy tensor over the lattice and writes them to the output file.
 	 *
@@ -98,20 +107,14 @@ public class BulkQuantitiesInTime implements Diagnostics {
 			gaussViolation = fieldMeasurements.calculateGaussConstraint(grid);
 
 			if(!supressOutput) {
-				File file = FileFunctions.getFile("output/" + path);
-				FileWriter pw = new FileWriter(file, true);
-				DecimalFormat formatter = new DecimalFormat("0.################E0");
-
-				pw.write(formatter.format(steps * s.getTimeStep()) + "\t");
-				pw.write(formatter.format(eSquared)+ "\t");
-				pw.write(formatter.format(bSquared) + "\t");
-				pw.write(formatter.format(px) + "\t");
-				pw.write(formatter.format(py) + "\t");
-				pw.write(formatter.format(pz) + "\t");
-				pw.write(formatter.format(gaussViolation));
-				pw.write("\n");
-
-				pw.close();
+				file.writeValue(steps * s.getTimeStep());
+				file.writeValue(eSquared);
+				file.writeValue(bSquared);
+				file.writeValue(px);
+				file.writeValue(py);
+				file.writeValue(pz);
+				file.writeValue(gaussViolation);
+				file.endLine();
 			}
 			
 		}
@@ -0,0 +1,118 @@
+package org.openpixi.pixi.diagnostics.methods;
+
+import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.util.Checkpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Writes checkpoints of the simulation state from which the simulation can be restarted (see
+ * {@link org.openpixi.pixi.physics.Settings#setRestartFile(String)}).
+ * <br>
+ * The state is copied into memory during the step and the file is written by a background thread, so the
+ * simulation only waits if the previous checkpoint has not been written yet. The checkpoint file is overwritten
+ * every time, but is replaced only after the new checkpoint has been written completely. Errors of the background
+ * thread are reported by the next checkpoint or at the end of the simulation.
+ * <br>
+ * The checkpoint records the positions of the output files, so the writer has to be added after all other
+ * diagnostics which write output at the same step.
+ */
+public class CheckpointWriter implements Diagnostics {
+
+	private String path;
+	private double timeInterval;
+	private int stepInterval;
+	private Simulation simulation;
+
+	private Checkpoint checkpoint = new Checkpoint();
+	private ExecutorService writer;
+	private Future<?> pendingWrite;
+
+	public CheckpointWriter(String path, double timeInterval) {
+		this.path = path;
+		this.timeInterval = timeInterval;
+	}
+
+	/**
+	 * Initializes the CheckpointWriter object.
+	 * It sets the step interval and starts the background thread.
+	 *
+	 * @param simulation    Instance of the simulation object
+	 */
+	public void initialize(Simulation simulation) {
+		this.simulation = simulation;
+		this.stepInterval = Math.max((int) (timeInterval / simulation.getTimeStep()), 1);
+
+		// Create the output directory.
+		FileFunctions.getFile("output/" + path);
+
+		writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "CheckpointWriter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Takes a snapshot of the simulation and writes it in the background. At the end of the simulation the method
+	 * waits until the last checkpoint has been written.
+	 *
+	 * @param grid		Reference to the Grid instance.
+	 * @param particles	Reference to the list of particles.
+	 * @param steps		Total simulation steps so far.
+	 * @throws IOException
+	 */
+	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
+		boolean lastStep = steps >= simulation.getIterations();
+		if (steps % stepInterval == 0 || lastStep) {
+			// The snapshot is reused, so the previous checkpoint has to be written before taking the next one.
+			waitForPendingWrite();
+			// The output of the asynchronous diagnostics has to be written before the file positions are recorded.
+			simulation.flushDiagnostics();
+			checkpoint.capture(simulation);
+			final File file = new File("output/" + path);
+			pendingWrite = writer.submit(new Callable<Void>() {
+				public Void call() throws IOException {
+					checkpoint.write(file);
+					return null;
+				}
+			});
+			if (lastStep) {
+				try {
+					waitForPendingWrite();
+				} finally {
+					writer.shutdown();
+				}
+			}
+		}
+	}
+
+	private void waitForPendingWrite() throws IOException {
+		if (pendingWrite != null) {
+			Future<?> write = pendingWrite;
+			pendingWrite = null;
+			try {
+				write.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("CheckpointWriter: interrupted while writing checkpoint.");
+			} catch (ExecutionException e) {
+				throw new IOException("CheckpointWriter: Error writing checkpoint " + path + ".", e.getCause());
+			}
+		}
+	}
+}
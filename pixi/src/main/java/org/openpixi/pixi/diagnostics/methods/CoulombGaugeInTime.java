@@ -19,6 +19,11 @@ public class CoulombGaugeInTime implements Diagnostics {
 	private double timeOffset;
 	private int stepOffset;
 
+	/**
+	 * Coulomb gauge transformation which is reused at every measurement.
+	 */
+	private CoulombGauge coulombGauge;
+
 	public CoulombGaugeInTime(double timeInterval, double timeOffset) {
 		this.timeInterval = timeInterval;
 		this.timeOffset = timeOffset;
@@ -28,13 +33,16 @@ public class CoulombGaugeInTime implements Diagnostics {
 	public void initialize(Simulation s) {
 		this.stepInterval = (int) (timeInterval / s.getTimeStep());
 		this.stepOffset = (int) (timeOffset / s.getTimeStep());
+		this.coulombGauge = null;
 	}
 
 	@Override
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps)
 			throws IOException {
 		if ((steps - stepOffset) % stepInterval == 0) {
-			CoulombGauge coulombGauge = new CoulombGauge(grid);
+			if (coulombGauge == null) {
+				coulombGauge = new CoulombGauge(grid);
+			}
 			coulombGauge.applyGaugeTransformation(grid);
 		}
 	}
@@ -1,7 +1,7 @@
 package org.openpixi.pixi.diagnostics.methods;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
@@ -9,10 +9,7 @@ import org.openpixi.pixi.physics.measurements.FieldMeasurements;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 
 public class DipoleInitialBinned implements Diagnostics {
@@ -20,6 +17,7 @@ public class DipoleInitialBinned implements Diagnostics {
 	private String path;
 	private int direction, orientation;
 	private boolean supressOutput;
+	private OutputFile file;
 	private Simulation s;
 	private FieldMeasurements fieldMeasurements;
 
@@ -47,15 +45,11 @@ public class DipoleInitialBinned implements Diagnostics {
 
 		if(!supressOutput) {
 			// Create/delete file.
-			FileFunctions.clearFile("output/" + path);
+			file = OutputFile.create("output/" + path, OutputFile.TEXT);
 
 			// Write first line.
-			File file = FileFunctions.getFile("output/" + path);
 			try {
-				FileWriter pw = new FileWriter(file, true);
-				pw.write("#|x - y| \t tr[V_x V_y^dagger]");
-				pw.write("\n");
-				pw.close();
+				file.writeHeader("#|x - y| \t tr[V_x V_y^dagger]");
 			} catch (IOException ex) {
 				System.out.println("DipoleInitialBinned Error: Could not write to file '" + path + "'.");
 			}
@@ -158,19 +152,13 @@ public class DipoleInitialBinned implements Diagnostics {
 		}
 
 		if(!supressOutput) {
-			File file = FileFunctions.getFile("output/" + path);
-			FileWriter pw = new FileWriter(file, true);
-			DecimalFormat formatter = new DecimalFormat("0.################E0");
-
 			for (int i = 0; i < numBins; i++) {
 				if(counter[i] != 0) {
-					pw.write(formatter.format(i*binWidth*as)+ "\t");
-					pw.write(formatter.format(dipoleTraces[i]));
-					pw.write("\n");
+					file.writeValue(i*binWidth*as);
+					file.writeValue(dipoleTraces[i]);
+					file.endLine();
 				}
 			}
-
-			pw.close();
 		}
 
 	}
@@ -3,6 +3,9 @@ package org.openpixi.pixi.diagnostics.methods;
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellReducer;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -13,6 +16,11 @@ import java.util.ArrayList;
 /**
  * This diagnostic implements an algorithm to restore the Gauss constraint and only works for temporal gauge.
  * It is taken from arXiv:hep-ph/9603384.
+ * <br>
+ * The violation and the electric fields before the last correction are kept in buffers which are allocated once,
+ * and all loops over the grid are executed by the cell iterator of the grid. A correction only changes the electric
+ * fields (and the links at t+dt which follow from them), so a failed iteration is undone by restoring the electric
+ * fields and recalculating the links.
  */
 public class GaussConstraintRestoration implements Diagnostics {
 
@@ -27,11 +35,22 @@ public class GaussConstraintRestoration implements Diagnostics {
 	private boolean alreadyApplied;
 
 
+	/**
+	 * Gauss violation at every lattice site. The factor 1/(dt*a) is not included.
+	 */
 	private GroupElement[] gaussViolation;
 	private double totalGaussViolation;
 	private double oldTotalGaussViolation;
 
-	private Grid oldGrid;
+	/**
+	 * Electric fields before the last correction. The components of the field in direction j at lattice index i
+	 * start at (i * numberOfDimensions + j) * adjointDimension.
+	 */
+	private double[] oldElectricFields;
+
+	private final ComputeViolation computeViolation = new ComputeViolation();
+	private final ApplyCorrection applyCorrection = new ApplyCorrection();
+	private final RestoreElectricFields restoreElectricFields = new RestoreElectricFields();
 
 	/**
 	 * Creates an instance of the diagnostic.
@@ -87,9 +106,6 @@ public class GaussConstraintRestoration implements Diagnostics {
 				break;
 			}
 
-			// Create backup of the grid.
-			backupGrid(grid);
-
 			applyCorrection(grid, gamma);
 			computeGaussViolation(grid);
 			double x = oldTotalGaussViolation - totalGaussViolation;
@@ -115,66 +131,124 @@ public class GaussConstraintRestoration implements Diagnostics {
 	 * @param grid  reference to the grid
 	 */
 	public void computeGaussViolation(Grid grid) {
-		// Compute Gauss violation at every point and save it to an array.
-		int numberOfCells = grid.getTotalNumberOfCells();
-		double dt = grid.getTemporalSpacing();
-		double a = grid.getLatticeSpacing();
-		double factor = 1.0 / (dt * a);
-		GroupElement zero = grid.getU(0,0).mult(0.0); // hack to get a zero matrix.
-		gaussViolation = new GroupElement[numberOfCells];
-		totalGaussViolation = 0.0;
-		for(int i = 0; i < numberOfCells; i++) {
-			GroupElement C = zero.copy();
-			for(int j = 0; j < grid.getNumberOfDimensions(); j++) {
-				int k = grid.shift(i, j, -1);
-				GroupElement C1 = grid.getUnext(i, j).mult(grid.getU(i, j).adj());
-				GroupElement C2 = grid.getU(k, j).adj().mult(grid.getUnext(k, j));
-				C = C.add(C1.sub(C2));
-			}
-
-			gaussViolation[i] = C.mult(factor);
-			totalGaussViolation += gaussViolation[i].proj().sub(grid.getRho(i)).square();
-		}
-		totalGaussViolation /= numberOfCells;
+		allocateBuffers(grid);
+		computeViolation.factor = 1.0 / (grid.getTemporalSpacing() * grid.getLatticeSpacing());
+		totalGaussViolation = grid.getCellIterator().reduce(grid, computeViolation);
+		totalGaussViolation /= grid.getTotalNumberOfCells();
 	}
 
 	/**
-	 * Applies the correction according to the violation computed with computeGaussViolation().
+	 * Applies the correction according to the violation computed with computeGaussViolation(). The electric fields
+	 * before the correction are stored, so the correction can be undone by restoreGrid().
 	 * @param grid      reference to the grid
 	 * @param gamma     parameter controlling the convergence
 	 */
 	public void applyCorrection(Grid grid, double gamma) {
-		int numberOfCells = grid.getTotalNumberOfCells();
-
 		// Apply correction to electric fields
-		double factor2 = - 0.5 * grid.getLatticeSpacing() * gamma;
-		for(int i = 0; i < numberOfCells; i++) {
-			for(int j = 0; j < grid.getNumberOfDimensions(); j++) {
-				AlgebraElement E = grid.getE(i, j);
-				int k = grid.shift(i, j, 1);
-				GroupElement C1 = grid.getU(i, j).mult(gaussViolation[k]).mult(grid.getU(i, j).adj());
-				GroupElement C2 = gaussViolation[i];
-				grid.setE(i, j, E.add(C1.sub(C2).proj().mult(factor2)));
-			}
-		}
+		double factor = 1.0 / (grid.getTemporalSpacing() * grid.getLatticeSpacing());
+		applyCorrection.factor = - 0.5 * grid.getLatticeSpacing() * gamma * factor;
+		grid.getCellIterator().execute(grid, applyCorrection);
 
 		// Since the electric fields have changed, the Unext links have to be recalculated.
 		grid.updateLinks(grid.getTemporalSpacing());
 	}
 
 	/**
-	 * Creates a backup of the grid.
+	 * Undoes the last correction.
 	 * @param grid  reference to the grid
 	 */
-	public void backupGrid(Grid grid) {
-		oldGrid = new Grid(grid);
+	public void restoreGrid(Grid grid) {
+		grid.getCellIterator().execute(grid, restoreElectricFields);
+		grid.updateLinks(grid.getTemporalSpacing());
 	}
 
-	/**
-	 * Restores the backup of the grid.
-	 * @param grid  reference to the grid
-	 */
-	public void restoreGrid(Grid grid) {
-		grid.copyValuesFrom(oldGrid);
+	private void allocateBuffers(Grid grid) {
+		int numberOfCells = grid.getTotalNumberOfCells();
+		int numberOfComponents = grid.getNumberOfDimensions() * grid.getElementFactory().algebraZero().getAdjointDimension();
+		if (gaussViolation == null || gaussViolation.length != numberOfCells
+				|| gaussViolation[0].getNumberOfColors() != grid.getNumberOfColors()) {
+			gaussViolation = new GroupElement[numberOfCells];
+			for (int i = 0; i < numberOfCells; i++) {
+				gaussViolation[i] = grid.getElementFactory().groupZero();
+			}
+		}
+		if (oldElectricFields == null || oldElectricFields.length != numberOfCells * numberOfComponents) {
+			oldElectricFields = new double[numberOfCells * numberOfComponents];
+		}
+	}
+
+	private class ComputeViolation implements CellReducer {
+
+		private double factor;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 1);
+
+		public double reduce(Grid grid, int index) {
+			ScratchElements s = scratch.get(grid.getElementFactory());
+			GroupElement temp = s.group[0];
+			AlgebraElement violation = s.algebra[0];
+			GroupElement C = gaussViolation[index];
+			C.reset();
+			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
+				int k = grid.shift(index, j, -1);
+				grid.getUnext(index, j).multAdjInto(grid.getU(index, j), temp);
+				C.addAssign(temp);
+				grid.getU(k, j).adjMultInto(grid.getUnext(k, j), temp);
+				C.subAssign(temp);
+			}
+
+			C.projInto(violation);
+			violation.multAssign(factor);
+			violation.addAssign(grid.getRho(index), -1.0);
+			return violation.square();
+		}
+	}
+
+	private class ApplyCorrection implements CellAction {
+
+		private double factor;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(2, 1);
+
+		public void execute(Grid grid, int index) {
+			ScratchElements s = scratch.get(grid.getElementFactory());
+			GroupElement temp = s.group[0];
+			GroupElement C = s.group[1];
+			AlgebraElement correction = s.algebra[0];
+			int numberOfDimensions = grid.getNumberOfDimensions();
+			int numberOfComponents = correction.getAdjointDimension();
+			for (int j = 0; j < numberOfDimensions; j++) {
+				AlgebraElement E = grid.getE(index, j);
+				int offset = (index * numberOfDimensions + j) * numberOfComponents;
+				for (int c = 0; c < numberOfComponents; c++) {
+					oldElectricFields[offset + c] = E.get(c);
+				}
+
+				int k = grid.shift(index, j, 1);
+				GroupElement U = grid.getU(index, j);
+				U.multInto(gaussViolation[k], temp);
+				temp.multAdjInto(U, C);
+				C.subAssign(gaussViolation[index]);
+				C.projInto(correction);
+				correction.multAssign(factor);
+				grid.addE(index, j, correction);
+			}
+		}
+	}
+
+	private class RestoreElectricFields implements CellAction {
+
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(0, 1);
+
+		public void execute(Grid grid, int index) {
+			AlgebraElement E = scratch.get(grid.getElementFactory()).algebra[0];
+			int numberOfDimensions = grid.getNumberOfDimensions();
+			int numberOfComponents = E.getAdjointDimension();
+			for (int j = 0; j < numberOfDimensions; j++) {
+				int offset = (index * numberOfDimensions + j) * numberOfComponents;
+				for (int c = 0; c < numberOfComponents; c++) {
+					E.set(c, oldElectricFields[offset + c]);
+				}
+				grid.setE(index, j, E);
+			}
+		}
 	}
 }
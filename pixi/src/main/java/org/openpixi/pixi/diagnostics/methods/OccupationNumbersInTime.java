@@ -1,27 +1,44 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.AsynchronousDiagnostics;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
+import org.openpixi.pixi.parallel.cellaccess.CellReducer;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.CoulombGauge;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 
-public class OccupationNumbersInTime implements Diagnostics {
+/**
+ * Occupation numbers of the gauge fields in Coulomb gauge.
+ * <br>
+ * The electric field and the (time averaged) gauge field are real, so every pair of their color components is
+ * transformed with a single complex FFT of E + iA. The spectra of E and A are separated with the symmetry
+ * F(-k) = F(k)* of real fields. The FFTs of the components run as independent tasks on the threads of the cell
+ * iterator. The gauge fixed copy of the grid, the FFT arrays and the tables of the momenta and of the dispersion
+ * relation are allocated once in {@link #initialize(Simulation)} and reused at every measurement.
+ * <br>
+ * In the mirrored mode the grid is doubled in the mirrored direction before the transformation. The spectrum and the
+ * momenta (see csv_with_vectors and the binned output types) belong to the doubled grid, i.e. the momenta in the
+ * mirrored direction are multiples of 2 Pi / (2 L). Earlier versions computed the momenta from the cell positions of
+ * the original grid, which assigned wrong momenta to the modes of the doubled grid.
+ */
+public class OccupationNumbersInTime implements AsynchronousDiagnostics {
 
 	private Simulation s;
 	public double timeInterval;
 	private int stepInterval;
 	private String outputType;
 	private String outputFileName;
+	private String format = OutputFile.TEXT;
+	private OutputFile file;
 	private boolean colorful;
 
 	/*
@@ -30,10 +47,59 @@ public class OccupationNumbersInTime implements Diagnostics {
 	private static final String OUTPUT_CSV = "csv";
 	private static final String OUTPUT_CSV_WITH_VECTORS = "csv_with_vectors";
 	private static final String OUTPUT_CSV_ONLY_ENERGY = "csv_only_energy";
+	private static final String OUTPUT_CSV_RADIAL = "csv_radial";
+	private static final String OUTPUT_CSV_TRANSVERSE_LONGITUDINAL = "csv_transverse_longitudinal";
+	private static final String OUTPUT_CSV_COLOR_SUMS = "csv_color_sums";
 	private static final String OUTPUT_NONE = "none";
-	private String[] supportedOutputTypes = {OUTPUT_CSV, OUTPUT_CSV_ONLY_ENERGY,OUTPUT_CSV_WITH_VECTORS, OUTPUT_NONE};
+	private String[] supportedOutputTypes = {OUTPUT_CSV, OUTPUT_CSV_ONLY_ENERGY,OUTPUT_CSV_WITH_VECTORS,
+			OUTPUT_CSV_RADIAL, OUTPUT_CSV_TRANSVERSE_LONGITUDINAL, OUTPUT_CSV_COLOR_SUMS, OUTPUT_NONE};
 
 	private DoubleFFTWrapper fft;
+	private int[] fftNumCells;
+
+	/**
+	 * Copy of the grid which is transformed to Coulomb gauge.
+	 */
+	private Grid gaugedGrid;
+
+	/**
+	 * Coulomb gauge transformation which is reused at every measurement.
+	 */
+	private CoulombGauge coulombGauge;
+
+	/**
+	 * E + iA for every direction and color component (index direction * numberOfComponents + component).
+	 */
+	private double[][] fftData;
+
+	/**
+	 * Momentum vector, lattice dispersion relation and index of the opposite momentum for every lattice index in the
+	 * spectrum.
+	 */
+	private double[][] momentumVectors;
+	private double[] dispersion;
+	private int[] oppositeMomentumIndex;
+
+	private FillFFTData fillFFTData = new FillFFTData();
+	private CalculateOccupationNumbers calculateOccupationNumbers = new CalculateOccupationNumbers();
+
+	/**
+	 * Bin edges of |k| (or of the transverse momentum |k_T|) and of the longitudinal momentum |k_L| for the binned
+	 * output types. If no edges are set, numberOfBins equally sized bins up to the largest momentum on the lattice are
+	 * used.
+	 */
+	private double[] binEdges;
+	private double[] longitudinalBinEdges;
+	private int numberOfBins = 32;
+	private int longitudinalDirection = 0;
+
+	/**
+	 * Bin of every lattice index in the spectrum (-1 if it is outside of all bins) and number of modes in every bin.
+	 */
+	private int[] binIndex;
+	private int[] modesPerBin;
+	private double[][] binnedOccupationNumbers;
+
 	public double[][] occupationNumbers;
 	public double	energyDensity;
 
@@ -45,7 +111,6 @@ public class OccupationNumbersInTime implements Diagnostics {
 	private int mirroredDirection;
 
 	private String separator = ", ";
-	private String linebreak = "\n";
 
 	/**
 	 * Constructor for the occupation numbers diagnostic.
@@ -62,11 +127,6 @@ public class OccupationNumbersInTime implements Diagnostics {
 		this.outputFileName = filename;
 		this.colorful = colorful;
 
-
-		if(!outputType.equals(OUTPUT_NONE)) {
-			FileFunctions.clearFile("output/" + outputFileName);
-		}
-
 		if (!Arrays.asList(supportedOutputTypes).contains(outputType)) {
 			System.out.print("OccupationNumbersInTime: unsupported output type. Allowed types are ");
 			for(String t : supportedOutputTypes) {
@@ -76,6 +136,15 @@ public class OccupationNumbersInTime implements Diagnostics {
 		}
 	}
 
+	/**
+	 * Constructor for the occupation numbers diagnostic of the grid which is mirrored in one direction.
+	 *
+	 * @param timeInterval		simulation time between measurements
+	 * @param outputType		type of output (e.g. csv files)
+	 * @param filename			filename for output
+	 * @param colorful			true/false if output should distinguish between color components or sum over them.
+	 * @param mirroredDirection	direction in which the grid is doubled before the transformation
+	 */
 	public OccupationNumbersInTime(double timeInterval, String outputType, String filename, boolean colorful, int mirroredDirection) {
 		this(timeInterval, outputType, filename, colorful);
 
@@ -83,7 +152,63 @@ public class OccupationNumbersInTime implements Diagnostics {
 		this.mirroredDirection = mirroredDirection;
 	}
 
+	/**
+	 * Sets the format of the output file ("text", "gzip" or "binary").
+	 */
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
+	/**
+	 * Sets the bin edges of |k| (csv_radial) or of the transverse momentum |k_T| (csv_transverse_longitudinal).
+	 * Modes outside of the first and the last edge are ignored.
+	 *
+	 * @throws RuntimeException if there are less than two edges or the edges are not strictly ascending
+	 */
+	public void setBinEdges(double[] binEdges) {
+		checkBinEdges(binEdges);
+		this.binEdges = binEdges;
+	}
+
+	/**
+	 * Sets the bin edges of the longitudinal momentum |k_L| (csv_transverse_longitudinal).
+	 *
+	 * @throws RuntimeException if there are less than two edges or the edges are not strictly ascending
+	 */
+	public void setLongitudinalBinEdges(double[] longitudinalBinEdges) {
+		checkBinEdges(longitudinalBinEdges);
+		this.longitudinalBinEdges = longitudinalBinEdges;
+	}
+
+	private static void checkBinEdges(double[] edges) {
+		if (edges.length < 2) {
+			throw new RuntimeException("OccupationNumbersInTime: At least two bin edges are required.");
+		}
+		for (int b = 1; b < edges.length; b++) {
+			if (!(edges[b] > edges[b - 1])) {
+				throw new RuntimeException("OccupationNumbersInTime: The bin edges " + Arrays.toString(edges)
+						+ " are not strictly ascending.");
+			}
+		}
+	}
+
+	/**
+	 * Sets the number of equally sized bins which are used if no bin edges are set.
+	 */
+	public void setNumberOfBins(int numberOfBins) {
+		this.numberOfBins = numberOfBins;
+	}
+
+	/**
+	 * Sets the longitudinal direction of csv_transverse_longitudinal.
+	 */
+	public void setLongitudinalDirection(int longitudinalDirection) {
+		this.longitudinalDirection = longitudinalDirection;
+	}
+
 	public void initialize(Simulation s) {
+		this.gaugedGrid = null;
+		this.coulombGauge = null;
 		this.s = s;
 		this.stepInterval = (int) (this.timeInterval / s.getTimeStep());
 		this.numberOfComponents = s.getNumberOfColors() * s.getNumberOfColors() - 1;
@@ -96,32 +221,58 @@ public class OccupationNumbersInTime implements Diagnostics {
 			}
 		}
 
+		fftNumCells = s.grid.getNumCells().clone();
 		if(useMirroredGrid) {
-			int[] numCells = s.grid.getNumCells().clone();
-			numCells[mirroredDirection] *= 2;
-			this.fft = new DoubleFFTWrapper(numCells);
-			occupationNumbers = new double[2 * s.grid.getTotalNumberOfCells()][numberOfComponents];
+			fftNumCells[mirroredDirection] *= 2;
 			simulationBoxVolume *= 2;
-		} else {
-			this.fft = new DoubleFFTWrapper(s.grid.getNumCells());
-			occupationNumbers = new double[s.grid.getTotalNumberOfCells()][numberOfComponents];
 		}
-
-
-
+		this.fft = new DoubleFFTWrapper(fftNumCells);
+		int numberOfMomenta = fft.getFFTArraySize() / 2;
+		occupationNumbers = new double[numberOfMomenta][numberOfComponents];
+		fftData = new double[s.getNumberOfDimensions() * numberOfComponents][fft.getFFTArraySize()];
+
+		// Tabulate momenta and dispersion relation
+		momentumVectors = new double[numberOfMomenta][];
+		dispersion = new double[numberOfMomenta];
+		oppositeMomentumIndex = new int[numberOfMomenta];
+		for (int i = 0; i < numberOfMomenta; i++) {
+			int[] coordinate = getMomentumCoordinate(i);
+			momentumVectors[i] = computeMomentumVectorFromLatticeIndex(coordinate);
+			dispersion[i] = Math.sqrt(computeDispersionRelationSquared(momentumVectors[i]));
+			for (int j = 0; j < coordinate.length; j++) {
+				coordinate[j] = (fftNumCells[j] - coordinate[j]) % fftNumCells[j];
+			}
+			oppositeMomentumIndex[i] = getMomentumIndex(coordinate);
+		}
 
 		// Write header
 		if(!outputType.equals(OUTPUT_NONE)) {
-			this.writeHeader(outputFileName);
+			file = OutputFile.create("output/" + outputFileName, format);
+			file.setSeparator(separator);
+			file.useDecimalFormat(false);
+			this.writeHeader();
 		}
 
 		// Include lattice momentum vectors (optional)
 		if(outputType.equals(OUTPUT_CSV_WITH_VECTORS)) {
-			this.writeMomentumVectors(outputFileName);
+			this.writeMomentumVectors();
+		}
+
+		// Assign the momenta to bins
+		if(outputType.equals(OUTPUT_CSV_RADIAL) || outputType.equals(OUTPUT_CSV_TRANSVERSE_LONGITUDINAL)) {
+			this.initializeBins(outputType.equals(OUTPUT_CSV_TRANSVERSE_LONGITUDINAL));
 		}
 
 	}
 
+	public int getRequiredFields() {
+		return Grid.FIELD_U | Grid.FIELD_UNEXT | Grid.FIELD_E;
+	}
+
+	public boolean isDue(int steps) {
+		return steps % stepInterval == 0;
+	}
+
 	/**
 	 * Computes the occupation numbers in momentum space and field energy from the occupation numbers.
 	 *
@@ -132,78 +283,36 @@ public class OccupationNumbersInTime implements Diagnostics {
 	public void calculate(Grid grid_reference, ArrayList<IParticle> particles, int steps) {
 		if (steps % stepInterval == 0) {
 			// Apply Coulomb gauge.
-			Grid grid;
-			if(useMirroredGrid) {
-				grid = new MirroredGrid(grid_reference, mirroredDirection);
+			if (gaugedGrid == null) {
+				if(useMirroredGrid) {
+					gaugedGrid = new MirroredGrid(grid_reference, mirroredDirection);
+				} else {
+					gaugedGrid = new Grid(grid_reference);	// Copy grid.
+				}
+				coulombGauge = new CoulombGauge(gaugedGrid);
+			} else if(useMirroredGrid) {
+				((MirroredGrid) gaugedGrid).mirrorFrom(grid_reference);
 			} else {
-				grid = new Grid(grid_reference);	// Copy grid.
+				gaugedGrid.copyValuesFrom(grid_reference, getRequiredFields());
 			}
-			CoulombGauge coulombGauge = new CoulombGauge(grid);
+			Grid grid = gaugedGrid;
 			coulombGauge.applyGaugeTransformation(grid);
 
-
 			// Fill arrays for FFT.
-			double gainv = 1.0 / (grid.getLatticeSpacing() * grid.getGaugeCoupling());
-			double[][][] eFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getFFTArraySize()];
-			double[][][] aFFTdata = new double[grid.getNumberOfDimensions()][numberOfComponents][fft.getFFTArraySize()];
-			for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
-				int fftIndex = fft.getFFTArrayIndex(i);
-				for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
-					for (int k = 0; k < numberOfComponents; k++) {
-						// Electric field
-						double electricFieldComponent = grid.getE(i, j).get(k) * gainv;
-						eFFTdata[j][k][fftIndex] = electricFieldComponent;
-						eFFTdata[j][k][fftIndex + 1] = 0.0;
-
-						// Gauge fields need to be averaged over two time-steps.
-						AlgebraElement gaugeFieldAsAlgebraElement0 = grid.getU(i, j).getAlgebraElement();
-						AlgebraElement gaugeFieldAsAlgebraElement1 = grid.getUnext(i, j).getAlgebraElement();
-						double gaugeFieldComponent0 = gaugeFieldAsAlgebraElement0.get(k) * gainv;
-						double gaugeFieldComponent1 = gaugeFieldAsAlgebraElement1.get(k) * gainv;
-						aFFTdata[j][k][fftIndex] = 0.5 * (gaugeFieldComponent0 + gaugeFieldComponent1);
-						aFFTdata[j][k][fftIndex + 1] = 0.0;
-					}
-				}
-			}
+			fillFFTData.gainv = 1.0 / (grid.getLatticeSpacing() * grid.getGaugeCoupling());
+			grid.getCellIterator().execute(grid, fillFFTData);
 
 			// Compute FTs of electric field and gauge field.
-			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
-				for (int k = 0; k < numberOfComponents; k++) {
-					fft.complexForward(eFFTdata[j][k]);
-					fft.complexForward(aFFTdata[j][k]);
+			grid.getCellIterator().executeTasks(fftData.length, new CellIterator.BlockAction() {
+				public void execute(int index) {
+					DoubleFFTWrapper.getCached(fftNumCells).complexForward(fftData[index]);
 				}
-			}
-			//
-			double fftConversationFactorSquared = Math.pow(s.grid.getLatticeSpacing(), 2* effectiveNumberOfDimensions);
+			});
 
 			// Compute occupation numbers and averaged energy density
-			energyDensity = 0.0;
-			for(int k = 0; k < this.numberOfComponents; k++) {
-				for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
-					int fftIndex = fft.getFFTArrayIndex(i);
-					double eSquared = 0.0;
-					double aSquared = 0.0;
-					double mixed = 0.0;
-					for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
-						// Electric part
-						eSquared += eFFTdata[j][k][fftIndex] * eFFTdata[j][k][fftIndex]
-								+ eFFTdata[j][k][fftIndex + 1] * eFFTdata[j][k][fftIndex + 1];
-
-						// Magnetic part
-						aSquared += (aFFTdata[j][k][fftIndex] * aFFTdata[j][k][fftIndex]
-								+ aFFTdata[j][k][fftIndex + 1] * aFFTdata[j][k][fftIndex + 1]);
-
-						// Mixed part
-						mixed -= 2.0 * (-aFFTdata[j][k][fftIndex + 1] * eFFTdata[j][k][fftIndex]
-								+ aFFTdata[j][k][fftIndex] * eFFTdata[j][k][fftIndex + 1]);
-					}
-
-					double[] kvec = computeMomentumVectorFromLatticeIndex(i);
-					double w = Math.sqrt(this.computeDispersionRelationSquared(kvec));
-					occupationNumbers[i][k] = (eSquared + w * w * aSquared + w * mixed) * fftConversationFactorSquared;
-					energyDensity += occupationNumbers[i][k];
-				}
-			}
+			calculateOccupationNumbers.fftConversationFactorSquared =
+					Math.pow(s.grid.getLatticeSpacing(), 2* effectiveNumberOfDimensions);
+			energyDensity = grid.getCellIterator().reduce(grid, calculateOccupationNumbers);
 			// This factor is needed for the energy. Check the CPIC notes if in doubt.
 			double normalizationConstant = 1.0 / (2.0 * simulationBoxVolume * simulationBoxVolume);
 			energyDensity *= normalizationConstant;
@@ -211,15 +320,23 @@ public class OccupationNumbersInTime implements Diagnostics {
 
 			// Generate output (write to file, terminal, etc..)
 			if(this.outputType.equals(OUTPUT_CSV)) {
-				this.writeCSVFile(this.outputFileName, true);
+				this.writeCSVFile(true);
 			}
 
 			if(this.outputType.equals(OUTPUT_CSV_WITH_VECTORS)) {
-				this.writeCSVFile(this.outputFileName, true);
+				this.writeCSVFile(true);
 			}
 
 			if(this.outputType.equals(OUTPUT_CSV_ONLY_ENERGY)) {
-				this.writeCSVFile(this.outputFileName, false);
+				this.writeCSVFile(false);
+			}
+
+			if(this.outputType.equals(OUTPUT_CSV_RADIAL) || this.outputType.equals(OUTPUT_CSV_TRANSVERSE_LONGITUDINAL)) {
+				this.writeBinnedCSVFile();
+			}
+
+			if(this.outputType.equals(OUTPUT_CSV_COLOR_SUMS)) {
+				this.writeColorSumsCSVFile();
 			}
 
 
@@ -227,6 +344,20 @@ public class OccupationNumbersInTime implements Diagnostics {
 		}
 	}
 
+	/**
+	 * Returns the number of modes in every bin of the binned output types.
+	 */
+	int[] getModesPerBin() {
+		return modesPerBin;
+	}
+
+	/**
+	 * Returns the copy of the grid in Coulomb gauge of the last measurement (doubled in the mirrored mode).
+	 */
+	Grid getGaugedGrid() {
+		return gaugedGrid;
+	}
+
 	/**
 	 * Computes the lattice dispersion relation for a momentum vector k assuming abelian plane waves.
 	 *
@@ -261,14 +392,13 @@ public class OccupationNumbersInTime implements Diagnostics {
 	}
 
 	/**
-	 * Auxiliary function to convert lattice indices in the FFT spectra to physical momenta.
+	 * Auxiliary function to convert lattice coordinates in the FFT spectra to physical momenta.
 	 *
-	 * @param index	Lattice index in the spectrum
-	 * @return		Momentum vector associated with the index
+	 * @param coordinate	Lattice coordinate in the spectrum
+	 * @return				Momentum vector associated with the coordinate
 	 */
-	private double[] computeMomentumVectorFromLatticeIndex(int index)
+	private double[] computeMomentumVectorFromLatticeIndex(int[] coordinate)
 	{
-		int[] coordinate = s.grid.getCellPos(index);
 		/* In one dimension: smallest possible value of the coordinate is 0. This should be mapped to zero momentum.
 		In the middle of the Fourier spectrum we find the Nyquist mode. This should be mapped to the maximum momentum
 		Pi / gridStep. The second half of the spectrum contains the negative k vectors beginning at the minimum momentum
@@ -278,7 +408,7 @@ public class OccupationNumbersInTime implements Diagnostics {
 		double[] k = new double[s.getNumberOfDimensions()];
 		for(int i = 0; i < s.getNumberOfDimensions(); i++)
 		{
-			double delta = coordinate[i] / ((double) s.grid.getNumCells(i));
+			double delta = coordinate[i] / ((double) fftNumCells[i]);
 			if(delta < 0.5)
 			{
 				k[i] = 2.0 * delta * Math.PI / s.grid.getLatticeSpacing();
@@ -290,24 +420,42 @@ public class OccupationNumbersInTime implements Diagnostics {
 	}
 
 	/**
-	 * Writes the basic header of the csv file. The header includes the size of the grid.
-	 *
-	 * @param path	Path to output file
+	 * Lattice coordinate of an index in the spectrum (same ordering as {@link Grid#getCellPos(int)}).
 	 */
-	public void writeHeader(String path) {
-		File file = FileFunctions.getFile("output/" + path);
+	private int[] getMomentumCoordinate(int index) {
+		int[] coordinate = new int[fftNumCells.length];
+		for (int i = fftNumCells.length - 1; i >= 0; i--) {
+			coordinate[i] = index % fftNumCells[i];
+			index /= fftNumCells[i];
+		}
+		return coordinate;
+	}
 
-		try {
-			FileWriter pw = new FileWriter(file, true);
-			for (int i = 0; i < s.getNumberOfDimensions(); i++) {
-				pw.write(String.valueOf(s.grid.getNumCells(i)));
-				if(i < s.getNumberOfDimensions() -1) {
-					pw.write(separator);
-				}
+	/**
+	 * Index in the spectrum of a lattice coordinate (same ordering as {@link Grid#getCellIndex(int[])}).
+	 */
+	private int getMomentumIndex(int[] coordinate) {
+		int index = coordinate[0];
+		for (int i = 1; i < fftNumCells.length; i++) {
+			index = index * fftNumCells[i] + coordinate[i];
+		}
+		return index;
+	}
+
+	/**
+	 * Writes the basic header of the csv file. The header includes the size of the grid.
+	 */
+	public void writeHeader() {
+		StringBuilder header = new StringBuilder();
+		for (int i = 0; i < s.getNumberOfDimensions(); i++) {
+			header.append(s.grid.getNumCells(i));
+			if(i < s.getNumberOfDimensions() -1) {
+				header.append(separator);
 			}
-			pw.write(linebreak);
-			pw.close();
+		}
 
+		try {
+			file.writeHeader(header.toString());
 		} catch (IOException ex) {
 			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
@@ -318,30 +466,15 @@ public class OccupationNumbersInTime implements Diagnostics {
 	 * In 3D the output is as follows:
 	 * k0_x, k0_y, k0_z, k1_x, k1_y, k1_y, k2_x, k2_y, k2_z, ...
 	 *
-	 * The three numbers (kn_x, kn_y, kn_z) define the momentum vector associated with the index n.
-	 *
-	 * @param path	Path to the output file
+	 * The three numbers (kn_x, kn_y, kn_z) define the momentum vector associated with the index n. In the mirrored mode
+	 * the momenta are those of the doubled grid.
 	 */
-	private void writeMomentumVectors(String path) {
-		File file = FileFunctions.getFile("output/" + path);
+	private void writeMomentumVectors() {
 		try {
-			FileWriter pw = new FileWriter(file, true);
 			for(int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				double[] k = this.computeMomentumVectorFromLatticeIndex(i);
-				String kString = "";
-				for (int j = 0; j < s.getNumberOfDimensions(); j++) {
-					kString += k[j];
-					if(j < s.getNumberOfDimensions()-1) {
-						kString += separator;
-					}
-				}
-				pw.write(kString);
-				if(i < s.grid.getTotalNumberOfCells()-1) {
-					pw.write(separator);
-				}
+				file.writeValues(momentumVectors[i]);
 			}
-			pw.write(linebreak);
-			pw.close();
+			file.endLine();
 		} catch (IOException ex) {
 			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
@@ -357,60 +490,210 @@ public class OccupationNumbersInTime implements Diagnostics {
 	 * 	n0_1, n1_1, n2_1, ....
 	 * where nk_c defines the occupation number of momentum k (in terms of grid indices) with color component c.
 	 *
-	 * @param path	Path to the output file
+	 * @param includeOccupationNumbers	false if only time and energy should be written
 	 */
-	private void writeCSVFile(String path, boolean includeOccupationNumbers)
+	private void writeCSVFile(boolean includeOccupationNumbers)
 	{
-		File file = FileFunctions.getFile("output/" + path);
 		try {
-			FileWriter pw = new FileWriter(file, true);
-			pw.write(this.generateCSVString(includeOccupationNumbers));
-			pw.close();
+			file.writeValue(computationCounter * timeInterval);
+			file.writeValue(energyDensity);
+			file.endLine();
+			if(includeOccupationNumbers) {
+				if (colorful) {
+					for (int k = 0; k < numberOfComponents; k++) {
+						for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+							file.writeValue(occupationNumbers[i][k]);
+						}
+						file.endLine();
+					}
+				} else {
+					for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+						double value = 0.0;
+						for (int k = 0; k < numberOfComponents; k++) {
+							value += occupationNumbers[i][k];
+						}
+						file.writeValue(value);
+					}
+					file.endLine();
+				}
+			}
 		} catch (IOException ex) {
 			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
-
 	}
 
 	/**
-	 * Generates a CSV formatted String based on the computed occupation numbers and the energy.
-	 * The format is as follows:
+	 * Writes the mean occupation numbers of the momentum bins to a CSV formatted file. The bins are described after the
+	 * header of the file:
+	 * 	k0, k1, k2, ...				(bin edges of |k| or |k_T|)
+	 * 	kL0, kL1, kL2, ...			(bin edges of |k_L|, only for csv_transverse_longitudinal)
+	 * 	m0, m1, m2, ...				(number of modes in every bin)
+	 * Each time the diagnostic is called the following lines are appended to the output file:
 	 * 	Time, Energy
 	 * 	n0_0, n1_0, n2_0, ....
 	 * 	n0_1, n1_1, n2_1, ....
-	 * where nk_c defines the occupation number of momentum k with color component c.
-	 *
-	 * @return	a csv formatted string containing time, energy and the occupation numbers.
+	 * where nb_c is the mean occupation number of the modes in bin b with color component c. In the transverse and
+	 * longitudinal binning the bin b = bT * (number of longitudinal bins) + bL. If the output is not colorful, only a
+	 * single line with the sum over the color components is written.
 	 */
-	private String generateCSVString(boolean includeOccupationNumbers) {
-		StringBuilder outputStringBuilder = new StringBuilder();
-		outputStringBuilder.append((computationCounter * timeInterval) + separator + energyDensity + linebreak);
-		if(includeOccupationNumbers) {
+	private void writeBinnedCSVFile()
+	{
+		for (int k = 0; k < numberOfComponents; k++) {
+			Arrays.fill(binnedOccupationNumbers[k], 0.0);
+		}
+		for (int i = 0; i < occupationNumbers.length; i++) {
+			int bin = binIndex[i];
+			if (bin >= 0) {
+				for (int k = 0; k < numberOfComponents; k++) {
+					binnedOccupationNumbers[k][bin] += occupationNumbers[i][k];
+				}
+			}
+		}
+
+		try {
+			file.writeValue(computationCounter * timeInterval);
+			file.writeValue(energyDensity);
+			file.endLine();
 			if (colorful) {
 				for (int k = 0; k < numberOfComponents; k++) {
-					for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-						outputStringBuilder.append(occupationNumbers[i][k]);
-						if (i < s.grid.getTotalNumberOfCells() - 1) {
-							outputStringBuilder.append(separator);
-						}
+					for (int b = 0; b < modesPerBin.length; b++) {
+						file.writeValue(getBinMean(binnedOccupationNumbers[k][b], b));
 					}
-					outputStringBuilder.append(linebreak);
+					file.endLine();
 				}
 			} else {
-				for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+				for (int b = 0; b < modesPerBin.length; b++) {
 					double value = 0.0;
 					for (int k = 0; k < numberOfComponents; k++) {
-						value += occupationNumbers[i][k];
-					}
-					outputStringBuilder.append(value);
-					if (i < s.grid.getTotalNumberOfCells() - 1) {
-						outputStringBuilder.append(separator);
+						value += binnedOccupationNumbers[k][b];
 					}
+					file.writeValue(getBinMean(value, b));
 				}
-				outputStringBuilder.append(linebreak);
+				file.endLine();
 			}
+		} catch (IOException ex) {
+			System.out.println("OccupationNumbersInTime: Error writing to file.");
 		}
-		return outputStringBuilder.toString();
+	}
+
+	private double getBinMean(double sum, int bin) {
+		return (modesPerBin[bin] > 0) ? sum / modesPerBin[bin] : 0.0;
+	}
+
+	/**
+	 * Writes the sums of the occupation numbers over all momenta for every color component to a CSV formatted file.
+	 * Each time the diagnostic is called two lines are appended to the output file:
+	 * 	Time, Energy
+	 * 	N_0, N_1, N_2, ....
+	 */
+	private void writeColorSumsCSVFile()
+	{
+		try {
+			file.writeValue(computationCounter * timeInterval);
+			file.writeValue(energyDensity);
+			file.endLine();
+			for (int k = 0; k < numberOfComponents; k++) {
+				double value = 0.0;
+				for (int i = 0; i < occupationNumbers.length; i++) {
+					value += occupationNumbers[i][k];
+				}
+				file.writeValue(value);
+			}
+			file.endLine();
+		} catch (IOException ex) {
+			System.out.println("OccupationNumbersInTime: Error writing to file.");
+		}
+	}
+
+	/**
+	 * Assigns every momentum to a bin of |k| or to a bin of |k_T| and |k_L| and writes the bins to the file.
+	 *
+	 * @param transverseLongitudinal	true if the momenta are binned in |k_T| and |k_L|
+	 */
+	private void initializeBins(boolean transverseLongitudinal) {
+		int numberOfMomenta = momentumVectors.length;
+		double[] radialMomenta = new double[numberOfMomenta];
+		double[] longitudinalMomenta = new double[numberOfMomenta];
+		double maximumRadialMomentum = 0.0;
+		double maximumLongitudinalMomentum = 0.0;
+		for (int i = 0; i < numberOfMomenta; i++) {
+			double k2 = 0.0;
+			for (int j = 0; j < momentumVectors[i].length; j++) {
+				if (transverseLongitudinal && j == longitudinalDirection) {
+					longitudinalMomenta[i] = Math.abs(momentumVectors[i][j]);
+				} else {
+					k2 += momentumVectors[i][j] * momentumVectors[i][j];
+				}
+			}
+			radialMomenta[i] = Math.sqrt(k2);
+			maximumRadialMomentum = Math.max(maximumRadialMomentum, radialMomenta[i]);
+			maximumLongitudinalMomentum = Math.max(maximumLongitudinalMomentum, longitudinalMomenta[i]);
+		}
+
+		double[] radialEdges = (binEdges != null) ? binEdges : getUniformBinEdges(maximumRadialMomentum);
+		double[] longitudinalEdges = new double[] {0.0, maximumLongitudinalMomentum};
+		if (transverseLongitudinal) {
+			longitudinalEdges = (longitudinalBinEdges != null) ? longitudinalBinEdges
+					: getUniformBinEdges(maximumLongitudinalMomentum);
+		}
+		int numberOfLongitudinalBins = longitudinalEdges.length - 1;
+
+		binIndex = new int[numberOfMomenta];
+		modesPerBin = new int[(radialEdges.length - 1) * numberOfLongitudinalBins];
+		for (int i = 0; i < numberOfMomenta; i++) {
+			int radialBin = findBin(radialEdges, radialMomenta[i]);
+			int longitudinalBin = findBin(longitudinalEdges, longitudinalMomenta[i]);
+			if (radialBin >= 0 && longitudinalBin >= 0) {
+				binIndex[i] = radialBin * numberOfLongitudinalBins + longitudinalBin;
+				modesPerBin[binIndex[i]]++;
+			} else {
+				binIndex[i] = -1;
+			}
+		}
+		binnedOccupationNumbers = new double[numberOfComponents][modesPerBin.length];
+
+		if(file != null) {
+			try {
+				file.writeValues(radialEdges);
+				file.endLine();
+				if (transverseLongitudinal) {
+					file.writeValues(longitudinalEdges);
+					file.endLine();
+				}
+				for (int b = 0; b < modesPerBin.length; b++) {
+					file.writeValue(modesPerBin[b]);
+				}
+				file.endLine();
+			} catch (IOException ex) {
+				System.out.println("OccupationNumbersInTime: Error writing to file.");
+			}
+		}
+	}
+
+	private double[] getUniformBinEdges(double maximumMomentum) {
+		double[] edges = new double[numberOfBins + 1];
+		for (int b = 0; b <= numberOfBins; b++) {
+			edges[b] = maximumMomentum * b / numberOfBins;
+		}
+		return edges;
+	}
+
+	/**
+	 * Returns the bin of a value for strictly ascending bin edges (see {@link #checkBinEdges(double[])}). The last edge
+	 * belongs to the last bin.
+	 *
+	 * @return	index of the bin or -1 if the value is outside of all bins
+	 */
+	static int findBin(double[] edges, double value) {
+		int lastBin = edges.length - 2;
+		if (lastBin < 0 || value < edges[0] || value > edges[lastBin + 1]) {
+			return -1;
+		}
+		int position = Arrays.binarySearch(edges, value);
+		if (position < 0) {
+			position = -position - 2;
+		}
+		return Math.min(position, lastBin);
 	}
 
 	/**
@@ -431,14 +714,93 @@ public class OccupationNumbersInTime implements Diagnostics {
 		return effectiveNumberOfDimensions;
 	}
 
+	/**
+	 * Writes E + iA of every direction and color component into the FFT arrays. The gauge links are only converted to
+	 * algebra elements once.
+	 */
+	private class FillFFTData implements CellAction {
+
+		double gainv;
+
+		public void execute(Grid grid, int index) {
+			int fftIndex = fft.getFFTArrayIndex(index);
+			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
+				AlgebraElement electricField = grid.getE(index, j);
+				// Gauge fields need to be averaged over two time-steps.
+				AlgebraElement gaugeField0 = grid.getU(index, j).getAlgebraElement();
+				AlgebraElement gaugeField1 = grid.getUnext(index, j).getAlgebraElement();
+				for (int k = 0; k < numberOfComponents; k++) {
+					double[] data = fftData[j * numberOfComponents + k];
+					data[fftIndex] = electricField.get(k) * gainv;
+					data[fftIndex + 1] = 0.5 * (gaugeField0.get(k) + gaugeField1.get(k)) * gainv;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Separates the spectra of E and A and computes the occupation numbers of a momentum. Returns their sum over the
+	 * color components.
+	 */
+	private class CalculateOccupationNumbers implements CellReducer {
+
+		double fftConversationFactorSquared;
+
+		public double reduce(Grid grid, int index) {
+			int fftIndex = fft.getFFTArrayIndex(index);
+			int oppositeFFTIndex = fft.getFFTArrayIndex(oppositeMomentumIndex[index]);
+			double w = dispersion[index];
+			double sum = 0.0;
+			for (int k = 0; k < numberOfComponents; k++) {
+				double eSquared = 0.0;
+				double aSquared = 0.0;
+				double mixed = 0.0;
+				for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
+					double[] data = fftData[j * numberOfComponents + k];
+					double re = data[fftIndex];
+					double im = data[fftIndex + 1];
+					double oppositeRe = data[oppositeFFTIndex];
+					double oppositeIm = data[oppositeFFTIndex + 1];
+
+					// E(k) = (Z(k) + Z(-k)*) / 2 and A(k) = (Z(k) - Z(-k)*) / 2i
+					double eRe = 0.5 * (re + oppositeRe);
+					double eIm = 0.5 * (im - oppositeIm);
+					double aRe = 0.5 * (im + oppositeIm);
+					double aIm = 0.5 * (oppositeRe - re);
+
+					// Electric part
+					eSquared += eRe * eRe + eIm * eIm;
+
+					// Magnetic part
+					aSquared += aRe * aRe + aIm * aIm;
+
+					// Mixed part
+					mixed -= 2.0 * (-aIm * eRe + aRe * eIm);
+				}
+				double n = (eSquared + w * w * aSquared + w * mixed) * fftConversationFactorSquared;
+				occupationNumbers[index][k] = n;
+				sum += n;
+			}
+			return sum;
+		}
+	}
+
 	private class MirroredGrid extends Grid {
+
+		/**
+		 * Index of the cell in the original grid and of the cell whose gauge link in the mirrored direction is used.
+		 */
+		private int[] sourceIndex;
+		private int[] linkSourceIndex;
+
 		public MirroredGrid(Grid grid, int mirroredDirection) {
 			super(grid);
 			this.numCells[mirroredDirection] *= 2;
 			createGrid();
 			this.cellIterator.setNormalMode(numCells);
 
-			// Copy and mirror cells.
+			sourceIndex = new int[getTotalNumberOfCells()];
+			linkSourceIndex = new int[getTotalNumberOfCells()];
 			for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
 				int[] cellPos = grid.getCellPos(i);
 				int newGridIndex = this.getCellIndex(cellPos);
@@ -447,20 +809,38 @@ public class OccupationNumbersInTime implements Diagnostics {
 				newMirroredGridPos[mirroredDirection] = 2 * grid.getNumCells(mirroredDirection) - cellPos[mirroredDirection] - 1;
 				int mirroredIndex = this.getCellIndex(newMirroredGridPos);
 
-				cells[newGridIndex] = grid.getCell(i).copy();
-				cells[mirroredIndex] = grid.getCell(i).copy();
+				sourceIndex[newGridIndex] = i;
+				linkSourceIndex[newGridIndex] = i;
+				sourceIndex[mirroredIndex] = i;
 
 				// Switch gauge links in the mirrored direction.
 				// TODO: This shift of the gauge links is a bit ambiguous. Not sure what would be the correct way to do it.
 				if(cellPos[mirroredDirection] > 0) {
 					cellPos[mirroredDirection]--;
 				}
-				int shiftedIndex = grid.getCellIndex(cellPos);
-				cells[mirroredIndex].setU(mirroredDirection, grid.getU(shiftedIndex, mirroredDirection).copy());
+				linkSourceIndex[mirroredIndex] = grid.getCellIndex(cellPos);
 			}
 
+			mirrorFrom(grid);
+		}
 
-
+		/**
+		 * Copies and mirrors the cells of a grid of the original size.
+		 */
+		public void mirrorFrom(final Grid grid) {
+			cellIterator.execute(this, new CellAction() {
+				public void execute(Grid mirroredGrid, int index) {
+					int source = sourceIndex[index];
+					for (int j = 0; j < mirroredGrid.getNumberOfDimensions(); j++) {
+						mirroredGrid.setU(index, j, grid.getU(source, j));
+						mirroredGrid.setUnext(index, j, grid.getUnext(source, j));
+						mirroredGrid.setE(index, j, grid.getE(source, j));
+					}
+					mirroredGrid.setU(index, mirroredDirection, grid.getU(linkSourceIndex[index], mirroredDirection));
+					mirroredGrid.setEvaluatable(index, grid.isEvaluatable(source));
+					mirroredGrid.setActive(index, grid.isActive(source));
+				}
+			});
 		}
 	}
 }
@@ -1,12 +1,10 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.util.ArrayList;
 import java.io.IOException;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -16,6 +14,7 @@ public class ParticlesInTime implements Diagnostics {
 	private String path;
 	private double timeInterval;
 	private int stepInterval;
+	private OutputFile file;
 	private Simulation s;
 
 	public ParticlesInTime(String path, double timeInterval)
@@ -36,31 +35,29 @@ public class ParticlesInTime implements Diagnostics {
 		stepInterval =  (int) (this.timeInterval / s.getTimeStep());
 
 		// Create/delete file.
-		FileFunctions.clearFile("output/" + path);
+		file = OutputFile.create("output/" + path, OutputFile.TEXT);
+		file.useDecimalFormat(false);
 
 		// Write first line.
 		String[] directionNames = new String[] {"x", "y", "z"};
-		File file = FileFunctions.getFile("output/" + path);
-		try {
-			FileWriter pw = new FileWriter(file, true);
-			pw.write("#time\t");
-			for(int i = 0; i < s.getNumberOfDimensions(); i++) {
-				if(i < 3) {
-					pw.write(directionNames[i] + "\t");
-				} else {
-					pw.write("d" + i + "\t");
-				}
+		StringBuilder header = new StringBuilder("#time\t");
+		for(int i = 0; i < s.getNumberOfDimensions(); i++) {
+			if(i < 3) {
+				header.append(directionNames[i] + "\t");
+			} else {
+				header.append("d" + i + "\t");
 			}
+		}
 
-			for(int i = 0; i < s.getNumberOfDimensions(); i++) {
-				if(i < 3) {
-					pw.write("p" + directionNames[i] + "\t");
-				} else {
-					pw.write("pd" + i + "\t");
-				}
+		for(int i = 0; i < s.getNumberOfDimensions(); i++) {
+			if(i < 3) {
+				header.append("p" + directionNames[i] + "\t");
+			} else {
+				header.append("pd" + i + "\t");
 			}
-			pw.write("\n");
-			pw.close();
+		}
+		try {
+			file.writeHeader(header.toString());
 		} catch (IOException ex) {
 			System.out.println("ParticlesInTime Error: Could not write to file '" + path + "'.");
 		}
@@ -77,9 +74,7 @@ public class ParticlesInTime implements Diagnostics {
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
 		if(steps % stepInterval == 0) {
 
-			File file = FileFunctions.getFile("output/" + path);;
-			FileWriter pw = new FileWriter(file, true);
-			pw.write(steps * s.getTimeStep() + "\t");
+			file.writeValue(steps * s.getTimeStep());
 
 			for (int i = 0; i < particles.size(); i++) {
 				IParticle p = particles.get(i);
@@ -90,14 +85,13 @@ public class ParticlesInTime implements Diagnostics {
 					velocities at odd time steps in between the even ones.
 				 */
 				for (int j = 0; j < s.getNumberOfDimensions(); j++) {
-					pw.write(p.getPosition(j) + "\t");
+					file.writeValue(p.getPosition(j));
 				}
 				for (int j = 0; j < s.getNumberOfDimensions(); j++) {
-					pw.write(p.getVelocity(j) + "\t");
+					file.writeValue(p.getVelocity(j));
 				}
 			}
-			pw.write("\n");
-			pw.close();
+			file.endLine();
 		}
 	}
 }
\ No newline at end of file
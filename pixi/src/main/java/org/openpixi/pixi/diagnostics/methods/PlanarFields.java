@@ -1,17 +1,14 @@
 package org.openpixi.pixi.diagnostics.methods;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 
 public class PlanarFields implements Diagnostics {
@@ -19,6 +16,8 @@ public class PlanarFields implements Diagnostics {
 	private double timeInterval;
 	private int stepInterval;
 	private String outputName;
+	private String format = OutputFile.TEXT;
+	private OutputFile file;
 	private double startingTime;
 	private int startingStep;
 	private double finalTime;
@@ -45,8 +44,15 @@ public class PlanarFields implements Diagnostics {
 
 	}
 
+	/**
+	 * Sets the format of the output file ("text", "gzip" or "binary").
+	 */
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
 	public void initialize(Simulation s) {
-		FileFunctions.clearFile("output/" + outputName);
+		file = OutputFile.create("output/" + outputName, format);
 
 		this.s = s;
 		this.transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
@@ -83,27 +89,24 @@ public class PlanarFields implements Diagnostics {
 					}
 				}
 
-				File file = FileFunctions.getFile("output/" + outputName);
 				try {
-					FileWriter pw = new FileWriter(file, true);
-
 					//pw.write(s.getIterations() + "\t" + s.getIterations() * s.getTimeStep() + "\n");
 
 					// Transverse fields
 					for (int i = 0; i < effDimensions-1; i++) {
 						double[][] output = convertToDoubleArray(transverseGaugeFields[i], numberOfComponents);
 						for (int j = 0; j < numberOfComponents; j++) {
-							pw.write(generateTSVString(output[j]) + "\n");
+							file.writeValues(output[j]);
+							file.endLine();
 						}
 					}
 
 					// Longitudinal fields
 					double[][] output = convertToDoubleArray(longitudinalElectricFields, numberOfComponents);
 					for (int j = 0; j < numberOfComponents; j++) {
-						pw.write(generateTSVString(output[j]) + "\n");
+						file.writeValues(output[j]);
+						file.endLine();
 					}
-
-					pw.close();
 				} catch (IOException ex) {
 					System.out.println("PlanarFields: Error writing to file.");
 				}
@@ -112,18 +115,6 @@ public class PlanarFields implements Diagnostics {
 		}
 	}
 
-	private String generateTSVString(double[] array) {
-		StringBuilder outputStringBuilder = new StringBuilder();
-		DecimalFormat formatter = new DecimalFormat("0.################E0");
-		for (int i = 0; i < array.length; i++) {
-			outputStringBuilder.append(formatter.format(array[i]));
-			if(i < array.length - 1) {
-				outputStringBuilder.append("\t");
-			}
-		}
-		return outputStringBuilder.toString();
-	}
-
 	private double[][] convertToDoubleArray(AlgebraElement[] array, int numberOfComponents) {
 		double[][] output = new double[3][array.length];
 		for (int i = 0; i < array.length; i++) {
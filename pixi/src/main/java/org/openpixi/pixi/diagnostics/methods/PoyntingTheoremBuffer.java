@@ -5,6 +5,9 @@ import java.util.ArrayList;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -12,12 +15,17 @@ import org.openpixi.pixi.physics.particles.IParticle;
 /**
  * Shared buffer that stores previous values of the grid for calculating pieces of
  * the Poynting Theorem.
+ * <br>
+ * The values of the previous time step are kept in two-slot ring buffers of flat arrays (see {@link History}) which
+ * are allocated once and labelled with the simulation step of their values. The quantities of a cell (e.g.
+ * {@link #getEnergyDensity(int)}) are calculated for all cells at once by the cell iterator on first request and
+ * buffered until the next call of {@link #calculate}.
  */
 public class PoyntingTheoremBuffer implements Diagnostics {
 
 	Simulation s;
 
-	private enum CalculationAccuracy {
+	enum CalculationAccuracy {
 		NAIVE,
 		SIMPLE,
 		INTERPOLATED,
@@ -35,18 +43,26 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	private double[] currentEnergyDensity;
 
 	private boolean storeOldEJ = false;
-	private AlgebraElement[][] Ecurrent;
-	private AlgebraElement[][] Eold;
-	private AlgebraElement[][] Jcurrent;
-	private AlgebraElement[][] Jold;
-	private AlgebraElement[][] RotEcurrent;
-	private AlgebraElement[][] RotEold;
-	private AlgebraElement[][] EAveragecurrent;
-	private AlgebraElement[][] EAverageold;
-	private Double[][] Scurrent;
-	private Double[][] Sold;
-	private Double[] JEcurrent;
-	private Double[] JEold;
+	private History E;
+	private History J;
+	private History RotE;
+	private History EAverage;
+	private History S;
+	private History JE;
+
+	/**
+	 * Quantities of all cells and the simulation step at which they have been calculated (-1 if they have to be
+	 * calculated again).
+	 */
+	private double[] energyDensity;
+	private double[] poyntingVector;
+	private double[] divPoyntingVector;
+	private double[] brotEminusErotB;
+	private double[] currentElectricField;
+	private int energyDensityStep = -1;
+	private int divPoyntingVectorStep = -1;
+	private int brotEminusErotBStep = -1;
+	private int currentElectricFieldStep = -1;
 
 	private double integratedDivS;
 	private double integratedBrotEminusErotB;
@@ -58,10 +74,54 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	private double currentBrotEminusErotB;
 	private double currentJE;
 
+	/**
+	 * Temporary elements for the allocation-free calculation of the fields.
+	 */
+	private ScratchElements.Pool scratch = new ScratchElements.Pool(2, 5);
+
+	private CellAction calculateEnergyDensity = new CellAction() {
+		public void execute(Grid grid, int index) {
+			energyDensity[index] = calculateEnergyDensity(index);
+		}
+	};
+
+	private CellAction calculatePoyntingVector = new CellAction() {
+		public void execute(Grid grid, int index) {
+			for (int direction = 0; direction < grid.getNumberOfDimensions(); direction++) {
+				poyntingVector[index * grid.getNumberOfDimensions() + direction] = getPoyntingVector(index, direction);
+			}
+		}
+	};
+
+	private CellAction calculateDivPoyntingVector = new CellAction() {
+		public void execute(Grid grid, int index) {
+			divPoyntingVector[index] = calculateDivPoyntingVector(index);
+		}
+	};
+
+	private CellAction calculateBrotEminusErotB = new CellAction() {
+		public void execute(Grid grid, int index) {
+			brotEminusErotB[index] = calculateBrotEminusErotB(index);
+		}
+	};
+
+	private CellAction calculateCurrentElectricField = new CellAction() {
+		public void execute(Grid grid, int index) {
+			currentElectricField[index] = calculateCurrentElectricField(index);
+		}
+	};
+
 	PoyntingTheoremBuffer(Simulation s) {
 		this.s = s;
 	}
 
+	/**
+	 * Selects the formulas of the quantities. Must be called before {@link #initialize(Simulation)}.
+	 */
+	void setAccuracy(CalculationAccuracy accuracy) {
+		this.accuracy = accuracy;
+	}
+
 	@Override
 	public void initialize(Simulation s) {
 		this.s = s;
@@ -80,6 +140,12 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	@Override
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps)
 			throws IOException {
+		// The grid may have changed since the quantities have been calculated
+		energyDensityStep = -1;
+		divPoyntingVectorStep = -1;
+		brotEminusErotBStep = -1;
+		currentElectricFieldStep = -1;
+
 		if (calculateEnergyDensityDerivative) {
 			updateEnergyDensityDerivative();
 			if (s.totalSimulationSteps > 2) {
@@ -96,7 +162,7 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 			if (s.totalSimulationSteps > 2) {
 				storeOldEJ = false;
 			}
-		} else {
+			} else {
 			resetEJ();
 		}
 
@@ -123,76 +189,86 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		}
 		oldTime = currentTime;
 		currentTime = s.totalSimulationSteps;
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			oldEnergyDensity[i] = currentEnergyDensity[i];
-			currentEnergyDensity[i] = getEnergyDensity(i);
-		}
+		// Swap buffers
+		double[] temp = oldEnergyDensity;
+		oldEnergyDensity = currentEnergyDensity;
+		currentEnergyDensity = temp;
+		System.arraycopy(getEnergyDensities(), 0, currentEnergyDensity, 0, currentEnergyDensity.length);
 	}
 
 	private void resetEJ() {
-		Ecurrent = null;
-		Eold = null;
-		Jcurrent = null;
-		Jold = null;
-		RotEcurrent = null;
-		RotEold = null;
-		EAveragecurrent = null;
-		EAverageold = null;
-		Scurrent = null;
-		Sold = null;
-		JEcurrent = null;
-		JEold = null;
+		E = null;
+		J = null;
+		RotE = null;
+		EAverage = null;
+		S = null;
+		JE = null;
 	}
 
 	private void updateEJ() {
 		int cells = s.grid.getTotalNumberOfCells();
 		int dimensions = s.grid.getNumberOfDimensions();
-		if (Ecurrent == null) {
-			// Initialize arrays
-			Ecurrent = new AlgebraElement[cells][];
-			Eold = new AlgebraElement[cells][];
-			Jcurrent = new AlgebraElement[cells][];
-			Jold = new AlgebraElement[cells][];
-			RotEcurrent = new AlgebraElement[cells][];
-			RotEold = new AlgebraElement[cells][];
-		}
-		for (int i = 0; i < cells; i++) {
-			// Move current values to old values
-			Eold[i] = Ecurrent[i];
-			Jold[i] = Jcurrent[i];
-			RotEold[i] = RotEcurrent[i];
-
-			// Reset new values
-			Ecurrent[i] = new AlgebraElement[dimensions];
-			Jcurrent[i] = new AlgebraElement[dimensions];
-			RotEcurrent[i] = new AlgebraElement[dimensions];
-			// Fields are copied when they are used
+		int components = s.grid.getElementFactory().numberOfComponents;
+		if (E == null) {
+			// Initialize buffers. The values of the current time step are stored when they are used and remain
+			// available as old values in the next time step.
+			E = new History(cells * dimensions * components);
+			J = new History(cells * dimensions * components);
+			RotE = new History(cells * dimensions * components);
 		}
 		if (accuracy == CalculationAccuracy.INTERPOLATED) {
 			// Additional fields are required:
-			if (EAveragecurrent == null) {
-				EAveragecurrent = new AlgebraElement[cells][];
-				EAverageold = new AlgebraElement[cells][];
-				Scurrent = new Double[cells][];
-				Sold = new Double[cells][];
-				JEcurrent = new Double[cells];
-				JEold = new Double[cells];
+			if (EAverage == null) {
+				EAverage = new History(cells * dimensions * components);
+				S = new History(cells * dimensions);
+				JE = new History(cells);
 			}
-			for (int i = 0; i < cells; i++) {
-				// Move current values to old values
-				EAverageold[i] = EAveragecurrent[i];
-				Sold[i] = Scurrent[i];
-
-				// Reset new values
-				EAveragecurrent[i] = new AlgebraElement[dimensions];
-				Scurrent[i] = new Double[dimensions];
-				// Fields are copied when they are used
+		}
+	}
+
+	/**
+	 * Selects the slots of the current time step in the given buffers (if they exist). Must be called before the
+	 * cells are calculated in parallel.
+	 */
+	private void selectHistories(History... histories) {
+		for (History h : histories) {
+			if (h != null) {
+				h.select(s.totalSimulationSteps);
 			}
-			JEold = JEcurrent;
-			JEcurrent = new Double[cells];
 		}
 	}
 
+	/**
+	 * Stores an algebra element in a flat array of a buffer.
+	 */
+	private void store(double[] values, int index, int direction, AlgebraElement a) {
+		int components = s.grid.getElementFactory().numberOfComponents;
+		int offset = (index * s.grid.getNumberOfDimensions() + direction) * components;
+		for (int k = 0; k < components; k++) {
+			values[offset + k] = a.get(k);
+		}
+	}
+
+	/**
+	 * Loads an algebra element from a flat array of a buffer.
+	 */
+	private void load(double[] values, int index, int direction, AlgebraElement out) {
+		int components = s.grid.getElementFactory().numberOfComponents;
+		int offset = (index * s.grid.getNumberOfDimensions() + direction) * components;
+		for (int k = 0; k < components; k++) {
+			out.set(k, values[offset + k]);
+		}
+	}
+
+	/**
+	 * Returns a new algebra element with the values from a flat array of a buffer.
+	 */
+	private AlgebraElement getStored(double[] values, int index, int direction) {
+		AlgebraElement a = s.grid.getElementFactory().algebraZero();
+		load(values, index, direction, a);
+		return a;
+	}
+
 	/**
 	 * Gets an instance of PoyntingTheoremBuffer from the list of diagnostics
 	 * objects of the simulation object. If no instance existed previously,
@@ -213,6 +289,25 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	}
 
 	public double getEnergyDensity(int index) {
+		return getEnergyDensities()[index];
+	}
+
+	/**
+	 * Returns the energy densities of all cells at the current time step.
+	 */
+	private double[] getEnergyDensities() {
+		if (energyDensityStep != s.totalSimulationSteps) {
+			if (energyDensity == null || energyDensity.length != s.grid.getTotalNumberOfCells()) {
+				energyDensity = new double[s.grid.getTotalNumberOfCells()];
+			}
+			selectHistories(EAverage);
+			s.grid.getCellIterator().execute(s.grid, calculateEnergyDensity);
+			energyDensityStep = s.totalSimulationSteps;
+		}
+		return energyDensity;
+	}
+
+	private double calculateEnergyDensity(int index) {
 		switch (accuracy) {
 		case NAIVE:
 			return getEnergyDensity1(index);
@@ -259,12 +354,17 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
+		ScratchElements t = scratch.get(s.grid.getElementFactory());
+		AlgebraElement B = t.algebra[0];
+		AlgebraElement Bnext = t.algebra[1];
 		for (int w = 0; w < s.getNumberOfDimensions(); w++) {
-			value += s.grid.getE(index, w).square();
+			value += s.grid.getEsquared(index, w);
 			// Time averaging for B field.
-			AlgebraElement B = s.grid.getB(index, w, 0);
-			AlgebraElement Bnext = s.grid.getB(index, w, 1);
-			value += (B.add(Bnext)).mult(0.5).square();
+			s.grid.getBInto(index, w, 0, B, t.group[0], t.group[1]);
+			s.grid.getBInto(index, w, 1, Bnext, t.group[0], t.group[1]);
+			B.addAssign(Bnext);
+			B.multAssign(0.5);
+			value += B.square();
 		};
 		return value / (as * g * as * g) / 2;
 	}
@@ -315,11 +415,11 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 			AlgebraElement Eaverage = (E1.add(E2)).mult(0.5);
 
 			// Form the time average if available:
-			if (EAveragecurrent != null) {
-				EAveragecurrent[index][direction] = Eaverage.copy();
-				if (EAverageold != null && EAverageold[index] != null && EAverageold[index][direction] != null) {
+			if (EAverage != null) {
+				store(EAverage.current, index, direction, Eaverage);
+				if (EAverage.old != null) {
 					// Form average
-					Eaverage = (Eaverage.add(EAverageold[index][direction])).mult(0.5);
+					Eaverage = (Eaverage.add(getStored(EAverage.old, index, direction))).mult(0.5);
 				}
 			}
 			return Eaverage;
@@ -474,11 +574,14 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
+		ScratchElements t = scratch.get(s.grid.getElementFactory());
+		AlgebraElement B = t.algebra[0];
+		AlgebraElement Bnext = t.algebra[1];
 		for (int w = 0; w < s.getNumberOfDimensions(); w++) {
-			value += s.grid.getE(index, w).square();
+			value += s.grid.getEsquared(index, w);
 			// Geometric time averaging for B field.
-			AlgebraElement B = s.grid.getB(index, w, 0);
-			AlgebraElement Bnext = s.grid.getB(index, w, 1);
+			s.grid.getBInto(index, w, 0, B, t.group[0], t.group[1]);
+			s.grid.getBInto(index, w, 1, Bnext, t.group[0], t.group[1]);
 			value += B.mult(Bnext);
 		};
 		return value / (as * g * as * g) / 2;
@@ -507,6 +610,32 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	}
 
 	public double getDivPoyntingVector(int index) {
+		if (divPoyntingVectorStep != s.totalSimulationSteps) {
+			if (s.getNumberOfDimensions() != 3) {
+				throw new RuntimeException("Dimension other than 3 has not been implemented yet.");
+				// TODO: Implement for arbitrary dimensions
+			}
+			int cells = s.grid.getTotalNumberOfCells();
+			if (divPoyntingVector == null || divPoyntingVector.length != cells) {
+				divPoyntingVector = new double[cells];
+				poyntingVector = new double[cells * s.grid.getNumberOfDimensions()];
+			}
+			if (accuracy != CalculationAccuracy.NAIVE) {
+				// The divergence needs the Poynting vectors of the neighbouring cells
+				if (accuracy == CalculationAccuracy.SIMPLE) {
+					selectHistories(E);
+				} else {
+					selectHistories(S);
+				}
+				s.grid.getCellIterator().execute(s.grid, calculatePoyntingVector);
+			}
+			s.grid.getCellIterator().execute(s.grid, calculateDivPoyntingVector);
+			divPoyntingVectorStep = s.totalSimulationSteps;
+		}
+		return divPoyntingVector[index];
+	}
+
+	private double calculateDivPoyntingVector(int index) {
 		switch (accuracy) {
 		case NAIVE:
 			return getDivPoyntingVector1(index);
@@ -519,6 +648,25 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	}
 
 	public double getBrotEminusErotB(int index) {
+		storeOldEJ = true;
+		if (brotEminusErotBStep != s.totalSimulationSteps) {
+			if (s.getNumberOfDimensions() != 3) {
+				throw new RuntimeException("Dimension other than 3 has not been implemented yet.");
+				// TODO: Implement for arbitrary dimensions
+			}
+			if (brotEminusErotB == null || brotEminusErotB.length != s.grid.getTotalNumberOfCells()) {
+				brotEminusErotB = new double[s.grid.getTotalNumberOfCells()];
+			}
+			if (accuracy != CalculationAccuracy.NAIVE) {
+				selectHistories(E, RotE);
+			}
+			s.grid.getCellIterator().execute(s.grid, calculateBrotEminusErotB);
+			brotEminusErotBStep = s.totalSimulationSteps;
+		}
+		return brotEminusErotB[index];
+	}
+
+	private double calculateBrotEminusErotB(int index) {
 		switch (accuracy) {
 		case NAIVE:
 			return getBrotEminusErotB1(index);
@@ -582,7 +730,6 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	 */
 	@Deprecated
 	private double getBrotEminusErotB1(int index) {
-		storeOldEJ = true;
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
@@ -615,7 +762,6 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	 * @return B rot E - E rot B
 	 */
 	private double getBrotEminusErotB2(int index) {
-		storeOldEJ = true;
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
@@ -625,28 +771,32 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 			// TODO: Implement for arbitrary dimensions
 			// return 0;
 		}
+		ScratchElements t = scratch.get(s.grid.getElementFactory());
+		GroupElement temp1 = t.group[0];
+		GroupElement temp2 = t.group[1];
+		AlgebraElement rotE = t.algebra[0];
+		AlgebraElement E = t.algebra[1];
+		AlgebraElement rotB = t.algebra[2];
+		AlgebraElement B = t.algebra[3];
+		AlgebraElement temp = t.algebra[4];
 		for (int direction = 0; direction < s.grid.getNumberOfDimensions(); direction++) {
 			// Time-averaged at time of B-field
-			AlgebraElement rotE = s.grid.getRotE(index, direction);
-			if (RotEcurrent != null) {
-				RotEcurrent[index][direction] = rotE.copy();
-				if (RotEold != null && RotEold[index] != null && RotEold[index][direction] != null) {
+			s.grid.getRotEInto(index, direction, rotE, temp, temp1);
+			if (RotE != null) {
+				store(RotE.current, index, direction, rotE);
+				if (RotE.old != null) {
 					// Form average
-					rotE = (rotE.add(RotEold[index][direction])).mult(0.5);
+					load(RotE.old, index, direction, temp);
+					rotE.addAssign(temp);
+					rotE.multAssign(0.5);
 				}
 			}
 
-			AlgebraElement E = s.grid.getE(index, direction);
-			if (Ecurrent != null) {
-				Ecurrent[index][direction] = E.copy();
-				if (Eold != null && Eold[index] != null && Eold[index][direction] != null) {
-					// Form average
-					E = (E.add(Eold[index][direction])).mult(0.5);
-				}
-			}
+			E.set(s.grid.getE(index, direction));
+			averageE(index, direction, E, temp);
 
-			AlgebraElement rotB = s.grid.getRotB(index, direction, 0);
-			AlgebraElement B = s.grid.getB(index, direction, 0);
+			s.grid.getRotBInto(index, direction, 0, rotB, temp, temp1, temp2);
+			s.grid.getBInto(index, direction, 0, B, temp1, temp2);
 
 			value += B.mult(rotE) - E.mult(rotB);
 		}
@@ -668,29 +818,45 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 			// TODO: Implement for arbitrary dimensions
 			// return 0;
 		}
-		for (int direction = 0; direction < s.grid.getNumberOfDimensions(); direction++) {
+		// Poynting vectors which have been calculated for all cells:
+		int dimensions = s.grid.getNumberOfDimensions();
+		for (int direction = 0; direction < dimensions; direction++) {
 			int indexShifted1 = s.grid.shift(index, direction, -1);
-			switch (accuracy) {
-			case NAIVE:
-				value += getPoyntingVector2(index, direction)
-					- getPoyntingVector2(indexShifted1, direction);
-				break;
-
-			default:
-			case SIMPLE:
-				value += getPoyntingVector3(index, direction)
-						- getPoyntingVector3(indexShifted1, direction);
-				break;
-
-			case INTERPOLATED:
-				value += getPoyntingVector4(index, direction)
-					- getPoyntingVector4(indexShifted1, direction);
-				break;
-			}
+			value += poyntingVector[index * dimensions + direction]
+					- poyntingVector[indexShifted1 * dimensions + direction];
 		}
 		return value / (as);
 	}
 
+	private double getPoyntingVector(int index, int direction) {
+		switch (accuracy) {
+		case NAIVE:
+			return getPoyntingVector2(index, direction);
+
+		default:
+		case SIMPLE:
+			return getPoyntingVector3(index, direction);
+
+		case INTERPOLATED:
+			return getPoyntingVector4(index, direction);
+		}
+	}
+
+	/**
+	 * Stores E and replaces it by the average with the value of the previous time step if it is available.
+	 */
+	private void averageE(int index, int direction, AlgebraElement e, AlgebraElement temp) {
+		if (E != null) {
+			store(E.current, index, direction, e);
+			if (E.old != null) {
+				// Form average
+				load(E.old, index, direction, temp);
+				e.addAssign(temp);
+				e.multAssign(0.5);
+			}
+		}
+	}
+
 	@Deprecated
 	private double getPoyntingVector2(int index, int direction) {
 		double as = s.grid.getLatticeSpacing();
@@ -726,23 +892,19 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		int indexShifted1 = index;
 		int indexShifted2 = index;
 
+		ScratchElements t = scratch.get(s.grid.getElementFactory());
+		AlgebraElement E1 = t.algebra[0];
+		AlgebraElement E2 = t.algebra[1];
+		AlgebraElement B1 = t.algebra[2];
+		AlgebraElement B2 = t.algebra[3];
+
 		// fields at same time:
-		AlgebraElement E1 = s.grid.getE(indexShifted2, dir1);
-		AlgebraElement E2 = s.grid.getE(indexShifted1, dir2);
+		E1.set(s.grid.getE(indexShifted2, dir1));
+		E2.set(s.grid.getE(indexShifted1, dir2));
 
 		// Get time-averaged E-field
-		if (Ecurrent != null) {
-			Ecurrent[indexShifted2][dir1] = E1.copy();
-			if (Eold != null && Eold[indexShifted2] != null && Eold[indexShifted2][dir1] != null) {
-				// Form average
-				E1 = (E1.add(Eold[indexShifted2][dir1])).mult(0.5);
-			}
-			Ecurrent[indexShifted1][dir2] = E2.copy();
-			if (Eold != null && Eold[indexShifted1] != null && Eold[indexShifted1][dir2] != null) {
-				// Form average
-				E2 = (E2.add(Eold[indexShifted1][dir2])).mult(0.5);
-			}
-		}
+		averageE(indexShifted2, dir1, E1, t.algebra[4]);
+		averageE(indexShifted1, dir2, E2, t.algebra[4]);
 
 		// time averaged B-field:
 //		AlgebraElement B1 = s.grid.getB(index, dir1, 0).add(s.grid.getB(index, dir1, 1)).mult(0.5);
@@ -754,8 +916,8 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		indexShifted2 = index;
 
 		// B-field:
-		AlgebraElement B1 = s.grid.getB(indexShifted2, dir1, 0);
-		AlgebraElement B2 = s.grid.getB(indexShifted1, dir2, 0);
+		s.grid.getBInto(indexShifted2, dir1, 0, B1, t.group[0], t.group[1]);
+		s.grid.getBInto(indexShifted1, dir2, 0, B2, t.group[0], t.group[1]);
 		double S = E1.mult(B2) - E2.mult(B1);
 		return S / (as * g * as * g);
 	}
@@ -780,18 +942,36 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		S = S / (as * g * as * g);
 
 		// Return the Poynting vector of the previous time step if available:
-		if (Scurrent != null) {
+		if (this.S != null) {
 			// Store value of current time step
-			Scurrent[index][direction] = S;
-			if (Sold != null && Sold[index] != null && Sold[index][direction] != null) {
+			int i = index * s.grid.getNumberOfDimensions() + direction;
+			this.S.current[i] = S;
+			if (this.S.old != null) {
 				// Use value of previous time step
-				S = Sold[index][direction];
+				S = this.S.old[i];
 			}
 		}
 		return S;
 	}
 
 	public double getCurrentElectricField(int index) {
+		storeOldEJ = true;
+		if (currentElectricFieldStep != s.totalSimulationSteps) {
+			if (currentElectricField == null || currentElectricField.length != s.grid.getTotalNumberOfCells()) {
+				currentElectricField = new double[s.grid.getTotalNumberOfCells()];
+			}
+			if (accuracy == CalculationAccuracy.SIMPLE) {
+				selectHistories(J, E);
+			} else if (accuracy == CalculationAccuracy.INTERPOLATED) {
+				selectHistories(J, JE);
+			}
+			s.grid.getCellIterator().execute(s.grid, calculateCurrentElectricField);
+			currentElectricFieldStep = s.totalSimulationSteps;
+		}
+		return currentElectricField[index];
+	}
+
+	private double calculateCurrentElectricField(int index) {
 		switch (accuracy) {
 		case NAIVE:
 			return getCurrentElectricField1(index);
@@ -827,29 +1007,26 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	 * @return current times electric field J*E
 	 */
 	private double getCurrentElectricField2(int index) {
-		storeOldEJ = true;
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
 		double value = 0;
 
+		ScratchElements t = scratch.get(s.grid.getElementFactory());
+		AlgebraElement E = t.algebra[0];
+		AlgebraElement Jprevious = t.algebra[1];
 		for (int direction = 0; direction < s.grid.getNumberOfDimensions(); direction++) {
 			AlgebraElement J = s.grid.getJ(index, direction);
-			if (Jcurrent != null) {
-				Jcurrent[index][direction] = J.copy();
-				if (Jold != null && Jold[index] != null && Jold[index][direction] != null) {
+			if (this.J != null) {
+				store(this.J.current, index, direction, J);
+				if (this.J.old != null) {
 					// Use previous value
-					J = Jold[index][direction];
-				}
-			}
-			AlgebraElement E = s.grid.getE(index, direction);
-			if (Ecurrent != null) {
-				Ecurrent[index][direction] = E.copy();
-				if (Eold != null && Eold[index] != null && Eold[index][direction] != null) {
-					// Form average
-					E = (E.add(Eold[index][direction])).mult(0.5);
+					load(this.J.old, index, direction, Jprevious);
+					J = Jprevious;
 				}
 			}
+			E.set(s.grid.getE(index, direction));
+			averageE(index, direction, E, t.algebra[2]);
 			value += J.mult(E);
 		}
 		return value / (as * g * as * g);
@@ -862,7 +1039,6 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	 * @return current times electric field J*E
 	 */
 	private double getCurrentElectricField3(int index) {
-		storeOldEJ = true;
 		double as = s.grid.getLatticeSpacing();
 		double g = s.getCouplingConstant();
 
@@ -873,11 +1049,11 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 			AlgebraElement J2 = getJShifted(index, direction, direction, -1);
 			AlgebraElement J = (J1.add(J2)).mult(0.5);
 
-			if (Jcurrent != null) {
-				Jcurrent[index][direction] = J1.copy();
-				if (Jold != null && Jold[index] != null && Jold[index][direction] != null) {
+			if (this.J != null) {
+				store(this.J.current, index, direction, J1);
+				if (this.J.old != null) {
 					// Use previous value
-					AlgebraElement J3 = Jold[index][direction];
+					AlgebraElement J3 = getStored(this.J.old, index, direction);
 					AlgebraElement J4 = getJOldShifted(index, direction, direction, -1);
 					AlgebraElement J34 = (J3.add(J4)).mult(0.5);
 					J = (J.add(J34)).mult(0.5);
@@ -893,12 +1069,12 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		value = value / (as * g * as * g);
 
 		// Return the J*E of the previous time step if available:
-		if (JEcurrent != null) {
+		if (JE != null) {
 			// Store value of current time step
-			JEcurrent[index] = value;
-			if (JEold != null && JEold[index] != null) {
+			JE.current[index] = value;
+			if (JE.old != null) {
 				// Use value of previous time step
-				value = JEold[index];
+				value = JE.old[index];
 			}
 		}
 
@@ -931,9 +1107,9 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 	private AlgebraElement getJOldShifted(int index, int direction, int shiftDirection, int shiftOrientation) {
 		int indexShifted = s.grid.shift(index, shiftDirection, shiftOrientation);
 		AlgebraElement J;
-		if (Jold != null && Jold[index] != null && Jold[index][direction] != null) {
+		if (this.J != null && this.J.old != null) {
 			// Use previous value
-			J = Jold[index][direction];
+			J = getStored(this.J.old, index, direction);
 		} else {
 			J = s.grid.getJ(indexShifted, direction);
 		}
@@ -1055,4 +1231,34 @@ public class PoyntingTheoremBuffer implements Diagnostics {
 		}
 		return integratedJE;
 	}
+
+	/**
+	 * Two-slot ring buffer of a flat array (indexed by cell, direction and color component). The slots are labelled
+	 * with the simulation step of their values, so the values of the previous step are found without copying.
+	 */
+	private static class History {
+
+		private final double[][] slots;
+		private final int[] steps = {-1, -1};
+
+		/**
+		 * Values of the selected step and of the step before (null if they have not been stored).
+		 */
+		double[] current;
+		double[] old;
+
+		History(int size) {
+			slots = new double[2][size];
+		}
+
+		/**
+		 * Selects the slot for the values of a step. The slot with the older values is reused.
+		 */
+		void select(int step) {
+			int slot = (steps[1] == step || (steps[0] != step && steps[1] < steps[0])) ? 1 : 0;
+			steps[slot] = step;
+			current = slots[slot];
+			old = (steps[1 - slot] == step - 1) ? slots[1 - slot] : null;
+		}
+	}
 }
@@ -1,14 +1,10 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.io.IOException;
-import java.util.Locale;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -20,6 +16,7 @@ public class PoyntingTheoremInTime implements Diagnostics {
 	private double timeInterval;
 	private int stepInterval;
 	private boolean supressOutput;
+	private OutputFile file;
 	private Simulation s;
 	private PoyntingTheoremBuffer poyntingTheorem;
 
@@ -50,26 +47,22 @@ public class PoyntingTheoremInTime implements Diagnostics {
 
 		if(!supressOutput) {
 			// Create/delete file.
-			FileFunctions.clearFile("output/" + path);
+			file = OutputFile.create("output/" + path, OutputFile.TEXT);
 
 			// Write first line.
-			File file = FileFunctions.getFile("output/" + path);
 			try {
-				FileWriter pw = new FileWriter(file, true);
-				pw.write("#time");
-				pw.write(" \t Energy density");
-				pw.write(" \t dE/dt");
-				pw.write(" \t div S");
-				pw.write(" \t B rot E - E rot B");
-				pw.write(" \t J*E");
-				pw.write(" \t dE/dt + div S + J*E");
-				pw.write(" \t Time-integrated div S");
-				pw.write(" \t Time-integrated B rot E - E rot B");
-				pw.write(" \t Time-integrated J*E");
-				pw.write(" \t E + time-integrated(div S + J*E)");
-				pw.write(" \t E + time-integrated(B rot E - E rot B + J*E)");
-				pw.write("\n");
-				pw.close();
+				file.writeHeader("#time"
+						+ " \t Energy density"
+						+ " \t dE/dt"
+						+ " \t div S"
+						+ " \t B rot E - E rot B"
+						+ " \t J*E"
+						+ " \t dE/dt + div S + J*E"
+						+ " \t Time-integrated div S"
+						+ " \t Time-integrated B rot E - E rot B"
+						+ " \t Time-integrated J*E"
+						+ " \t E + time-integrated(div S + J*E)"
+						+ " \t E + time-integrated(B rot E - E rot B + J*E)");
 			} catch (IOException ex) {
 				System.out.println("PoyntingTheoremInTime Error: Could not write to file '" + path + "'.");
 			}
@@ -105,25 +98,19 @@ public class PoyntingTheoremInTime implements Diagnostics {
 		if(steps % stepInterval == 0) {
 
 			if(!supressOutput) {
-				File file = FileFunctions.getFile("output/" + path);
-				FileWriter pw = new FileWriter(file, true);
-				DecimalFormat formatter = new DecimalFormat("0.################E0");
-
-				pw.write(formatter.format(steps * s.getTimeStep()));
-				pw.write("\t" + formatter.format(energyDensity));
-				pw.write("\t" + formatter.format(energyDensityDerivative));
-				pw.write("\t" + formatter.format(divS));
-				pw.write("\t" + formatter.format(brotEminusErotB));
-				pw.write("\t" + formatter.format(jS));
-				pw.write("\t" + formatter.format(poyntingTheoremSum));
-				pw.write("\t" + formatter.format(integratedDivS));
-				pw.write("\t" + formatter.format(integratedBrotEminusErotB));
-				pw.write("\t" + formatter.format(integratedJS));
-				pw.write("\t" + formatter.format(integratedPoyntingTheorem1));
-				pw.write("\t" + formatter.format(integratedPoyntingTheorem2));
-				pw.write("\n");
-
-				pw.close();
+				file.writeValue(steps * s.getTimeStep());
+				file.writeValue(energyDensity);
+				file.writeValue(energyDensityDerivative);
+				file.writeValue(divS);
+				file.writeValue(brotEminusErotB);
+				file.writeValue(jS);
+				file.writeValue(poyntingTheoremSum);
+				file.writeValue(integratedDivS);
+				file.writeValue(integratedBrotEminusErotB);
+				file.writeValue(integratedJS);
+				file.writeValue(integratedPoyntingTheorem1);
+				file.writeValue(integratedPoyntingTheorem2);
+				file.endLine();
 			}
 		}
 	}
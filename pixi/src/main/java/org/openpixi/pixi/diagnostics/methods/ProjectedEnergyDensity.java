@@ -1,17 +1,15 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.AsynchronousDiagnostics;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.math.GroupElement;
-import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellArrayReducer;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -40,13 +38,15 @@ import java.util.ArrayList;
  * 7) longitudinal poynting vector (only time-averaged)
  *
  */
-public class ProjectedEnergyDensity implements Diagnostics {
+public class ProjectedEnergyDensity implements AsynchronousDiagnostics {
 
 	private int direction;
 
 	private String path;
 	private double timeInterval;
 	private int stepInterval;
+	private String format = OutputFile.TEXT;
+	private OutputFile file;
 
 	private EnergyDensityComputation energyDensityComputation;
 	private PoyntingComputation poyntingComputation;
@@ -63,6 +63,13 @@ public class ProjectedEnergyDensity implements Diagnostics {
 		this.timeInterval = timeInterval;
 	}
 
+	/**
+	 * Sets the format of the output file ("text", "gzip" or "binary").
+	 */
+	public void setFormat(String format) {
+		this.format = format;
+	}
+
 	public void initialize(Simulation s) {
 		this.stepInterval = (int) (timeInterval / s.getTimeStep());
 
@@ -75,7 +82,7 @@ public class ProjectedEnergyDensity implements Diagnostics {
 		this.poyntingComputation = new PoyntingComputation();
 		poyntingComputation.initialize(s.grid, direction);
 
-		FileFunctions.clearFile("output/" + path);
+		file = OutputFile.create("output/" + path, format);
 
 		// Compute area factor
 		areaFactor = 1.0;
@@ -86,39 +93,48 @@ public class ProjectedEnergyDensity implements Diagnostics {
 		}
 	}
 
+	public int getRequiredFields() {
+		return Grid.FIELD_U | Grid.FIELD_UNEXT | Grid.FIELD_E;
+	}
+
+	public boolean isDue(int steps) {
+		return steps % stepInterval == 0;
+	}
+
 	public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) throws IOException {
 		if(steps % stepInterval == 0) {
 
-			energyDensityComputation.reset();
-			grid.getCellIterator().execute(grid, energyDensityComputation);
+			energyDensityComputation.calculate(grid);
 			energyDensityComputation.convertToEnergyUnits(grid);
 
-			poyntingComputation.reset();
-			grid.getCellIterator().execute(grid, poyntingComputation);
+			poyntingComputation.calculate(grid);
 			poyntingComputation.convertToEnergyUnits(grid);
 
 
 			// Write to file
-			File file = FileFunctions.getFile("output/" + path);
 			try {
-				FileWriter pw = new FileWriter(file, true);
-				Double time = steps * grid.getTemporalSpacing();
-				pw.write(time.toString() + "\n");
-				pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_T_el) + "\n");
-				pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_T_mag) + "\n");
-				pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_L_el) + "\n");
-				pw.write(FileFunctions.generateTSVString(energyDensityComputation.energyDensity_L_mag) + "\n");
-				pw.write(FileFunctions.generateTSVString(poyntingComputation.poyntingAveraged) + "\n");
-				pw.write(FileFunctions.generateTSVString(poyntingComputation.poyntingTimeAveraged) + "\n");
-				pw.close();
+				file.useDecimalFormat(false);
+				file.writeValue(steps * grid.getTemporalSpacing());
+				file.endLine();
+				file.useDecimalFormat(true);
+				writeLine(energyDensityComputation.energyDensity_T_el);
+				writeLine(energyDensityComputation.energyDensity_T_mag);
+				writeLine(energyDensityComputation.energyDensity_L_el);
+				writeLine(energyDensityComputation.energyDensity_L_mag);
+				writeLine(poyntingComputation.poyntingAveraged);
+				writeLine(poyntingComputation.poyntingTimeAveraged);
 			} catch (IOException ex) {
 				System.out.println("ProjectedEnergyDensity: Error writing to file.");
 			}
 		}
 	}
 
-	// Multithreaded code which leaks memory. I don't know why.
-	private class EnergyDensityComputation implements CellAction {
+	private void writeLine(double[] values) throws IOException {
+		file.writeValues(values);
+		file.endLine();
+	}
+
+	private class EnergyDensityComputation implements CellArrayReducer {
 
 		private int direction;
 		private int numberOfCells;
@@ -137,13 +153,15 @@ public class ProjectedEnergyDensity implements Diagnostics {
 
 		}
 
-		public void reset() {
-			for (int i = 0; i < numberOfCells; i++) {
-				this.energyDensity_T_el[i] = 0.0;
-				this.energyDensity_T_mag[i] = 0.0;
-				this.energyDensity_L_el[i] = 0.0;
-				this.energyDensity_L_mag[i] = 0.0;
-			}
+		/**
+		 * Computes the projected energy densities. The partial sums are stored in the order T_el, T_mag, L_el, L_mag.
+		 */
+		public void calculate(Grid grid) {
+			double[] sum = grid.getCellIterator().reduce(grid, this, 4 * numberOfCells);
+			System.arraycopy(sum, 0, energyDensity_T_el, 0, numberOfCells);
+			System.arraycopy(sum, numberOfCells, energyDensity_T_mag, 0, numberOfCells);
+			System.arraycopy(sum, 2 * numberOfCells, energyDensity_L_el, 0, numberOfCells);
+			System.arraycopy(sum, 3 * numberOfCells, energyDensity_L_mag, 0, numberOfCells);
 		}
 
 		public void convertToEnergyUnits(Grid grid) {
@@ -158,9 +176,9 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			}
 		}
 
-		public void execute(Grid grid, int index) {
+		public void reduce(Grid grid, int index, double[] sum) {
 			if(grid.isEvaluatable(index)) {
-				int projIndex = grid.getCellPos(index)[direction];
+				int projIndex = grid.getCellPos(index, direction);
 				// transversal & longitudinal electric energy density
 				double e_T_el = 0.0;
 				double e_L_el = 0.0;
@@ -169,7 +187,7 @@ public class ProjectedEnergyDensity implements Diagnostics {
 				double e_L_mag = 0.0;
 
 				for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
-					double electric = 0.5 * grid.getE(index, j).square();
+					double electric = 0.5 * grid.getEsquared(index, j);
 					double magnetic = 0.25 * (grid.getBsquaredFromLinks(index, j, 0) + grid.getBsquaredFromLinks(index, j, 1));
 					if(j == direction) {
 						e_L_el += electric;
@@ -180,18 +198,16 @@ public class ProjectedEnergyDensity implements Diagnostics {
 					}
 				}
 
-				synchronized (this) {
-					energyDensity_T_el[projIndex] += e_T_el;
-					energyDensity_T_mag[projIndex] += e_T_mag;
-					energyDensity_L_el[projIndex] += e_L_el;
-					energyDensity_L_mag[projIndex] += e_L_mag;
-				}
+				sum[projIndex] += e_T_el;
+				sum[numberOfCells + projIndex] += e_T_mag;
+				sum[2 * numberOfCells + projIndex] += e_L_el;
+				sum[3 * numberOfCells + projIndex] += e_L_mag;
 			}
 		}
 	}
 
 
-	private class PoyntingComputation implements CellAction {
+	private class PoyntingComputation implements CellArrayReducer {
 
 		private int direction;
 		private int numberOfDimensions;
@@ -211,11 +227,13 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			this.factory = grid.getElementFactory();
 		}
 
-		public void reset() {
-			for (int i = 0; i < numberOfCells; i++) {
-				this.poyntingAveraged[i] = 0.0;
-				this.poyntingTimeAveraged[i] = 0.0;
-			}
+		/**
+		 * Computes the projected Poynting vector. The partial sums are stored in the order averaged, time-averaged.
+		 */
+		public void calculate(Grid grid) {
+			double[] sum = grid.getCellIterator().reduce(grid, this, 2 * numberOfCells);
+			System.arraycopy(sum, 0, poyntingAveraged, 0, numberOfCells);
+			System.arraycopy(sum, numberOfCells, poyntingTimeAveraged, 0, numberOfCells);
 		}
 
 		public void convertToEnergyUnits(Grid grid) {
@@ -228,7 +246,7 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			}
 		}
 
-		public void execute(Grid grid, int index) {
+		public void reduce(Grid grid, int index, double[] sum) {
 			double localPoyntingAveraged = 0.0;
 			double localPoyntingTimeAveraged = 0.0;
 
@@ -283,12 +301,9 @@ public class ProjectedEnergyDensity implements Diagnostics {
 			localPoyntingTimeAveraged = E1.mult(B2) - E2.mult(B1);
 
 			// Add to array.
-			int projIndex = grid.getCellPos(index)[direction];
-			synchronized (this) {
-				this.poyntingAveraged[projIndex] += localPoyntingAveraged;
-				this.poyntingTimeAveraged[projIndex] += localPoyntingTimeAveraged;
-
-			}
+			int projIndex = grid.getCellPos(index, direction);
+			sum[projIndex] += localPoyntingAveraged;
+			sum[numberOfCells + projIndex] += localPoyntingTimeAveraged;
 		}
 	}
 
@@ -1,15 +1,11 @@
 package org.openpixi.pixi.diagnostics.methods;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
-import java.util.Locale;
 
 import org.openpixi.pixi.diagnostics.Diagnostics;
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.particles.IParticle;
@@ -21,6 +17,7 @@ public class TimeMeasurement implements Diagnostics {
 	private double timeInterval;
 	private int stepInterval;
 	private Simulation simulation;
+	private OutputFile file;
 	long stept0;
 	long t0;
 	Runtime runtime;
@@ -50,14 +47,11 @@ public class TimeMeasurement implements Diagnostics {
 		long jvmUpTime = ManagementFactory.getRuntimeMXBean().getUptime();
 
 		// Create/delete file.
-		FileFunctions.clearFile("output/" + path);
+		file = OutputFile.create("output/" + path, OutputFile.TEXT);
 
 		// Write first line.
-		File file = FileFunctions.getFile("output/" + path);
 		try {
-			FileWriter pw = new FileWriter(file, true);
-			pw.write("Initialization time: " + jvmUpTime + "ms\n");
-			pw.close();
+			file.writeText("Initialization time: " + jvmUpTime + "ms\n");
 		} catch (IOException ex) {
 			System.out.println("TimeMeasurement Error: Could not write to file '" + path + "'.");
 		}
@@ -83,11 +77,8 @@ public class TimeMeasurement implements Diagnostics {
 			double memory = ((int) (100 * runtime.totalMemory() / GIGABYTE)) / 100.0;
 			int mempercent = (int) (100 * runtime.totalMemory() / runtime.maxMemory());
 
-			File file = FileFunctions.getFile("output/" + path);
-			FileWriter pw = new FileWriter(file, true);
-
-			pw.write("step " + currentTime + "/" + totalTime + " (" + stepdt + "ms)\n");
-			pw.write("memory: " + memory + "gb (" + mempercent + "%)\n");
+			file.writeText("step " + currentTime + "/" + totalTime + " (" + stepdt + "ms)\n");
+			file.writeText("memory: " + memory + "gb (" + mempercent + "%)\n");
 
 			if (steps == simulation.getIterations()) {
 				// End of simulation
@@ -96,11 +87,9 @@ public class TimeMeasurement implements Diagnostics {
 				long t1 = System.nanoTime();
 				int dt = (int) ((t1 - t0) / 1000 / 1000 / 1000);
 				int avg = (int) ((t1 - t0) / 1000 / 1000) / simulation.getIterations();
-				pw.write("Simulation time: " + dt + " s (average " + avg + "ms)\n");
+				file.writeText("Simulation time: " + dt + " s (average " + avg + "ms)\n");
 			}
 
-			pw.close();
-
 			stept0 = stept1;
 		}
 	}
@@ -13,6 +13,15 @@ public interface AlgebraElement {
 	
 	void addAssign(AlgebraElement a);
 
+	/**
+	 * Adds a multiple of another AlgebraElement to this instance without creating temporary objects, i.e.
+	 * A += factor * a.
+	 *
+	 * @param a         AlgebraElement which is added to the current AlgebraElement instance.
+	 * @param factor    Factor by which a is multiplied before adding.
+	 */
+	void addAssign(AlgebraElement a, double factor);
+
 	/**
 	 * Subtracts the passed AlgebraElement instance from the current instance and returns the result as a copy.
 	 * This method does not change the original AlgebraElement instance.
@@ -84,6 +93,13 @@ public interface AlgebraElement {
 	 */
 	GroupElement getLink();
 
+	/**
+	 * Calculate exponential map of algebra element and write the group element into out.
+	 *
+	 * @param out   GroupElement instance which receives the result.
+	 */
+	void getLinkInto(GroupElement out);
+
 	/**
 	 * Returns the projection of the algebra element on to the c'th generator, i.e.
 	 *
@@ -19,9 +19,10 @@ public class ElementFactory {
 
     public ElementFactory() {}
 
-    double[] SU3GroupZero = new double[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
-    double[] SU3GroupIdentity = new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0};
-    double[] SU3AlgebraZero = new double[]{0, 0, 0, 0, 0, 0, 0, 0};
+    // The constants are copied by the constructors of the elements and shared by all factories.
+    static final double[] SU3GroupZero = new double[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    static final double[] SU3GroupIdentity = new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    static final double[] SU3AlgebraZero = new double[]{0, 0, 0, 0, 0, 0, 0, 0};
 
     public GroupElement groupZero(int colors) {
         switch (colors) {
@@ -65,6 +65,62 @@ public interface GroupElement {
 
 	void multAssign(GroupElement a);
 
+	/*
+	 *      In-place operations
+	 *
+	 * The following methods write their result into a caller-supplied instance and do not create any new objects.
+	 * They are meant for hot loops where the allocating methods above would produce a lot of garbage. The target
+	 * instance may be the same as this instance or the argument.
+	 */
+
+	/**
+	 * Computes the matrix product A.B and writes it into out, where A is this instance and B is the argument.
+	 *
+	 * @param a     GroupElement instance used for post-multiplication.
+	 * @param out   GroupElement instance which receives the result.
+	 */
+	void multInto(GroupElement a, GroupElement out);
+
+	/**
+	 * Computes the matrix product A^dagger.B and writes it into out, where A is this instance and B is the argument.
+	 *
+	 * @param a     GroupElement instance used for post-multiplication.
+	 * @param out   GroupElement instance which receives the result.
+	 */
+	void adjMultInto(GroupElement a, GroupElement out);
+
+	/**
+	 * Computes the matrix product A.B^dagger and writes it into out, where A is this instance and B is the argument.
+	 *
+	 * @param a     GroupElement instance whose hermitian conjugate is used for post-multiplication.
+	 * @param out   GroupElement instance which receives the result.
+	 */
+	void multAdjInto(GroupElement a, GroupElement out);
+
+	/**
+	 * Writes the hermitian conjugate of this instance into out.
+	 *
+	 * @param out   GroupElement instance which receives the result.
+	 */
+	void adjInto(GroupElement out);
+
+	/**
+	 * Writes the projection onto the generators of the group (see {@link #proj()}) into out.
+	 *
+	 * @param out   AlgebraElement instance which receives the result.
+	 */
+	void projInto(AlgebraElement out);
+
+	/**
+	 * Sets this instance to the identity matrix.
+	 */
+	void setIdentity();
+
+	/**
+	 * Sets all entries of the matrix to zero. The result is not a valid SU(n) matrix.
+	 */
+	void reset();
+
 	/**
 	 * Returns the exact algebra element of the group element. The algebra element generates the group element
 	 * via the exponential map.
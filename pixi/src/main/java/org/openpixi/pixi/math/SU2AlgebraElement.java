@@ -49,6 +49,16 @@ public class SU2AlgebraElement implements AlgebraElement {
 		v2 += a.v2;
 		
 	}
+
+	public void addAssign(AlgebraElement arg, double factor) {
+
+		SU2AlgebraElement a = (SU2AlgebraElement) arg;
+
+		v0 += factor * a.v0;
+		v1 += factor * a.v1;
+		v2 += factor * a.v2;
+
+	}
 	
 	public AlgebraElement sub (AlgebraElement arg) {
 
@@ -62,6 +72,21 @@ public class SU2AlgebraElement implements AlgebraElement {
 		
 	}
 	
+	/**
+	 * Sets all three coefficients at once.
+	 *
+	 * @param a Coefficient of the first generator.
+	 * @param b Coefficient of the second generator.
+	 * @param c Coefficient of the third generator.
+	 */
+	public void set (double a, double b, double c) {
+
+		v0 = a;
+		v1 = b;
+		v2 = c;
+
+	}
+
 	public void set (int j, double value) {
 		
 		switch (j) {
@@ -151,6 +176,19 @@ public class SU2AlgebraElement implements AlgebraElement {
 		return b;
 	}
 
+	public void getLinkInto(GroupElement out) {
+
+		double sum = v0*v0+v1*v1+v2*v2;
+		double mod = Math.sqrt(sum)/2;
+		double sinfakt;
+		if(mod < 1.E-20) {
+			sinfakt = 0.0;
+		} else {
+			sinfakt = 0.5/mod*Math.sin(mod);
+		}
+		((SU2GroupElement) out).set(Math.cos(mod), v0*sinfakt, v1*sinfakt, v2*sinfakt);
+	}
+
 	public double proj(int c)
 	{
 		return 0.5 * get(c);
@@ -158,21 +196,34 @@ public class SU2AlgebraElement implements AlgebraElement {
 
 	public AlgebraElement act(GroupElement g) {
 
-		SU2GroupElement u = (SU2GroupElement) g;
-		SU2GroupElement Xm = new SU2GroupElement();
-
-		Xm.set(0, 0.0);
-		Xm.set(1, v0 / 2);
-		Xm.set(2, v1 / 2);
-		Xm.set(3, v2 / 2);
-
-		Xm = (SU2GroupElement) u.mult(Xm.mult(u.adj()));
-		return Xm.proj();
+		SU2AlgebraElement b = new SU2AlgebraElement(v0, v1, v2);
+		b.actAssign(g);
+		return b;
 
 	}
 
+	/**
+	 * The adjoint action of U = u_0 + i u_i \sigma_i is a rotation of the coefficient vector v,
+	 *
+	 *      v' = (u_0^2 - u^2) v + 2 u_0 (v x u) + 2 (u.v) u,
+	 *
+	 * which is evaluated directly without intermediate matrices.
+	 */
 	public void actAssign(GroupElement g) {
-		this.set(this.act(g));
+
+		SU2GroupElement u = (SU2GroupElement) g;
+		double u0 = u.get(0);
+		double u1 = u.get(1);
+		double u2 = u.get(2);
+		double u3 = u.get(3);
+
+		double f = u0 * u0 - u1 * u1 - u2 * u2 - u3 * u3;
+		double s = 2 * (u1 * v0 + u2 * v1 + u3 * v2);
+		double c = 2 * u0;
+		set(f * v0 + c * (v1 * u3 - v2 * u2) + s * u1,
+			f * v1 + c * (v2 * u1 - v0 * u3) + s * u2,
+			f * v2 + c * (v0 * u2 - v1 * u1) + s * u3);
+
 	}
 
 	public AlgebraElement copy() {
@@ -97,6 +97,31 @@ public class SU2GroupElement implements GroupElement {
 		e3 = a.e3;
 	}
 
+	/**
+	 * Sets all four parameters at once. These parameters are specific to the group parametrization used by
+	 * SU2GroupElement.
+	 *
+	 * @param a first parameter
+	 * @param b second parameter
+	 * @param c third parameter
+	 * @param d fourth parameter
+	 */
+	public void set(double a, double b, double c, double d) {
+
+		e0 = a;
+		e1 = b;
+		e2 = c;
+		e3 = d;
+	}
+
+	public void setIdentity() {
+		set(1.0, 0.0, 0.0, 0.0);
+	}
+
+	public void reset() {
+		set(0.0, 0.0, 0.0, 0.0);
+	}
+
 	/**
 	 * Sets the j-th parameter to a certain value. These parameters are specific to the group parametrization used by
 	 * SU2GroupElement.
@@ -158,6 +183,10 @@ public class SU2GroupElement implements GroupElement {
 		this.e3 = - this.e3;
 	}
 
+	public void adjInto(GroupElement out) {
+		((SU2GroupElement) out).set(e0, -e1, -e2, -e3);
+	}
+
 	/**
 	 * Computes the first parameter from the other three parameters such that the parameter norm is 1.
 	 * If the norm of the other three parameters is already larger then one this will fail.
@@ -198,30 +227,41 @@ public class SU2GroupElement implements GroupElement {
 
 	public GroupElement mult(GroupElement arg) {
 
-		SU2GroupElement a = (SU2GroupElement) arg;
-
 		SU2GroupElement b = new SU2GroupElement();
-		b.e0 = e0 * a.e0 - e1 * a.e1 - e2 * a.e2 - e3 * a.e3;
-		b.e1 = e0 * a.e1 + e1 * a.e0 - e2 * a.e3 + e3 * a.e2;
-		b.e2 = e0 * a.e2 + e2 * a.e0 - e3 * a.e1 + e1 * a.e3;
-		b.e3 = e0 * a.e3 + e3 * a.e0 - e1 * a.e2 + e2 * a.e1;
+		multInto(arg, b);
 		return b;
 
 	}
 
 	public void multAssign(GroupElement arg) {
-		double f0, f1, f2;
-		double ae0 = ((SU2GroupElement) arg).e0;
-		double ae1 = ((SU2GroupElement) arg).e1;
-		double ae2 = ((SU2GroupElement) arg).e2;
-		double ae3 = ((SU2GroupElement) arg).e3;
-		f0 = e0;
-		f1 = e1;
-		f2 = e2;
-		e0 = e0 * ae0 - e1 * ae1 - e2 * ae2 - e3 * ae3;
-		e1 = f0 * ae1 + e1 * ae0 - e2 * ae3 + e3 * ae2;
-		e2 = f0 * ae2 + e2 * ae0 - e3 * ae1 + f1 * ae3;
-		e3 = f0 * ae3 + e3 * ae0 - f1 * ae2 + f2 * ae1;
+		multInto(arg, this);
+	}
+
+	public void multInto(GroupElement arg, GroupElement out) {
+		SU2GroupElement a = (SU2GroupElement) arg;
+		((SU2GroupElement) out).set(
+				e0 * a.e0 - e1 * a.e1 - e2 * a.e2 - e3 * a.e3,
+				e0 * a.e1 + e1 * a.e0 - e2 * a.e3 + e3 * a.e2,
+				e0 * a.e2 + e2 * a.e0 - e3 * a.e1 + e1 * a.e3,
+				e0 * a.e3 + e3 * a.e0 - e1 * a.e2 + e2 * a.e1);
+	}
+
+	public void adjMultInto(GroupElement arg, GroupElement out) {
+		SU2GroupElement a = (SU2GroupElement) arg;
+		((SU2GroupElement) out).set(
+				e0 * a.e0 + e1 * a.e1 + e2 * a.e2 + e3 * a.e3,
+				e0 * a.e1 - e1 * a.e0 + e2 * a.e3 - e3 * a.e2,
+				e0 * a.e2 - e2 * a.e0 + e3 * a.e1 - e1 * a.e3,
+				e0 * a.e3 - e3 * a.e0 + e1 * a.e2 - e2 * a.e1);
+	}
+
+	public void multAdjInto(GroupElement arg, GroupElement out) {
+		SU2GroupElement a = (SU2GroupElement) arg;
+		((SU2GroupElement) out).set(
+				e0 * a.e0 + e1 * a.e1 + e2 * a.e2 + e3 * a.e3,
+				- e0 * a.e1 + e1 * a.e0 + e2 * a.e3 - e3 * a.e2,
+				- e0 * a.e2 + e2 * a.e0 + e3 * a.e1 - e1 * a.e3,
+				- e0 * a.e3 + e3 * a.e0 + e1 * a.e2 - e2 * a.e1);
 	}
 
 	public AlgebraElement getAlgebraElement()
@@ -255,6 +295,10 @@ public class SU2GroupElement implements GroupElement {
 		return field;
 	}
 
+	public void projInto(AlgebraElement out) {
+		((SU2AlgebraElement) out).set(2 * this.e1, 2 * this.e2, 2 * this.e3);
+	}
+
 	public double getRealTrace() {
 		return 2*e0;
 	}
@@ -78,6 +78,16 @@ public class SU3AlgebraElement implements AlgebraElement {
 
 	}
 
+	public void addAssign(AlgebraElement arg, double factor) {
+
+		SU3AlgebraElement a = (SU3AlgebraElement) arg;
+
+		for (int i = 0; i < 9; i++) {
+			v[i] += factor * a.v[i];
+		}
+
+	}
+
 	public AlgebraElement sub (AlgebraElement arg) {
 
 		SU3AlgebraElement a = (SU3AlgebraElement) arg;
@@ -135,6 +145,12 @@ public class SU3AlgebraElement implements AlgebraElement {
 
 	}
 
+	public void setEntry(int j, double value) {
+
+		v[j] = value;
+
+	}
+
 	public double[] get () {
 
 		return v;
@@ -143,32 +159,70 @@ public class SU3AlgebraElement implements AlgebraElement {
 
 	public AlgebraElement act(GroupElement arg) {
 
-		SU3GroupElement a = (SU3GroupElement) arg;
-
-		// temporarily store algebra element as group element so we can use the multiplication method
-		SU3GroupElement temp = new SU3GroupElement(new double[]{v[0],v[1],v[2],v[1],v[4],v[5],v[2],v[5],v[8],0,-v[3],-v[6],v[3],0,-v[7],v[6],v[7],0});
-
-		double[] values = ((SU3GroupElement) a.mult(temp.mult(a.adj()))).get();
+		SU3AlgebraElement b = new SU3AlgebraElement(v);
+		b.actAssign(arg);
+		return b;
+	}
 
-		double[] fieldValues = new double[9];
+	public void actAssign(GroupElement arg) {
 
-		fieldValues[0] = values[0];
-		fieldValues[4] = values[4];
-		fieldValues[8] = values[8];
+		double[] u = ((SU3GroupElement) arg).get();
+
+		// computed symbolically: T = U X and R = T U^dagger with the algebra element X as hermitian matrix
+		double t0 = u[0]*v[0] + u[1]*v[1] - u[10]*v[3] + u[2]*v[2] - u[11]*v[6];
+		double t1 = u[0]*v[1] + u[9]*v[3] + u[1]*v[4] + u[2]*v[5] - u[11]*v[7];
+		double t2 = u[0]*v[2] + u[9]*v[6] + u[1]*v[5] + u[10]*v[7] + u[2]*v[8];
+		double t3 = u[3]*v[0] + u[4]*v[1] - u[13]*v[3] + u[5]*v[2] - u[14]*v[6];
+		double t4 = u[3]*v[1] + u[12]*v[3] + u[4]*v[4] + u[5]*v[5] - u[14]*v[7];
+		double t5 = u[3]*v[2] + u[12]*v[6] + u[4]*v[5] + u[13]*v[7] + u[5]*v[8];
+		double t6 = u[6]*v[0] + u[7]*v[1] - u[16]*v[3] + u[8]*v[2] - u[17]*v[6];
+		double t7 = u[6]*v[1] + u[15]*v[3] + u[7]*v[4] + u[8]*v[5] - u[17]*v[7];
+		double t8 = u[6]*v[2] + u[15]*v[6] + u[7]*v[5] + u[16]*v[7] + u[8]*v[8];
+		double t9 = u[9]*v[0] + u[1]*v[3] + u[10]*v[1] + u[2]*v[6] + u[11]*v[2];
+		double t10 = -u[0]*v[3] + u[9]*v[1] + u[10]*v[4] + u[2]*v[7] + u[11]*v[5];
+		double t11 = -u[0]*v[6] + u[9]*v[2] - u[1]*v[7] + u[10]*v[5] + u[11]*v[8];
+		double t12 = u[12]*v[0] + u[4]*v[3] + u[13]*v[1] + u[5]*v[6] + u[14]*v[2];
+		double t13 = -u[3]*v[3] + u[12]*v[1] + u[13]*v[4] + u[5]*v[7] + u[14]*v[5];
+		double t14 = -u[3]*v[6] + u[12]*v[2] - u[4]*v[7] + u[13]*v[5] + u[14]*v[8];
+		double t15 = u[15]*v[0] + u[7]*v[3] + u[16]*v[1] + u[8]*v[6] + u[17]*v[2];
+		double t16 = -u[6]*v[3] + u[15]*v[1] + u[16]*v[4] + u[8]*v[7] + u[17]*v[5];
+		double t17 = -u[6]*v[6] + u[15]*v[2] - u[7]*v[7] + u[16]*v[5] + u[17]*v[8];
+		double r0 = t0*u[0] + t9*u[9] + t1*u[1] + t10*u[10] + t2*u[2] + t11*u[11];
+		double r4 = t3*u[3] + t12*u[12] + t4*u[4] + t13*u[13] + t5*u[5] + t14*u[14];
+		double r8 = t6*u[6] + t15*u[15] + t7*u[7] + t16*u[16] + t8*u[8] + t17*u[17];
+		double r1 = t0*u[3] + t9*u[12] + t1*u[4] + t10*u[13] + t2*u[5] + t11*u[14];
+		double r3 = t3*u[0] + t12*u[9] + t4*u[1] + t13*u[10] + t5*u[2] + t14*u[11];
+		double r2 = t0*u[6] + t9*u[15] + t1*u[7] + t10*u[16] + t2*u[8] + t11*u[17];
+		double r6 = t6*u[0] + t15*u[9] + t7*u[1] + t16*u[10] + t8*u[2] + t17*u[11];
+		double r5 = t3*u[6] + t12*u[15] + t4*u[7] + t13*u[16] + t5*u[8] + t14*u[17];
+		double r7 = t6*u[3] + t15*u[12] + t7*u[4] + t16*u[13] + t8*u[5] + t17*u[14];
+		double r12 = -t3*u[9] + t12*u[0] - t4*u[10] + t13*u[1] - t5*u[11] + t14*u[2];
+		double r10 = -t0*u[12] + t9*u[3] - t1*u[13] + t10*u[4] - t2*u[14] + t11*u[5];
+		double r15 = -t6*u[9] + t15*u[0] - t7*u[10] + t16*u[1] - t8*u[11] + t17*u[2];
+		double r11 = -t0*u[15] + t9*u[6] - t1*u[16] + t10*u[7] - t2*u[17] + t11*u[8];
+		double r16 = -t6*u[12] + t15*u[3] - t7*u[13] + t16*u[4] - t8*u[14] + t17*u[5];
+		double r14 = -t3*u[15] + t12*u[6] - t4*u[16] + t13*u[7] - t5*u[17] + t14*u[8];
+
+		v[0] = r0;
+		v[4] = r4;
+		v[8] = r8;
 		// off-diagonal real values are symmetric averages of pairs
-		fieldValues[1] = (values[1] + values[3])/2;
-		fieldValues[2] = (values[2] + values[6])/2;
-		fieldValues[5] = (values[5] + values[7])/2;
+		v[1] = (r1 + r3)/2;
+		v[2] = (r2 + r6)/2;
+		v[5] = (r5 + r7)/2;
 		// off-diagonal imag. values are asymmetric averages of pairs
-		fieldValues[3] = (values[12] - values[10])/2;
-		fieldValues[6] = (values[15] - values[11])/2;
-		fieldValues[7] = (values[16] - values[14])/2;
-
-		return new SU3AlgebraElement(fieldValues);
+		v[3] = (r12 - r10)/2;
+		v[6] = (r15 - r11)/2;
+		v[7] = (r16 - r14)/2;
+		valuesChanged();
 	}
 
-	public void actAssign(GroupElement arg) {
-		v = ((SU3AlgebraElement) act(arg)).get();
+	/**
+	 * Called after the parameters of this instance have been overwritten by one of the in-place methods
+	 * (e.g. {@link SU3GroupElement#projInto(AlgebraElement)}). Subclasses which mirror the parameters elsewhere
+	 * can override this method.
+	 */
+	protected void valuesChanged() {
 	}
 
 	public double square () {
@@ -416,6 +470,20 @@ public class SU3AlgebraElement implements AlgebraElement {
 		return new SU3GroupElement(values);
 	}
 
+	public void getLinkInto(GroupElement out) {
+		// try exact method
+		double[] values = groupElementDecompositionMethod();
+
+		// if values has length 1 the exact method failed and values[0] is the requried taylorSeriesIterations
+		if (values.length == 1) {
+			values = groupElementTaylorSeries(values[0]);
+		}
+
+		SU3GroupElement b = (SU3GroupElement) out;
+		System.arraycopy(values, 0, b.get(), 0, 18);
+		b.valuesChanged();
+	}
+
 	public double proj(int c) {
 		switch (c) {
 			case 0: return 2 * v[1];
@@ -130,6 +130,38 @@ public class SU3GroupElement implements GroupElement {
 		return b;
 	}
 
+	public void adjInto(GroupElement out) {
+		SU3GroupElement b = (SU3GroupElement) out;
+		if (b == this) {
+			adjAssign();
+			return;
+		}
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				b.e[3 * i + j] = e[3 * j + i];
+				b.e[9 + 3 * i + j] = -e[9 + 3 * j + i];
+			}
+		}
+		b.valuesChanged();
+	}
+
+	public void setIdentity() {
+		for (int i = 0; i < 18; i++) {
+			e[i] = 0.0;
+		}
+		e[0] = 1.0;
+		e[4] = 1.0;
+		e[8] = 1.0;
+		valuesChanged();
+	}
+
+	public void reset() {
+		for (int i = 0; i < 18; i++) {
+			e[i] = 0.0;
+		}
+		valuesChanged();
+	}
+
 	public void adjAssign() {
 		double temp;
 		// real diag is good
@@ -176,34 +208,150 @@ public class SU3GroupElement implements GroupElement {
 
 	public GroupElement mult(GroupElement arg) {
 
-		SU3GroupElement a = (SU3GroupElement) arg;
-
-		// computed in Mathematica
 		SU3GroupElement b = new SU3GroupElement();
-		b.set(0, a.get(0)*e[0]+a.get(3)*e[1]-a.get(12)*e[10]-a.get(15)*e[11]+a.get(6)*e[2]-a.get(9)*e[9]);
-		b.set(1, a.get(1) * e[0] + a.get(4) * e[1] - a.get(13) * e[10] - a.get(16) * e[11] + a.get(7) * e[2] - a.get(10) * e[9]);
-		b.set(2, a.get(2) * e[0] + a.get(5) * e[1] - a.get(14) * e[10] - a.get(17) * e[11] + a.get(8) * e[2] - a.get(11) * e[9]);
-		b.set(3, -a.get(9)*e[12]-a.get(12)*e[13]-a.get(15)*e[14]+a.get(0)*e[3]+a.get(3)*e[4]+a.get(6)*e[5]);
-		b.set(4, -a.get(10) * e[12] - a.get(13) * e[13] - a.get(16) * e[14] + a.get(1) * e[3] + a.get(4) * e[4] + a.get(7) * e[5]);
-		b.set(5, -a.get(11) * e[12] - a.get(14) * e[13] - a.get(17) * e[14] + a.get(2) * e[3] + a.get(5) * e[4] + a.get(8) * e[5]);
-		b.set(6, -a.get(9)*e[15]-a.get(12)*e[16]-a.get(15)*e[17]+a.get(0)*e[6]+a.get(3)*e[7]+a.get(6)*e[8]);
-		b.set(7, -a.get(10) * e[15] - a.get(13) * e[16] - a.get(16) * e[17] + a.get(1) * e[6] + a.get(4) * e[7] + a.get(7) * e[8]);
-		b.set(8, -a.get(11) * e[15] - a.get(14) * e[16] - a.get(17) * e[17] + a.get(2) * e[6] + a.get(5) * e[7] + a.get(8) * e[8]);
-		b.set(9, a.get(9)*e[0]+a.get(12)*e[1]+a.get(3)*e[10]+a.get(6)*e[11]+a.get(15)*e[2]+a.get(0)*e[9]);
-		b.set(10, a.get(10) * e[0] + a.get(13) * e[1] + a.get(4) * e[10] + a.get(7) * e[11] + a.get(16) * e[2] + a.get(1) * e[9]);
-		b.set(11, a.get(11) * e[0] + a.get(14) * e[1] + a.get(5) * e[10] + a.get(8) * e[11] + a.get(17) * e[2] + a.get(2) * e[9]);
-		b.set(12, a.get(0)*e[12]+a.get(3)*e[13]+a.get(6)*e[14]+a.get(9)*e[3]+a.get(12)*e[4]+a.get(15)*e[5]);
-		b.set(13, a.get(1) * e[12] + a.get(4) * e[13] + a.get(7) * e[14] + a.get(10) * e[3] + a.get(13) * e[4] + a.get(16) * e[5]);
-		b.set(14, a.get(2) * e[12] + a.get(5) * e[13] + a.get(8) * e[14] + a.get(11) * e[3] + a.get(14) * e[4] + a.get(17) * e[5]);
-		b.set(15, a.get(0)*e[15]+a.get(3)*e[16]+a.get(6)*e[17]+a.get(9)*e[6]+a.get(12)*e[7]+a.get(15)*e[8]);
-		b.set(16, a.get(1) * e[15] + a.get(4) * e[16] + a.get(7) * e[17] + a.get(10) * e[6] + a.get(13) * e[7] + a.get(16) * e[8]);
-		b.set(17, a.get(2) * e[15] + a.get(5) * e[16] + a.get(8) * e[17] + a.get(11) * e[6] + a.get(14) * e[7] + a.get(17) * e[8]);
+		multInto(arg, b);
 		return b;
 	}
 
 	public void multAssign(GroupElement arg) {
-		GroupElement U = this.mult(arg);
-		this.set(U);
+		multInto(arg, this);
+	}
+
+	// computed symbolically, all products are formed before out is written
+	public void multInto(GroupElement arg, GroupElement out) {
+		SU3GroupElement a = (SU3GroupElement) arg;
+		SU3GroupElement b = (SU3GroupElement) out;
+		double r0 = e[0]*a.e[0] - e[9]*a.e[9] + e[1]*a.e[3] - e[10]*a.e[12] + e[2]*a.e[6] - e[11]*a.e[15];
+		double r1 = e[0]*a.e[1] - e[9]*a.e[10] + e[1]*a.e[4] - e[10]*a.e[13] + e[2]*a.e[7] - e[11]*a.e[16];
+		double r2 = e[0]*a.e[2] - e[9]*a.e[11] + e[1]*a.e[5] - e[10]*a.e[14] + e[2]*a.e[8] - e[11]*a.e[17];
+		double r3 = e[3]*a.e[0] - e[12]*a.e[9] + e[4]*a.e[3] - e[13]*a.e[12] + e[5]*a.e[6] - e[14]*a.e[15];
+		double r4 = e[3]*a.e[1] - e[12]*a.e[10] + e[4]*a.e[4] - e[13]*a.e[13] + e[5]*a.e[7] - e[14]*a.e[16];
+		double r5 = e[3]*a.e[2] - e[12]*a.e[11] + e[4]*a.e[5] - e[13]*a.e[14] + e[5]*a.e[8] - e[14]*a.e[17];
+		double r6 = e[6]*a.e[0] - e[15]*a.e[9] + e[7]*a.e[3] - e[16]*a.e[12] + e[8]*a.e[6] - e[17]*a.e[15];
+		double r7 = e[6]*a.e[1] - e[15]*a.e[10] + e[7]*a.e[4] - e[16]*a.e[13] + e[8]*a.e[7] - e[17]*a.e[16];
+		double r8 = e[6]*a.e[2] - e[15]*a.e[11] + e[7]*a.e[5] - e[16]*a.e[14] + e[8]*a.e[8] - e[17]*a.e[17];
+		double r9 = e[0]*a.e[9] + e[9]*a.e[0] + e[1]*a.e[12] + e[10]*a.e[3] + e[2]*a.e[15] + e[11]*a.e[6];
+		double r10 = e[0]*a.e[10] + e[9]*a.e[1] + e[1]*a.e[13] + e[10]*a.e[4] + e[2]*a.e[16] + e[11]*a.e[7];
+		double r11 = e[0]*a.e[11] + e[9]*a.e[2] + e[1]*a.e[14] + e[10]*a.e[5] + e[2]*a.e[17] + e[11]*a.e[8];
+		double r12 = e[3]*a.e[9] + e[12]*a.e[0] + e[4]*a.e[12] + e[13]*a.e[3] + e[5]*a.e[15] + e[14]*a.e[6];
+		double r13 = e[3]*a.e[10] + e[12]*a.e[1] + e[4]*a.e[13] + e[13]*a.e[4] + e[5]*a.e[16] + e[14]*a.e[7];
+		double r14 = e[3]*a.e[11] + e[12]*a.e[2] + e[4]*a.e[14] + e[13]*a.e[5] + e[5]*a.e[17] + e[14]*a.e[8];
+		double r15 = e[6]*a.e[9] + e[15]*a.e[0] + e[7]*a.e[12] + e[16]*a.e[3] + e[8]*a.e[15] + e[17]*a.e[6];
+		double r16 = e[6]*a.e[10] + e[15]*a.e[1] + e[7]*a.e[13] + e[16]*a.e[4] + e[8]*a.e[16] + e[17]*a.e[7];
+		double r17 = e[6]*a.e[11] + e[15]*a.e[2] + e[7]*a.e[14] + e[16]*a.e[5] + e[8]*a.e[17] + e[17]*a.e[8];
+		b.e[0] = r0;
+		b.e[1] = r1;
+		b.e[2] = r2;
+		b.e[3] = r3;
+		b.e[4] = r4;
+		b.e[5] = r5;
+		b.e[6] = r6;
+		b.e[7] = r7;
+		b.e[8] = r8;
+		b.e[9] = r9;
+		b.e[10] = r10;
+		b.e[11] = r11;
+		b.e[12] = r12;
+		b.e[13] = r13;
+		b.e[14] = r14;
+		b.e[15] = r15;
+		b.e[16] = r16;
+		b.e[17] = r17;
+		b.valuesChanged();
+	}
+
+	// same as multInto with the hermitian conjugate of this instance
+	public void adjMultInto(GroupElement arg, GroupElement out) {
+		SU3GroupElement a = (SU3GroupElement) arg;
+		SU3GroupElement b = (SU3GroupElement) out;
+		double r0 = e[0]*a.e[0] + e[9]*a.e[9] + e[3]*a.e[3] + e[12]*a.e[12] + e[6]*a.e[6] + e[15]*a.e[15];
+		double r1 = e[0]*a.e[1] + e[9]*a.e[10] + e[3]*a.e[4] + e[12]*a.e[13] + e[6]*a.e[7] + e[15]*a.e[16];
+		double r2 = e[0]*a.e[2] + e[9]*a.e[11] + e[3]*a.e[5] + e[12]*a.e[14] + e[6]*a.e[8] + e[15]*a.e[17];
+		double r3 = e[1]*a.e[0] + e[10]*a.e[9] + e[4]*a.e[3] + e[13]*a.e[12] + e[7]*a.e[6] + e[16]*a.e[15];
+		double r4 = e[1]*a.e[1] + e[10]*a.e[10] + e[4]*a.e[4] + e[13]*a.e[13] + e[7]*a.e[7] + e[16]*a.e[16];
+		double r5 = e[1]*a.e[2] + e[10]*a.e[11] + e[4]*a.e[5] + e[13]*a.e[14] + e[7]*a.e[8] + e[16]*a.e[17];
+		double r6 = e[2]*a.e[0] + e[11]*a.e[9] + e[5]*a.e[3] + e[14]*a.e[12] + e[8]*a.e[6] + e[17]*a.e[15];
+		double r7 = e[2]*a.e[1] + e[11]*a.e[10] + e[5]*a.e[4] + e[14]*a.e[13] + e[8]*a.e[7] + e[17]*a.e[16];
+		double r8 = e[2]*a.e[2] + e[11]*a.e[11] + e[5]*a.e[5] + e[14]*a.e[14] + e[8]*a.e[8] + e[17]*a.e[17];
+		double r9 = e[0]*a.e[9] - e[9]*a.e[0] + e[3]*a.e[12] - e[12]*a.e[3] + e[6]*a.e[15] - e[15]*a.e[6];
+		double r10 = e[0]*a.e[10] - e[9]*a.e[1] + e[3]*a.e[13] - e[12]*a.e[4] + e[6]*a.e[16] - e[15]*a.e[7];
+		double r11 = e[0]*a.e[11] - e[9]*a.e[2] + e[3]*a.e[14] - e[12]*a.e[5] + e[6]*a.e[17] - e[15]*a.e[8];
+		double r12 = e[1]*a.e[9] - e[10]*a.e[0] + e[4]*a.e[12] - e[13]*a.e[3] + e[7]*a.e[15] - e[16]*a.e[6];
+		double r13 = e[1]*a.e[10] - e[10]*a.e[1] + e[4]*a.e[13] - e[13]*a.e[4] + e[7]*a.e[16] - e[16]*a.e[7];
+		double r14 = e[1]*a.e[11] - e[10]*a.e[2] + e[4]*a.e[14] - e[13]*a.e[5] + e[7]*a.e[17] - e[16]*a.e[8];
+		double r15 = e[2]*a.e[9] - e[11]*a.e[0] + e[5]*a.e[12] - e[14]*a.e[3] + e[8]*a.e[15] - e[17]*a.e[6];
+		double r16 = e[2]*a.e[10] - e[11]*a.e[1] + e[5]*a.e[13] - e[14]*a.e[4] + e[8]*a.e[16] - e[17]*a.e[7];
+		double r17 = e[2]*a.e[11] - e[11]*a.e[2] + e[5]*a.e[14] - e[14]*a.e[5] + e[8]*a.e[17] - e[17]*a.e[8];
+		b.e[0] = r0;
+		b.e[1] = r1;
+		b.e[2] = r2;
+		b.e[3] = r3;
+		b.e[4] = r4;
+		b.e[5] = r5;
+		b.e[6] = r6;
+		b.e[7] = r7;
+		b.e[8] = r8;
+		b.e[9] = r9;
+		b.e[10] = r10;
+		b.e[11] = r11;
+		b.e[12] = r12;
+		b.e[13] = r13;
+		b.e[14] = r14;
+		b.e[15] = r15;
+		b.e[16] = r16;
+		b.e[17] = r17;
+		b.valuesChanged();
+	}
+
+	// same as multInto with the hermitian conjugate of the argument
+	public void multAdjInto(GroupElement arg, GroupElement out) {
+		SU3GroupElement a = (SU3GroupElement) arg;
+		SU3GroupElement b = (SU3GroupElement) out;
+		double r0 = e[0]*a.e[0] + e[9]*a.e[9] + e[1]*a.e[1] + e[10]*a.e[10] + e[2]*a.e[2] + e[11]*a.e[11];
+		double r1 = e[0]*a.e[3] + e[9]*a.e[12] + e[1]*a.e[4] + e[10]*a.e[13] + e[2]*a.e[5] + e[11]*a.e[14];
+		double r2 = e[0]*a.e[6] + e[9]*a.e[15] + e[1]*a.e[7] + e[10]*a.e[16] + e[2]*a.e[8] + e[11]*a.e[17];
+		double r3 = e[3]*a.e[0] + e[12]*a.e[9] + e[4]*a.e[1] + e[13]*a.e[10] + e[5]*a.e[2] + e[14]*a.e[11];
+		double r4 = e[3]*a.e[3] + e[12]*a.e[12] + e[4]*a.e[4] + e[13]*a.e[13] + e[5]*a.e[5] + e[14]*a.e[14];
+		double r5 = e[3]*a.e[6] + e[12]*a.e[15] + e[4]*a.e[7] + e[13]*a.e[16] + e[5]*a.e[8] + e[14]*a.e[17];
+		double r6 = e[6]*a.e[0] + e[15]*a.e[9] + e[7]*a.e[1] + e[16]*a.e[10] + e[8]*a.e[2] + e[17]*a.e[11];
+		double r7 = e[6]*a.e[3] + e[15]*a.e[12] + e[7]*a.e[4] + e[16]*a.e[13] + e[8]*a.e[5] + e[17]*a.e[14];
+		double r8 = e[6]*a.e[6] + e[15]*a.e[15] + e[7]*a.e[7] + e[16]*a.e[16] + e[8]*a.e[8] + e[17]*a.e[17];
+		double r9 = -e[0]*a.e[9] + e[9]*a.e[0] - e[1]*a.e[10] + e[10]*a.e[1] - e[2]*a.e[11] + e[11]*a.e[2];
+		double r10 = -e[0]*a.e[12] + e[9]*a.e[3] - e[1]*a.e[13] + e[10]*a.e[4] - e[2]*a.e[14] + e[11]*a.e[5];
+		double r11 = -e[0]*a.e[15] + e[9]*a.e[6] - e[1]*a.e[16] + e[10]*a.e[7] - e[2]*a.e[17] + e[11]*a.e[8];
+		double r12 = -e[3]*a.e[9] + e[12]*a.e[0] - e[4]*a.e[10] + e[13]*a.e[1] - e[5]*a.e[11] + e[14]*a.e[2];
+		double r13 = -e[3]*a.e[12] + e[12]*a.e[3] - e[4]*a.e[13] + e[13]*a.e[4] - e[5]*a.e[14] + e[14]*a.e[5];
+		double r14 = -e[3]*a.e[15] + e[12]*a.e[6] - e[4]*a.e[16] + e[13]*a.e[7] - e[5]*a.e[17] + e[14]*a.e[8];
+		double r15 = -e[6]*a.e[9] + e[15]*a.e[0] - e[7]*a.e[10] + e[16]*a.e[1] - e[8]*a.e[11] + e[17]*a.e[2];
+		double r16 = -e[6]*a.e[12] + e[15]*a.e[3] - e[7]*a.e[13] + e[16]*a.e[4] - e[8]*a.e[14] + e[17]*a.e[5];
+		double r17 = -e[6]*a.e[15] + e[15]*a.e[6] - e[7]*a.e[16] + e[16]*a.e[7] - e[8]*a.e[17] + e[17]*a.e[8];
+		b.e[0] = r0;
+		b.e[1] = r1;
+		b.e[2] = r2;
+		b.e[3] = r3;
+		b.e[4] = r4;
+		b.e[5] = r5;
+		b.e[6] = r6;
+		b.e[7] = r7;
+		b.e[8] = r8;
+		b.e[9] = r9;
+		b.e[10] = r10;
+		b.e[11] = r11;
+		b.e[12] = r12;
+		b.e[13] = r13;
+		b.e[14] = r14;
+		b.e[15] = r15;
+		b.e[16] = r16;
+		b.e[17] = r17;
+		b.valuesChanged();
+	}
+
+	/**
+	 * Called after the parameters of this instance have been overwritten by one of the in-place methods
+	 * (e.g. {@link #multInto(GroupElement, GroupElement)}). Subclasses which mirror the parameters elsewhere
+	 * can override this method.
+	 */
+	protected void valuesChanged() {
 	}
 
 	public double[] det() {
@@ -498,6 +646,20 @@ public class SU3GroupElement implements GroupElement {
 		return new SU3AlgebraElement(fieldValues);
 	}
 
+	public void projInto(AlgebraElement out) {
+		SU3AlgebraElement b = (SU3AlgebraElement) out;
+		b.v[0] = (2*e[9]-e[13]-e[17])/3;
+		b.v[1] = (e[10]+e[12])/2;
+		b.v[2] = (e[11]+e[15])/2;
+		b.v[3] = (e[1]-e[3])/2;
+		b.v[4] = (2*e[13]-e[17]-e[9])/3;
+		b.v[5] = (e[14]+e[16])/2;
+		b.v[6] = (e[2]-e[6])/2;
+		b.v[7] = (e[5]-e[7])/2;
+		b.v[8] = (2*e[17]-e[9]-e[13])/3;
+		b.valuesChanged();
+	}
+
 	/**
 	 * Returns the real trace of the matrix.
 	 *
@@ -0,0 +1,76 @@
+package org.openpixi.pixi.math;
+
+/**
+ * A fixed set of temporary group and algebra elements which can be used together with the in-place methods
+ * (e.g. {@link GroupElement#multInto(GroupElement, GroupElement)}) to avoid creating new objects in hot loops.
+ * <br>
+ * Cell actions are executed by several threads at once, so scratch elements must never be shared between
+ * threads. Use a {@link Pool} to obtain the elements of the current thread.
+ */
+public class ScratchElements {
+
+	/**
+	 * Temporary group elements.
+	 */
+	public final GroupElement[] group;
+
+	/**
+	 * Temporary algebra elements.
+	 */
+	public final AlgebraElement[] algebra;
+
+	private final int numberOfColors;
+
+	/**
+	 * Creates a new set of scratch elements.
+	 *
+	 * @param factory                   Factory used to create the elements
+	 * @param numberOfGroupElements     Number of group elements
+	 * @param numberOfAlgebraElements   Number of algebra elements
+	 */
+	public ScratchElements(ElementFactory factory, int numberOfGroupElements, int numberOfAlgebraElements) {
+		numberOfColors = factory.numberOfColors;
+		group = new GroupElement[numberOfGroupElements];
+		algebra = new AlgebraElement[numberOfAlgebraElements];
+		for (int i = 0; i < numberOfGroupElements; i++) {
+			group[i] = factory.groupZero();
+		}
+		for (int i = 0; i < numberOfAlgebraElements; i++) {
+			algebra[i] = factory.algebraZero();
+		}
+	}
+
+	/**
+	 * Thread local pool of scratch elements. Every thread gets its own set of elements which is created on first use
+	 * and recreated if the gauge group changes.
+	 */
+	public static class Pool extends ThreadLocal<ScratchElements> {
+
+		private final int numberOfGroupElements;
+		private final int numberOfAlgebraElements;
+
+		/**
+		 * @param numberOfGroupElements     Number of group elements per thread
+		 * @param numberOfAlgebraElements   Number of algebra elements per thread
+		 */
+		public Pool(int numberOfGroupElements, int numberOfAlgebraElements) {
+			this.numberOfGroupElements = numberOfGroupElements;
+			this.numberOfAlgebraElements = numberOfAlgebraElements;
+		}
+
+		/**
+		 * Returns the scratch elements of the current thread.
+		 *
+		 * @param factory   Factory of the grid on which the elements are used
+		 * @return          Scratch elements of the current thread
+		 */
+		public ScratchElements get(ElementFactory factory) {
+			ScratchElements scratch = get();
+			if (scratch == null || scratch.numberOfColors != factory.numberOfColors) {
+				scratch = new ScratchElements(factory, numberOfGroupElements, numberOfAlgebraElements);
+				set(scratch);
+			}
+			return scratch;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+import org.openpixi.pixi.physics.grid.Grid;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Executes action upon cells in parallel using a fork/join pool.
+ * In contrast to {@link ParallelCellIterator}, which hands out the cells round-robin, the lattice is split
+ * recursively into contiguous blocks of cell indices. Neighbouring cells are therefore processed by the same
+ * thread which keeps the cache lines of the grid local to one core. Threads which run out of work (e.g. because
+ * their blocks lie outside of the active region) steal the remaining blocks of the other threads.
+ */
+public class BlockCellIterator extends CellIterator {
+
+	/**
+	 * Number of blocks per thread which is used if no explicit block size is set.
+	 */
+	private static final int BLOCKS_PER_THREAD = 8;
+
+	/**
+	 * Lower bound for the automatically chosen block size.
+	 */
+	private static final int MIN_BLOCK_SIZE = 16;
+
+	/* These are exposed here for inner classes
+	   since they can not be passed to them as method arguments. */
+	private Grid grid;
+	private CellAction action;
+	int numOfCells;
+	int numOfThreads;
+	int blockSize;
+
+	private ForkJoinPool pool;
+
+	/**
+	 * @param numOfThreads  Number of threads of the pool
+	 * @param pool          Fork/join pool which executes the blocks
+	 * @param blockSize     Number of consecutive cells per block. If the value is not positive, the block size is
+	 *                      chosen such that every thread gets several blocks.
+	 */
+	public BlockCellIterator(int numOfThreads, ForkJoinPool pool, int blockSize) {
+		this.numOfThreads = numOfThreads;
+		this.pool = pool;
+		this.blockSize = blockSize;
+	}
+
+	public void execute(Grid grid, CellAction action) {
+		this.grid = grid;
+		this.action = action;
+		pool.invoke(new Block(0, numOfCells, getEffectiveBlockSize()));
+	}
+
+	public CellIterator copy() {
+		BlockCellIterator copy = new BlockCellIterator(this.numOfThreads, this.pool, this.blockSize);
+		copy.dimensions = dimensions.copy();
+		copy.numOfCells = this.numOfCells;
+		copy.orderedReduction = this.orderedReduction;
+
+		return copy;
+	}
+
+	@Override
+	protected int getNumberOfReductionBlocks(int numOfCells) {
+		return numOfCells / getEffectiveBlockSize();
+	}
+
+	@Override
+	protected void executeBlocks(int numOfBlocks, BlockAction action) {
+		pool.invoke(new BlockRange(0, numOfBlocks, action));
+	}
+
+	@Override
+	public void setNormalMode(int[] numCells) {
+		super.setNormalMode(numCells);
+		numOfCells = dimensions.getNumCells();
+	}
+
+	/**
+	 * Returns the block size used for the current number of cells.
+	 */
+	int getEffectiveBlockSize() {
+		if (blockSize > 0) {
+			return blockSize;
+		}
+		int size = numOfCells / (numOfThreads * BLOCKS_PER_THREAD);
+		return Math.max(size, MIN_BLOCK_SIZE);
+	}
+
+	/**
+	 * Range of cell indices [start, end) which is split in halves until it is not larger than the block size.
+	 */
+	private class Block extends RecursiveAction {
+
+		private int start;
+		private int end;
+		private int size;
+
+		private Block(int start, int end, int size) {
+			this.start = start;
+			this.end = end;
+			this.size = size;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= size) {
+				for (int cellIdx = start; cellIdx < end; cellIdx++) {
+					action.execute(grid, cellIdx);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new Block(start, middle, size), new Block(middle, end, size));
+			}
+		}
+	}
+
+	/**
+	 * Range of block indices [start, end) which is split in halves until a single block remains.
+	 */
+	private static class BlockRange extends RecursiveAction {
+
+		private int start;
+		private int end;
+		private BlockAction action;
+
+		private BlockRange(int start, int end, BlockAction action) {
+			this.start = start;
+			this.end = end;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= 1) {
+				if (start < end) {
+					action.execute(start);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new BlockRange(start, middle, action), new BlockRange(middle, end, action));
+			}
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Computes the contribution of a single cell to an array of sums over the grid.
+ * Used together with {@link CellIterator#reduce(Grid, CellArrayReducer, int)}.
+ */
+public interface CellArrayReducer {
+	/**
+	 * Adds the contributions of the cell with particular index to the partial sums. The array is private to the
+	 * calling thread, so no synchronization is necessary.
+	 */
+	void reduce(Grid grid, int index, double[] sum);
+}
@@ -6,13 +6,59 @@ import org.openpixi.pixi.physics.util.IntBox;
 /**
  * Interface for iterating over the cells of grid.
  * Enables parallel access to cells.
+ * <br>
+ * Sums over the grid are computed with the reduce methods: the cells are split into contiguous blocks, every block
+ * is summed up into its own partial sum and the partial sums are added in the order of the blocks. The result is
+ * therefore deterministic for a given iterator and number of threads. In the ordered mode the blocks have a fixed
+ * size which does not depend on the iterator, so the results are bitwise reproducible for any number of threads.
  */
 public abstract class CellIterator {
 
+	/**
+	 * Number of cells per block in the ordered reduction mode.
+	 */
+	public static final int ORDERED_BLOCK_SIZE = 1024;
+
 	protected IntBox dimensions;
 
+	protected boolean orderedReduction = false;
+
 	public abstract void execute(Grid grid, CellAction action);
 
+	/**
+	 * Executes the action only for the cells in the given ranges. Range k consists of the cells
+	 * [ranges[2k], ranges[2k+1]). The ranges are split into blocks which are distributed like the blocks of the
+	 * reductions.
+	 *
+	 * @param grid      Reference to the grid
+	 * @param action    Action which is executed for every cell in the ranges
+	 * @param ranges    Start (inclusive) and end (exclusive) of every range
+	 */
+	public void execute(Grid grid, CellAction action, int[] ranges) {
+		int numOfCells = 0;
+		for (int r = 0; r < ranges.length; r += 2) {
+			numOfCells += ranges[r + 1] - ranges[r];
+		}
+		if (numOfCells == 0) {
+			return;
+		}
+		int numOfBlocks = Math.max(getNumberOfReductionBlocks(numOfCells), 1);
+		int blockSize = Math.max((numOfCells + numOfBlocks - 1) / numOfBlocks, 1);
+
+		int maxBlocks = numOfCells / blockSize + ranges.length / 2 + 1;
+		int[] starts = new int[maxBlocks];
+		int[] ends = new int[maxBlocks];
+		int count = 0;
+		for (int r = 0; r < ranges.length; r += 2) {
+			for (int start = ranges[r]; start < ranges[r + 1]; start += blockSize) {
+				starts[count] = start;
+				ends[count] = Math.min(start + blockSize, ranges[r + 1]);
+				count++;
+			}
+		}
+		executeBlocks(count, new RangeExecution(grid, action, starts, ends));
+	}
+
 	/**
 	 * In this mode the iterator does not calculate the extra cells.
 	 */
@@ -30,4 +76,144 @@ public abstract class CellIterator {
 
 	public abstract CellIterator copy();
 
+	/**
+	 * Selects the ordered reduction mode (see class description).
+	 */
+	public void setOrderedReduction(boolean orderedReduction) {
+		this.orderedReduction = orderedReduction;
+	}
+
+	public boolean isOrderedReduction() {
+		return orderedReduction;
+	}
+
+	/**
+	 * Sums up the contributions of all cells.
+	 *
+	 * @param grid      Reference to the grid
+	 * @param reducer   Contribution of a single cell
+	 * @return          Sum over all cells
+	 */
+	public double reduce(Grid grid, CellReducer reducer) {
+		return reduce(grid, new ScalarReducer(reducer), 1)[0];
+	}
+
+	/**
+	 * Sums up the array valued contributions of all cells.
+	 *
+	 * @param grid      Reference to the grid
+	 * @param reducer   Contribution of a single cell
+	 * @param size      Length of the array of sums
+	 * @return          Array of sums over all cells
+	 */
+	public double[] reduce(Grid grid, CellArrayReducer reducer, int size) {
+		int numOfCells = dimensions.getNumCells();
+		int blockSize;
+		if (orderedReduction) {
+			blockSize = ORDERED_BLOCK_SIZE;
+		} else {
+			int numOfBlocks = Math.max(getNumberOfReductionBlocks(numOfCells), 1);
+			blockSize = Math.max((numOfCells + numOfBlocks - 1) / numOfBlocks, 1);
+		}
+		int numOfBlocks = (numOfCells + blockSize - 1) / blockSize;
+
+		double[][] partialSums = new double[numOfBlocks][size];
+		executeBlocks(numOfBlocks, new Reduction(grid, reducer, blockSize, numOfCells, partialSums));
+
+		double[] sum = new double[size];
+		for (int b = 0; b < numOfBlocks; b++) {
+			for (int k = 0; k < size; k++) {
+				sum[k] += partialSums[b][k];
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Executes independent tasks (e.g. the color components of a Poisson solve) on the threads of the iterator. Must
+	 * not be called from within an action of the same iterator.
+	 *
+	 * @param numOfTasks    Number of tasks
+	 * @param action        Action which is executed once for every task index in [0, numOfTasks)
+	 */
+	public void executeTasks(int numOfTasks, BlockAction action) {
+		executeBlocks(numOfTasks, action);
+	}
+
+	/**
+	 * Number of blocks into which the cells are split in the default reduction mode.
+	 */
+	protected abstract int getNumberOfReductionBlocks(int numOfCells);
+
+	/**
+	 * Executes the action once for every block index in [0, numOfBlocks). Different blocks may be executed
+	 * concurrently.
+	 */
+	protected abstract void executeBlocks(int numOfBlocks, BlockAction action);
+
+	/**
+	 * Action which is executed for a block of cells or a task.
+	 */
+	public interface BlockAction {
+		void execute(int block);
+	}
+
+	private static class Reduction implements BlockAction {
+
+		private Grid grid;
+		private CellArrayReducer reducer;
+		private int blockSize;
+		private int numOfCells;
+		private double[][] partialSums;
+
+		private Reduction(Grid grid, CellArrayReducer reducer, int blockSize, int numOfCells, double[][] partialSums) {
+			this.grid = grid;
+			this.reducer = reducer;
+			this.blockSize = blockSize;
+			this.numOfCells = numOfCells;
+			this.partialSums = partialSums;
+		}
+
+		public void execute(int block) {
+			double[] sum = partialSums[block];
+			int end = Math.min((block + 1) * blockSize, numOfCells);
+			for (int cellIdx = block * blockSize; cellIdx < end; cellIdx++) {
+				reducer.reduce(grid, cellIdx, sum);
+			}
+		}
+	}
+
+	private static class RangeExecution implements BlockAction {
+
+		private Grid grid;
+		private CellAction action;
+		private int[] starts;
+		private int[] ends;
+
+		private RangeExecution(Grid grid, CellAction action, int[] starts, int[] ends) {
+			this.grid = grid;
+			this.action = action;
+			this.starts = starts;
+			this.ends = ends;
+		}
+
+		public void execute(int block) {
+			for (int cellIdx = starts[block]; cellIdx < ends[block]; cellIdx++) {
+				action.execute(grid, cellIdx);
+			}
+		}
+	}
+
+	private static class ScalarReducer implements CellArrayReducer {
+
+		private CellReducer reducer;
+
+		private ScalarReducer(CellReducer reducer) {
+			this.reducer = reducer;
+		}
+
+		public void reduce(Grid grid, int index, double[] sum) {
+			sum[0] += reducer.reduce(grid, index);
+		}
+	}
 }
@@ -0,0 +1,14 @@
+package org.openpixi.pixi.parallel.cellaccess;
+
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Computes the contribution of a single cell to a sum over the grid.
+ * Used together with {@link CellIterator#reduce(Grid, CellReducer)}.
+ */
+public interface CellReducer {
+	/**
+	 * Returns the contribution of the cell with particular index.
+	 */
+	double reduce(Grid grid, int index);
+}
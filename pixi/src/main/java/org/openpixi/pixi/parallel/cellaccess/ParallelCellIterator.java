@@ -21,10 +21,13 @@ public class ParallelCellIterator extends CellIterator {
 	   since they can not be passed to them as method arguments. */
 	private Grid grid;
 	private CellAction action;
+	private BlockAction blockAction;
+	private int numOfBlocks;
 	int numOfCells;
 	int numOfThreads;
 
 	private List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+	private List<Callable<Object>> blockTasks = new ArrayList<Callable<Object>>();
 	private ExecutorService threadExecutor;
 
 
@@ -33,6 +36,7 @@ public class ParallelCellIterator extends CellIterator {
 		this.numOfThreads = numOfThreads;
 		for (int i = 0; i < numOfThreads; ++i) {
 			tasks.add(new Task(i, numOfThreads));
+			blockTasks.add(new BlockTask(i, numOfThreads));
 		}
 	}
 
@@ -58,10 +62,34 @@ public class ParallelCellIterator extends CellIterator {
 		ParallelCellIterator copy = new ParallelCellIterator(this.numOfThreads, this.threadExecutor);
 		copy.dimensions = dimensions.copy();
 		copy.numOfCells = this.numOfCells;
+		copy.orderedReduction = this.orderedReduction;
 
 		return copy;
 	}
 
+	@Override
+	protected int getNumberOfReductionBlocks(int numOfCells) {
+		return numOfThreads;
+	}
+
+	@Override
+	protected void executeBlocks(int numOfBlocks, BlockAction action) {
+		this.numOfBlocks = numOfBlocks;
+		this.blockAction = action;
+		try {
+			List<Future<Object>> futures = threadExecutor.invokeAll(blockTasks);
+			for (Future<Object> f : futures) {
+				// Retrieving the result throws possible exceptions
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			// Throw exceptions that happened in a thread
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Override
 	public void setNormalMode(int[] numCells) {
 		super.setNormalMode(numCells);
@@ -85,4 +113,22 @@ public class ParallelCellIterator extends CellIterator {
 			return null;
 		}
 	}
+
+	private class BlockTask implements Callable<Object> {
+
+		private int threadIdx;
+		private int numOfThreads;
+
+		private BlockTask(int threadIdx, int numOfThreads) {
+			this.threadIdx = threadIdx;
+			this.numOfThreads = numOfThreads;
+		}
+
+		public Object call() throws Exception {
+			for (int block = threadIdx; block < numOfBlocks; block += numOfThreads) {
+				blockAction.execute(block);
+			}
+			return null;
+		}
+	}
 }
@@ -19,6 +19,19 @@ public class SequentialCellIterator extends CellIterator {
 	public CellIterator copy() {
 		SequentialCellIterator copy = new SequentialCellIterator();
 		copy.dimensions = dimensions.copy();
+		copy.orderedReduction = orderedReduction;
 		return copy;
 	}
+
+	@Override
+	protected int getNumberOfReductionBlocks(int numOfCells) {
+		return 1;
+	}
+
+	@Override
+	protected void executeBlocks(int numOfBlocks, BlockAction action) {
+		for (int block = 0; block < numOfBlocks; block++) {
+			action.execute(block);
+		}
+	}
 }
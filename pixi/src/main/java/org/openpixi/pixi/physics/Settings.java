@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
@@ -56,6 +57,8 @@ public class Settings {
 	private FieldSolver fieldSolver = new FieldSolver();
 	private PoissonSolver poissonSolver = new EmptyPoissonSolver();
 	private boolean useGrid = true;
+	private boolean useFlatGrid = false;
+	private boolean useNeighbourTable = false;
 	private boolean relativistic = true;
 	// Regions
 	private boolean evaluationRegionEneabled = false;
@@ -97,6 +100,43 @@ public class Settings {
 	 * simulation we use ExecutorService which is maintaining a fixed number of threads running
 	 * all the time and assigns work to the threads on the fly according to demand. */
 	private ExecutorService threadsExecutor;
+	/* Use contiguous blocks of cells which are distributed by a work stealing pool
+	 * instead of the round-robin distribution of the ParallelCellIterator. */
+	private boolean useBlockCellIterator = false;
+	private int cellBlockSize = 0;
+	/* Sums over the grid use blocks of fixed size and are bitwise reproducible for any number of threads. */
+	private boolean orderedReduction = false;
+	/* Particles per cell above which currents and charges are deposited into thread private buffers. */
+	private double depositionBufferThreshold = 1.0;
+	private ForkJoinPool forkJoinPool;
+	/* The thread pools are shared with other simulations and are not shut down by terminateThreads(). */
+	private boolean sharedThreadPools = false;
+
+	/* Number of snapshots for asynchronous diagnostics which may wait for their calculation (0: synchronous). */
+	private int diagnosticsQueueDepth = 0;
+
+	/* Only update the longitudinal slices around the CGC particles (see MovingWindow). */
+	private boolean useMovingWindow = false;
+	private int movingWindowMargin = 4;
+
+	/* Only update the slabs of the grid which contain non-trivial fields (see OccupiedSlabs). */
+	private boolean useOccupiedSlabs = false;
+	private int occupiedSlabsDirection = 0;
+	private double vacuumTolerance = OccupiedSlabs.DEFAULT_TOLERANCE;
+
+	/* Update fields, links and currents in a single sweep (see FusedTYMSolver). */
+	private boolean useFusedSolver = false;
+	/* Maximum number of steps which are combined by temporal blocking in runs without particles (1: no blocking). */
+	private int temporalBlocking = 1;
+
+	/* Number of CGC particles per block of the structure of arrays particle store (0: single particle objects). */
+	private int particleArraySize = 0;
+
+	/* Checkpoint file from which the simulation is restarted instead of applying the initial conditions. */
+	private String restartFile;
+
+	/* Directory where solved initial conditions are stored and reused (null: no cache, see InitialConditionsCache). */
+	private String initialConditionsCache;
 
 	// Panel management
 	private YamlPanels yamlPanels;
@@ -190,10 +230,78 @@ public class Settings {
 		return useGrid;
 	}
 
+	public boolean useFlatGrid() {
+		return useFlatGrid;
+	}
+
+	public boolean useNeighbourTable() {
+		return useNeighbourTable;
+	}
+
 	public int getNumOfThreads() {
 		return numOfThreads;
 	}
 
+	public boolean useBlockCellIterator() {
+		return useBlockCellIterator;
+	}
+
+	public int getCellBlockSize() {
+		return cellBlockSize;
+	}
+
+	public boolean useOrderedReduction() {
+		return orderedReduction;
+	}
+
+	public double getDepositionBufferThreshold() {
+		return depositionBufferThreshold;
+	}
+
+	public int getDiagnosticsQueueDepth() {
+		return diagnosticsQueueDepth;
+	}
+
+	public boolean useMovingWindow() {
+		return useMovingWindow;
+	}
+
+	public boolean useFusedSolver() {
+		return useFusedSolver;
+	}
+
+	public int getTemporalBlocking() {
+		return temporalBlocking;
+	}
+
+	public int getMovingWindowMargin() {
+		return movingWindowMargin;
+	}
+
+	public boolean useOccupiedSlabs() {
+		return useOccupiedSlabs;
+	}
+
+	public int getOccupiedSlabsDirection() {
+		return occupiedSlabsDirection;
+	}
+
+	public double getVacuumTolerance() {
+		return vacuumTolerance;
+	}
+
+	public int getParticleArraySize() {
+		return particleArraySize;
+	}
+
+	public String getRestartFile() {
+		return restartFile;
+	}
+
+	public String getInitialConditionsCache() {
+		return initialConditionsCache;
+	}
+
 	public ArrayList<IFieldGenerator> getFieldGenerators() {
 		return this.fieldGenerators;
 	}
@@ -279,13 +387,20 @@ public class Settings {
 	}
 
 	public CellIterator getCellIterator() {
+		CellIterator cellIterator;
 		if (numOfThreads == 1) {
-			return new SequentialCellIterator();
+			cellIterator = new SequentialCellIterator();
 		} else if (numOfThreads > 1) {
-			return new ParallelCellIterator(numOfThreads, getThreadsExecutor());
+			if (useBlockCellIterator) {
+				cellIterator = new BlockCellIterator(numOfThreads, getForkJoinPool(), cellBlockSize);
+			} else {
+				cellIterator = new ParallelCellIterator(numOfThreads, getThreadsExecutor());
+			}
 		} else {
 			throw new RuntimeException("Invalid number of threads: " + numOfThreads);
 		}
+		cellIterator.setOrderedReduction(orderedReduction);
+		return cellIterator;
 	}
 
 	/**
@@ -298,6 +413,16 @@ public class Settings {
 		return threadsExecutor;
 	}
 
+	/**
+	 * Create fork/join pool on the fly according to demand.
+	 */
+	private ForkJoinPool getForkJoinPool() {
+		if (forkJoinPool == null) {
+			forkJoinPool = new ForkJoinPool(numOfThreads);
+		}
+		return forkJoinPool;
+	}
+
 	//----------------------------------------------------------------------------------------------
 	// SETTERS (Overwrite default values programatically)
 	//----------------------------------------------------------------------------------------------
@@ -434,10 +559,159 @@ public class Settings {
 		this.useGrid = useGrid;
 	}
 
+	/**
+	 * Selects the storage of the lattice fields. If true the fields are stored in flat arrays (see FlatGrid),
+	 * otherwise every lattice site is represented by a Cell instance.
+	 */
+	public void useFlatGrid(boolean useFlatGrid) {
+		this.useFlatGrid = useFlatGrid;
+	}
+
+	/**
+	 * Selects how the grid shifts cell indices. If true the neighbours of all cells are tabulated once (2 * dimensions
+	 * integers per cell, e.g. about 400 MB for 256^3 cells), otherwise they are computed from the cell strides on
+	 * every shift. Disabled by default.
+	 */
+	public void useNeighbourTable(boolean useNeighbourTable) {
+		this.useNeighbourTable = useNeighbourTable;
+	}
+
 	public void setNumOfThreads(int numOfThreads) {
 		this.numOfThreads = numOfThreads;
 	}
 
+	/**
+	 * Uses thread pools which are shared with other simulations in the same JVM (see EnsembleRunner) instead of
+	 * creating new pools. The pools are not shut down by {@link #terminateThreads()}.
+	 *
+	 * @param threadsExecutor   Executor for the ParallelCellIterator and the ParallelParticleIterator
+	 * @param forkJoinPool      Pool for the BlockCellIterator
+	 */
+	public void setSharedThreadPools(ExecutorService threadsExecutor, ForkJoinPool forkJoinPool) {
+		this.threadsExecutor = threadsExecutor;
+		this.forkJoinPool = forkJoinPool;
+		this.sharedThreadPools = true;
+	}
+
+	/**
+	 * Selects the parallel cell iterator. If true the lattice is split into contiguous blocks of cells which are
+	 * executed on a work stealing pool (see BlockCellIterator), otherwise the cells are distributed round-robin
+	 * among the threads (see ParallelCellIterator). Has no effect if only one thread is used.
+	 */
+	public void useBlockCellIterator(boolean useBlockCellIterator) {
+		this.useBlockCellIterator = useBlockCellIterator;
+	}
+
+	/**
+	 * Sets the number of consecutive cells per block of the BlockCellIterator. Non-positive values select the
+	 * block size automatically.
+	 */
+	public void setCellBlockSize(int cellBlockSize) {
+		this.cellBlockSize = cellBlockSize;
+	}
+
+	/**
+	 * Selects the ordered reduction mode of the cell iterators. Sums over the grid (e.g. the energy measurements)
+	 * are then bitwise reproducible for any number of threads at the cost of some extra partial sums.
+	 */
+	public void useOrderedReduction(boolean orderedReduction) {
+		this.orderedReduction = orderedReduction;
+	}
+
+	/**
+	 * Sets the number of particles per cell above which the parallel interpolation deposits currents and charges
+	 * into thread private buffers (see DepositionBuffer) instead of locking the cells. Use 0 to always and
+	 * Double.POSITIVE_INFINITY to never use the buffers. Has no effect if only one thread is used.
+	 */
+	public void setDepositionBufferThreshold(double depositionBufferThreshold) {
+		this.depositionBufferThreshold = depositionBufferThreshold;
+	}
+
+	public void setDiagnosticsQueueDepth(int diagnosticsQueueDepth) {
+		this.diagnosticsQueueDepth = diagnosticsQueueDepth;
+	}
+
+	/**
+	 * Selects the field solver of the temporal simulation types. If true the FusedTYMSolver updates the fields and
+	 * links and resets the currents in a single sweep, otherwise the FastTYMSolver is used. Other field solvers are
+	 * not replaced.
+	 */
+	public void useFusedSolver(boolean useFusedSolver) {
+		this.useFusedSolver = useFusedSolver;
+		if (useFusedSolver && fieldSolver instanceof FastTYMSolver && !(fieldSolver instanceof FusedTYMSolver)) {
+			setFieldSolver(new FusedTYMSolver());
+		} else if (!useFusedSolver && fieldSolver instanceof FusedTYMSolver) {
+			setFieldSolver(new FastTYMSolver());
+		}
+	}
+
+	/**
+	 * Sets the maximum number of steps which are advanced at once in runs without particles, external currents,
+	 * moving window and occupied slabs. Blocks end before every step at which a diagnostic is due, so blocking is
+	 * only used if all diagnostics are asynchronous. With the FusedTYMSolver on a flat grid the steps of a block are
+	 * computed with temporal blocking.
+	 */
+	public void setTemporalBlocking(int temporalBlocking) {
+		this.temporalBlocking = temporalBlocking;
+	}
+
+	/**
+	 * Restricts the update of the fields to the longitudinal slices between the outermost CGC particles. The fields
+	 * in front of and behind the nuclei are frozen until the window reaches them again.
+	 */
+	public void useMovingWindow(boolean useMovingWindow) {
+		this.useMovingWindow = useMovingWindow;
+	}
+
+	/**
+	 * Number of slices in front of and behind the outermost CGC particles which are updated by the moving window.
+	 */
+	public void setMovingWindowMargin(int movingWindowMargin) {
+		this.movingWindowMargin = movingWindowMargin;
+	}
+
+	/**
+	 * Restricts the field solver to the slabs of the grid which contain non-trivial fields or currents and their
+	 * neighbours. Slabs in the vacuum are skipped.
+	 */
+	public void useOccupiedSlabs(boolean useOccupiedSlabs) {
+		this.useOccupiedSlabs = useOccupiedSlabs;
+	}
+
+	/**
+	 * Direction in which the grid is split into slabs for the occupied slabs, usually the longitudinal direction.
+	 */
+	public void setOccupiedSlabsDirection(int occupiedSlabsDirection) {
+		this.occupiedSlabsDirection = occupiedSlabsDirection;
+	}
+
+	/**
+	 * Fields and deviations of the links from the identity below this value count as vacuum for the occupied slabs.
+	 */
+	public void setVacuumTolerance(double vacuumTolerance) {
+		this.vacuumTolerance = vacuumTolerance;
+	}
+
+	/**
+	 * Packs the CGC particles into blocks of the given size after the initial conditions (see CGCParticleArray).
+	 * Only supported by the NGP interpolation of CGC particles. Use 0 to keep single particle objects.
+	 */
+	public void setParticleArraySize(int particleArraySize) {
+		this.particleArraySize = particleArraySize;
+	}
+
+	public void setRestartFile(String restartFile) {
+		this.restartFile = restartFile;
+	}
+
+	/**
+	 * Stores the solved initial conditions of models with a fixed seed in the given directory and reuses them in later
+	 * runs with the same parameters (see InitialConditionsCache). Use null to disable the cache.
+	 */
+	public void setInitialConditionsCache(String initialConditionsCache) {
+		this.initialConditionsCache = initialConditionsCache;
+	}
+
 	public void setFieldGenerators(ArrayList<IFieldGenerator> fieldGenerators) {
 		this.fieldGenerators = fieldGenerators;
 	}
@@ -514,25 +788,25 @@ public class Settings {
 		switch(simulationType) {
 			case TemporalYangMills:
 				setBoundary(GeneralBoundaryType.Periodic);
-				setFieldSolver(new FastTYMSolver());
+				setFieldSolver(useFusedSolver ? new FusedTYMSolver() : new FastTYMSolver());
 				setParticleSolver(new EmptyParticleSolver());
 				setInterpolator(new EmptyInterpolator());
 				break;
 			case TemporalCGC:
 				setBoundary(GeneralBoundaryType.Absorbing);
-				setFieldSolver(new FastTYMSolver());
+				setFieldSolver(useFusedSolver ? new FusedTYMSolver() : new FastTYMSolver());
 				setParticleSolver(new CGCParticleSolver());
 				setInterpolator(new CGCParticleInterpolation());
 				break;
 			case TemporalCGCNGP:
 				setBoundary(GeneralBoundaryType.Absorbing);
-				setFieldSolver(new FastTYMSolver());
+				setFieldSolver(useFusedSolver ? new FusedTYMSolver() : new FastTYMSolver());
 				setParticleSolver(new CGCParticleSolver());
 				setInterpolator(new CGCParticleInterpolationNGP());
 				break;
 			case TemporalOptimizedCGCNGP:
 				setBoundary(GeneralBoundaryType.Absorbing);
-				setFieldSolver(new FastTYMSolver());
+				setFieldSolver(useFusedSolver ? new FusedTYMSolver() : new FastTYMSolver());
 				setParticleSolver(new CGCSuperParticleSolver());
 				setInterpolator(new CGCSuperParticleInterpolationNGP());
 				break;
@@ -547,9 +821,19 @@ public class Settings {
 	 * called multiple times without side-effects).
 	 */
 	public void terminateThreads() {
+		if (sharedThreadPools) {
+			threadsExecutor = null;
+			forkJoinPool = null;
+			sharedThreadPools = false;
+			return;
+		}
 		if (threadsExecutor != null) {
 			threadsExecutor.shutdown();
 			threadsExecutor = null;
 		}
+		if (forkJoinPool != null) {
+			forkJoinPool.shutdown();
+			forkJoinPool = null;
+		}
 	}
 }
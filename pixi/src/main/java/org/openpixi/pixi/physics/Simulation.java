@@ -18,6 +18,7 @@
  */
 package org.openpixi.pixi.physics;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.openpixi.pixi.physics.fields.fieldgenerators.IFieldGenerator;
@@ -27,19 +28,29 @@ import org.openpixi.pixi.physics.force.Force;
 import org.openpixi.pixi.physics.force.CombinedForce;
 import org.openpixi.pixi.physics.force.SimpleGridForce;
 import org.openpixi.pixi.physics.force.relativistic.SimpleGridForceRelativistic;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolationNGP;
+import org.openpixi.pixi.physics.grid.FlatGrid;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.grid.Interpolation;
 import org.openpixi.pixi.physics.grid.LocalInterpolation;
+import org.openpixi.pixi.physics.grid.MovingWindow;
+import org.openpixi.pixi.physics.grid.OccupiedSlabs;
 import org.openpixi.pixi.physics.initial.IInitialCondition;
 import org.openpixi.pixi.physics.movement.ParticleMover;
 import org.openpixi.pixi.physics.movement.boundary.AbsorbingParticleBoundaryConditions;
 import org.openpixi.pixi.physics.movement.boundary.IParticleBoundaryConditions;
 import org.openpixi.pixi.physics.movement.boundary.PeriodicParticleBoundaryConditions;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.diagnostics.AsynchronousDiagnostics;
 import org.openpixi.pixi.diagnostics.Diagnostics;
+import org.openpixi.pixi.diagnostics.DiagnosticsPipeline;
+import org.openpixi.pixi.diagnostics.OutputFile;
+import org.openpixi.pixi.physics.util.Checkpoint;
 import org.openpixi.pixi.physics.util.PerformanceTimer;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 public class Simulation {
 
@@ -119,11 +130,48 @@ public class Simulation {
      */
     private ArrayList<Diagnostics>  diagnostics;
 
+	/**
+	 * Calculates asynchronous diagnostics in the background. If null, all diagnostics are calculated in step().
+	 */
+	private DiagnosticsPipeline diagnosticsPipeline;
+
+	/**
+	 * Restricts the field update to the longitudinal region around the CGC particles. If null, the whole active
+	 * region is updated.
+	 */
+	private MovingWindow movingWindow;
+
+	/**
+	 * Directory of the cache for solved initial conditions. Null if the cache is disabled.
+	 */
+	private String initialConditionsCache;
+
 	/**
 	 * List of external current generators which are applied during the whole runtime of the simulation.
 	 */
 	private ArrayList<ICurrentGenerator>  currentGenerators;
 
+	/**
+	 * Diagnostics are initialized in the first call of step(), which is not necessarily at t == 0 when the
+	 * simulation has been restarted from a checkpoint.
+	 */
+	private boolean diagnosticsInitialized = false;
+
+	/**
+	 * Whether the simulation continues from a checkpoint file.
+	 */
+	private boolean resumed = false;
+
+	/**
+	 * Positions of the output files at the time of the checkpoint from which the simulation continues.
+	 */
+	private Map<String, Long> outputPositions;
+
+	/**
+	 * Maximum number of steps which are advanced at once by temporal blocking (see {@link #getBlockSize()}).
+	 */
+	private int temporalBlocking;
+
 	private PerformanceTimer timer;
 
 
@@ -139,6 +187,10 @@ public class Simulation {
 		return iterations;
 	}
 
+	public String getInitialConditionsCache() {
+		return initialConditionsCache;
+	}
+
 	@Deprecated
 	public double getWidth() {
 		return simulationBoxSize[0];
@@ -179,6 +231,13 @@ public class Simulation {
         return  mover;
     }
 
+	/**
+	 * Returns true if the simulation continues from a checkpoint file instead of the initial conditions.
+	 */
+	public boolean isResumed() {
+		return resumed;
+	}
+
 	/**
 	 * Constructor for non distributed simulation.
 	 */
@@ -203,12 +262,17 @@ public class Simulation {
 		totalSimulationSteps = 0;
 
 		relativistic = settings.getRelativistic();
+		initialConditionsCache = settings.getInitialConditionsCache();
+		temporalBlocking = settings.getTemporalBlocking();
 
 		// TODO make particles a generic list
 		particles = (ArrayList<IParticle>) settings.getParticles();
 		f = settings.getForce();
 
 		diagnostics = settings.getDiagnostics();
+		if (settings.getDiagnosticsQueueDepth() > 0) {
+			diagnosticsPipeline = new DiagnosticsPipeline(settings.getDiagnosticsQueueDepth());
+		}
 
 		IParticleBoundaryConditions particleBoundaryConditions;
 		switch (settings.getBoundaryType())
@@ -231,7 +295,11 @@ public class Simulation {
 
 		numberOfThreads = settings.getNumOfThreads();
 
-		grid = new Grid(settings);
+		if (settings.useFlatGrid()) {
+			grid = new FlatGrid(settings);
+		} else {
+			grid = new Grid(settings);
+		}
 		if (settings.useGrid()) {
 			turnGridForceOn();
 		} else {
@@ -248,34 +316,73 @@ public class Simulation {
 			grid.setActiveRegion(settings.getActiveRegionPoint1(), settings.getActiveRegionPoint2());
 		}
 
+		if(settings.useOccupiedSlabs()) {
+			grid.setOccupiedSlabs(new OccupiedSlabs(settings.getOccupiedSlabsDirection(),
+					settings.getVacuumTolerance()));
+		}
+
+		if(settings.useMovingWindow()) {
+			movingWindow = new MovingWindow(grid, settings.getMovingWindowMargin());
+			grid.setMovingWindow(movingWindow);
+		}
+
 		poisolver = settings.getPoissonSolver();
+		double depositionBufferThreshold = (numberOfThreads > 1) ?
+				settings.getDepositionBufferThreshold() : Double.POSITIVE_INFINITY;
 		interpolation = new LocalInterpolation(
-				settings.getInterpolator(), settings.getParticleIterator());
+				settings.getInterpolator(), settings.getParticleIterator(), depositionBufferThreshold);
 		particleGridInitializer.initialize(interpolation, poisolver, particles, grid);
 
         // Cycle through field generators and apply field configurations to the Grid.
         fieldGenerators = settings.getFieldGenerators();
-		for (IFieldGenerator f: fieldGenerators)
-        {
-            f.applyFieldConfiguration(this);
-        }
+		if (settings.getRestartFile() == null) {
+			for (IFieldGenerator f: fieldGenerators)
+			{
+				f.applyFieldConfiguration(this);
+			}
+		}
 		/*
 			TODO After running through each field generator we should check if the intial state is consistent.
 			(e.g. check if Gauss law is fulfilled.)
 		 */
 
+		if (settings.getParticleArraySize() > 0 && !(settings.getInterpolator() instanceof CGCParticleInterpolationNGP)) {
+			throw new RuntimeException("Simulation: particle arrays are only supported by CGCParticleInterpolationNGP.");
+		}
+
 		// Copy current generators from Settings.
 		currentGenerators = settings.getCurrentGenerators();
-		// Initialize external currents on the grid
+		resumed = settings.getRestartFile() != null;
+		// Initialize external currents on the grid. When resuming, the fields and particles are read from the
+		// checkpoint, so only the state which is not part of it is rebuilt.
 		for (ICurrentGenerator c: currentGenerators) {
-			c.initializeCurrent(this, currentGenerators.size());
+			if (resumed) {
+				c.restoreCurrent(this, currentGenerators.size());
+			} else {
+				c.initializeCurrent(this, currentGenerators.size());
+			}
 		}
 
-		for(IInitialCondition ic : settings.getInitialConditions()) {
-			ic.applyInitialCondition(this);
-		}
+		if (!resumed) {
+			for(IInitialCondition ic : settings.getInitialConditions()) {
+				ic.applyInitialCondition(this);
+			}
 
-		initialize();
+			if (settings.getParticleArraySize() > 0) {
+				CGCParticleArray.pack(particles, settings.getParticleArraySize(), numberOfColors);
+			}
+
+			initialize();
+		} else {
+			// Continue from the state stored in a checkpoint file instead of the initial conditions.
+			try {
+				Checkpoint checkpoint = Checkpoint.read(new File(settings.getRestartFile()));
+				checkpoint.restore(this);
+				outputPositions = checkpoint.getOutputPositions();
+			} catch (IOException e) {
+				throw new RuntimeException("Simulation: Error reading checkpoint " + settings.getRestartFile(), e);
+			}
+		}
 
 		timer = new PerformanceTimer();
 	}
@@ -359,6 +466,7 @@ public class Simulation {
 	 * 3) Reassign particle positions, charges and gauge links.
 	 *    Particle position and charge and now refer to quantities at t+dt.
 	 *    U refers to U(t+dt/2), Unext to U(t+3d/2).
+	 *    Move the window of active cells to the new particle positions (if enabled).
 	 * 4) Compute E(t+dt) from E(t), U(t+dt/2) and j(t+dt/2).
 	 * 5) Compute U(t+3dt/2) using E(t+dt) and U(t+dt/2).
 	 * 6) Interpolate charge density rho(t+dt) using particle position x(t+dt) and charge Q(t+dt).
@@ -373,26 +481,39 @@ public class Simulation {
 	public void step() throws IOException {
 
 		// 1) Initialize and run diagnostics before first simulation step.
-		if(totalSimulationSteps == 0) {
-			for (int i = 0; i< diagnostics.size(); i++) {	//Attention! Size of the diagnostics may change during the initialization!!
-				diagnostics.get(i).initialize(this);
+		if(!diagnosticsInitialized) {
+			// A resumed simulation continues the output files of the earlier run where the checkpoint was taken.
+			OutputFile.setResumePositions(outputPositions);
+			try {
+				for (int i = 0; i< diagnostics.size(); i++) {	//Attention! Size of the diagnostics may change during the initialization!!
+					diagnostics.get(i).initialize(this);
+				}
+			} finally {
+				OutputFile.setResumePositions(null);
+			}
+			diagnosticsInitialized = true;
+			if(totalSimulationSteps == 0) {
+				runDiagnostics();
 			}
-			runDiagnostics();
 		}
 
 		// 2) Step counter
-		totalSimulationSteps++;
+		int blockSize = getBlockSize();
+		totalSimulationSteps += blockSize;
 		totalSimulationTime =  totalSimulationSteps * tstep;
 		grid.setSimulationSteps(totalSimulationSteps);
 
 		// 3) Reassign particle charges, positions and gauge links
 		mover.reassign(particles);
 		grid.storeFields();
+		if (movingWindow != null) {
+			movingWindow.update(grid, particles);
+		}
 
 		timer.reset();
 		// 4) Compute electric fields from links and currents
 		// 5) Update links
-		grid.updateGrid(tstep);
+		grid.updateGrid(tstep, blockSize);
 		timer.lap("EOM");
 
 		// 6) Interpolate charge density
@@ -416,7 +537,9 @@ public class Simulation {
 		timer.lap("CUP");
 
 		// 11) Interpolate currents
-		grid.resetCurrent();
+		if (!grid.getFsolver().resetsCurrent(grid)) {
+			grid.resetCurrent();
+		}
 		interpolation.interpolateToGrid(particles, grid);
 		timer.lap("JIN");
 
@@ -434,6 +557,35 @@ public class Simulation {
 
 	}
 
+	/**
+	 * Number of steps which are advanced by the next call of {@link #step()}. Several steps are only combined if
+	 * nothing but the field solver acts on the grid (no particles, external currents, moving window or occupied
+	 * slabs) and all diagnostics are asynchronous. The block ends at the next step at which a diagnostic is due and
+	 * never skips over the last iteration.
+	 *
+	 * @return  Number of steps
+	 */
+	private int getBlockSize() {
+		if (temporalBlocking <= 1 || !particles.isEmpty() || !currentGenerators.isEmpty() || movingWindow != null
+				|| grid.getOccupiedSlabs() != null || totalSimulationSteps >= iterations) {
+			return 1;
+		}
+		for (int f = 0; f < diagnostics.size(); f++) {
+			if (!(diagnostics.get(f) instanceof AsynchronousDiagnostics)) {
+				return 1;
+			}
+		}
+		int maximumSize = Math.min(temporalBlocking, iterations - totalSimulationSteps);
+		for (int size = 1; size < maximumSize; size++) {
+			for (int f = 0; f < diagnostics.size(); f++) {
+				if (((AsynchronousDiagnostics) diagnostics.get(f)).isDue(totalSimulationSteps + size)) {
+					return size;
+				}
+			}
+		}
+		return maximumSize;
+	}
+
 	/**
 	 * Whether the simulation should continue.
 	 * @return
@@ -455,8 +607,43 @@ public class Simulation {
 
 		for (int f = 0; f < diagnostics.size(); f++)
         {
-			diagnostics.get(f).calculate(grid, particles, this.totalSimulationSteps);
+			Diagnostics d = diagnostics.get(f);
+			if (diagnosticsPipeline != null && d instanceof AsynchronousDiagnostics) {
+				AsynchronousDiagnostics ad = (AsynchronousDiagnostics) d;
+				if (ad.isDue(this.totalSimulationSteps)) {
+					diagnosticsPipeline.submit(ad, grid, particles, this.totalSimulationSteps);
+				}
+			} else {
+				d.calculate(grid, particles, this.totalSimulationSteps);
+			}
         }
+
+		// All output has to be written when the simulation ends.
+		if (!continues()) {
+			flushDiagnostics();
+		}
+	}
+
+	/**
+	 * Waits until all asynchronous diagnostics have been calculated and writes the buffered output to the files.
+	 */
+	public void flushDiagnostics() throws IOException {
+		if (diagnosticsPipeline != null) {
+			diagnosticsPipeline.flush();
+		}
+		OutputFile.flushAll();
+	}
+
+	/**
+	 * Writes the remaining output and stops the thread of the asynchronous diagnostics. Has to be called when several
+	 * simulations are run one after the other in the same JVM.
+	 */
+	public void shutdownDiagnostics() throws IOException {
+		if (diagnosticsPipeline != null) {
+			diagnosticsPipeline.shutdown();
+			diagnosticsPipeline = null;
+		}
+		OutputFile.flushAll();
 	}
 
 	/**
@@ -1,7 +1,10 @@
 package org.openpixi.pixi.physics.fields;
 
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.physics.grid.FlatGrid;
 import org.openpixi.pixi.physics.grid.Grid;
 
 public class FastTYMSolver extends FieldSolver
@@ -10,58 +13,109 @@ public class FastTYMSolver extends FieldSolver
 	private double timeStep;
 	private UpdateLinks linkUpdater = new UpdateLinks();
 	private CombinedUpdate combinedUpdate = new CombinedUpdate();
+	protected FlatCombinedUpdate flatCombinedUpdate = new FlatCombinedUpdate();
+	private FlatUpdateLinks flatLinkUpdater = new FlatUpdateLinks();
 
 	@Override
 	public FieldSolver clone() {
 		FastTYMSolver clone = new FastTYMSolver();
+		copySolverFields(clone);
+		return clone;
+	}
+
+	/**
+	 * Copies the fields of this solver to a clone (also used by subclasses).
+	 */
+	protected void copySolverFields(FastTYMSolver clone) {
 		clone.copyBaseClassFields(this);
 		clone.timeStep = timeStep;
 		clone.linkUpdater = linkUpdater;
 		clone.combinedUpdate = combinedUpdate;
-		return clone;
+		clone.flatCombinedUpdate = flatCombinedUpdate;
+		clone.flatLinkUpdater = flatLinkUpdater;
 	}
 
 	@Override
 	public void step(Grid grid, double timeStep) {
 		combinedUpdate.at = timeStep;
 		combinedUpdate.factor = timeStep / (grid.getLatticeSpacing() * grid.getLatticeSpacing());
+		combinedUpdate.resetCurrent = resetsCurrent(grid);
 
-		cellIterator.execute(grid, combinedUpdate);
+		if (grid instanceof FlatGrid) {
+			setFlatCombinedUpdate(grid, timeStep);
+			execute(grid, flatCombinedUpdate);
+		} else {
+			execute(grid, combinedUpdate);
+		}
+	}
+
+	/**
+	 * Sets the parameters of the combined update for grids with flat array storage.
+	 */
+	protected void setFlatCombinedUpdate(Grid grid, double timeStep) {
+		flatCombinedUpdate.at = timeStep;
+		flatCombinedUpdate.factor = timeStep / (grid.getLatticeSpacing() * grid.getLatticeSpacing());
+		flatCombinedUpdate.resetCurrent = resetsCurrent(grid);
 	}
 
 	@Override
 	public void stepLinks(Grid grid, double timeStep) {
 		linkUpdater.at = timeStep;
-		cellIterator.execute(grid, linkUpdater);
+		if (grid instanceof FlatGrid) {
+			flatLinkUpdater.at = timeStep;
+			cellIterator.execute(grid, flatLinkUpdater);
+		} else {
+			cellIterator.execute(grid, linkUpdater);
+		}
 	}
 
 	private class CombinedUpdate implements CellAction {
 
 		private double at;
 		private double factor;
+		private boolean resetCurrent;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(4, 1);
 
 		/**
-		 * Combined update of fields and links using the sum of staples.
+		 * Combined update of fields and links using the sum of staples. The current of the cell is reset afterwards
+		 * if the solver resets the currents (see {@link #resetsCurrent(Grid)}).
 		 * @param grid
 		 * @param index
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				GroupElement staples = s.group[0];
+				GroupElement temp1 = s.group[1];
+				GroupElement temp2 = s.group[2];
+				GroupElement V = s.group[3];
+				AlgebraElement field = s.algebra[0];
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement temp = grid.getU(index, i).mult(grid.getStapleSum(index, i));
-					grid.addE(index, i, temp.proj().mult(factor));
-					grid.addE(index, i, grid.getJ(index, i).mult(-at));
-					V = grid.getE(index, i).mult(-at).getLink();
+					grid.getStapleSumInto(index, i, staples, temp1, temp2);
+					grid.getU(index, i).multInto(staples, temp1);
+					temp1.projInto(field);
+					field.multAssign(factor);
+					grid.addE(index, i, field);
+					field.set(grid.getJ(index, i));
+					field.multAssign(-at);
+					grid.addE(index, i, field);
+					field.set(grid.getE(index, i));
+					field.multAssign(-at);
+					field.getLinkInto(V);
 					V.multAssign(grid.getU(index, i));
 					grid.setUnext(index, i, V);
 				}
 			}
+			if (resetCurrent) {
+				grid.resetCurrent(index);
+			}
 		}
 	}
 
 	private class UpdateLinks implements CellAction {
+
 		private double at;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 1);
 
 		/**
 		 * Updates the links matrices in a given cell.
@@ -70,12 +124,82 @@ public class FastTYMSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				GroupElement V = s.group[0];
+				AlgebraElement field = s.algebra[0];
 				for (int k = 0; k < grid.getNumberOfDimensions(); k++) {
-					V = grid.getE(index, k).mult(-at).getLink();
+					field.set(grid.getE(index, k));
+					field.multAssign(-at);
+					field.getLinkInto(V);
 					V.multAssign(grid.getU(index, k));
 					grid.setUnext(index, k, V);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fast path of {@link CombinedUpdate} for grids with flat array storage.
+	 */
+	protected class FlatCombinedUpdate implements CellAction {
 
+		private double at;
+		private double factor;
+		private boolean resetCurrent;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(5, 1);
+
+		public void execute(Grid grid, int index) {
+			FlatGrid flatGrid = (FlatGrid) grid;
+			if(flatGrid.isActive(index)) {
+				ScratchElements s = scratch.get(flatGrid.getElementFactory());
+				GroupElement U = s.group[0];
+				GroupElement staples = s.group[1];
+				GroupElement temp1 = s.group[2];
+				GroupElement temp2 = s.group[3];
+				GroupElement V = s.group[4];
+				AlgebraElement field = s.algebra[0];
+				for (int i = 0; i < flatGrid.getNumberOfDimensions(); i++) {
+					flatGrid.readU(index, i, U);
+					flatGrid.getStapleSumInto(index, i, staples, temp1, temp2);
+					U.multInto(staples, temp1);
+					temp1.projInto(field);
+					flatGrid.addE(index, i, field, factor);
+					flatGrid.addJToE(index, i, -at);
+					flatGrid.readE(index, i, field);
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					V.multAssign(U);
+					flatGrid.setUnext(index, i, V);
+				}
+			}
+			if (resetCurrent) {
+				flatGrid.resetCurrent(index);
+			}
+		}
+	}
+
+	/**
+	 * Fast path of {@link UpdateLinks} for grids with flat array storage.
+	 */
+	private class FlatUpdateLinks implements CellAction {
+
+		private double at;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(2, 1);
+
+		public void execute(Grid grid, int index) {
+			FlatGrid flatGrid = (FlatGrid) grid;
+			if(flatGrid.isActive(index)) {
+				ScratchElements s = scratch.get(flatGrid.getElementFactory());
+				GroupElement U = s.group[0];
+				GroupElement V = s.group[1];
+				AlgebraElement field = s.algebra[0];
+				for (int k = 0; k < flatGrid.getNumberOfDimensions(); k++) {
+					flatGrid.readE(index, k, field);
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					flatGrid.readU(index, k, U);
+					V.multAssign(U);
+					flatGrid.setUnext(index, k, V);
 				}
 			}
 		}
@@ -19,6 +19,7 @@
 
 package org.openpixi.pixi.physics.fields;
 
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.parallel.cellaccess.CellIterator;
 import org.openpixi.pixi.physics.grid.*;
 
@@ -60,10 +61,55 @@ public class FieldSolver {
 		this.cellIterator.setNormalMode(numCells);
 	}
 
+	/**
+	 * Executes an update of the equations of motion. If the grid tracks its occupied slabs or has a moving window,
+	 * only the cells within the ranges of {@link Grid#getUpdateRanges()} are visited.
+	 */
+	protected void execute(Grid grid, CellAction action) {
+		int[] ranges = grid.getUpdateRanges();
+		if (ranges != null) {
+			cellIterator.execute(grid, action, ranges);
+		} else {
+			cellIterator.execute(grid, action);
+		}
+	}
+
 	public void step(Grid g, double timeStep) {
 
 	}
 
+	/**
+	 * Advances the fields by several time steps without particles and external currents. This is equivalent to
+	 * alternating {@link #step(Grid, double)}, the reset of the currents and {@link Grid#storeFields()}, where the
+	 * fields have already been stored for the first step by the caller.
+	 *
+	 * @param g         Reference to the grid
+	 * @param timeStep  Size of a single time step
+	 * @param steps     Number of time steps
+	 */
+	public void step(Grid g, double timeStep, int steps) {
+		for (int i = 0; i < steps; i++) {
+			if (i > 0) {
+				g.storeFields();
+			}
+			step(g, timeStep);
+			if (!resetsCurrent(g)) {
+				g.resetCurrent();
+			}
+		}
+	}
+
+	/**
+	 * Whether {@link #step(Grid, double)} resets the currents after they have been used. In that case the
+	 * simulation does not reset the currents before they are interpolated again.
+	 *
+	 * @param g Reference to the grid
+	 * @return  True if the currents are zero after a step
+	 */
+	public boolean resetsCurrent(Grid g) {
+		return false;
+	}
+
 	public void stepLinks(Grid g, double timeStep) {
 
 	}
@@ -0,0 +1,94 @@
+package org.openpixi.pixi.physics.fields;
+
+import org.openpixi.pixi.physics.grid.FlatGrid;
+import org.openpixi.pixi.physics.grid.Grid;
+
+/**
+ * Temporal Yang-Mills solver which updates the electric fields and the links and resets the currents in a single
+ * sweep over the lattice. The current of a cell is only needed for the electric field of the same cell, so the
+ * combined update of the {@link FastTYMSolver} resets it right after it has been used and the simulation skips its
+ * own sweep (see {@link #resetsCurrent(Grid)}).
+ * <br>
+ * On grids with flat array storage several steps without external currents can be combined with temporal blocking
+ * (see {@link #step(Grid, double, int)}): the lattice is traversed in slabs along the first direction and every
+ * later step follows the previous one two slabs behind, so the fields of a slab are reused by all steps while they
+ * are still in the cache.
+ */
+public class FusedTYMSolver extends FastTYMSolver
+{
+
+	private int[] slabRange = new int[2];
+
+	@Override
+	public FieldSolver clone() {
+		FusedTYMSolver clone = new FusedTYMSolver();
+		copySolverFields(clone);
+		return clone;
+	}
+
+	/**
+	 * The currents are reset in the sweep unless only the occupied slabs are updated, since the occupation of the
+	 * slabs is determined from the currents after the update. With a moving window the sweep does not visit the
+	 * frozen slices, so their currents are reset by the simulation.
+	 */
+	@Override
+	public boolean resetsCurrent(Grid grid) {
+		return grid.getOccupiedSlabs() == null && grid.getMovingWindow() == null;
+	}
+
+	/**
+	 * Advances a grid with flat array storage by several steps with temporal blocking. Task (t, z) updates slab z in
+	 * step t and is executed at wavefront 2t + z. It needs the links of step t in the slabs z - 1 to z + 1, which have
+	 * been written by earlier wavefronts, and it overwrites the links of step t - 1 in slab z, which have already
+	 * been used by all tasks of step t - 1. Because of the periodic boundary the slab 0 of step t needs the last slab
+	 * of step t - 1, therefore the first t slabs of step t are deferred by one sweep over all slabs (wavefront
+	 * 2t + z + number of slabs). The steps of all tasks are identical to a sequential update, so the result does not
+	 * depend on the blocking.
+	 * <br>
+	 * Other grids, grids with occupied slabs and blocks with more steps than slabs are advanced step by step.
+	 */
+	@Override
+	public void step(Grid grid, double timeStep, int steps) {
+		int slabs = grid.getNumCells(0);
+		if (!(grid instanceof FlatGrid) || !resetsCurrent(grid) || steps < 2 || steps > slabs) {
+			super.step(grid, timeStep, steps);
+			return;
+		}
+		FlatGrid flatGrid = (FlatGrid) grid;
+		setFlatCombinedUpdate(grid, timeStep);
+		int slabSize = grid.getTotalNumberOfCells() / slabs;
+
+		// The links of step t are read from U if parity == t % 2.
+		int parity = 0;
+		for (int w = 0; w < slabs + 3 * (steps - 1); w++) {
+			for (int t = 0; t < steps; t++) {
+				int z = w - 2 * t;
+				if (z >= slabs) {
+					// Deferred slabs
+					z -= slabs;
+					if (z < t) {
+						parity = executeSlab(flatGrid, t, z, slabSize, parity);
+					}
+				} else if (z >= t) {
+					parity = executeSlab(flatGrid, t, z, slabSize, parity);
+				}
+			}
+		}
+
+		// Like after a single step U contains the links of the last step and Unext the new links.
+		if (parity != (steps - 1) % 2) {
+			flatGrid.storeFields();
+		}
+	}
+
+	private int executeSlab(FlatGrid grid, int t, int z, int slabSize, int parity) {
+		if (parity != t % 2) {
+			grid.storeFields();
+			parity = t % 2;
+		}
+		slabRange[0] = z * slabSize;
+		slabRange[1] = (z + 1) * slabSize;
+		cellIterator.execute(grid, flatCombinedUpdate, slabRange);
+		return parity;
+	}
+}
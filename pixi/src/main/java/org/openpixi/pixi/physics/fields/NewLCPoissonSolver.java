@@ -4,6 +4,7 @@ import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
 import org.apache.commons.math3.special.Erf;
@@ -39,6 +40,11 @@ public class NewLCPoissonSolver {
 	private AlgebraElement[] gaussViolation;
 	private Grid gridCopy;
 
+	/**
+	 * Whether the transversal potential phi has already been computed (or loaded).
+	 */
+	private boolean potentialSolved = false;
+
 	public NewLCPoissonSolver(int direction, int orientation, double location, double longitudinalWidth, AlgebraElement[] transversalChargeDensity, int[] transversalNumCells) {
 		this.direction = direction;
 		this.orientation = orientation;
@@ -71,47 +77,9 @@ public class NewLCPoissonSolver {
 	}
 
 	public void solve(Simulation s) {
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(transversalNumCells);
-
-		// UV Regulator (in lattice energy units)
-		double lambdaSquared = lowPassCoefficient * lowPassCoefficient;
-
-		// IR Regulator (in lattice energy units)
-		double mSquared = infraredCoefficient * infraredCoefficient;
-
 		// First step: compute transversal potential phi
-		for (int i = 0; i < factory.numberOfComponents; i++) {
-			// Initialize array for FFT and fill it with charge density of component i.
-			double[] fftArray = new double[fft.getFFTArraySize()];
-			for (int j = 0; j < totalTransversalCells; j++) {
-				fftArray[fft.getFFTArrayIndex(j)] = transversalChargeDensity[j].get(i);
-			}
-			// Transform charge density to momentum space.
-			fft.complexForward(fftArray);
-			// Solve Poisson equation in momentum space.
-			for (int j = 1; j < totalTransversalCells; j++) {
-				double pEffSquared = computeEffectiveLatticeMomentumSquared(j);
-				double pSquare = computeLatticeMomentumSquared(j);
-				double invLaplace;
-				// Implement as momentum cutoff
-				if(pSquare <= lambdaSquared) {
-					invLaplace = 1.0 / (pEffSquared + mSquared);
-				} else {
-					invLaplace = 0.0;
-				}
-				fftArray[fft.getFFTArrayIndex(j)] *= invLaplace;
-				fftArray[fft.getFFTArrayIndex(j) + 1] *= invLaplace;
-			}
-			fftArray[0] = 0.0;
-			fftArray[1] = 0.0;
-
-			// Transform back to position space.
-			fft.complexInverse(fftArray, true);
-
-			// Set transversal potential.
-			for (int j = 0; j < totalTransversalCells; j++) {
-				this.phi[j].set(i, fftArray[fft.getFFTArrayIndex(j)]);
-			}
+		if (!potentialSolved) {
+			solvePotentials(s.grid.getCellIterator(), this);
 		}
 
 		// Second step: compute links from transversal potential
@@ -135,6 +103,113 @@ public class NewLCPoissonSolver {
 
 	}
 
+	/**
+	 * Computes the transversal potentials of several initialized solvers, e.g. of both nuclei of a collision. The
+	 * color components of all solvers are independent and are solved concurrently on the threads of the cell iterator.
+	 *
+	 * @param iterator  Cell iterator whose threads are used
+	 * @param solvers   Initialized solvers
+	 */
+	public static void solvePotentials(CellIterator iterator, final NewLCPoissonSolver... solvers) {
+		final int numberOfComponents = solvers[0].factory.numberOfComponents;
+		// The components of SU(3) algebra elements are not independent, so the tasks write into flat arrays.
+		final double[][] potentials = new double[solvers.length][];
+		for (int k = 0; k < solvers.length; k++) {
+			potentials[k] = new double[solvers[k].totalTransversalCells * numberOfComponents];
+		}
+		iterator.executeTasks(solvers.length * numberOfComponents, new CellIterator.BlockAction() {
+			public void execute(int task) {
+				int k = task / numberOfComponents;
+				solvers[k].solvePotential(task % numberOfComponents, potentials[k]);
+			}
+		});
+		for (int k = 0; k < solvers.length; k++) {
+			solvers[k].setPotential(potentials[k]);
+		}
+	}
+
+	public boolean isPotentialSolved() {
+		return potentialSolved;
+	}
+
+	/**
+	 * Returns the transversal potential phi. The component c of cell i is stored at i * numberOfComponents + c.
+	 */
+	public double[] getPotential() {
+		int numberOfComponents = factory.numberOfComponents;
+		double[] potential = new double[totalTransversalCells * numberOfComponents];
+		for (int i = 0; i < totalTransversalCells; i++) {
+			for (int c = 0; c < numberOfComponents; c++) {
+				potential[i * numberOfComponents + c] = phi[i].get(c);
+			}
+		}
+		return potential;
+	}
+
+	/**
+	 * Sets the transversal potential phi (e.g. from a cache), so it is not computed from the charge density.
+	 *
+	 * @param potential Potential in the layout of {@link #getPotential()}
+	 */
+	public void setPotential(double[] potential) {
+		int numberOfComponents = factory.numberOfComponents;
+		for (int i = 0; i < totalTransversalCells; i++) {
+			for (int c = 0; c < numberOfComponents; c++) {
+				phi[i].set(c, potential[i * numberOfComponents + c]);
+			}
+		}
+		potentialSolved = true;
+	}
+
+	/**
+	 * Solves the transversal Poisson equation for the color component i of the charge density.
+	 *
+	 * @param i         Color component
+	 * @param potential Potential in the layout of {@link #getPotential()}
+	 */
+	private void solvePotential(int i, double[] potential) {
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getCached(transversalNumCells);
+
+		// UV Regulator (in lattice energy units)
+		double lambdaSquared = lowPassCoefficient * lowPassCoefficient;
+
+		// IR Regulator (in lattice energy units)
+		double mSquared = infraredCoefficient * infraredCoefficient;
+
+		// Initialize array for FFT and fill it with charge density of component i.
+		double[] fftArray = new double[fft.getFFTArraySize()];
+		for (int j = 0; j < totalTransversalCells; j++) {
+			fftArray[fft.getFFTArrayIndex(j)] = transversalChargeDensity[j].get(i);
+		}
+		// Transform charge density to momentum space.
+		fft.complexForward(fftArray);
+		// Solve Poisson equation in momentum space.
+		for (int j = 1; j < totalTransversalCells; j++) {
+			double pEffSquared = computeEffectiveLatticeMomentumSquared(j);
+			double pSquare = computeLatticeMomentumSquared(j);
+			double invLaplace;
+			// Implement as momentum cutoff
+			if(pSquare <= lambdaSquared) {
+				invLaplace = 1.0 / (pEffSquared + mSquared);
+			} else {
+				invLaplace = 0.0;
+			}
+			fftArray[fft.getFFTArrayIndex(j)] *= invLaplace;
+			fftArray[fft.getFFTArrayIndex(j) + 1] *= invLaplace;
+		}
+		fftArray[0] = 0.0;
+		fftArray[1] = 0.0;
+
+		// Transform back to position space.
+		fft.complexInverse(fftArray, true);
+
+		// Set transversal potential.
+		int numberOfComponents = factory.numberOfComponents;
+		for (int j = 0; j < totalTransversalCells; j++) {
+			potential[j * numberOfComponents + i] = fftArray[fft.getFFTArrayIndex(j)];
+		}
+	}
+
 	public AlgebraElement getGaussConstraint(int i) {
 		return gaussViolation[i];
 	}
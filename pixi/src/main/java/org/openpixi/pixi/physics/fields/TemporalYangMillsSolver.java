@@ -1,9 +1,11 @@
 package org.openpixi.pixi.physics.fields;
 
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.physics.grid.FlatGrid;
 import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
 
 public class TemporalYangMillsSolver extends FieldSolver
 {
@@ -11,6 +13,8 @@ public class TemporalYangMillsSolver extends FieldSolver
 	private double timeStep;
 	private UpdateFields fieldUpdater = new UpdateFields();
 	private UpdateLinks linkUpdater = new UpdateLinks();
+	private FlatUpdateFields flatFieldUpdater = new FlatUpdateFields();
+	private FlatUpdateLinks flatLinkUpdater = new FlatUpdateLinks();
 
 	@Override
 	public FieldSolver clone() {
@@ -19,6 +23,8 @@ public class TemporalYangMillsSolver extends FieldSolver
 		clone.timeStep = timeStep;
 		clone.fieldUpdater = fieldUpdater;
 		clone.linkUpdater = linkUpdater;
+		clone.flatFieldUpdater = flatFieldUpdater;
+		clone.flatLinkUpdater = flatLinkUpdater;
 		return clone;
 	}
 
@@ -31,8 +37,16 @@ public class TemporalYangMillsSolver extends FieldSolver
 		fieldUpdater.factor = timeStep / (grid.getLatticeSpacing() * grid.getLatticeSpacing());
 		linkUpdater.at = timeStep;
 		linkUpdater.as = grid.getLatticeSpacing();
-		cellIterator.execute(grid, fieldUpdater);
-		cellIterator.execute(grid, linkUpdater);
+		if (grid instanceof FlatGrid) {
+			flatFieldUpdater.at = timeStep;
+			flatFieldUpdater.factor = fieldUpdater.factor;
+			flatLinkUpdater.at = timeStep;
+			execute(grid, flatFieldUpdater);
+			execute(grid, flatLinkUpdater);
+		} else {
+			execute(grid, fieldUpdater);
+			execute(grid, linkUpdater);
+		}
 	}
 
 	@Override
@@ -40,7 +54,12 @@ public class TemporalYangMillsSolver extends FieldSolver
 		this.timeStep = timeStep;
 		linkUpdater.at = timeStep;
 		linkUpdater.as = grid.getLatticeSpacing();
-		cellIterator.execute(grid, linkUpdater);
+		if (grid instanceof FlatGrid) {
+			flatLinkUpdater.at = timeStep;
+			cellIterator.execute(grid, flatLinkUpdater);
+		} else {
+			cellIterator.execute(grid, linkUpdater);
+		}
 	}
 
 
@@ -50,6 +69,7 @@ public class TemporalYangMillsSolver extends FieldSolver
 		private double at;
 		private double g;
 		private double factor;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(3, 1);
 
 		/**
 		 * Updates the electric fields at a given coordinate
@@ -58,16 +78,27 @@ public class TemporalYangMillsSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				GroupElement temp = s.group[0];
+				GroupElement plaquette = s.group[1];
+				GroupElement link = s.group[2];
+				AlgebraElement field = s.algebra[0];
 				for (int i = 0; i < grid.getNumberOfDimensions(); i++) {
-					GroupElement temp = grid.getElementFactory().groupZero();
+					temp.reset();
 					for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
 						if (j != i) {
-							temp.addAssign(grid.getPlaquette(index, i, j, 1, 1, 0));
-							temp.addAssign(grid.getPlaquette(index, i, j, 1, -1, 0));
+							grid.getPlaquetteInto(index, i, j, 1, 1, 0, plaquette, link);
+							temp.addAssign(plaquette);
+							grid.getPlaquetteInto(index, i, j, 1, -1, 0, plaquette, link);
+							temp.addAssign(plaquette);
 						}
 					}
-					grid.addE(index, i, temp.proj().mult(factor));
-					grid.addE(index, i, grid.getJ(index, i).mult(-at));
+					temp.projInto(field);
+					field.multAssign(factor);
+					grid.addE(index, i, field);
+					field.set(grid.getJ(index, i));
+					field.multAssign(-at);
+					grid.addE(index, i, field);
 				}
 			}
 		}
@@ -77,6 +108,7 @@ public class TemporalYangMillsSolver extends FieldSolver
 
 		private double as;
 		private double at;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 1);
 
 		/**
 		 * Updates the links matrices in a given cell.
@@ -85,12 +117,77 @@ public class TemporalYangMillsSolver extends FieldSolver
 		 */
 		public void execute(Grid grid, int index) {
 			if(grid.isActive(index)) {
-				GroupElement V;
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				GroupElement V = s.group[0];
+				AlgebraElement field = s.algebra[0];
 				for (int k = 0; k < grid.getNumberOfDimensions(); k++) {
-					V = grid.getE(index, k).mult(-at).getLink();
+					field.set(grid.getE(index, k));
+					field.multAssign(-at);
+					field.getLinkInto(V);
 					V.multAssign(grid.getU(index, k));
 					grid.setUnext(index, k, V);
+				}
+			}
+		}
+	}
 
+	/**
+	 * Fast path of {@link UpdateFields} for grids with flat array storage.
+	 */
+	private class FlatUpdateFields implements CellAction
+	{
+		private double at;
+		private double factor;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(3, 1);
+
+		public void execute(Grid grid, int index) {
+			FlatGrid flatGrid = (FlatGrid) grid;
+			if(flatGrid.isActive(index)) {
+				ScratchElements s = scratch.get(flatGrid.getElementFactory());
+				GroupElement temp = s.group[0];
+				GroupElement plaquette = s.group[1];
+				GroupElement link = s.group[2];
+				AlgebraElement field = s.algebra[0];
+				for (int i = 0; i < flatGrid.getNumberOfDimensions(); i++) {
+					temp.reset();
+					for (int j = 0; j < flatGrid.getNumberOfDimensions(); j++) {
+						if (j != i) {
+							flatGrid.getPlaquetteInto(index, i, j, 1, 1, 0, plaquette, link);
+							temp.addAssign(plaquette);
+							flatGrid.getPlaquetteInto(index, i, j, 1, -1, 0, plaquette, link);
+							temp.addAssign(plaquette);
+						}
+					}
+					temp.projInto(field);
+					flatGrid.addE(index, i, field, factor);
+					flatGrid.addJToE(index, i, -at);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fast path of {@link UpdateLinks} for grids with flat array storage.
+	 */
+	private class FlatUpdateLinks implements CellAction {
+
+		private double at;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(2, 1);
+
+		public void execute(Grid grid, int index) {
+			FlatGrid flatGrid = (FlatGrid) grid;
+			if(flatGrid.isActive(index)) {
+				ScratchElements s = scratch.get(flatGrid.getElementFactory());
+				GroupElement U = s.group[0];
+				GroupElement V = s.group[1];
+				AlgebraElement field = s.algebra[0];
+				for (int k = 0; k < flatGrid.getNumberOfDimensions(); k++) {
+					flatGrid.readE(index, k, field);
+					field.multAssign(-at);
+					field.getLinkInto(V);
+					flatGrid.readU(index, k, U);
+					V.multAssign(U);
+					flatGrid.setUnext(index, k, V);
 				}
 			}
 		}
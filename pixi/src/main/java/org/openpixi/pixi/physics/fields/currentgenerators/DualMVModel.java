@@ -1,6 +1,6 @@
 package org.openpixi.pixi.physics.fields.currentgenerators;
 
-import org.openpixi.pixi.diagnostics.FileFunctions;
+import org.openpixi.pixi.diagnostics.OutputFile;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.math.SU2AlgebraElement;
@@ -9,10 +9,7 @@ import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.DecimalFormat;
 
 public class DualMVModel implements ICurrentGenerator {
 
@@ -100,6 +97,11 @@ public class DualMVModel implements ICurrentGenerator {
 		mv2 = new MVModel(direction, -1,  -(location+1), longitudinalWidth, mu, useSeed, seed2,
 				lowPassCoefficient, infraredCoefficient, useAlternativeNormalization);
 
+		// The transversal potentials of both nuclei (all color components) are solved concurrently.
+		mv1.prepareCurrent(s);
+		mv2.prepareCurrent(s);
+		MVModel.solvePotentials(s, mv1, mv2);
+
 		mv1.initializeCurrent(s, totalInstances);
 		mv2.initializeCurrent(s, totalInstances);
 
@@ -169,26 +171,17 @@ public class DualMVModel implements ICurrentGenerator {
 			}
 
 			// File output ((d-1)x3 transversal gauge field components, 1x3 longitudinal electric field component)
-			FileFunctions.clearFile("output/" + outputFile);
-			File file = FileFunctions.getFile("output/" + outputFile);
+			OutputFile file = OutputFile.create("output/" + outputFile, OutputFile.TEXT);
 			try {
-				FileWriter pw = new FileWriter(file, true);
-
 				// Transverse fields
 				for (int i = 0; i < effDimensions-1; i++) {
-					double[][] output = convertToDoubleArray(transverseFields[i]);
-					pw.write(generateTSVString(output[0]) + "\n");
-					pw.write(generateTSVString(output[1]) + "\n");
-					pw.write(generateTSVString(output[2]) + "\n");
+					writeLines(file, convertToDoubleArray(transverseFields[i]));
 				}
 
 				// Longitudinal fields
-				double[][] output = convertToDoubleArray(longitudinalFields);
-				pw.write(generateTSVString(output[0]) + "\n");
-				pw.write(generateTSVString(output[1]) + "\n");
-				pw.write(generateTSVString(output[2]) + "\n");
+				writeLines(file, convertToDoubleArray(longitudinalFields));
 
-				pw.close();
+				file.close();
 			} catch (IOException ex) {
 				System.out.println("DualMVModel: Error writing to file.");
 			}
@@ -196,21 +189,31 @@ public class DualMVModel implements ICurrentGenerator {
 		}
 	}
 
+	/**
+	 * Restores both nuclei without sampling or solving their charge densities. The initial conditions output is
+	 * only written by {@link #initializeCurrent(Simulation, int)}.
+	 */
+	public void restoreCurrent(Simulation s, int totalInstances) {
+		mv1 = new MVModel(direction, 1, location, longitudinalWidth, mu, useSeed, seed1,
+				lowPassCoefficient, infraredCoefficient, useAlternativeNormalization);
+
+		mv2 = new MVModel(direction, -1,  -(location+1), longitudinalWidth, mu, useSeed, seed2,
+				lowPassCoefficient, infraredCoefficient, useAlternativeNormalization);
+
+		mv1.restoreCurrent(s, totalInstances);
+		mv2.restoreCurrent(s, totalInstances);
+	}
+
 	public void applyCurrent(Simulation s) {
 		mv1.applyCurrent(s);
 		mv2.applyCurrent(s);
 	}
 
-	private String generateTSVString(double[] array) {
-		StringBuilder outputStringBuilder = new StringBuilder();
-		DecimalFormat formatter = new DecimalFormat("0.################E0");
-		for (int i = 0; i < array.length; i++) {
-			outputStringBuilder.append(formatter.format(array[i]));
-			if(i < array.length - 1) {
-				outputStringBuilder.append("\t");
-			}
+	private void writeLines(OutputFile file, double[][] output) throws IOException {
+		for (int i = 0; i < output.length; i++) {
+			file.writeValues(output[i]);
+			file.endLine();
 		}
-		return outputStringBuilder.toString();
 	}
 
 	private double[][] convertToDoubleArray(AlgebraElement[] array) {
@@ -5,4 +5,14 @@ import org.openpixi.pixi.physics.Simulation;
 public interface ICurrentGenerator {
 	void applyCurrent(Simulation s);
 	void initializeCurrent(Simulation s, int totalInstances);
+
+	/**
+	 * Used instead of {@link #initializeCurrent(Simulation, int)} when the simulation is resumed from a checkpoint.
+	 * The fields, currents and particles are restored from the checkpoint afterwards, so only the state which is
+	 * needed by {@link #applyCurrent(Simulation)} and not stored in the checkpoint has to be rebuilt.
+	 *
+	 * @param s                 Reference to the simulation
+	 * @param totalInstances    Number of current generators
+	 */
+	void restoreCurrent(Simulation s, int totalInstances);
 }
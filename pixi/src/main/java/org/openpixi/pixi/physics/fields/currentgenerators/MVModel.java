@@ -3,8 +3,11 @@ package org.openpixi.pixi.physics.fields.currentgenerators;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.SimulationType;
+import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
 import org.openpixi.pixi.physics.util.GridFunctions;
+import org.openpixi.pixi.physics.util.InitialConditionsCache;
 
+import java.util.ArrayList;
 import java.util.Random;
 
 public class MVModel implements ICurrentGenerator {
@@ -78,6 +81,111 @@ public class MVModel implements ICurrentGenerator {
 	}
 
 	public void initializeCurrent(Simulation s, int totalInstances) {
+		if (particleLCCurrent == null) {
+			prepareCurrent(s);
+		}
+		solvePotentials(s, this);
+		particleLCCurrent.initializeCurrent(s, totalInstances);
+	}
+
+	/**
+	 * The particles are restored from the checkpoint, so the charge density is neither sampled nor solved again.
+	 *
+	 * @param s
+	 * @param totalInstances
+	 */
+	public void restoreCurrent(Simulation s, int totalInstances) {
+		createParticleLCCurrent(s);
+		particleLCCurrent.restoreCurrent(s, totalInstances);
+	}
+
+	/**
+	 * Computes the transversal potentials of several models (e.g. both nuclei of a collision) concurrently. New
+	 * potentials are stored in the cache.
+	 *
+	 * @param s         Reference to the simulation
+	 * @param models    Prepared models (see {@link #prepareCurrent(Simulation)})
+	 */
+	public static void solvePotentials(Simulation s, MVModel... models) {
+		ArrayList<MVModel> unsolved = new ArrayList<MVModel>();
+		ArrayList<NewLCPoissonSolver> solvers = new ArrayList<NewLCPoissonSolver>();
+		for (MVModel model : models) {
+			NewLCPoissonSolver solver = model.particleLCCurrent.getPoissonSolver();
+			if (!solver.isPotentialSolved()) {
+				unsolved.add(model);
+				solvers.add(solver);
+			}
+		}
+		if (unsolved.isEmpty()) {
+			return;
+		}
+		NewLCPoissonSolver.solvePotentials(s.grid.getCellIterator(),
+				solvers.toArray(new NewLCPoissonSolver[solvers.size()]));
+
+		for (MVModel model : unsolved) {
+			String key = model.getCacheKey(s);
+			if (key != null) {
+				InitialConditionsCache.store(s.getInitialConditionsCache(), key,
+						model.particleLCCurrent.getPoissonSolver().getPotential());
+			}
+		}
+	}
+
+	/**
+	 * Samples the transversal charge density and sets up the Poisson solver. If the potential of the charge density
+	 * is in the cache, it is loaded instead.
+	 *
+	 * @param s Reference to the simulation
+	 */
+	public void prepareCurrent(Simulation s) {
+		int[] transversalNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
+		int numberOfComponents = s.grid.getElementFactory().numberOfComponents;
+
+		String key = getCacheKey(s);
+		double[] cachedPotential = null;
+		if (key != null) {
+			cachedPotential = InitialConditionsCache.load(s.getInitialConditionsCache(), key,
+					totalTransversalCells * numberOfComponents);
+		}
+
+		// Initialize particle light-cone current
+		createParticleLCCurrent(s);
+		if (cachedPotential == null) {
+			particleLCCurrent.setTransversalChargeDensity(sampleChargeDensity(s));
+		}
+		particleLCCurrent.initializePoissonSolver(s);
+		if (cachedPotential != null) {
+			particleLCCurrent.getPoissonSolver().setPotential(cachedPotential);
+		}
+	}
+
+	/**
+	 * Creates the particle light-cone current at the wrapped location.
+	 */
+	private void createParticleLCCurrent(Simulation s) {
+		double L = s.grid.getNumCells(direction) * s.grid.getLatticeSpacing();
+
+		// Wrap location
+		if(location < 0) {
+			location += L;
+		} else if(location > L) {
+			location -= L;
+		}
+
+		if(s.getSimulationType() == SimulationType.TemporalCGC) {
+			this.particleLCCurrent = new ParticleLCCurrent(direction, orientation, location, longitudinalWidth);
+		} else if(s.getSimulationType() == SimulationType.TemporalCGCNGP) {
+			this.particleLCCurrent = new ParticleLCCurrentNGP(direction, orientation, location, longitudinalWidth);
+		}
+		particleLCCurrent.lowPassCoefficient = lowPassCoefficient;
+		particleLCCurrent.infraredCoefficient = infraredCoefficient;
+	}
+
+	/**
+	 * Samples the transversal charge density.
+	 */
+	private AlgebraElement[] sampleChargeDensity(Simulation s) {
 		int[] transversalNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
 		int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
 		int numberOfComponents = s.grid.getElementFactory().numberOfComponents;
@@ -113,27 +221,19 @@ public class MVModel implements ICurrentGenerator {
 		for (int i = 0; i < totalTransversalCells; i++) {
 			transversalChargeDensity[i].addAssign(totalCharge);
 		}
+		return transversalChargeDensity;
+	}
 
-		// Initialize particle light-cone current
-		double L = s.grid.getNumCells(direction) * s.grid.getLatticeSpacing();
-
-		// Wrap location
-		if(location < 0) {
-			location += L;
-		} else if(location > L) {
-			location -= L;
-		}
-
-		if(s.getSimulationType() == SimulationType.TemporalCGC) {
-			this.particleLCCurrent = new ParticleLCCurrent(direction, orientation, location, longitudinalWidth);
-		} else if(s.getSimulationType() == SimulationType.TemporalCGCNGP) {
-			this.particleLCCurrent = new ParticleLCCurrentNGP(direction, orientation, location, longitudinalWidth);
+	/**
+	 * Returns the key of the transversal potential in the cache or null if the potential is not cached.
+	 */
+	private String getCacheKey(Simulation s) {
+		if (!useSeed || s.getInitialConditionsCache() == null) {
+			return null;
 		}
-		particleLCCurrent.lowPassCoefficient = lowPassCoefficient;
-		particleLCCurrent.infraredCoefficient = infraredCoefficient;
-		particleLCCurrent.setTransversalChargeDensity(transversalChargeDensity);
-		particleLCCurrent.initializeCurrent(s, totalInstances);
-
+		return InitialConditionsCache.getKey("MVModel", s.getNumberOfColors(), s.grid.getNumCells(), direction,
+				s.grid.getLatticeSpacing(), s.getCouplingConstant(), mu, useAlternativeNormalization, seed,
+				lowPassCoefficient, infraredCoefficient);
 	}
 
 
@@ -102,6 +102,15 @@ public class NewLCCurrentProton implements ICurrentGenerator {
 		// You're done: charge density, current density and the fields are set up correctly.
 	}
 
+	/**
+	 * The transversal charge density and the Poisson solver are needed by {@link #applyCurrent(Simulation)} and are
+	 * not part of the checkpoint, so they are computed again. The fields and currents are overwritten by the
+	 * checkpoint.
+	 */
+	public void restoreCurrent(Simulation s, int totalInstances) {
+		initializeCurrent(s, totalInstances);
+	}
+
 	public void applyCurrent(Simulation s) {
 		int maxDirection = numCells[direction];
 		double t = s.totalSimulationTime;
@@ -297,6 +297,21 @@ public class NucleusLCCurrent implements ICurrentGenerator {
 		*/
 	}
 
+	/**
+	 * The particles are restored from the checkpoint, so the charge density is neither computed nor solved again.
+	 *
+	 * @param s
+	 * @param dummy
+	 */
+	public void restoreCurrent(Simulation s, int dummy) {
+		if(s.getSimulationType() == SimulationType.TemporalCGC) {
+			this.particleLCCurrent = new ParticleLCCurrent(direction, orientation, location, longitudinalWidth);
+		} else if(s.getSimulationType() == SimulationType.TemporalCGCNGP) {
+			this.particleLCCurrent = new ParticleLCCurrentNGP(direction, orientation, location, longitudinalWidth);
+		}
+		particleLCCurrent.restoreCurrent(s, dummy);
+	}
+
 	/**
 	 *
 	 * @param s
@@ -86,6 +86,19 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 	 */
 	public double infraredCoefficient = 0.0;
 
+	/**
+	 * Only spawn particles in cells where the charge density does not vanish (the support of the charge density).
+	 * Particles without charge do not contribute to the currents, but they would be moved and interpolated in every
+	 * time step.
+	 */
+	public boolean sparseSpawning = true;
+
+	/**
+	 * Cells in which the squared charge density does not exceed this value are treated as empty when spawning
+	 * sparsely. The default only skips cells without any charge, so sparse and dense spawning give the same currents.
+	 */
+	public double supportThreshold = 0.0;
+
 	/**
 	 * Standard constructor for the ParticleLCCurrent class.
 	 *
@@ -117,6 +130,38 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 	 * @param totalInstances
 	 */
 	public void initializeCurrent(Simulation s, int totalInstances) {
+		// 0) - 2) Set up the Poisson solver, unless this has already been done (see MVModel).
+		if (poissonSolver == null) {
+			initializePoissonSolver(s);
+		}
+		poissonSolver.solve(s);
+
+		// 3) Interpolate grid charge and current density.
+		initializeParticles(s, particlesPerCell);
+
+		// You're done: charge density, current density and the fields are set up correctly.
+	}
+
+	/**
+	 * The particles are stored in the checkpoint and move on fixed trajectories, so neither the Poisson solver nor
+	 * the particles are needed.
+	 *
+	 * @param s
+	 * @param totalInstances
+	 */
+	public void restoreCurrent(Simulation s, int totalInstances) {
+		as = s.grid.getLatticeSpacing();
+		at = s.getTimeStep();
+		g = s.getCouplingConstant();
+	}
+
+	/**
+	 * Creates and initializes the Poisson solver for the transversal charge density. The transversal potential can
+	 * then be computed or set before {@link #initializeCurrent(Simulation, int)} solves for the fields.
+	 *
+	 * @param s Reference to the simulation
+	 */
+	public void initializePoissonSolver(Simulation s) {
 		// 0) Define some variables.
 		as = s.grid.getLatticeSpacing();
 		at = s.getTimeStep();
@@ -134,19 +179,16 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 			}
 		}
 
-		// 2) Initialize the NewLCPoissonSolver with the transversal charge density and solve for the fields U and E.
+		// 2) Initialize the NewLCPoissonSolver with the transversal charge density.
 		poissonSolver = new NewLCPoissonSolver(direction, orientation, location, longitudinalWidth,
 				transversalChargeDensity, transversalNumCells);
 		poissonSolver.lowPassCoefficient = lowPassCoefficient;
 		poissonSolver.infraredCoefficient = infraredCoefficient;
 		poissonSolver.initialize(s);
-		poissonSolver.solve(s);
-
-
-		// 3) Interpolate grid charge and current density.
-		initializeParticles(s, particlesPerCell);
+	}
 
-		// You're done: charge density, current density and the fields are set up correctly.
+	public NewLCPoissonSolver getPoissonSolver() {
+		return poissonSolver;
 	}
 
 
@@ -165,14 +207,18 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 	 * @param particlesPerLink
 	 */
 	protected void initializeParticles(Simulation s, int particlesPerLink) {
+		ParticleData data = new ParticleData(s);
 
 		// Traverse through charge density and add particles by sampling the charge distribution
 		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
 		double FIX_ROUND_ERRORS = 10E-12 * as;
 		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			if (sparseSpawning && !isInSupport(s, i)) {
+				continue;
+			}
+			int[] gridPos = s.grid.getCellPos(i);
 			for (int j = 0; j < particlesPerLink; j++) {
 				double x = (1.0 * j) / (particlesPerLink);
-				int[] gridPos = s.grid.getCellPos(i);
 				double dz = x * as;
 
 				// Particle position
@@ -190,25 +236,51 @@ public class ParticleLCCurrent implements ICurrentGenerator {
 
 				AlgebraElement charge = interpolateChargeFromGrid(s, particlePosition0).mult(1.0 / particlesPerLink);
 
-				// Particle velocity
-				double[] particleVelocity = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					if(k == direction) {
-						particleVelocity[k] = 1.0 * orientation;
-					} else {
-						particleVelocity[k] = 0.0;
-					}
-				}
+				s.particles.add(data.createParticle(particlePosition0, particlePosition1, charge));
+			}
+		}
+	}
 
-				CGCParticle p = new CGCParticle(s.getNumberOfDimensions(), s.getNumberOfColors(), direction);
-				p.pos0 = particlePosition0; // position at t = 0
-				p.pos1 = particlePosition1; // position at t = dt (optional)
-				p.vel = particleVelocity;   // particle velocity at t = -dt/2.
-				p.Q0 = charge;              // charge at t = 0
-				p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
+	/**
+	 * Checks whether the particles of a cell can carry charge. The charges are interpolated linearly between the Gauss
+	 * constraint of the cell and of its longitudinal neighbour.
+	 *
+	 * @param s     Reference to the Simulation object
+	 * @param index Lattice index of the cell
+	 * @return      False if all particles of the cell have vanishing charge (see {@link #supportThreshold})
+	 */
+	protected boolean isInSupport(Simulation s, int index) {
+		return poissonSolver.getGaussConstraint(index).square() > supportThreshold
+				|| poissonSolver.getGaussConstraint(s.grid.shift(index, direction, 1)).square() > supportThreshold;
+	}
 
-				s.particles.add(p);
-			}
+	/**
+	 * Velocity, acceleration and initial link which are shared by all particles of the current (see the compact
+	 * constructor of {@link CGCParticle}).
+	 */
+	protected class ParticleData {
+
+		private final double[] velocity;
+		private final double[] acceleration;
+		private final GroupElement identity;
+
+		public ParticleData(Simulation s) {
+			velocity = new double[s.getNumberOfDimensions()];
+			velocity[direction] = 1.0 * orientation;	// particle velocity at t = -dt/2.
+			acceleration = new double[s.getNumberOfDimensions()];
+			identity = s.grid.getElementFactory().groupIdentity();
+		}
+
+		/**
+		 * Creates a particle. Q1 is a copy of Q0, i.e. there is no parallel transport initially.
+		 *
+		 * @param pos0      Position at t = 0
+		 * @param pos1      Position at t = dt
+		 * @param charge    Charge at t = 0
+		 * @return          New particle
+		 */
+		public CGCParticle createParticle(double[] pos0, double[] pos1, AlgebraElement charge) {
+			return new CGCParticle(direction, pos0, pos1, velocity, acceleration, charge, identity);
 		}
 	}
 
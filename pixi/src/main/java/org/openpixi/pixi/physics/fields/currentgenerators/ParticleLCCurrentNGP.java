@@ -32,13 +32,18 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 		for (int i = 0; i < totalTransversalCells; i++) {
 			longitudinalParticleList.add(new ArrayList<CGCParticle>());
 		}
+		ParticleData data = new ParticleData(s);
+
 		// Traverse through charge density and add particles by sampling the charge distribution
 		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
 		double FIX_ROUND_ERRORS = 10E-12 * as;
 		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			if (sparseSpawning && !isInSupport(s, i)) {
+				continue;
+			}
+			int[] gridPos = s.grid.getCellPos(i);
 			for (int j = 0; j < particlesPerCell; j++) {
 				double x = (1.0 * j - particlesPerLink/2) / (particlesPerLink);
-				int[] gridPos = s.grid.getCellPos(i);
 				double dz = x * as;
 
 				// Particle position
@@ -56,24 +61,8 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 
 				AlgebraElement charge = this.interpolateChargeFromGrid(s, particlePosition0).mult(1.0 / particlesPerLink);
 
-				// Particle velocity
-				double[] particleVelocity = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					if(k == direction) {
-						particleVelocity[k] = 1.0 * orientation;
-					} else {
-						particleVelocity[k] = 0.0;
-					}
-				}
-
-				CGCParticle p = new CGCParticle(s.getNumberOfDimensions(), s.getNumberOfColors(), direction);
-				p.pos0 = particlePosition0; // position at t = 0
-				p.pos1 = particlePosition1; // position at t = dt (optional)
-				p.vel = particleVelocity;   // particle velocity at t = -dt/2.
-				p.Q0 = charge;              // charge at t = 0
-				p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
-
 				if(charge.square() > cutoffCharge) {
+					CGCParticle p = data.createParticle(particlePosition0, particlePosition1, charge);
 					s.particles.add(p);
 
 					// Add to extra particle array for charge refinement.
@@ -175,6 +164,15 @@ public class ParticleLCCurrentNGP extends ParticleLCCurrent {
 		return (i % n + n) % n;
 	}
 
+	/**
+	 * Checks whether the particles of a cell can carry charge. All particles of a cell take their charge from the
+	 * nearest grid point, which is the cell itself.
+	 */
+	@Override
+	protected boolean isInSupport(Simulation s, int index) {
+		return poissonSolver.getGaussConstraint(index).square() > supportThreshold;
+	}
+
 	@Override
 	protected AlgebraElement interpolateChargeFromGrid(Simulation s, double[] particlePosition) {
 		int[] ngp = GridFunctions.nearestGridPoint(particlePosition, as);
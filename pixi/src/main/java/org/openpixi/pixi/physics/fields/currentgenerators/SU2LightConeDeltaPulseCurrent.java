@@ -40,6 +40,12 @@ public class SU2LightConeDeltaPulseCurrent implements ICurrentGenerator {
 		poisson.solve(s.grid);
 	}
 
+	/**
+	 * The current is computed from the settings in every step, nothing has to be restored.
+	 */
+	public void restoreCurrent(Simulation s, int dummy) {
+	}
+
 	public void applyCurrent(Simulation s) {
 		this.grid = s.grid;
 		double as = grid.getLatticeSpacing();
@@ -54,6 +54,12 @@ public class SU2LightConeGaussPulseCurrent implements ICurrentGenerator {
 		transform.set(transformationMatrix);
 	}
 
+	/**
+	 * The current is computed from the settings in every step, nothing has to be restored.
+	 */
+	public void restoreCurrent(Simulation s, int dummy) {
+	}
+
 	public void applyCurrent(Simulation s) {
 		this.grid = s.grid;
 		double as = grid.getLatticeSpacing();
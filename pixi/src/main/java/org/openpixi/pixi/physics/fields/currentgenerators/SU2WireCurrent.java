@@ -30,6 +30,12 @@ public class SU2WireCurrent implements ICurrentGenerator {
 		applyCurrent(s);
 	}
 
+	/**
+	 * The current is computed from the settings in every step, nothing has to be restored.
+	 */
+	public void restoreCurrent(Simulation s, int dummy) {
+	}
+
 	public void applyCurrent(Simulation s) {
 		this.grid = s.grid;
 		double as = grid.getLatticeSpacing();
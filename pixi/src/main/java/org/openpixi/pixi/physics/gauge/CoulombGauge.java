@@ -4,21 +4,42 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.openpixi.pixi.math.AlgebraElement;
-import org.openpixi.pixi.math.ElementFactory;
-import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
+import org.openpixi.pixi.parallel.cellaccess.CellReducer;
 import org.openpixi.pixi.physics.grid.Grid;
 
 /**
  * Appy the Coulomb gauge transformation to a grid.
+ * <br>
+ * Every iteration is a Fourier accelerated steepest descent step: the divergence of the gauge links is computed for
+ * all color components in a single pass over the grid, the components are transformed to Fourier space as independent
+ * tasks on the threads of the cell iterator and multiplied with the inverse lattice Laplacian, which is tabulated
+ * once for the size of the grid. The divergence is real and the inverse Laplacian is real and even in momentum space,
+ * so two color components are packed into the real and imaginary parts of a single complex transform and remain
+ * separated in the real and imaginary parts of the result. The step can be scaled by an over-relaxation parameter (see
+ * {@link #setRelaxation(double)}). The grid may have any number of dimensions; directions with a single cell do not
+ * contribute to the Laplacian.
  */
 public class CoulombGauge extends GaugeTransformation {
 
 	CalculateDivergence calculateDivergence = new CalculateDivergence();
-	InverseLaplaceOperator inverseLaplaceOperator = new InverseLaplaceOperator();
+	CalculateGaugeTransformation calculateGaugeTransformation = new CalculateGaugeTransformation();
 
-	private double[] fftArray;
+	/**
+	 * Divergence and psi for every pair of color components. The color component c is stored in the real (c even) or
+	 * imaginary (c odd) part of the array c / 2.
+	 */
+	private double[][] fftArrays;
+	private int numberOfComponents;
 	private DoubleFFTWrapper fft;
+	private int[] numCells;
+
+	/**
+	 * Inverse lattice Laplacian (including the factor -1/2 of the steepest descent step) for every momentum.
+	 */
+	private double[] inverseLaplace;
 
 	/**
 	 * Maximum number of interations.
@@ -30,6 +51,11 @@ public class CoulombGauge extends GaugeTransformation {
 	 */
 	private double accuracyGoal = 1e-18;
 
+	/**
+	 * Over-relaxation parameter which scales every step. A value of 1 is the exact step for abelian configurations.
+	 */
+	private double relaxation = 1.0;
+
 	/**
 	 * Remember a list of divergence.
 	 */
@@ -39,6 +65,27 @@ public class CoulombGauge extends GaugeTransformation {
 		return accuracyGoal;
 	}
 
+	public void setAccuracyGoal(double accuracyGoal) {
+		this.accuracyGoal = accuracyGoal;
+	}
+
+	public void setMaxIteration(int maxIteration) {
+		this.maxIteration = maxIteration;
+	}
+
+	/**
+	 * Sets the over-relaxation parameter. Since the Fourier accelerated step is exact for abelian configurations, the
+	 * default value of 1 usually converges fastest; smaller values can stabilize strongly non-abelian configurations.
+	 * @param relaxation    scaling factor of every step
+	 */
+	public void setRelaxation(double relaxation) {
+		this.relaxation = relaxation;
+	}
+
+	public double getRelaxation() {
+		return relaxation;
+	}
+
 	public Double[] getLastConvergence() {
 		return lastConvergence.toArray(new Double[0]);
 	}
@@ -49,8 +96,12 @@ public class CoulombGauge extends GaugeTransformation {
 	 */
 	public CoulombGauge(Grid grid) {
 		super(grid);
-		fft = new DoubleFFTWrapper(grid.getNumCells());
-		fftArray = new double[fft.getFFTArraySize()];
+		numCells = grid.getNumCells().clone();
+		fft = DoubleFFTWrapper.getCached(numCells);
+		numberOfComponents = grid.getElementFactory().numberOfComponents;
+		fftArrays = new double[(numberOfComponents + 1) / 2][fft.getFFTArraySize()];
+		inverseLaplace = new double[grid.getTotalNumberOfCells()];
+		grid.getCellIterator().execute(grid, new CalculateInverseLaplace());
 	}
 
 	public void applyGaugeTransformation(Grid grid) {
@@ -58,13 +109,14 @@ public class CoulombGauge extends GaugeTransformation {
 		double divergenceSquaredSum = 0;
 		lastConvergence = new ArrayList<Double>(maxIteration);
 		while (iteration < maxIteration) {
-			divergenceSquaredSum = iterateCoulombGauge(grid);
+			divergenceSquaredSum = grid.getCellIterator().reduce(grid, calculateDivergence);
 			lastConvergence.add(divergenceSquaredSum);
 			iteration++;
 			//System.out.println("Iteration " + iteration + " - Divergence U: " + divergenceSquaredSum);
 			if (divergenceSquaredSum < accuracyGoal) {
 				break;
 			}
+			iterateCoulombGauge(grid);
 		}
 		//System.out.println("Accuracy goal reached after " + iteration + " iterations.");
 		if (divergenceSquaredSum >= accuracyGoal) {
@@ -73,80 +125,45 @@ public class CoulombGauge extends GaugeTransformation {
 	}
 
 	/**
-	 * Performs a single iteration step.
-	 * @return previous divergence
+	 * Performs a single iteration step with the divergence which has been written to the FFT arrays.
 	 */
-	private double iterateCoulombGauge(Grid grid) {
-		double divergenceSquaredSum = 0;
-
-		ElementFactory factory = grid.getElementFactory();
-		int colors = grid.getNumberOfColors();
-
-		// New AlgebraElement array to store psi values
-		AlgebraElement[] psi = new AlgebraElement[getG().length];
-		for (int i = 0; i < getG().length; i++) {
-			psi[i] = factory.algebraZero(colors);
-		}
-
-		int numberOfComponents = factory.numberOfComponents;
-		for (int color = 0; color < numberOfComponents; color++) {
-			// Calculate Divergence and put into fftArray
-			calculateDivergence.setColorAndResetSum(color);
-			grid.getCellIterator().execute(grid, calculateDivergence);
-			divergenceSquaredSum += calculateDivergence.getDivergenceSquaredSum();
-
-			// Solve Poisson's equation by applying the inverse Laplace operator
-			// for discrete lattice derivatives in Fourier space:
-			fft.complexForward(fftArray);
-			grid.getCellIterator().execute(grid, inverseLaplaceOperator);
-			fft.complexInverse(fftArray, true);
-
-			// Add result to gauge transformation
-			for (int i = 0; i < getG().length; i++) {
-				// real part:
-				int fftIndex = fft.getFFTArrayIndex(i);
-				double value = fftArray[fftIndex];
-
-				// Store values temporarily in SU2GroupElement instead of SU2AlgebraElement:
-				//getG()[i].set(color + 1, value);
-
-				psi[i].set(color, value);
+	private void iterateCoulombGauge(Grid grid) {
+		// Solve Poisson's equation by applying the inverse Laplace operator
+		// for discrete lattice derivatives in Fourier space:
+		grid.getCellIterator().executeTasks(fftArrays.length, new CellIterator.BlockAction() {
+			public void execute(int pair) {
+				double[] fftArray = fftArrays[pair];
+				DoubleFFTWrapper fft = DoubleFFTWrapper.getCached(numCells);
+				fft.complexForward(fftArray);
+				for (int i = 0; i < inverseLaplace.length; i++) {
+					int fftIndex = fft.getFFTArrayIndex(i);
+					fftArray[fftIndex] *= inverseLaplace[i]; // real part
+					fftArray[fftIndex + 1] *= inverseLaplace[i]; // imaginary part
+				}
+				fft.complexInverse(fftArray, true);
 			}
-		}
+		});
 
 		// Calculate g(x) = exp(i g psi^\dagger)
-		for (int i = 0; i < getG().length; i++) {
-			// psi is stored in g for convenience:
-			//SU2AlgebraElement psidagger = (SU2AlgebraElement) getG()[i].adj().proj();
-
-			// Field generators are antihermitian so multiply psi by -1 to get psidagger
-			AlgebraElement psidagger = psi[i].mult(-1);
-			getG()[i] = psidagger.getLink();
-		}
+		grid.getCellIterator().execute(grid, calculateGaugeTransformation);
 
 		/*
 			Cycle through each cell and apply the gauge transformation
 		 */
 		super.applyGaugeTransformation(grid);
-
-		return divergenceSquaredSum;
 	}
 
-	private class CalculateDivergence implements CellAction {
-		private int color;
-		private double divergenceSquaredSum;
-
-		public void setColorAndResetSum(int color) {
-			this.color = color;
-			divergenceSquaredSum = 0;
-		}
-
-		public double getDivergenceSquaredSum() {
-			return divergenceSquaredSum;
-		}
+	/**
+	 * Writes the divergence of all color components into the FFT arrays and returns its square.
+	 */
+	private class CalculateDivergence implements CellReducer {
 
-		public void execute(Grid grid, int index) {
-			double divergenceU = 0;
+		public double reduce(Grid grid, int index) {
+			int fftIndex = fft.getFFTArrayIndex(index);
+			for (int pair = 0; pair < fftArrays.length; pair++) {
+				fftArrays[pair][fftIndex] = 0; // real part
+				fftArrays[pair][fftIndex + 1] = 0; // imaginary part
+			}
 			for (int dir = 0; dir < grid.getNumberOfDimensions(); dir++) {
 				/*
 				 * U_i(x) - U_i(x-i)
@@ -154,42 +171,53 @@ public class CoulombGauge extends GaugeTransformation {
 				AlgebraElement U = grid.getU(index, dir).getAlgebraElement();
 				AlgebraElement Ushifted = grid.getU(grid.shift(index, dir, -1), dir).getAlgebraElement();
 
-				divergenceU += U.get(color) - Ushifted.get(color);
+				for (int color = 0; color < numberOfComponents; color++) {
+					fftArrays[color / 2][fftIndex + color % 2] += U.get(color) - Ushifted.get(color);
+				}
 			}
-			int fftIndex = fft.getFFTArrayIndex(index);
-			fftArray[fftIndex] = divergenceU; // real part
-			fftArray[fftIndex + 1] = 0; // imaginary part
-			double divergenceUSquared = divergenceU * divergenceU;
-			synchronized(this) {
-				divergenceSquaredSum += divergenceUSquared;
+			double divergenceSquared = 0;
+			for (int color = 0; color < numberOfComponents; color++) {
+				double divergenceU = fftArrays[color / 2][fftIndex + color % 2];
+				divergenceSquared += divergenceU * divergenceU;
 			}
+			return divergenceSquared;
 		}
 	}
 
-	private class InverseLaplaceOperator implements CellAction {
+	/**
+	 * Tabulates the inverse Laplace operator on the lattice for discrete derivatives.
+	 */
+	private class CalculateInverseLaplace implements CellAction {
 		public void execute(Grid grid, int index) {
 			int[] coor = grid.getCellPos(index);
-			int kx = coor[0];
-			int ky = coor[1];
-			int kz = coor[2];
-			if (kx == 0 && ky == 0 && kz == 0) {
+			double laplace = 0;
+			for (int dir = 0; dir < grid.getNumberOfDimensions(); dir++) {
+				laplace += Math.cos(2 * Math.PI * coor[dir] / grid.getNumCells(dir)) - 1.;
+			}
+			if (laplace == 0) {
 				// zero vector component does not contribute:
-				fftArray[0] = 0; // real part
-				fftArray[1] = 0; // imaginary part
+				inverseLaplace[index] = 0;
 			} else {
-				// Calculate inverse Laplace operator on the lattice for discrete derivatives:
-				double Nx = grid.getNumCells(0);
-				double Ny = grid.getNumCells(1);
-				double Nz = grid.getNumCells(2);
-
-				double inverseLaplace = -0.5 / ((Math.cos(2 * Math.PI * kx / Nx)
-						+ Math.cos(2 * Math.PI * ky / Ny)
-						+ Math.cos(2 * Math.PI * kz / Nz) - 3.));
-
-				int fftIndex = fft.getFFTArrayIndex(index);
-				fftArray[fftIndex] *= inverseLaplace; // real part
-				fftArray[fftIndex + 1] *= inverseLaplace; // imaginary part
+				inverseLaplace[index] = -0.5 / laplace;
+			}
+		}
+	}
+
+	/**
+	 * Sets the gauge transformation to the exponential of the hermitian conjugate of psi.
+	 */
+	private class CalculateGaugeTransformation implements CellAction {
+
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(0, 1);
+
+		public void execute(Grid grid, int index) {
+			AlgebraElement psidagger = scratch.get(grid.getElementFactory()).algebra[0];
+			int fftIndex = fft.getFFTArrayIndex(index);
+			for (int color = 0; color < numberOfComponents; color++) {
+				// Field generators are antihermitian so multiply psi by -1 to get psidagger
+				psidagger.set(color, -relaxation * fftArrays[color / 2][fftIndex + color % 2]);
 			}
+			psidagger.getLinkInto(getG()[index]);
 		}
 	}
 
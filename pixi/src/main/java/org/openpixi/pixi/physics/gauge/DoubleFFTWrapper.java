@@ -1,7 +1,10 @@
 package org.openpixi.pixi.physics.gauge;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_2D;
@@ -13,6 +16,29 @@ import edu.emory.mathcs.jtransforms.fft.DoubleFFT_3D;
  */
 public class DoubleFFTWrapper {
 
+	/**
+	 * Maximum number of wrappers which are cached by a single thread.
+	 */
+	private static final int MAX_CACHED_WRAPPERS = 4;
+
+	/**
+	 * Wrappers of the current thread by grid size, least recently used first. JTransforms plans use internal work
+	 * arrays, so a plan must not be used by several threads at the same time. The cache is limited, since pool
+	 * threads live as long as the JVM.
+	 */
+	private static final ThreadLocal<Map<String, DoubleFFTWrapper>> cache =
+			new ThreadLocal<Map<String, DoubleFFTWrapper>>() {
+		@Override
+		protected Map<String, DoubleFFTWrapper> initialValue() {
+			return new LinkedHashMap<String, DoubleFFTWrapper>(MAX_CACHED_WRAPPERS + 1, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, DoubleFFTWrapper> eldest) {
+					return size() > MAX_CACHED_WRAPPERS;
+				}
+			};
+		}
+	};
+
 	private int[] dimensions;
 	private List<Integer> dimensionsFFT;
 
@@ -46,6 +72,25 @@ public class DoubleFFTWrapper {
 		}
 	}
 
+	/**
+	 * Returns a wrapper for the given grid size which is reused by later calls from the same thread. Setting up the
+	 * plans (twiddle factors and bit reversal tables) is expensive compared to a single transform of a small grid.
+	 * Only the plans are cached, the arrays which are transformed belong to the caller.
+	 *
+	 * @param dimensions dimension and size in each direction
+	 * @return           cached FFT wrapper of the calling thread
+	 */
+	public static DoubleFFTWrapper getCached(int[] dimensions) {
+		Map<String, DoubleFFTWrapper> wrappers = cache.get();
+		String key = Arrays.toString(dimensions);
+		DoubleFFTWrapper fft = wrappers.get(key);
+		if (fft == null) {
+			fft = new DoubleFFTWrapper(dimensions.clone());
+			wrappers.put(key, fft);
+		}
+		return fft;
+	}
+
 	/**
 	 * Return a list of dimensions whose size > 1.
 	 *
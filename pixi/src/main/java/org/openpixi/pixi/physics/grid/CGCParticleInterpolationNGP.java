@@ -3,6 +3,7 @@ package org.openpixi.pixi.physics.grid;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
@@ -13,6 +14,11 @@ import org.openpixi.pixi.physics.util.GridFunctions;
  */
 public class CGCParticleInterpolationNGP implements  InterpolatorAlgorithm {
 	public void interpolateToGrid(IParticle p, Grid g) {
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			interpolateToGrid(P, 0, P.numberOfParticles, g);
+			return;
+		}
 		CGCParticle P = (CGCParticle) p;
 		GroupElement identity = g.getElementFactory().groupIdentity();
 
@@ -46,6 +52,11 @@ public class CGCParticleInterpolationNGP implements  InterpolatorAlgorithm {
 	}
 
 	public void interpolateChargedensity(IParticle p, Grid g) {
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			interpolateChargedensity(P, 0, P.numberOfParticles, g);
+			return;
+		}
 		CGCParticle P = (CGCParticle) p;
 
 		double as = g.getLatticeSpacing();
@@ -62,6 +73,11 @@ public class CGCParticleInterpolationNGP implements  InterpolatorAlgorithm {
 	}
 
 	public void interpolateToParticle(IParticle p, Grid g) {
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			interpolateToParticle(P, 0, P.numberOfParticles, g);
+			return;
+		}
 		// Compute parallel transport for the particle.
 		CGCParticle P = (CGCParticle) p;
 		double as = g.getLatticeSpacing();
@@ -91,4 +107,97 @@ public class CGCParticleInterpolationNGP implements  InterpolatorAlgorithm {
 			P.updateCharge = true;
 		}
 	}
+
+	/*
+	 *      Bulk kernels for blocks of particles
+	 */
+
+	/**
+	 * Deposits the currents of the particles [start, end) of a block.
+	 */
+	public void interpolateToGrid(CGCParticleArray P, int start, int end, Grid g) {
+		double at = g.getTemporalSpacing();
+		double as = g.getLatticeSpacing();
+		int[] numCells = g.getNumCells();
+		int numberOfDimensions = P.numberOfDimensions;
+		AlgebraElement J = g.getElementFactory().algebraZero();
+
+		for (int i = start; i < end; i++) {
+			int direction = P.direction[i];
+			int offset = i * numberOfDimensions;
+			if (Math.rint(P.pos0[offset + direction] / as) != Math.rint(P.pos1[offset + direction] / as)) {
+				// two cell move
+				if (P.velocity[i] > 0) {
+					P.readQ0(i, J);
+					J.multAssign(as / at);
+					g.addJ(getNearestCellIndex(P.pos0, offset, as, numCells), direction, J);
+				} else {
+					P.readQ1(i, J);
+					J.multAssign(- as / at);
+					g.addJ(getNearestCellIndex(P.pos1, offset, as, numCells), direction, J);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deposits the charges of the particles [start, end) of a block.
+	 */
+	public void interpolateChargedensity(CGCParticleArray P, int start, int end, Grid g) {
+		double as = g.getLatticeSpacing();
+		int[] numCells = g.getNumCells();
+		AlgebraElement Q = g.getElementFactory().algebraZero();
+
+		for (int i = start; i < end; i++) {
+			P.readQ0(i, Q);
+			g.addRho(getNearestCellIndex(P.pos0, i * P.numberOfDimensions, as, numCells), Q);
+		}
+	}
+
+	/**
+	 * Parallel transports the charges of the particles [start, end) of a block which move to the next cell. The
+	 * transported charge is written to Q1 directly (see {@link CGCParticleArray}).
+	 */
+	public void interpolateToParticle(CGCParticleArray P, int start, int end, Grid g) {
+		double as = g.getLatticeSpacing();
+		int[] numCells = g.getNumCells();
+		int numberOfDimensions = P.numberOfDimensions;
+		AlgebraElement Q = g.getElementFactory().algebraZero();
+
+		for (int i = start; i < end; i++) {
+			int direction = P.direction[i];
+			int offset = i * numberOfDimensions;
+			if (Math.rint(P.pos0[offset + direction] / as) != Math.rint(P.pos1[offset + direction] / as)) {
+				// two cell move
+				GroupElement U;
+				if (P.velocity[i] > 0) {
+					U = g.getUnext(getNearestCellIndex(P.pos0, offset, as, numCells), direction).adj();
+				} else {
+					U = g.getUnext(getNearestCellIndex(P.pos1, offset, as, numCells), direction);
+				}
+				P.readQ0(i, Q);
+				P.writeQ1(i, Q.act(U));
+				P.transported[i] = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the (periodic) cell index of the nearest grid point of a position.
+	 *
+	 * @param positions Array of positions
+	 * @param offset    Offset of the position in the array
+	 * @param as        Lattice spacing
+	 * @param numCells  Number of cells of the grid
+	 * @return          Cell index
+	 */
+	private static int getNearestCellIndex(double[] positions, int offset, double as, int[] numCells) {
+		int cellIndex = 0;
+		for (int d = 0; d < numCells.length; d++) {
+			int x = (int) Math.rint(positions[offset + d] / as);
+			x = (x % numCells[d] + numCells[d]) % numCells[d];
+			cellIndex = cellIndex * numCells[d] + x;
+		}
+		return cellIndex;
+	}
 }
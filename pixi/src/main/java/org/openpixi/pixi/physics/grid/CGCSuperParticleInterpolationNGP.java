@@ -1,7 +1,8 @@
 package org.openpixi.pixi.physics.grid;
 
-import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
 import org.openpixi.pixi.physics.particles.CGCSuperParticle;
 import org.openpixi.pixi.physics.particles.IParticle;
 
@@ -11,55 +12,33 @@ import org.openpixi.pixi.physics.particles.IParticle;
  * moves along a grid axis such that there is no ambiguity in defining parallel transport for the color charges of the
  * particles. The super particle classes encapsulate larger collections of particles whose relative positions are fixed
  * during the simulation and whose charges are updated at the same time when they cross into other cells.
+ * <br>
+ * The particles may move along any grid axis. The charges of a super particle are split into contiguous chunks
+ * which are processed in parallel as tasks of the cell iterator of the grid.
  */
-public class CGCSuperParticleInterpolationNGP implements InterpolatorAlgorithm {
+public class CGCSuperParticleInterpolationNGP implements ParallelInterpolatorAlgorithm {
 
-	private boolean useOffset = false;
+	/**
+	 * Number of charges which are processed by one task.
+	 */
+	public static final int CHUNK_SIZE = 1024;
+
+	private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 0);
 
 	public void interpolateToGrid(IParticle p, Grid g) {
 		double at = g.getTemporalSpacing();
 		double as = g.getLatticeSpacing();
-		int totalNumberOfCells = g.getTotalNumberOfCells();
 
 		CGCSuperParticle P = (CGCSuperParticle) p;
 		if (P.needsUpdate(g.getSimulationSteps())) {
 			int indexOffset = P.getCurrentOffset(g.getSimulationSteps());
-
-	        /*
-	         * Set limits for iterating over particle charges inside the super particle:
-	         * As a super particle moves closer to the boundary of the simulation box, some of the particle charges
-	         * associated with that super particle may already lie outside the grid. Setting the start and end of the
-	         * for loop makes sure that the interpolation routines do not create ArrayIndexOutOfBounds exceptions.
-	         *
-	         * Furthermore we can introduce an offset depending on the sub lattice shift of the super particle. This
-	         * shifts the order in which particle charges are interpolated on the grid. As a result different threads
-	         * do not write to the same cell at the same time, which should improve multithreading performance.
-	         */
-			int imin = (indexOffset < 0) ? -indexOffset : 0;
-			int imax = Math.max(Math.min(indexOffset + P.numberOfParticles, totalNumberOfCells) - indexOffset, 0);
-			int ireg = imax - imin;
-			int offset = 0;
-			if (useOffset) {
-				offset = ireg * P.subLatticeShift / P.particlePerCell;
-			}
-			if (P.orientation > 0) {
-				for (int i = 0; i < ireg; i++) {
-					int j = (i + offset) % ireg + imin;
-					int index = indexOffset + j;
-					AlgebraElement J = P.Q[j].mult(as / at);
-					g.addJ(index, 0, J); // Optimizations only work for x-direction!
-					GroupElement U = g.getUnext(index, 0);
-					P.Q[j].actAssign(U.adj());
-				}
-			} else {
-				for (int i = 0; i < ireg; i++) {
-					int j = (i + offset) % ireg + imin;
-					int index = indexOffset + j;
-					GroupElement U = g.getUnext(index, 0);
-					P.Q[j].actAssign(U);
-					AlgebraElement J = P.Q[j].mult(-as / at);
-					g.addJ(index, 0, J); // Optimizations only work for x-direction!
-				}
+			int[] range = getRange(P, indexOffset, g.getTotalNumberOfCells());
+			if (range[0] < range[1]) {
+				// The charges of the super particle lie in disjoint cells, so contiguous chunks of charges can be
+				// processed by different threads.
+				CurrentDeposition deposition = new CurrentDeposition(g, P, indexOffset, range, as / at, scratch);
+				g.getCellIterator().executeTasks(deposition.getNumberOfChunks(), deposition);
+				deposition.markOccupiedSlabs();
 			}
 		}
 	}
@@ -67,20 +46,10 @@ public class CGCSuperParticleInterpolationNGP implements InterpolatorAlgorithm {
 	public void interpolateChargedensity(IParticle p, Grid g) {
 		CGCSuperParticle P = (CGCSuperParticle) p;
 		int indexOffset = P.getCurrentNGPOffset(g.getSimulationSteps());
-		int totalNumberOfCells = g.getTotalNumberOfCells();
-
-		// Set the limits of the for loop. See comment in interpolateToGrid() for explanation.
-		int imin = (indexOffset < 0) ? -indexOffset : 0;
-		int imax = Math.max(Math.min(indexOffset + P.numberOfParticles, totalNumberOfCells) - indexOffset, 0);
-		int ireg = imax - imin;
-		int offset = 0;
-		if (useOffset) {
-			offset = ireg * P.subLatticeShift / P.particlePerCell;
-		}
-		for (int i = 0; i < ireg; i++) {
-			int j = (i + offset) % ireg + imin;
-			int index = indexOffset + j;
-			g.addRho(index, P.Q[j]);
+		int[] range = getRange(P, indexOffset, g.getTotalNumberOfCells());
+		if (range[0] < range[1]) {
+			ChargeDeposition deposition = new ChargeDeposition(g, P, indexOffset, range);
+			g.getCellIterator().executeTasks(deposition.getNumberOfChunks(), deposition);
 		}
 	}
 
@@ -90,4 +59,132 @@ public class CGCSuperParticleInterpolationNGP implements InterpolatorAlgorithm {
 		the optimized super particle classes, parallel transport is taken care of by interpolateToGrid().
 		 */
 	}
+
+	/**
+	 * Sets limits for iterating over particle charges inside the super particle:
+	 * As a super particle moves closer to the boundary of the simulation box, some of the particle charges
+	 * associated with that super particle may already lie outside the grid. Setting the start and end of the
+	 * for loop makes sure that the interpolation routines do not create ArrayIndexOutOfBounds exceptions.
+	 *
+	 * @return  range [imin, imax) of particle charges which lie inside the grid
+	 */
+	private int[] getRange(CGCSuperParticle P, int indexOffset, int totalNumberOfCells) {
+		int imin = (indexOffset < 0) ? -indexOffset : 0;
+		int imax = Math.max(Math.min(indexOffset + P.numberOfParticles, totalNumberOfCells) - indexOffset, imin);
+		return new int[]{imin, imax};
+	}
+
+	/**
+	 * Task which processes the charges [imin + chunk * CHUNK_SIZE, imin + (chunk + 1) * CHUNK_SIZE) of a super
+	 * particle, limited to the range of charges inside the grid.
+	 */
+	private static abstract class ChunkedDeposition implements CellIterator.BlockAction {
+
+		protected Grid g;
+		protected CGCSuperParticle P;
+		protected int indexOffset;
+		private int imin;
+		private int imax;
+
+		private ChunkedDeposition(Grid g, CGCSuperParticle P, int indexOffset, int[] range) {
+			this.g = g;
+			this.P = P;
+			this.indexOffset = indexOffset;
+			this.imin = range[0];
+			this.imax = range[1];
+		}
+
+		public int getNumberOfChunks() {
+			return (imax - imin + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		}
+
+		public void execute(int chunk) {
+			int start = imin + chunk * CHUNK_SIZE;
+			deposit(chunk, start, Math.min(start + CHUNK_SIZE, imax));
+		}
+
+		/**
+		 * Processes the charges [start, end) of a chunk within the super particle.
+		 */
+		protected abstract void deposit(int chunk, int start, int end);
+	}
+
+	/**
+	 * Deposits the currents of the particle charges and parallel transports the charges.
+	 * <br>
+	 * The charges of a chunk lie in cells which no other chunk writes into, so the currents are added without locks.
+	 * The slabs of the deposited currents are recorded per chunk and marked as occupied after all chunks are done
+	 * (see {@link #markOccupiedSlabs()}).
+	 */
+	private static class CurrentDeposition extends ChunkedDeposition {
+
+		private double factor;
+		private ScratchElements.Pool scratch;
+		private OccupiedSlabs occupiedSlabs;
+		private boolean[][] masks;
+
+		private CurrentDeposition(Grid g, CGCSuperParticle P, int indexOffset, int[] range, double factor,
+				ScratchElements.Pool scratch) {
+			super(g, P, indexOffset, range);
+			this.factor = factor;
+			this.scratch = scratch;
+			occupiedSlabs = g.getOccupiedSlabs();
+			if (occupiedSlabs != null && occupiedSlabs.getNumberOfSlabs() > 0) {
+				masks = new boolean[getNumberOfChunks()][];
+			}
+		}
+
+		protected void deposit(int chunk, int start, int end) {
+			GroupElement U = scratch.get(g.getElementFactory()).group[0];
+			boolean[] mask = null;
+			if (masks != null) {
+				mask = new boolean[occupiedSlabs.getNumberOfSlabs()];
+				masks[chunk] = mask;
+			}
+			for (int j = start; j < end; j++) {
+				int index = P.getCellIndex(indexOffset + j, g.getNumCells());
+				g.getLinkInto(index, P.direction, 1, 1, U);
+				if (P.orientation > 0) {
+					g.addJ(index, P.direction, P.Q[j], factor);
+					U.adjAssign();
+					P.Q[j].actAssign(U);
+				} else {
+					P.Q[j].actAssign(U);
+					g.addJ(index, P.direction, P.Q[j], -factor);
+				}
+				if (mask != null) {
+					mask[occupiedSlabs.getSlab(index)] = true;
+				}
+			}
+		}
+
+		/**
+		 * Marks the slabs which have been recorded by the chunks as occupied. Called after all chunks are done.
+		 */
+		private void markOccupiedSlabs() {
+			if (masks != null) {
+				for (int chunk = 0; chunk < masks.length; chunk++) {
+					if (masks[chunk] != null) {
+						occupiedSlabs.mark(masks[chunk]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deposits the charge density of the particle charges at their NGP cells.
+	 */
+	private static class ChargeDeposition extends ChunkedDeposition {
+
+		private ChargeDeposition(Grid g, CGCSuperParticle P, int indexOffset, int[] range) {
+			super(g, P, indexOffset, range);
+		}
+
+		protected void deposit(int chunk, int start, int end) {
+			for (int j = start; j < end; j++) {
+				g.addRho(P.getCellIndex(indexOffset + j, g.getNumCells()), P.Q[j]);
+			}
+		}
+	}
 }
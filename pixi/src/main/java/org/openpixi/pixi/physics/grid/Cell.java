@@ -73,6 +73,17 @@ public class Cell implements Serializable {
 		}
 	}
 
+	/**
+	 * Constructor for cell views which do not own any field data (see {@link FlatGrid}).
+	 * Subclasses using this constructor have to override all field accessors.
+	 * @param dimensions Number of spatial dimensions (e.g. 3)
+	 * @param colors Number of colors N for the gauge group SU(N)
+	 */
+	protected Cell(int dimensions, int colors) {
+		this.dimensions = dimensions;
+		this.colors = colors;
+	}
+
 	/**
 	 * Needs to be synchronized as we expect in the parallel version
 	 * two threads trying to update the field at the same time.
@@ -193,14 +204,14 @@ public class Cell implements Serializable {
 		*/
 
 		for(int i = 0; i < E.length; i++) {
-			this.E[i] = other.E[i].copy();
-			this.J[i] = other.J[i].copy();
-			this.U[i] = other.U[i].copy();
-			this.Unext[i] = other.Unext[i].copy();
+			this.E[i] = other.getE(i).copy();
+			this.J[i] = other.getJ(i).copy();
+			this.U[i] = other.getU(i).copy();
+			this.Unext[i] = other.getUnext(i).copy();
 		}
-		this.rho.set(other.rho);
-		this.evaluatable = other.evaluatable;
-		this.active = other.active;
+		this.rho.set(other.getRho());
+		this.evaluatable = other.isEvaluatable();
+		this.active = other.isActive();
 	}
 
 	/**
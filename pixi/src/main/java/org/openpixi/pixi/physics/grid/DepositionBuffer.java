@@ -0,0 +1,212 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thread private buffers for the deposition of currents and charges.
+ * <br>
+ * While a buffer is attached to a grid (see {@link Grid#setDepositionBuffer(DepositionBuffer)}), the
+ * {@link Grid#addJ(int, int, AlgebraElement)} and {@link Grid#addRho(int, AlgebraElement)} methods write into a buffer
+ * which belongs to the calling thread, so no locks are needed. Afterwards the buffers of all threads are added to the
+ * grid by {@link #merge(Grid)} in a parallel pass over the cells, where every cell is written by a single thread.
+ * <br>
+ * The buffers are split into pages of consecutive cells which are only allocated once a thread writes into them.
+ * Particles which are localized in a small region of the grid therefore only need little extra memory. After a merge
+ * the pages are handed out again to the threads of the next deposition, so the buffer keeps at most the pages of as
+ * many threads as have written into it between two merges.
+ */
+public class DepositionBuffer {
+
+	/**
+	 * Number of cells per page is 2^PAGE_SHIFT.
+	 */
+	private static final int PAGE_SHIFT = 10;
+
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private final int numberOfCells;
+	private final int numberOfDimensions;
+	private final int algebraSize;
+
+	/**
+	 * Number of doubles per cell: numberOfDimensions current components and the charge density.
+	 */
+	private final int stride;
+
+	private final int numberOfPages;
+
+	/**
+	 * Pages of the threads which have written into this buffer since the last merge.
+	 */
+	private final List<double[][]> threadPages = new ArrayList<double[][]>();
+
+	/**
+	 * References of the threads to their pages, which are cleared by the merge.
+	 */
+	private final List<PageReference> references = new ArrayList<PageReference>();
+
+	/**
+	 * Cleared pages of the last merge which are reused by the threads of the next deposition.
+	 */
+	private final List<double[][]> freePages = new ArrayList<double[][]>();
+
+	private final ThreadLocal<PageReference> localPages = new ThreadLocal<PageReference>() {
+		@Override
+		protected PageReference initialValue() {
+			return new PageReference();
+		}
+	};
+
+	private final MergeAction mergeAction = new MergeAction();
+
+	/**
+	 * Creates a deposition buffer which fits the given grid.
+	 *
+	 * @param grid  Grid into which the buffer is merged
+	 */
+	public DepositionBuffer(Grid grid) {
+		numberOfCells = grid.getTotalNumberOfCells();
+		numberOfDimensions = grid.getNumberOfDimensions();
+		algebraSize = grid.getElementFactory().numberOfComponents;
+		stride = (numberOfDimensions + 1) * algebraSize;
+		numberOfPages = (numberOfCells + PAGE_SIZE - 1) >> PAGE_SHIFT;
+	}
+
+	/**
+	 * Checks whether the buffer has the layout which is needed for the given grid.
+	 */
+	public boolean fits(Grid grid) {
+		return numberOfCells == grid.getTotalNumberOfCells()
+				&& numberOfDimensions == grid.getNumberOfDimensions()
+				&& algebraSize == grid.getElementFactory().numberOfComponents;
+	}
+
+	/**
+	 * Adds a AlgebraElement to the (dir)-component of the current in the buffer of the calling thread.
+	 */
+	public void addJ(int index, int dir, AlgebraElement field) {
+		add(index, dir * algebraSize, field);
+	}
+
+	/**
+	 * Adds a AlgebraElement to the charge density in the buffer of the calling thread.
+	 */
+	public void addRho(int index, AlgebraElement field) {
+		add(index, numberOfDimensions * algebraSize, field);
+	}
+
+	/**
+	 * Adds the buffers of all threads to the currents and charge densities of the grid and clears the buffers.
+	 * The buffer must not be attached to the grid anymore.
+	 *
+	 * @param grid  Grid into which the buffers are merged
+	 */
+	public void merge(Grid grid) {
+		grid.getCellIterator().execute(grid, mergeAction);
+		synchronized (threadPages) {
+			for (int i = 0; i < references.size(); i++) {
+				references.get(i).pages = null;
+			}
+			references.clear();
+			freePages.clear();
+			freePages.addAll(threadPages);
+			threadPages.clear();
+		}
+	}
+
+	/**
+	 * Number of threads whose pages are kept by the buffer.
+	 */
+	int getNumberOfThreadPages() {
+		synchronized (threadPages) {
+			return threadPages.size() + freePages.size();
+		}
+	}
+
+	private void add(int index, int offset, AlgebraElement field) {
+		PageReference reference = localPages.get();
+		double[][] pages = reference.pages;
+		if (pages == null) {
+			pages = acquirePages(reference);
+		}
+		int page = index >> PAGE_SHIFT;
+		double[] values = pages[page];
+		if (values == null) {
+			values = new double[PAGE_SIZE * stride];
+			pages[page] = values;
+		}
+		int start = (index & (PAGE_SIZE - 1)) * stride + offset;
+		for (int c = 0; c < algebraSize; c++) {
+			values[start + c] += field.get(c);
+		}
+	}
+
+	/**
+	 * Assigns pages to the calling thread, preferably the cleared pages of an earlier deposition.
+	 */
+	private double[][] acquirePages(PageReference reference) {
+		synchronized (threadPages) {
+			double[][] pages;
+			if (freePages.isEmpty()) {
+				pages = new double[numberOfPages][];
+			} else {
+				pages = freePages.remove(freePages.size() - 1);
+			}
+			threadPages.add(pages);
+			references.add(reference);
+			reference.pages = pages;
+			return pages;
+		}
+	}
+
+	/**
+	 * Pages of a thread, or null if the thread has not written into the buffer since the last merge.
+	 */
+	private static class PageReference {
+		private double[][] pages;
+	}
+
+	private class MergeAction implements CellAction {
+
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(0, 1);
+
+		public void execute(Grid grid, int index) {
+			int page = index >> PAGE_SHIFT;
+			int start = (index & (PAGE_SIZE - 1)) * stride;
+			AlgebraElement sum = null;
+			for (int i = 0; i < threadPages.size(); i++) {
+				double[] values = threadPages.get(i)[page];
+				if (values == null) {
+					continue;
+				}
+				if (sum == null) {
+					sum = scratch.get(grid.getElementFactory()).algebra[0];
+				}
+				for (int k = 0; k <= numberOfDimensions; k++) {
+					int offset = start + k * algebraSize;
+					boolean deposited = false;
+					for (int c = 0; c < algebraSize; c++) {
+						double value = values[offset + c];
+						sum.set(c, value);
+						if (value != 0.0) {
+							deposited = true;
+							values[offset + c] = 0.0;
+						}
+					}
+					if (deposited) {
+						if (k < numberOfDimensions) {
+							grid.getJ(index, k).addAssign(sum);
+						} else {
+							grid.getRho(index).addAssign(sum);
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,1077 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.math.SU2GroupElement;
+import org.openpixi.pixi.math.SU3AlgebraElement;
+import org.openpixi.pixi.math.SU3GroupElement;
+import org.openpixi.pixi.physics.Settings;
+
+import java.util.Arrays;
+
+/**
+ * Grid which stores the lattice fields in flat arrays (structure of arrays) instead of an array of {@link Cell}
+ * instances. Every component of every direction of U, Unext, E, J and rho is kept in its own double[] which is
+ * indexed by the cell id. The whole lattice therefore consists of a few dozen large arrays instead of several
+ * small heap objects per cell.
+ * <br>
+ * The usual accessors like {@link #getU(int, int)} or {@link #getE(int, int)} return lightweight views which write
+ * every modification back to the arrays, so code like {@code grid.getJ(index, dir).set(current)} or
+ * {@code grid.getU(index, dir).setIdentity()} works as on a regular grid. A view holds the values of the moment it
+ * was created: it does not see later changes made through other views or setters, so it should be used right away
+ * and not be kept. Every call creates a new view, therefore the frequently used measurements
+ * ({@link #getEsquared(int, int)}, {@link #getGaussConstraintInto}, {@link #getRotEInto}) read the arrays directly.
+ * The read* methods (e.g. {@link #readU(int, int)}) return detached copies and are used by the fast paths of the
+ * field solvers.
+ * <br>
+ * Note: The internal array returned by {@link SU3GroupElement#get()} or {@link SU3AlgebraElement#get()} of a view is
+ * not connected to the storage. Use the set methods to change fields.
+ */
+public class FlatGrid extends Grid {
+
+	/**
+	 * Number of locks used to synchronize the deposition of currents and charges.
+	 */
+	private static final int NUMBER_OF_LOCKS = 64;
+
+	/**
+	 * Number of real parameters of a group element (4 for SU(2), 18 for SU(3)).
+	 */
+	private int groupSize;
+
+	/**
+	 * Number of real parameters of an algebra element (3 for SU(2), 9 for SU(3)).
+	 */
+	private int algebraSize;
+
+	/**
+	 * Gauge links at time t - dt/2. The component c of direction d is stored in u[d * groupSize + c].
+	 */
+	private double[][] u;
+
+	/**
+	 * Gauge links at time t + dt/2. Same layout as {@link #u}.
+	 */
+	private double[][] unext;
+
+	/**
+	 * Electric fields. The component c of direction d is stored in e[d * algebraSize + c].
+	 */
+	private double[][] e;
+
+	/**
+	 * Currents. Same layout as {@link #e}.
+	 */
+	private double[][] j;
+
+	/**
+	 * Charge density. The component c is stored in rho[c].
+	 */
+	private double[][] rho;
+
+	private boolean[] evaluatable;
+
+	private boolean[] active;
+
+	private Object[] locks;
+
+	private final ScratchElements.Pool scratch = new ScratchElements.Pool(0, 1);
+
+	/**
+	 * Creates a flat grid from a settings instance.
+	 * @param settings  Settings instance
+	 */
+	public FlatGrid(Settings settings) {
+		super(settings);
+	}
+
+	/**
+	 * Creates a flat grid of the same size as another grid and deep copies all fields.
+	 * @param grid  Grid from which to copy dimensions and fields
+	 */
+	public FlatGrid(Grid grid) {
+		super(grid);
+	}
+
+	@Override
+	protected void createCells(int length) {
+		boolean su3 = getNumberOfColors() == 3;
+		groupSize = su3 ? 18 : 4;
+		algebraSize = su3 ? 9 : 3;
+
+		u = new double[numDim * groupSize][length];
+		unext = new double[numDim * groupSize][length];
+		e = new double[numDim * algebraSize][length];
+		j = new double[numDim * algebraSize][length];
+		rho = new double[algebraSize][length];
+
+		evaluatable = new boolean[length];
+		active = new boolean[length];
+		Arrays.fill(evaluatable, true);
+		Arrays.fill(active, true);
+
+		locks = new Object[NUMBER_OF_LOCKS];
+		for (int i = 0; i < NUMBER_OF_LOCKS; i++) {
+			locks[i] = new Object();
+		}
+
+		setIdentity(u);
+		setIdentity(unext);
+	}
+
+	/*
+	 *      Accessors (views)
+	 */
+
+	@Override
+	public AlgebraElement getJ(int index, int dir) {
+		return algebraView(j, dir * algebraSize, index);
+	}
+
+	@Override
+	public void addJ(int index, int dir, AlgebraElement field) {
+		if (occupiedSlabs != null) {
+			occupiedSlabs.mark(index);
+		}
+		if (depositionBuffer != null) {
+			depositionBuffer.addJ(index, dir, field);
+			return;
+		}
+		synchronized (locks[index % NUMBER_OF_LOCKS]) {
+			addAlgebra(j, dir * algebraSize, index, field, 1.0);
+		}
+	}
+
+	@Override
+	public void addJ(int index, int dir, AlgebraElement field, double factor) {
+		addAlgebra(j, dir * algebraSize, index, field, factor);
+	}
+
+	@Override
+	public AlgebraElement getRho(int index) {
+		return algebraView(rho, 0, index);
+	}
+
+	@Override
+	public void setRho(int index, AlgebraElement field) {
+		writeAlgebra(rho, 0, index, field);
+	}
+
+	@Override
+	public void addRho(int index, AlgebraElement field) {
+		if (depositionBuffer != null) {
+			depositionBuffer.addRho(index, field);
+			return;
+		}
+		synchronized (locks[index % NUMBER_OF_LOCKS]) {
+			addAlgebra(rho, 0, index, field, 1.0);
+		}
+	}
+
+	@Override
+	public AlgebraElement getE(int index, int dir) {
+		return algebraView(e, dir * algebraSize, index);
+	}
+
+	@Override
+	public double getEsquared(int index, int dir) {
+		ScratchElements s = scratch.get(factory);
+		readE(index, dir, s.algebra[0]);
+		return s.algebra[0].square();
+	}
+
+	@Override
+	public void setE(int index, int dir, AlgebraElement field) {
+		writeAlgebra(e, dir * algebraSize, index, field);
+	}
+
+	@Override
+	public void addE(int index, int dir, AlgebraElement field) {
+		addAlgebra(e, dir * algebraSize, index, field, 1.0);
+	}
+
+	@Override
+	public GroupElement getU(int index, int dir) {
+		return groupView(u, dir * groupSize, index);
+	}
+
+	@Override
+	public void setU(int index, int dir, GroupElement mat) {
+		writeGroup(u, dir * groupSize, index, mat);
+	}
+
+	@Override
+	public GroupElement getUnext(int index, int dir) {
+		return groupView(unext, dir * groupSize, index);
+	}
+
+	@Override
+	public void setUnext(int index, int dir, GroupElement mat) {
+		writeGroup(unext, dir * groupSize, index, mat);
+	}
+
+	@Override
+	public void resetCharge(int index) {
+		for (int c = 0; c < algebraSize; c++) {
+			rho[c][index] = 0.0;
+		}
+	}
+
+	@Override
+	public void resetCurrent(int index) {
+		for (int c = 0; c < j.length; c++) {
+			j[c][index] = 0.0;
+		}
+	}
+
+	@Override
+	public boolean isEvaluatable(int index) {
+		return evaluatable[index];
+	}
+
+	@Override
+	public void setEvaluatable(int index, boolean value) {
+		evaluatable[index] = value;
+	}
+
+	@Override
+	public boolean isActive(int index) {
+		return active[index];
+	}
+
+	@Override
+	public void setActive(int index, boolean value) {
+		active[index] = value;
+	}
+
+	/**
+	 * Returns a view of the cell at given lattice index. Changes to the view are written to the flat arrays.
+	 *
+	 * @param index  Index of the cell
+	 * @return       Cell view at lattice index
+	 */
+	@Override
+	public Cell getCell(int index) {
+		return new FlatCell(index);
+	}
+
+	/**
+	 * Returns an array of views of all cells. Note that this creates one view per cell and should not be used
+	 * in performance critical code.
+	 * @return  Array with views of all cells
+	 */
+	@Override
+	public Cell[] getCells() {
+		int length = getTotalNumberOfCells();
+		Cell[] views = new Cell[length];
+		for (int i = 0; i < length; i++) {
+			views[i] = new FlatCell(i);
+		}
+		return views;
+	}
+
+	@Override
+	public void copyValuesFrom(Grid grid) {
+		if (grid instanceof FlatGrid) {
+			FlatGrid other = (FlatGrid) grid;
+			copyArrays(other.u, u);
+			copyArrays(other.unext, unext);
+			copyArrays(other.e, e);
+			copyArrays(other.j, j);
+			copyArrays(other.rho, rho);
+			System.arraycopy(other.evaluatable, 0, evaluatable, 0, evaluatable.length);
+			System.arraycopy(other.active, 0, active, 0, active.length);
+		} else {
+			int numberOfCells = grid.getTotalNumberOfCells();
+			for (int ci = 0; ci < numberOfCells; ci++) {
+				getCell(ci).copyFrom(grid.getCell(ci));
+			}
+		}
+	}
+
+	@Override
+	public void copyValuesFrom(Grid grid, int fields) {
+		if (grid instanceof FlatGrid) {
+			FlatGrid other = (FlatGrid) grid;
+			if ((fields & FIELD_U) != 0) {
+				copyArrays(other.u, u);
+			}
+			if ((fields & FIELD_UNEXT) != 0) {
+				copyArrays(other.unext, unext);
+			}
+			if ((fields & FIELD_E) != 0) {
+				copyArrays(other.e, e);
+			}
+			if ((fields & FIELD_J) != 0) {
+				copyArrays(other.j, j);
+			}
+			if ((fields & FIELD_RHO) != 0) {
+				copyArrays(other.rho, rho);
+			}
+			System.arraycopy(other.evaluatable, 0, evaluatable, 0, evaluatable.length);
+			System.arraycopy(other.active, 0, active, 0, active.length);
+		} else {
+			super.copyValuesFrom(grid, fields);
+		}
+	}
+
+	/*
+	 *      Whole grid operations
+	 */
+
+	@Override
+	public void resetCurrent() {
+		for (double[] component : j) {
+			Arrays.fill(component, 0.0);
+		}
+	}
+
+	@Override
+	public void resetCharge() {
+		for (double[] component : rho) {
+			Arrays.fill(component, 0.0);
+		}
+	}
+
+	@Override
+	public void resetUnext() {
+		for (double[] component : unext) {
+			Arrays.fill(component, 0.0);
+		}
+		setIdentity(unext);
+	}
+
+	/**
+	 * The new links become the old links. Instead of copying every cell only the array references are swapped.
+	 */
+	@Override
+	public void storeFields() {
+		double[][] temp = u;
+		u = unext;
+		unext = temp;
+	}
+
+	/*
+	 *      Fast path (detached copies and direct array updates)
+	 */
+
+	/**
+	 * Returns a copy of the gauge link U at given lattice index and direction. Changes to the copy are not written
+	 * back to the grid.
+	 * @param index Lattice index
+	 * @param dir   Direction of the gauge link
+	 * @return      Copy of the gauge link
+	 */
+	public GroupElement readU(int index, int dir) {
+		return readGroup(u, dir * groupSize, index);
+	}
+
+	/**
+	 * Returns a copy of the gauge link Unext at given lattice index and direction.
+	 * @param index Lattice index
+	 * @param dir   Direction of the gauge link
+	 * @return      Copy of the gauge link
+	 */
+	public GroupElement readUnext(int index, int dir) {
+		return readGroup(unext, dir * groupSize, index);
+	}
+
+	/**
+	 * Returns a copy of the electric field at given lattice index and direction.
+	 * @param index Lattice index
+	 * @param dir   Direction of the electric field
+	 * @return      Copy of the electric field
+	 */
+	public AlgebraElement readE(int index, int dir) {
+		return readAlgebra(e, dir * algebraSize, index);
+	}
+
+	/**
+	 * Returns a copy of the current at given lattice index and direction.
+	 * @param index Lattice index
+	 * @param dir   Direction of the current
+	 * @return      Copy of the current
+	 */
+	public AlgebraElement readJ(int index, int dir) {
+		return readAlgebra(j, dir * algebraSize, index);
+	}
+
+	/**
+	 * Copies the gauge link U at given lattice index and direction into a caller-supplied GroupElement.
+	 * @param index Lattice index
+	 * @param dir   Direction of the gauge link
+	 * @param out   GroupElement which receives the gauge link
+	 */
+	public void readU(int index, int dir, GroupElement out) {
+		loadGroup(u, dir * groupSize, index, out);
+	}
+
+	/**
+	 * Copies the gauge link Unext at given lattice index and direction into a caller-supplied GroupElement.
+	 * @param index Lattice index
+	 * @param dir   Direction of the gauge link
+	 * @param out   GroupElement which receives the gauge link
+	 */
+	public void readUnext(int index, int dir, GroupElement out) {
+		loadGroup(unext, dir * groupSize, index, out);
+	}
+
+	/**
+	 * Copies the electric field at given lattice index and direction into a caller-supplied AlgebraElement.
+	 * @param index Lattice index
+	 * @param dir   Direction of the electric field
+	 * @param out   AlgebraElement which receives the electric field
+	 */
+	public void readE(int index, int dir, AlgebraElement out) {
+		loadAlgebra(e, dir * algebraSize, index, out);
+	}
+
+	/**
+	 * Copies the current at given lattice index and direction into a caller-supplied AlgebraElement.
+	 * @param index Lattice index
+	 * @param dir   Direction of the current
+	 * @param out   AlgebraElement which receives the current
+	 */
+	public void readJ(int index, int dir, AlgebraElement out) {
+		loadAlgebra(j, dir * algebraSize, index, out);
+	}
+
+	/**
+	 * Copies the link directly from the flat arrays without creating a view.
+	 */
+	@Override
+	public void getLinkInto(int index, int direction, int orientation, int timeIndex, GroupElement out) {
+		double[][] store = (timeIndex == 0) ? u : unext;
+		if (orientation < 0) {
+			loadGroup(store, direction * groupSize, shift(index, direction, orientation), out);
+			out.adjAssign();
+		} else {
+			loadGroup(store, direction * groupSize, index, out);
+		}
+	}
+
+	/**
+	 * Reads the electric fields directly from the flat arrays without creating views.
+	 */
+	@Override
+	public void getGaussConstraintInto(int index, AlgebraElement out, AlgebraElement temp, GroupElement link) {
+		out.reset();
+		for (int i = 0; i < numDim; i++) {
+			readE(shift(index, i, -1), i, temp);
+			getLinkInto(index, i, -1, 0, link);
+			temp.actAssign(link);
+			accumulateAlgebra(e, i * algebraSize, index, out, 1.0);
+			out.addAssign(temp, -1.0);
+		}
+		out.multAssign(1.0/as);
+		accumulateAlgebra(rho, 0, index, out, -1.0);
+	}
+
+	/**
+	 * Reads the electric fields directly from the flat arrays without creating views.
+	 */
+	@Override
+	public void getRotEInto(int index, int direction, AlgebraElement out, AlgebraElement temp, GroupElement link) {
+		int dirY = (direction + 1) % 3;
+		int dirZ = (direction + 2) % 3;
+
+		// dEz/dy = Ez(y+1, z) - Ez(y, z)
+		readE(shift(index, dirY, 1), dirZ, out);
+		getLinkInto(index, dirY, 1, 0, link);
+		out.actAssign(link);
+		accumulateAlgebra(e, dirZ * algebraSize, index, out, -1.0);
+
+		// dEy/dz = Ey(y, z+1) - Ey(y, z)
+		readE(shift(index, dirZ, 1), dirY, temp);
+		getLinkInto(index, dirZ, 1, 0, link);
+		temp.actAssign(link);
+		accumulateAlgebra(e, dirY * algebraSize, index, temp, -1.0);
+
+		out.addAssign(temp, -1.0);
+		out.multAssign(1 / as);
+	}
+
+	/**
+	 * Adds a multiple of an AlgebraElement to the electric field without creating temporary objects, i.e.
+	 * E += factor * field.
+	 * @param index     Lattice index
+	 * @param dir       Direction of the electric field
+	 * @param field     AlgebraElement to be added
+	 * @param factor    Factor by which the field is multiplied before adding
+	 */
+	public void addE(int index, int dir, AlgebraElement field, double factor) {
+		addAlgebra(e, dir * algebraSize, index, field, factor);
+	}
+
+	/**
+	 * Adds a multiple of the current to the electric field, i.e. E += factor * J.
+	 * @param index     Lattice index
+	 * @param dir       Direction
+	 * @param factor    Factor by which the current is multiplied
+	 */
+	public void addJToE(int index, int dir, double factor) {
+		int offset = dir * algebraSize;
+		for (int c = 0; c < algebraSize; c++) {
+			e[offset + c][index] += factor * j[offset + c][index];
+		}
+	}
+
+	/*
+	 *      Array helpers
+	 */
+
+	private void setIdentity(double[][] links) {
+		for (int d = 0; d < numDim; d++) {
+			int offset = d * groupSize;
+			if (groupSize == 18) {
+				Arrays.fill(links[offset], 1.0);
+				Arrays.fill(links[offset + 4], 1.0);
+				Arrays.fill(links[offset + 8], 1.0);
+			} else {
+				Arrays.fill(links[offset], 1.0);
+			}
+		}
+	}
+
+	private void copyArrays(double[][] from, double[][] to) {
+		for (int c = 0; c < from.length; c++) {
+			System.arraycopy(from[c], 0, to[c], 0, from[c].length);
+		}
+	}
+
+	private static double[] gather(double[][] store, int offset, int index, int size) {
+		double[] values = new double[size];
+		for (int c = 0; c < size; c++) {
+			values[c] = store[offset + c][index];
+		}
+		return values;
+	}
+
+	private GroupElement readGroup(double[][] store, int offset, int index) {
+		if (groupSize == 18) {
+			return new SU3GroupElement(gather(store, offset, index, 18));
+		}
+		return new SU2GroupElement(store[offset][index], store[offset + 1][index],
+				store[offset + 2][index], store[offset + 3][index]);
+	}
+
+	private AlgebraElement readAlgebra(double[][] store, int offset, int index) {
+		if (algebraSize == 9) {
+			return new SU3AlgebraElement(gather(store, offset, index, 9));
+		}
+		return new SU2AlgebraElement(store[offset][index], store[offset + 1][index], store[offset + 2][index]);
+	}
+
+	private void loadGroup(double[][] store, int offset, int index, GroupElement g) {
+		if (groupSize == 18) {
+			SU3GroupElement m = (SU3GroupElement) g;
+			for (int c = 0; c < 18; c++) {
+				m.set(c, store[offset + c][index]);
+			}
+		} else {
+			((SU2GroupElement) g).set(store[offset][index], store[offset + 1][index],
+					store[offset + 2][index], store[offset + 3][index]);
+		}
+	}
+
+	private void loadAlgebra(double[][] store, int offset, int index, AlgebraElement a) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				m.setEntry(c, store[offset + c][index]);
+			}
+		} else {
+			((SU2AlgebraElement) a).set(store[offset][index], store[offset + 1][index], store[offset + 2][index]);
+		}
+	}
+
+	private void writeGroup(double[][] store, int offset, int index, GroupElement g) {
+		if (groupSize == 18) {
+			SU3GroupElement m = (SU3GroupElement) g;
+			for (int c = 0; c < 18; c++) {
+				store[offset + c][index] = m.get(c);
+			}
+		} else {
+			SU2GroupElement m = (SU2GroupElement) g;
+			for (int c = 0; c < 4; c++) {
+				store[offset + c][index] = m.get(c);
+			}
+		}
+	}
+
+	private void writeAlgebra(double[][] store, int offset, int index, AlgebraElement a) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				store[offset + c][index] = m.getEntry(c);
+			}
+		} else {
+			for (int c = 0; c < 3; c++) {
+				store[offset + c][index] = a.get(c);
+			}
+		}
+	}
+
+	private void addAlgebra(double[][] store, int offset, int index, AlgebraElement a, double factor) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				store[offset + c][index] += factor * m.getEntry(c);
+			}
+		} else {
+			for (int c = 0; c < 3; c++) {
+				store[offset + c][index] += factor * a.get(c);
+			}
+		}
+	}
+
+	private void accumulateAlgebra(double[][] store, int offset, int index, AlgebraElement a, double factor) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				m.setEntry(c, m.getEntry(c) + factor * store[offset + c][index]);
+			}
+		} else {
+			((SU2AlgebraElement) a).set(a.get(0) + factor * store[offset][index],
+					a.get(1) + factor * store[offset + 1][index],
+					a.get(2) + factor * store[offset + 2][index]);
+		}
+	}
+
+	private GroupElement groupView(double[][] store, int offset, int index) {
+		if (groupSize == 18) {
+			return new SU3GroupView(store, offset, index);
+		}
+		return new SU2GroupView(store, offset, index);
+	}
+
+	private AlgebraElement algebraView(double[][] store, int offset, int index) {
+		if (algebraSize == 9) {
+			return new SU3AlgebraView(store, offset, index);
+		}
+		return new SU2AlgebraView(store, offset, index);
+	}
+
+	/*
+	 *      Views
+	 */
+
+	/**
+	 * SU(2) group element which writes all modifications back to the flat arrays.
+	 */
+	private static class SU2GroupView extends SU2GroupElement {
+
+		private final double[][] store;
+		private final int offset;
+		private final int index;
+
+		SU2GroupView(double[][] store, int offset, int index) {
+			super(store[offset][index], store[offset + 1][index], store[offset + 2][index], store[offset + 3][index]);
+			this.store = store;
+			this.offset = offset;
+			this.index = index;
+		}
+
+		private void store() {
+			for (int c = 0; c < 4; c++) {
+				store[offset + c][index] = get(c);
+			}
+		}
+
+		@Override
+		public void addAssign(GroupElement arg) {
+			super.addAssign(arg);
+			store();
+		}
+
+		@Override
+		public void subAssign(GroupElement arg) {
+			super.subAssign(arg);
+			store();
+		}
+
+		@Override
+		public void set(GroupElement arg) {
+			super.set(arg);
+			store();
+		}
+
+		@Override
+		public void set(int j, double value) {
+			super.set(j, value);
+			store[offset + j][index] = value;
+		}
+
+		@Override
+		public void set(double a, double b, double c, double d) {
+			super.set(a, b, c, d);
+			store();
+		}
+
+		@Override
+		public void adjAssign() {
+			super.adjAssign();
+			store();
+		}
+
+		@Override
+		public void multAssign(GroupElement arg) {
+			super.multAssign(arg);
+			store();
+		}
+
+		@Override
+		public void computeFirstParameter() {
+			super.computeFirstParameter();
+			store();
+		}
+	}
+
+	/**
+	 * SU(3) group element which writes all modifications back to the flat arrays.
+	 */
+	private static class SU3GroupView extends SU3GroupElement {
+
+		private final double[][] store;
+		private final int offset;
+		private final int index;
+
+		SU3GroupView(double[][] store, int offset, int index) {
+			super(gather(store, offset, index, 18));
+			this.store = store;
+			this.offset = offset;
+			this.index = index;
+		}
+
+		private void store() {
+			for (int c = 0; c < 18; c++) {
+				store[offset + c][index] = get(c);
+			}
+		}
+
+		@Override
+		public void addAssign(GroupElement arg) {
+			super.addAssign(arg);
+			store();
+		}
+
+		@Override
+		public void subAssign(GroupElement arg) {
+			super.subAssign(arg);
+			store();
+		}
+
+		@Override
+		public void set(GroupElement arg) {
+			super.set(arg);
+			store();
+		}
+
+		@Override
+		public void set(int j, double value) {
+			super.set(j, value);
+			store[offset + j][index] = value;
+		}
+
+		@Override
+		public void adjAssign() {
+			super.adjAssign();
+			store();
+		}
+
+		@Override
+		public void multAssign(GroupElement arg) {
+			super.multAssign(arg);
+			store();
+		}
+
+		@Override
+		protected void valuesChanged() {
+			store();
+		}
+	}
+
+	/**
+	 * SU(2) algebra element which writes all modifications back to the flat arrays.
+	 */
+	private static class SU2AlgebraView extends SU2AlgebraElement {
+
+		private final double[][] store;
+		private final int offset;
+		private final int index;
+
+		SU2AlgebraView(double[][] store, int offset, int index) {
+			super(store[offset][index], store[offset + 1][index], store[offset + 2][index]);
+			this.store = store;
+			this.offset = offset;
+			this.index = index;
+		}
+
+		private void store() {
+			store[offset][index] = v0;
+			store[offset + 1][index] = v1;
+			store[offset + 2][index] = v2;
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			store();
+		}
+
+		@Override
+		public void addAssign(AlgebraElement arg) {
+			super.addAssign(arg);
+			store();
+		}
+
+		@Override
+		public void addAssign(AlgebraElement arg, double factor) {
+			super.addAssign(arg, factor);
+			store();
+		}
+
+		@Override
+		public void set(double a, double b, double c) {
+			super.set(a, b, c);
+			store();
+		}
+
+		@Override
+		public void set(int j, double value) {
+			super.set(j, value);
+			store();
+		}
+
+		@Override
+		public void multAssign(double number) {
+			super.multAssign(number);
+			store();
+		}
+
+		@Override
+		public void set(AlgebraElement arg) {
+			super.set(arg);
+			store();
+		}
+
+		@Override
+		public void actAssign(GroupElement g) {
+			super.actAssign(g);
+			store();
+		}
+	}
+
+	/**
+	 * SU(3) algebra element which writes all modifications back to the flat arrays.
+	 */
+	private static class SU3AlgebraView extends SU3AlgebraElement {
+
+		private final double[][] store;
+		private final int offset;
+		private final int index;
+
+		SU3AlgebraView(double[][] store, int offset, int index) {
+			super(gather(store, offset, index, 9));
+			this.store = store;
+			this.offset = offset;
+			this.index = index;
+		}
+
+		private void store() {
+			for (int c = 0; c < 9; c++) {
+				store[offset + c][index] = v[c];
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			store();
+		}
+
+		@Override
+		public void addAssign(AlgebraElement arg) {
+			super.addAssign(arg);
+			store();
+		}
+
+		@Override
+		public void addAssign(AlgebraElement arg, double factor) {
+			super.addAssign(arg, factor);
+			store();
+		}
+
+		@Override
+		public void set(int j, double value) {
+			super.set(j, value);
+			store();
+		}
+
+		@Override
+		public void setEntry(int j, double value) {
+			super.setEntry(j, value);
+			store[offset + j][index] = value;
+		}
+
+		@Override
+		public void multAssign(double number) {
+			super.multAssign(number);
+			store();
+		}
+
+		@Override
+		public void set(AlgebraElement arg) {
+			super.set(arg);
+			store();
+		}
+
+		@Override
+		public void actAssign(GroupElement g) {
+			super.actAssign(g);
+			store();
+		}
+
+		@Override
+		protected void valuesChanged() {
+			store();
+		}
+	}
+
+	/**
+	 * Cell view which forwards all accessors to the flat arrays of the grid.
+	 */
+	private class FlatCell extends Cell {
+
+		private final int index;
+
+		FlatCell(int index) {
+			super(numDim, FlatGrid.this.getNumberOfColors());
+			this.factory = FlatGrid.this.factory;
+			this.index = index;
+		}
+
+		@Override
+		public void addJ(int dir, AlgebraElement current) {
+			FlatGrid.this.addJ(index, dir, current);
+		}
+
+		@Override
+		public AlgebraElement getJ(int dir) {
+			return FlatGrid.this.getJ(index, dir);
+		}
+
+		@Override
+		public AlgebraElement getRho() {
+			return FlatGrid.this.getRho(index);
+		}
+
+		@Override
+		public void setRho(AlgebraElement rho) {
+			FlatGrid.this.setRho(index, rho);
+		}
+
+		@Override
+		public void addRho(AlgebraElement rho) {
+			FlatGrid.this.addRho(index, rho);
+		}
+
+		@Override
+		public AlgebraElement getE(int dir) {
+			return FlatGrid.this.getE(index, dir);
+		}
+
+		@Override
+		public void setE(int dir, AlgebraElement field) {
+			FlatGrid.this.setE(index, dir, field);
+		}
+
+		@Override
+		public void addE(int dir, AlgebraElement field) {
+			FlatGrid.this.addE(index, dir, field);
+		}
+
+		@Override
+		public GroupElement getU(int dir) {
+			return FlatGrid.this.getU(index, dir);
+		}
+
+		@Override
+		public void setU(int dir, GroupElement link) {
+			FlatGrid.this.setU(index, dir, link);
+		}
+
+		@Override
+		public GroupElement getUnext(int dir) {
+			return FlatGrid.this.getUnext(index, dir);
+		}
+
+		@Override
+		public void setUnext(int dir, GroupElement link) {
+			FlatGrid.this.setUnext(index, dir, link);
+		}
+
+		@Override
+		public boolean isEvaluatable() {
+			return evaluatable[index];
+		}
+
+		@Override
+		public void setEvaluatable(boolean value) {
+			evaluatable[index] = value;
+		}
+
+		@Override
+		public boolean isActive() {
+			return active[index];
+		}
+
+		@Override
+		public void setActive(boolean value) {
+			active[index] = value;
+		}
+
+		@Override
+		public void resetCurrent() {
+			for (int c = 0; c < j.length; c++) {
+				j[c][index] = 0.0;
+			}
+		}
+
+		@Override
+		public void resetUnext(int colors) {
+			for (int d = 0; d < numDim; d++) {
+				setUnext(d, factory.groupIdentity());
+			}
+		}
+
+		@Override
+		public void resetCharge() {
+			FlatGrid.this.resetCharge(index);
+		}
+
+		@Override
+		public void reassignLinks() {
+			for (int c = 0; c < u.length; c++) {
+				double temp = u[c][index];
+				u[c][index] = unext[c][index];
+				unext[c][index] = temp;
+			}
+		}
+
+		@Override
+		public void copyFrom(Cell other) {
+			for (int d = 0; d < numDim; d++) {
+				setE(d, other.getE(d));
+				writeAlgebra(j, d * algebraSize, index, other.getJ(d));
+				setU(d, other.getU(d));
+				setUnext(d, other.getUnext(d));
+			}
+			setRho(other.getRho());
+			setEvaluatable(other.isEvaluatable());
+			setActive(other.isActive());
+		}
+	}
+}
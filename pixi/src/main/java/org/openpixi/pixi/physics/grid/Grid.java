@@ -20,6 +20,25 @@ public class Grid {
 	 */
 	protected CellIterator cellIterator;
 
+	/**
+	 * Thread private buffer into which currents and charges are deposited. If null, they are added directly.
+	 */
+	protected DepositionBuffer depositionBuffer;
+
+	protected OccupiedSlabs occupiedSlabs;
+
+	protected MovingWindow movingWindow;
+
+	/*
+	 *      Fields which can be selected in {@link #copyValuesFrom(Grid, int)}
+	 */
+	public static final int FIELD_U = 1;
+	public static final int FIELD_UNEXT = 2;
+	public static final int FIELD_E = 4;
+	public static final int FIELD_J = 8;
+	public static final int FIELD_RHO = 16;
+	public static final int ALL_FIELDS = FIELD_U | FIELD_UNEXT | FIELD_E | FIELD_J | FIELD_RHO;
+
 	/*
 	 *      Cell actions
 	 */
@@ -73,6 +92,18 @@ public class Grid {
 	 */
 	protected int cummulatedCellCount[];
 
+	/**
+	 * Precomputed neighbours of every cell. The neighbour of cell i in direction d with orientation o is stored at
+	 * {@code neighbours[2 * (i * numDim + d) + (o > 0 ? 1 : 0)]}. The table is null if it is disabled in the
+	 * settings or too large, in which case {@link #shift(int, int, int)} falls back to {@link #cummulatedCellCount}.
+	 */
+	protected int neighbours[];
+
+	/**
+	 * Whether {@link #createGrid()} builds the neighbour table.
+	 */
+	protected boolean useNeighbourTable = false;
+
 	/**
 	 * Factory for SU(n) group and algebra elements.
 	 */
@@ -124,7 +155,27 @@ public class Grid {
 	 * @param field     AlgebraElement to be added to the (dir)-component of the current.
 	 */
 	public void addJ(int index, int dir, AlgebraElement field) {
-		cells[index].addJ(dir, field);
+		if (occupiedSlabs != null) {
+			occupiedSlabs.mark(index);
+		}
+		if (depositionBuffer != null) {
+			depositionBuffer.addJ(index, dir, field);
+		} else {
+			cells[index].addJ(dir, field);
+		}
+	}
+
+	/**
+	 * Adds a multiple of a AlgebraElement to the (dir)-component of the current without locking. The deposition buffer
+	 * and the occupied slabs are bypassed, so the caller has to make sure that no other thread writes into the same
+	 * cell and has to mark the occupied slabs itself.
+	 * @param index     Lattice index of the current
+	 * @param dir       Index of the component
+	 * @param field     AlgebraElement to be added to the (dir)-component of the current.
+	 * @param factor    Factor by which the field is multiplied before adding
+	 */
+	public void addJ(int index, int dir, AlgebraElement field, double factor) {
+		cells[index].getJ(dir).addAssign(field, factor);
 	}
 
 	/**
@@ -151,7 +202,92 @@ public class Grid {
 	 * @param field     AlgebraElement instance which should be added.
 	 */
 	public void addRho(int index, AlgebraElement field) {
-		cells[index].addRho(field);
+		if (depositionBuffer != null) {
+			depositionBuffer.addRho(index, field);
+		} else {
+			cells[index].addRho(field);
+		}
+	}
+
+	/**
+	 * Redirects {@link #addJ(int, int, AlgebraElement)} and {@link #addRho(int, AlgebraElement)} to a thread private
+	 * deposition buffer. The buffer has to be merged with {@link DepositionBuffer#merge(Grid)} after it is detached.
+	 * @param depositionBuffer  Deposition buffer or null to add currents and charges directly to the grid.
+	 */
+	public void setDepositionBuffer(DepositionBuffer depositionBuffer) {
+		this.depositionBuffer = depositionBuffer;
+	}
+
+	/**
+	 * Restricts the field solver to the occupied parts of the grid (see {@link OccupiedSlabs}).
+	 * @param occupiedSlabs Tracker of the occupied slabs or null to update the whole grid.
+	 */
+	public void setOccupiedSlabs(OccupiedSlabs occupiedSlabs) {
+		this.occupiedSlabs = occupiedSlabs;
+	}
+
+	public OccupiedSlabs getOccupiedSlabs() {
+		return occupiedSlabs;
+	}
+
+	/**
+	 * Restricts the field solver to the slices of a moving window (see {@link MovingWindow}).
+	 * @param movingWindow  Moving window or null to update the whole grid.
+	 */
+	public void setMovingWindow(MovingWindow movingWindow) {
+		this.movingWindow = movingWindow;
+	}
+
+	public MovingWindow getMovingWindow() {
+		return movingWindow;
+	}
+
+	/**
+	 * Returns the ranges of cell indices which are updated by the field solver: the occupied slabs (see
+	 * {@link OccupiedSlabs#getRanges(Grid)}) within the moving window (see {@link MovingWindow#getRanges(Grid)}).
+	 * Range k consists of the cells [ranges[2k], ranges[2k+1]).
+	 * @return  Ranges of cell indices or null if the whole grid is updated.
+	 */
+	public int[] getUpdateRanges() {
+		int[] ranges = null;
+		if (occupiedSlabs != null) {
+			ranges = occupiedSlabs.getRanges(this);
+		}
+		if (movingWindow != null) {
+			int[] windowRanges = movingWindow.getRanges(this);
+			if (ranges == null) {
+				ranges = windowRanges;
+			} else if (windowRanges != null) {
+				ranges = intersectRanges(ranges, windowRanges);
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Intersects two lists of ascending, disjoint ranges of cell indices.
+	 */
+	static int[] intersectRanges(int[] a, int[] b) {
+		int[] result = new int[a.length + b.length];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			int start = Math.max(a[i], b[j]);
+			int end = Math.min(a[i + 1], b[j + 1]);
+			if (start < end) {
+				result[count++] = start;
+				result[count++] = end;
+			}
+			if (a[i + 1] < b[j + 1]) {
+				i += 2;
+			} else {
+				j += 2;
+			}
+		}
+		int[] ranges = new int[count];
+		System.arraycopy(result, 0, ranges, 0, count);
+		return ranges;
 	}
 
 	/**
@@ -164,6 +300,16 @@ public class Grid {
 		return cells[index].getE(dir);
 	}
 
+	/**
+	 * Returns the square of the (dir)-component of the electric field.
+	 * @param index     Lattice index of the electric field
+	 * @param dir       Index of the component
+	 * @return          Square of the (dir)-component
+	 */
+	public double getEsquared(int index, int dir) {
+		return getE(index, dir).square();
+	}
+
 	/**
 	 * Sets the AlgebraElement instance of the (dir)-component of the electric field.
 	 * @param index     Lattice index of the electric field
@@ -258,6 +404,14 @@ public class Grid {
 		cells[index].resetCharge();
 	}
 
+	/**
+	 * Resets the current in a cell at a given lattice index.
+	 * @param index  Lattice index of the cell
+	 */
+	public void resetCurrent(int index) {
+		cells[index].resetCurrent();
+	}
+
 	/**
 	 * Returns an array of the number of cells in the grid
 	 * in a given direction.
@@ -376,6 +530,7 @@ public class Grid {
 		numCol = settings.getNumberOfColors();
 		numDim = settings.getNumberOfDimensions();
 		numCells = new int[numDim];
+		useNeighbourTable = settings.useNeighbourTable();
 		
 		for(int i = 0; i < numDim; i++) {
 			numCells[i] = settings.getGridCells(i);
@@ -403,6 +558,7 @@ public class Grid {
 		numCol = grid.numCol;
 		numDim = grid.numDim;
 		numCells = new int[numDim];
+		useNeighbourTable = grid.useNeighbourTable;
 
 		for(int i = 0; i < numDim; i++) {
 			numCells[i] = grid.numCells[i];
@@ -423,10 +579,21 @@ public class Grid {
 	public void copyValuesFrom(Grid grid) {
 		int numberOfCells = grid.getTotalNumberOfCells();
 		for (int ci = 0; ci < numberOfCells; ci++) {
-			cells[ci].copyFrom(grid.cells[ci]);
+			cells[ci].copyFrom(grid.getCell(ci));
 		}
 	}
 
+	/**
+	 * Copies the selected fields from a grid of the same size. Fields which are not selected keep their values, the
+	 * evaluatable and active flags are always copied. The cells are copied in parallel by the cell iterator.
+	 *
+	 * @param grid      Grid from which the fields are copied
+	 * @param fields    Combination of FIELD_U, FIELD_UNEXT, FIELD_E, FIELD_J and FIELD_RHO
+	 */
+	public void copyValuesFrom(Grid grid, int fields) {
+		cellIterator.execute(this, new CopyFieldsAction(grid, fields));
+	}
+
 	/**
 	 * This methods initializes each cell in the grid.
 	 */
@@ -445,6 +612,36 @@ public class Grid {
 			cummulatedCellCount[i] = cummulatedCellCount[i + 1] * numCells[i];
 		}
 
+		createNeighbourTable(length);
+		createCells(length);
+	}
+
+	/**
+	 * Tabulates the neighbours of all cells for {@link #shift(int, int, int)}. The table is skipped if its size
+	 * exceeds the range of an array index.
+	 * @param length    Total number of cells
+	 */
+	protected void createNeighbourTable(int length) {
+		neighbours = null;
+		if (!useNeighbourTable || (long) length * 2 * numDim > Integer.MAX_VALUE) {
+			return;
+		}
+		int[] table = new int[length * 2 * numDim];
+		for (int index = 0; index < length; index++) {
+			for (int d = 0; d < numDim; d++) {
+				table[2 * (index * numDim + d)] = shiftByStride(index, d, -1);
+				table[2 * (index * numDim + d) + 1] = shiftByStride(index, d, 1);
+			}
+		}
+		neighbours = table;
+	}
+
+	/**
+	 * Allocates the storage for the lattice fields. By default every lattice site is represented by a {@link Cell}
+	 * instance.
+	 * @param length    Total number of cells
+	 */
+	protected void createCells(int length) {
 		cells = new Cell[length];
 
 		for(int i = 0; i < length; i++) {
@@ -460,6 +657,24 @@ public class Grid {
 	 */
 	public void updateGrid(double tstep) {
 		getFsolver().step(this, tstep);
+		if (occupiedSlabs != null) {
+			occupiedSlabs.updateHalo(this);
+		}
+	}
+
+	/**
+	 * This method advances the grid by several time steps without particles and external currents. The fields have
+	 * to be stored for the first step by the caller (see {@link FieldSolver#step(Grid, double, int)}).
+	 *
+	 * @param tstep size of the time step
+	 * @param steps number of time steps
+	 */
+	public void updateGrid(double tstep, int steps) {
+		if (steps == 1) {
+			updateGrid(tstep);
+		} else {
+			getFsolver().step(this, tstep, steps);
+		}
 	}
 
 	/**
@@ -515,6 +730,27 @@ public class Grid {
 	 * @return      	Plaquette as GroupElement with correct orientation
 	 */
 	public GroupElement getPlaquette(int index, int d1, int d2, int o1, int o2, int timeIndex)
+	{
+		GroupElement U = factory.groupZero();
+		getPlaquetteInto(index, d1, d2, o1, o2, timeIndex, U, factory.groupZero());
+		return U;
+	}
+
+	/**
+	 * Same as {@link #getPlaquette(int, int, int, int, int, int)}, but writes the plaquette into a caller-supplied
+	 * GroupElement. No new objects are created.
+	 *
+	 * @param index 	Lattice index from where the plaquette starts
+	 * @param d1    	Index of the first direction
+	 * @param d2    	Index of the second direction
+	 * @param o1    	Orientation of the first direction
+	 * @param o2    	Orientation of the second direction
+	 * @param timeIndex Option to select between U (timeIndex = 0) and Unext (timeIndex != 0).
+	 * @param out		GroupElement which receives the plaquette
+	 * @param temp		Temporary GroupElement (different from out)
+	 */
+	public void getPlaquetteInto(int index, int d1, int d2, int o1, int o2, int timeIndex,
+								 GroupElement out, GroupElement temp)
 	{
 		/*
 			The four lattice indices associated with the plaquette.
@@ -525,28 +761,15 @@ public class Grid {
 		int x4 = shift(x3, d1, -o1);
 
 		/*
-			The four gauge links associated with the plaquette.
-		 */
-
-		GroupElement U1 = getLink(x1, d1, o1, timeIndex);
-		GroupElement U2 = getLink(x2, d2, o2, timeIndex);
-		GroupElement U3 = getLink(x3, d1, -o1, timeIndex);
-		GroupElement U4 = getLink(x4, d2, -o2, timeIndex);
-
-		/*
-			Plaquette calculation
+			Plaquette calculation: U = U1 U2 U3 U4
 		 */
-
-
-		GroupElement U = factory.groupIdentity();
-		U.multAssign(U1);
-		U.multAssign(U2);
-		U.multAssign(U3);
-		U.multAssign(U4);
-
-		return U;
-
-		//return U1.mult(U2.mult(U3.mult(U4)));
+		getLinkInto(x1, d1, o1, timeIndex, out);
+		getLinkInto(x2, d2, o2, timeIndex, temp);
+		out.multAssign(temp);
+		getLinkInto(x3, d1, -o1, timeIndex, temp);
+		out.multAssign(temp);
+		getLinkInto(x4, d2, -o2, timeIndex, temp);
+		out.multAssign(temp);
 	}
 
 	/**
@@ -582,6 +805,21 @@ public class Grid {
 	 */
 	public GroupElement getStapleSum(int index, int d) {
 		GroupElement S = factory.groupZero();
+		getStapleSumInto(index, d, S, factory.groupZero(), factory.groupZero());
+		return S;
+	}
+
+	/**
+	 * Same as {@link #getStapleSum(int, int)}, but writes the sum of staples into a caller-supplied GroupElement.
+	 * No new objects are created.
+	 * @param index Lattice index
+	 * @param d     Direction
+	 * @param out   GroupElement which receives the sum of all surrounding staples
+	 * @param temp1 Temporary GroupElement
+	 * @param temp2 Temporary GroupElement
+	 */
+	public void getStapleSumInto(int index, int d, GroupElement out, GroupElement temp1, GroupElement temp2) {
+		out.reset();
 		int ci1 = shift(index, d, 1);
 		int ci2, ci3, ci4;
 		for (int i = 0; i < numDim; i++) {
@@ -589,16 +827,22 @@ public class Grid {
 				ci2 = shift(index, i, 1);
 				ci3 = shift(ci1, i, -1);
 				ci4 = shift(index, i, -1);
-				GroupElement U1 = getU(ci1, i).mult(getU(ci2, d).adj());
-				U1.multAssign(getU(index, i).adj());
-				GroupElement U2 = getU(ci4, d).mult(getU(ci3, i));
-				U2.adjAssign();
-				U2.multAssign(getU(ci4, i));
-				S.addAssign(U1);
-				S.addAssign(U2);
+				// U1 = U(ci1, i) U(ci2, d)^dagger U(index, i)^dagger
+				getLinkInto(ci1, i, 1, 0, temp1);
+				getLinkInto(ci2, d, 1, 0, temp2);
+				temp1.multAdjInto(temp2, temp1);
+				getLinkInto(index, i, 1, 0, temp2);
+				temp1.multAdjInto(temp2, temp1);
+				out.addAssign(temp1);
+				// U2 = (U(ci4, d) U(ci3, i))^dagger U(ci4, i)
+				getLinkInto(ci4, d, 1, 0, temp1);
+				getLinkInto(ci3, i, 1, 0, temp2);
+				temp1.multAssign(temp2);
+				getLinkInto(ci4, i, 1, 0, temp2);
+				temp1.adjMultInto(temp2, temp1);
+				out.addAssign(temp1);
 			}
 		}
-		return S;
 	}
 
 	/**
@@ -621,14 +865,42 @@ public class Grid {
 		{
 			if(orientation < 0)
 			{
-				return getCell(shift(index, direction, orientation)).getU(direction).adj();
+				return getU(shift(index, direction, orientation), direction).adj();
 			}
-			return getCell(index).getU(direction);
+			return getU(index, direction);
 		} else {
 			if(orientation < 0) {
-				return getCell(shift(index, direction, orientation)).getUnext(direction).adj();
+				return getUnext(shift(index, direction, orientation), direction).adj();
+			}
+			return getUnext(index, direction);
+		}
+	}
+
+	/**
+	 * Same as {@link #getLink(int, int, int, int)}, but copies the link into a caller-supplied GroupElement. No new
+	 * objects are created.
+	 *
+	 * @param index         Lattice index from which the link starts from
+	 * @param direction     Direction of the link (0 - (numberOfDimensions-1))
+	 * @param orientation   Orientation of the link (-1 or 1)
+	 * @param timeIndex		Option to select between U (timeIndex = 0) and Unext (timeIndex != 0).
+	 * @param out           GroupElement which receives the gauge link
+	 */
+	public void getLinkInto(int index, int direction, int orientation, int timeIndex, GroupElement out)
+	{
+		if(orientation < 0) {
+			int shiftedIndex = shift(index, direction, orientation);
+			if(timeIndex == 0) {
+				getU(shiftedIndex, direction).adjInto(out);
+			} else {
+				getUnext(shiftedIndex, direction).adjInto(out);
+			}
+		} else {
+			if(timeIndex == 0) {
+				out.set(getU(index, direction));
+			} else {
+				out.set(getUnext(index, direction));
 			}
-			return getCell(index).getUnext(direction);
 		}
 	}
 
@@ -641,18 +913,39 @@ public class Grid {
 	 */
 	public int[] getCellPos(int index)
 	{
-		int[] pos = new int[this.numDim];
+		return getCellPos(index, new int[this.numDim]);
+	}
 
+	/**
+	 * Writes the lattice position of a cell index into an existing array.
+	 *
+	 * @param index	Cell index
+	 * @param pos	Array of length numDim which receives the lattice position
+	 * @return		The array pos
+	 */
+	public int[] getCellPos(int index, int[] pos)
+	{
 		for(int i = this.numDim-1; i >= 0; i--)
 		{
 			pos[i] = index % this.numCells[i];
-			index -= pos[i];
 			index /= this.numCells[i];
 		}
 
 		return pos;
 	}
 
+	/**
+	 * Returns a single coordinate of the lattice position of a cell index without decoding the other coordinates.
+	 *
+	 * @param index		Cell index
+	 * @param direction	Direction of the coordinate
+	 * @return			Lattice coordinate of the cell in the given direction
+	 */
+	public int getCellPos(int index, int direction)
+	{
+		return (index / cummulatedCellCount[direction + 1]) % numCells[direction];
+	}
+
 	/**
 	 * This method translates a lattice coordinate vector to the corresponding cell id with respect to periodic boundary
 	 * conditions.
@@ -706,6 +999,20 @@ public class Grid {
 	 * @return              Index of shifted coordinate with respect to periodic boundary conditions.
 	 */
 	public int shift(int index, int direction, int orientation)
+	{
+		if (orientation == 0) {
+			return index;
+		}
+		if (neighbours != null) {
+			return neighbours[2 * (index * numDim + direction) + (orientation > 0 ? 1 : 0)];
+		}
+		return shiftByStride(index, direction, orientation);
+	}
+
+	/**
+	 * Shifts a lattice index using the cummulated cell count instead of the neighbour table.
+	 */
+	private int shiftByStride(int index, int direction, int orientation)
 	{
 		int result = index;
 		int directionIndex = index / cummulatedCellCount[direction + 1];
@@ -763,6 +1070,42 @@ public class Grid {
 		}
 	}
 
+	/**
+	 * CopyFieldsAction is used by the CellIterator to copy selected fields from another grid.
+	 */
+	private static class CopyFieldsAction implements CellAction {
+
+		private final Grid source;
+		private final int fields;
+
+		CopyFieldsAction(Grid source, int fields) {
+			this.source = source;
+			this.fields = fields;
+		}
+
+		public void execute(Grid grid, int index) {
+			for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+				if ((fields & FIELD_U) != 0) {
+					grid.setU(index, d, source.getU(index, d));
+				}
+				if ((fields & FIELD_UNEXT) != 0) {
+					grid.setUnext(index, d, source.getUnext(index, d));
+				}
+				if ((fields & FIELD_E) != 0) {
+					grid.setE(index, d, source.getE(index, d));
+				}
+				if ((fields & FIELD_J) != 0) {
+					grid.getJ(index, d).set(source.getJ(index, d));
+				}
+			}
+			if ((fields & FIELD_RHO) != 0) {
+				grid.getRho(index).set(source.getRho(index));
+			}
+			grid.setEvaluatable(index, source.isEvaluatable(index));
+			grid.setActive(index, source.isActive(index));
+		}
+	}
+
 	/**
 	 * ResetUnext is used by the CellIterator to reset all Unext group elements on the grid.
 	 */
@@ -825,6 +1168,26 @@ public class Grid {
 		return getPlaquette(index, j, k, 1, 1, timeIndex).proj().mult(1 / as);
 	}
 
+	/**
+	 * Same as {@link #getB(int, int, int)}, but writes the magnetic field into a caller-supplied AlgebraElement.
+	 * No new objects are created.
+	 *
+	 * @param index    	Lattice index from where the plaquette starts
+	 * @param direction	Index of the direction
+	 * @param timeIndex	Option to compute B from U (timeIndex = 0) or Unext (timeIndex != 0)
+	 * @param out		AlgebraElement which receives the magnetic field
+	 * @param temp1		Temporary GroupElement
+	 * @param temp2		Temporary GroupElement
+	 */
+	public void getBInto(int index, int direction, int timeIndex, AlgebraElement out,
+						 GroupElement temp1, GroupElement temp2) {
+		int j = (direction + 1) % 3;
+		int k = (direction + 2) % 3;
+		getPlaquetteInto(index, j, k, 1, 1, timeIndex, temp1, temp2);
+		temp1.projInto(out);
+		out.multAssign(1 / as);
+	}
+
 	/**
 	 * Calculates the square of the magnetic field from the spatial plaquette starting at a lattice index in a direction.
 	 *
@@ -867,22 +1230,52 @@ public class Grid {
 		return gauss;
 	}
 
+	/**
+	 * Same as {@link #getGaussConstraint(int)}, but writes the result into a caller-supplied AlgebraElement.
+	 * No new objects are created.
+	 * @param index	Index of the cell
+	 * @param out	AlgebraElement which receives the Gauss constraint violation
+	 * @param temp	Temporary AlgebraElement
+	 * @param link	Temporary GroupElement
+	 */
+	public void getGaussConstraintInto(int index, AlgebraElement out, AlgebraElement temp, GroupElement link) {
+		out.reset();
+		for (int i = 0; i < numDim; i++) {
+			int shiftedIndex = shift(index, i, -1);
+			temp.set(getE(shiftedIndex, i));
+			getLinkInto(index, i, -1, 0, link);
+			temp.actAssign(link);
+			out.addAssign(getE(index, i));
+			out.addAssign(temp, -1.0);
+		}
+		out.multAssign(1.0/as);
+		out.addAssign(getRho(index), -1.0);
+	}
+
 	public boolean isEvaluatable(int index) {
 		return cells[index].isEvaluatable();
 	}
 
+	public void setEvaluatable(int index, boolean value) {
+		cells[index].setEvaluatable(value);
+	}
+
 	public boolean isActive(int index) {
 		return cells[index].isActive();
 	}
 
+	public void setActive(int index, boolean value) {
+		cells[index].setActive(value);
+	}
+
 	public void setEvaluationRegion(int[] regionPoint1, int[] regionPoint2) {
 		int totalNumberOfCells = getTotalNumberOfCells();
 		for (int i = 0; i < totalNumberOfCells; i++) {
 			int[] gridPos = getCellPos(i);
-			cells[i].setEvaluatable(true);
+			setEvaluatable(i, true);
 			for (int j = 0; j < numDim; j++) {
 				if(gridPos[j] < regionPoint1[j] || regionPoint2[j] < gridPos[j]) {
-					cells[i].setEvaluatable(false);
+					setEvaluatable(i, false);
 					break;
 				}
 			}
@@ -893,10 +1286,10 @@ public class Grid {
 		int totalNumberOfCells = getTotalNumberOfCells();
 		for (int i = 0; i < totalNumberOfCells; i++) {
 			int[] gridPos = getCellPos(i);
-			cells[i].setActive(true);
+			setActive(i, true);
 			for (int j = 0; j < numDim; j++) {
 				if(gridPos[j] < regionPoint1[j] || regionPoint2[j] < gridPos[j]) {
-					cells[i].setActive(false);
+					setActive(i, false);
 					break;
 				}
 			}
@@ -938,6 +1331,43 @@ public class Grid {
 		return (dBzdy.add(dBydz.mult(-1))).mult(-1 / as);
 	}
 
+	/**
+	 * Same as {@link #getRotB(int, int, int)}, but writes the result into a caller-supplied AlgebraElement.
+	 * No new objects are created.
+	 * @param index    	Lattice index
+	 * @param direction	Index of the direction
+	 * @param timeIndex	Option to compute B from U (timeIndex = 0) or Unext (timeIndex != 0)
+	 * @param out		AlgebraElement which receives rot B
+	 * @param temp		Temporary AlgebraElement
+	 * @param temp1		Temporary GroupElement
+	 * @param temp2		Temporary GroupElement
+	 */
+	public void getRotBInto(int index, int direction, int timeIndex, AlgebraElement out, AlgebraElement temp,
+							GroupElement temp1, GroupElement temp2) {
+		int dirY = (direction + 1) % 3;
+		int dirZ = (direction + 2) % 3;
+
+		int indexShiftedY = shift(index, dirY, -1);
+		int indexShiftedZ = shift(index, dirZ, -1);
+
+		// dBz/dy = Bz(y+1, z) - Bz(y, z)
+		getBInto(indexShiftedY, dirZ, timeIndex, out, temp1, temp2);
+		getLinkInto(index, dirY, -1, timeIndex, temp1);
+		out.actAssign(temp1);
+		getBInto(index, dirZ, timeIndex, temp, temp1, temp2);
+		out.addAssign(temp, -1.0);
+
+		// - dBy/dz = - By(y, z+1) + By(y, z)
+		getBInto(indexShiftedZ, dirY, timeIndex, temp, temp1, temp2);
+		getLinkInto(index, dirZ, -1, timeIndex, temp1);
+		temp.actAssign(temp1);
+		out.addAssign(temp, -1.0);
+		getBInto(index, dirY, timeIndex, temp, temp1, temp2);
+		out.addAssign(temp);
+
+		out.multAssign(-1 / as);
+	}
+
 	/**
 	 * Calculate rot E using a forward derivative.
 	 * @param index    	Lattice index
@@ -972,6 +1402,38 @@ public class Grid {
 		return (dEzdy.add(dEydz.mult(-1))).mult(1 / as);
 	}
 
+	/**
+	 * Same as {@link #getRotE(int, int)}, but writes the result into a caller-supplied AlgebraElement.
+	 * No new objects are created.
+	 * @param index    	Lattice index
+	 * @param direction	Index of the direction
+	 * @param out		AlgebraElement which receives rot E
+	 * @param temp		Temporary AlgebraElement
+	 * @param link		Temporary GroupElement
+	 */
+	public void getRotEInto(int index, int direction, AlgebraElement out, AlgebraElement temp, GroupElement link) {
+		int dirY = (direction + 1) % 3;
+		int dirZ = (direction + 2) % 3;
+
+		int indexShiftedY = shift(index, dirY, 1);
+		int indexShiftedZ = shift(index, dirZ, 1);
+
+		// dEz/dy = Ez(y+1, z) - Ez(y, z)
+		out.set(getE(indexShiftedY, dirZ));
+		getLinkInto(index, dirY, 1, 0, link);
+		out.actAssign(link);
+		out.addAssign(getE(index, dirZ), -1.0);
+
+		// dEy/dz = Ey(y, z+1) - Ey(y, z)
+		temp.set(getE(indexShiftedZ, dirY));
+		getLinkInto(index, dirZ, 1, 0, link);
+		temp.actAssign(link);
+		temp.addAssign(getE(index, dirY), -1.0);
+
+		out.addAssign(temp, -1.0);
+		out.multAssign(1 / as);
+	}
+
 	/**
 	 * Returns the spatially averaged electric field including parallel transport of the fields.
 	 * @param index Lattice index
@@ -2,6 +2,7 @@ package org.openpixi.pixi.physics.grid;
 
 import org.openpixi.pixi.parallel.particleaccess.ParticleAction;
 import org.openpixi.pixi.parallel.particleaccess.ParticleIterator;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 
 import java.util.List;
@@ -14,6 +15,13 @@ public class LocalInterpolation extends Interpolation {
 
 	private ParticleIterator particleIterator;
 
+	/**
+	 * Minimal number of particles per cell for which currents and charges are deposited into thread private buffers
+	 * instead of being added to the grid under a lock.
+	 */
+	private double depositionBufferThreshold;
+	private DepositionBuffer depositionBuffer;
+
 	private Grid grid;
 	private double timeStep;
 
@@ -23,8 +31,19 @@ public class LocalInterpolation extends Interpolation {
 
 	public LocalInterpolation(InterpolatorAlgorithm interpolator,
 			ParticleIterator particleIterator) {
+		this(interpolator, particleIterator, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @param interpolator                  Interpolation algorithm
+	 * @param particleIterator              Iterator over the particles
+	 * @param depositionBufferThreshold     Particles per cell above which thread private deposition buffers are used
+	 */
+	public LocalInterpolation(InterpolatorAlgorithm interpolator,
+			ParticleIterator particleIterator, double depositionBufferThreshold) {
 		super(interpolator);
 		this.particleIterator = particleIterator;
+		this.depositionBufferThreshold = depositionBufferThreshold;
 	}
 
 	@Override
@@ -32,20 +51,73 @@ public class LocalInterpolation extends Interpolation {
 		//grid.resetCurrent();
 		this.grid = grid;
 		this.timeStep = grid.getTemporalSpacing();
-		particleIterator.execute(particles, interpolateToGrid);
+		execute(particles, interpolateToGrid);
 	}
 
 	@Override
 	public void interpolateToParticle(List<IParticle> particles, Grid grid) {
 		this.grid = grid;
-		particleIterator.execute(particles, interpolateToParticle);
+		if (interpolator instanceof ParallelInterpolatorAlgorithm) {
+			executeSequentially(particles, interpolateToParticle);
+		} else {
+			particleIterator.execute(particles, interpolateToParticle);
+		}
 	}
 
 	@Override
 	public void interpolateChargedensity(List<IParticle> particles, Grid grid) {
 		//grid.resetCharge();
 		this.grid = grid;
-		particleIterator.execute(particles, interpolateChargedensity);
+		execute(particles, interpolateChargedensity);
+	}
+
+	/**
+	 * Executes a deposition action. For high particle densities many threads write to the same cells, so the
+	 * deposition goes to thread private buffers which are merged afterwards.
+	 */
+	private void execute(List<IParticle> particles, ParticleAction action) {
+		if (interpolator instanceof ParallelInterpolatorAlgorithm) {
+			executeSequentially(particles, action);
+		} else if (countParticles(particles) >= depositionBufferThreshold * grid.getTotalNumberOfCells()) {
+			if (depositionBuffer == null || !depositionBuffer.fits(grid)) {
+				depositionBuffer = new DepositionBuffer(grid);
+			}
+			grid.setDepositionBuffer(depositionBuffer);
+			try {
+				particleIterator.execute(particles, action);
+			} finally {
+				grid.setDepositionBuffer(null);
+			}
+			depositionBuffer.merge(grid);
+		} else {
+			particleIterator.execute(particles, action);
+		}
+	}
+
+	/**
+	 * Counts the particles, including the particles inside of particle arrays.
+	 */
+	private int countParticles(List<IParticle> particles) {
+		int count = 0;
+		for (int i = 0; i < particles.size(); i++) {
+			IParticle p = particles.get(i);
+			if (p instanceof CGCParticleArray) {
+				count += ((CGCParticleArray) p).numberOfParticles;
+			} else {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Passes the particles one after another to an interpolation algorithm which parallelizes the work for every
+	 * particle itself.
+	 */
+	private void executeSequentially(List<IParticle> particles, ParticleAction action) {
+		for (int i = 0; i < particles.size(); i++) {
+			action.execute(particles.get(i));
+		}
 	}
 
 	private class InterpolateToGrid implements ParticleAction {
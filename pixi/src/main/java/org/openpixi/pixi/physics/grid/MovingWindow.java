@@ -0,0 +1,199 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+import java.util.ArrayList;
+
+/**
+ * Moving window for CGC simulations in the lab frame.
+ * <br>
+ * The color currents of the nuclei move along the longitudinal direction at the speed of light. In front of the nuclei
+ * the fields are still in the vacuum and behind them they are pure gauge, so the equations of motion do not change
+ * the fields in these regions. The window keeps only the longitudinal slices between the outermost CGC particles
+ * (plus a margin) active and follows the particles in every time step. Slices which leave the window are frozen
+ * (Unext = U) and not visited by the field solvers (see {@link #getRanges(Grid)}). Their links are kept, because the pure gauge fields behind the nuclei
+ * are part of the evolved region again once the nuclei have passed through each other and the window grows.
+ * <br>
+ * The window is combined with the active region: slices which enter the window get back the active flags which the
+ * cells had when the window was created.
+ */
+public class MovingWindow {
+
+	private final int margin;
+
+	/**
+	 * Active flags of the cells without the window.
+	 */
+	private final boolean[] baseActive;
+
+	/**
+	 * Longitudinal direction, determined from the particles. -1 if it is not known yet.
+	 */
+	private int direction = -1;
+
+	/**
+	 * First and last active slice (inclusive).
+	 */
+	private int windowStart;
+	private int windowEnd;
+
+	private boolean initialized = false;
+
+	/**
+	 * Creates a moving window for the given grid. The active region of the grid has to be set before.
+	 *
+	 * @param grid      Grid on which the window is applied
+	 * @param margin    Number of slices which are kept active in front of and behind the outermost particles
+	 */
+	public MovingWindow(Grid grid, int margin) {
+		this.margin = margin;
+		int totalNumberOfCells = grid.getTotalNumberOfCells();
+		baseActive = new boolean[totalNumberOfCells];
+		for (int i = 0; i < totalNumberOfCells; i++) {
+			baseActive[i] = grid.isActive(i);
+		}
+	}
+
+	public int getWindowStart() {
+		return windowStart;
+	}
+
+	public int getWindowEnd() {
+		return windowEnd;
+	}
+
+	/**
+	 * Returns the ranges of cell indices within the window. Range k consists of the cells [ranges[2k], ranges[2k+1]).
+	 *
+	 * @param grid  Grid on which the window is applied
+	 * @return      Ranges of cell indices or null if the window covers the whole grid or has not been set yet
+	 */
+	public int[] getRanges(Grid grid) {
+		int[] numCells = grid.getNumCells();
+		if (!initialized || (windowStart == 0 && windowEnd == numCells[direction] - 1)) {
+			return null;
+		}
+		int outer = getOuterSize(numCells);
+		int inner = getInnerSize(numCells);
+		int[] ranges = new int[2 * outer];
+		for (int o = 0; o < outer; o++) {
+			ranges[2 * o] = (o * numCells[direction] + windowStart) * inner;
+			ranges[2 * o + 1] = (o * numCells[direction] + windowEnd + 1) * inner;
+		}
+		return ranges;
+	}
+
+	/**
+	 * Moves the window to the current positions of the particles. Only slices which enter or leave the window are
+	 * updated. If there are particles which are not CGC particles, the whole grid is kept active.
+	 *
+	 * @param grid      Grid on which the window is applied
+	 * @param particles Particles of the simulation
+	 */
+	public void update(Grid grid, ArrayList<IParticle> particles) {
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		boolean followParticles = !particles.isEmpty();
+		double as = grid.getLatticeSpacing();
+		int t = grid.getSimulationSteps();
+		for (IParticle p : particles) {
+			if (p instanceof CGCSuperParticle) {
+				CGCSuperParticle P = (CGCSuperParticle) p;
+				direction = P.direction;
+				int offset = P.getCurrentOffset(t);
+				min = Math.min(min, floorDiv(offset, P.particlesPerPlane));
+				max = Math.max(max, floorDiv(offset + P.numberOfParticles - 1, P.particlesPerPlane));
+			} else if (p instanceof CGCParticle) {
+				direction = ((CGCParticle) p).direction;
+				int slice = (int) Math.floor(p.getPosition(direction) / as);
+				min = Math.min(min, slice);
+				max = Math.max(max, slice);
+			} else if (p instanceof CGCParticleArray) {
+				CGCParticleArray P = (CGCParticleArray) p;
+				for (int i = 0; i < P.numberOfParticles; i++) {
+					direction = P.direction[i];
+					int slice = (int) Math.floor(P.pos0[i * P.numberOfDimensions + direction] / as);
+					min = Math.min(min, slice);
+					max = Math.max(max, slice);
+				}
+			} else {
+				followParticles = false;
+				break;
+			}
+		}
+		if (direction < 0) {
+			return;
+		}
+
+		int numCells = grid.getNumCells(direction);
+		int start = 0;
+		int end = numCells - 1;
+		if (followParticles) {
+			start = Math.max(min - margin, 0);
+			end = Math.min(max + margin, numCells - 1);
+		}
+
+		for (int slice = 0; slice < numCells; slice++) {
+			boolean active = start <= slice && slice <= end;
+			boolean wasActive = windowStart <= slice && slice <= windowEnd;
+			if (!initialized || active != wasActive) {
+				setSlice(grid, slice, active);
+			}
+		}
+		windowStart = start;
+		windowEnd = end;
+		initialized = true;
+	}
+
+	/**
+	 * Activates or freezes all cells of a longitudinal slice.
+	 */
+	private void setSlice(Grid grid, int slice, boolean active) {
+		int[] numCells = grid.getNumCells();
+		int outer = getOuterSize(numCells);
+		int inner = getInnerSize(numCells);
+		for (int o = 0; o < outer; o++) {
+			int offset = (o * numCells[direction] + slice) * inner;
+			for (int k = 0; k < inner; k++) {
+				int index = offset + k;
+				if (active) {
+					grid.setActive(index, baseActive[index]);
+				} else {
+					grid.setActive(index, false);
+					for (int d = 0; d < numCells.length; d++) {
+						grid.setUnext(index, d, grid.getU(index, d));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of blocks of consecutive cells per slice.
+	 */
+	private int getOuterSize(int[] numCells) {
+		int outer = 1;
+		for (int i = 0; i < direction; i++) {
+			outer *= numCells[i];
+		}
+		return outer;
+	}
+
+	/**
+	 * Number of consecutive cells within a block of a slice.
+	 */
+	private int getInnerSize(int[] numCells) {
+		int inner = 1;
+		for (int i = direction + 1; i < numCells.length; i++) {
+			inner *= numCells[i];
+		}
+		return inner;
+	}
+
+	private static int floorDiv(int x, int y) {
+		return (int) Math.floor(x / (double) y);
+	}
+}
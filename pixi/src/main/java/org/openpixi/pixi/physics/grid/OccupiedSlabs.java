@@ -0,0 +1,275 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
+
+/**
+ * Tracks which parts of the grid contain non-trivial fields.
+ * <br>
+ * The grid is split into slabs of cells with the same coordinate in the slab direction, usually the longitudinal
+ * direction of a collision. A slab is occupied if one of its cells has a link U or Unext which differs from the
+ * identity, an electric field or a current above the vacuum tolerance. In all other cells (the vacuum) the equations of
+ * motion do not change the fields, as long as the neighbouring cells are in the vacuum too. The field solvers
+ * therefore only update the occupied slabs and a halo of one slab on each side (see {@link #getRanges(Grid)}).
+ * <br>
+ * Slabs become occupied when a current is deposited into one of their cells (see {@link Grid#addJ(int, int,
+ * AlgebraElement)}) or when the update of the fields has reached the halo (see {@link #updateHalo(Grid)}). Every
+ * {@link #RECHECK_INTERVAL} updates the occupied slabs are checked again, so slabs which the fields have left return
+ * to the vacuum. The whole grid is scanned in the first time step and after {@link #invalidate()}, so fields which are
+ * set directly (initial conditions, checkpoints) are picked up as well.
+ */
+public class OccupiedSlabs {
+
+	/**
+	 * Default tolerance below which fields and deviations of the links from the identity count as vacuum.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1.E-12;
+
+	/**
+	 * Number of updates after which the occupied slabs are checked again.
+	 */
+	public static final int RECHECK_INTERVAL = 10;
+
+	private final int direction;
+	private final double tolerance;
+
+	private int numberOfSlabs;
+
+	/**
+	 * Number of consecutive cells within a slab, i.e. the product of the grid sizes after the slab direction.
+	 */
+	private int innerSize;
+
+	/**
+	 * Number of blocks of consecutive cells per slab, i.e. the product of the grid sizes before the slab direction.
+	 */
+	private int outerSize;
+
+	private boolean[] occupied;
+	private boolean initialized = false;
+	private int updates = 0;
+
+	private GroupElement identity;
+	private GroupElement link;
+	private AlgebraElement field;
+
+	/**
+	 * Creates a tracker of slabs in the x-direction with the default tolerance.
+	 */
+	public OccupiedSlabs() {
+		this(0, DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * @param direction Direction in which the grid is split into slabs
+	 * @param tolerance Fields and deviations of the links from the identity below this value count as vacuum
+	 */
+	public OccupiedSlabs(int direction, double tolerance) {
+		this.direction = direction;
+		this.tolerance = tolerance;
+	}
+
+	public int getDirection() {
+		return direction;
+	}
+
+	/**
+	 * Marks the slab of a cell as occupied. May be called concurrently.
+	 *
+	 * @param index Lattice index
+	 */
+	public void mark(int index) {
+		if (initialized) {
+			occupied[(index / innerSize) % numberOfSlabs] = true;
+		}
+	}
+
+	/**
+	 * Returns the slab of a cell, or -1 if the slabs are not tracked yet. In that case the currents are picked up by
+	 * the scan of the whole grid.
+	 *
+	 * @param index Lattice index
+	 * @return      Index of the slab
+	 */
+	public int getSlab(int index) {
+		return initialized ? (index / innerSize) % numberOfSlabs : -1;
+	}
+
+	public int getNumberOfSlabs() {
+		return initialized ? numberOfSlabs : 0;
+	}
+
+	/**
+	 * Marks the slabs which are set in a mask as occupied, e.g. the slabs which a thread has recorded while it
+	 * deposited currents with {@link Grid#addJ(int, int, AlgebraElement, double)}.
+	 *
+	 * @param mask  Occupied slabs, indexed as in {@link #getSlab(int)}
+	 */
+	public void mark(boolean[] mask) {
+		if (initialized) {
+			for (int s = 0; s < numberOfSlabs; s++) {
+				if (mask[s]) {
+					occupied[s] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forces a scan of the whole grid before the next update, e.g. after the fields have been changed directly.
+	 */
+	public void invalidate() {
+		initialized = false;
+	}
+
+	public boolean isOccupied(int slab) {
+		return initialized && occupied[slab];
+	}
+
+	/**
+	 * Returns the ranges of cell indices which have to be updated: the occupied slabs and their neighbours. Range k
+	 * consists of the cells [ranges[2k], ranges[2k+1]).
+	 *
+	 * @param grid  Grid
+	 * @return      Ranges of cell indices
+	 */
+	public int[] getRanges(Grid grid) {
+		if (!initialized) {
+			scan(grid);
+		}
+		// Runs [start, end) of consecutive slabs which are updated.
+		int[] runs = new int[numberOfSlabs + 1];
+		int numberOfRuns = 0;
+		int start = -1;
+		for (int s = 0; s < numberOfSlabs; s++) {
+			if (isUpdated(s)) {
+				if (start < 0) {
+					start = s;
+				}
+			} else if (start >= 0) {
+				runs[2 * numberOfRuns] = start;
+				runs[2 * numberOfRuns + 1] = s;
+				numberOfRuns++;
+				start = -1;
+			}
+		}
+		if (start >= 0) {
+			runs[2 * numberOfRuns] = start;
+			runs[2 * numberOfRuns + 1] = numberOfSlabs;
+			numberOfRuns++;
+		}
+
+		// Every run consists of one block of consecutive cells per outer index. If the whole grid is updated, the
+		// blocks are joined to a single range.
+		if (numberOfRuns == 1 && runs[0] == 0 && runs[1] == numberOfSlabs) {
+			return new int[]{0, grid.getTotalNumberOfCells()};
+		}
+		int[] ranges = new int[2 * numberOfRuns * outerSize];
+		int count = 0;
+		for (int o = 0; o < outerSize; o++) {
+			for (int r = 0; r < numberOfRuns; r++) {
+				int offset = o * numberOfSlabs;
+				ranges[count++] = (offset + runs[2 * r]) * innerSize;
+				ranges[count++] = (offset + runs[2 * r + 1]) * innerSize;
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Checks the halo slabs after an update of the fields and marks those which are not in the vacuum anymore. Every
+	 * {@link #RECHECK_INTERVAL} updates the occupied slabs are checked as well and released if they are in the vacuum.
+	 *
+	 * @param grid  Grid
+	 */
+	public void updateHalo(Grid grid) {
+		if (!initialized) {
+			return;
+		}
+		updates++;
+		boolean recheck = updates % RECHECK_INTERVAL == 0;
+		boolean[] checked = new boolean[numberOfSlabs];
+		for (int s = 0; s < numberOfSlabs; s++) {
+			checked[s] = (recheck || !occupied[s]) && isUpdated(s);
+		}
+		for (int s = 0; s < numberOfSlabs; s++) {
+			if (checked[s]) {
+				occupied[s] = !isVacuum(grid, s);
+			}
+		}
+	}
+
+	/**
+	 * Whether the slab is occupied or a neighbour of an occupied slab (periodic in the slab direction).
+	 */
+	private boolean isUpdated(int s) {
+		return occupied[s] || occupied[(s + 1) % numberOfSlabs]
+				|| occupied[(s - 1 + numberOfSlabs) % numberOfSlabs];
+	}
+
+	private void scan(Grid grid) {
+		numberOfSlabs = grid.getNumCells(direction);
+		innerSize = 1;
+		for (int i = direction + 1; i < grid.getNumberOfDimensions(); i++) {
+			innerSize *= grid.getNumCells(i);
+		}
+		outerSize = grid.getTotalNumberOfCells() / (numberOfSlabs * innerSize);
+		occupied = new boolean[numberOfSlabs];
+		identity = grid.getElementFactory().groupIdentity();
+		link = grid.getElementFactory().groupIdentity();
+		field = grid.getElementFactory().algebraZero();
+		for (int s = 0; s < numberOfSlabs; s++) {
+			occupied[s] = !isVacuum(grid, s);
+		}
+		updates = 0;
+		initialized = true;
+	}
+
+	private boolean isVacuum(Grid grid, int slab) {
+		for (int o = 0; o < outerSize; o++) {
+			int start = (o * numberOfSlabs + slab) * innerSize;
+			for (int index = start; index < start + innerSize; index++) {
+				for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+					if (grid instanceof FlatGrid) {
+						FlatGrid flatGrid = (FlatGrid) grid;
+						flatGrid.readU(index, d, link);
+						if (!isIdentity(link)) {
+							return false;
+						}
+						flatGrid.readUnext(index, d, link);
+						if (!isIdentity(link)) {
+							return false;
+						}
+						flatGrid.readE(index, d, field);
+						if (field.square() > tolerance * tolerance) {
+							return false;
+						}
+						flatGrid.readJ(index, d, field);
+						if (field.square() > tolerance * tolerance) {
+							return false;
+						}
+					} else {
+						if (!isIdentity(grid.getU(index, d)) || !isIdentity(grid.getUnext(index, d))
+								|| grid.getEsquared(index, d) > tolerance * tolerance
+								|| grid.getJ(index, d).square() > tolerance * tolerance) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether a link equals the identity within the tolerance. The projection onto the generators is checked as well
+	 * as the trace, which also distinguishes the identity from the other elements of the center.
+	 */
+	private boolean isIdentity(GroupElement U) {
+		if (Math.abs(U.getRealTrace() - identity.getRealTrace()) > tolerance) {
+			return false;
+		}
+		U.projInto(field);
+		return field.square() <= tolerance * tolerance;
+	}
+}
@@ -0,0 +1,9 @@
+package org.openpixi.pixi.physics.grid;
+
+/**
+ * Interpolation algorithm which distributes the work for a single particle among the threads itself, e.g. for super
+ * particles which describe whole sheets of charges. The particles are passed to the algorithm one after another by
+ * the calling thread, so the algorithm may use the cell iterator of the grid without nesting parallel loops.
+ */
+public interface ParallelInterpolatorAlgorithm extends InterpolatorAlgorithm {
+}
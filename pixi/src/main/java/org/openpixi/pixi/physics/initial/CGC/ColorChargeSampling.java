@@ -0,0 +1,97 @@
+package org.openpixi.pixi.physics.initial.CGC;
+
+import java.util.Random;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.parallel.cellaccess.CellIterator;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.util.GridFunctions;
+import org.openpixi.pixi.physics.util.RandomStreams;
+
+/**
+ * Sampling of random color charge densities which is shared by the nucleus models.
+ * <br>
+ * The color components are sampled concurrently on the cell iterator of the grid. Every transverse cell of every
+ * component has its own random stream (see {@link RandomStreams}), so the result does not depend on the number of
+ * threads.
+ */
+class ColorChargeSampling {
+
+	/**
+	 * Samples a single color component of the charge density.
+	 */
+	interface ComponentSampler {
+		/**
+		 * @param j         Color component
+		 * @param streams   Random streams of the charge density
+		 * @return          Values of the component in every cell of the grid
+		 */
+		double[] sampleComponent(int j, RandomStreams streams);
+	}
+
+	/**
+	 * Samples all color components concurrently and puts them into the charge density.
+	 *
+	 * @param s         Reference to the simulation
+	 * @param rho       Charge density
+	 * @param useSeed   Whether to use a fixed seed
+	 * @param seed      Seed
+	 * @param sampler   Sampler of the components
+	 */
+	static void sampleComponents(Simulation s, AlgebraElement[] rho, boolean useSeed, int seed,
+			final ComponentSampler sampler) {
+		int numberOfColors = s.getNumberOfColors();
+		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
+		final RandomStreams streams = useSeed ? new RandomStreams(seed) : new RandomStreams();
+		final double[][] components = new double[numberOfComponents][];
+		s.grid.getCellIterator().executeTasks(numberOfComponents, new CellIterator.BlockAction() {
+			public void execute(int j) {
+				components[j] = sampler.sampleComponent(j, streams);
+			}
+		});
+
+		// Put everything into rho array.
+		for (int j = 0; j < numberOfComponents; j++) {
+			for (int i = 0; i < rho.length; i++) {
+				rho[i].set(j, components[j][i]);
+			}
+		}
+	}
+
+	/**
+	 * Places random charges of a single color component on the grid (with longitudinal randomness) and regulates them.
+	 * The widths of the charges are given in every cell of the grid.
+	 */
+	static double[] sampleIncoherentComponent(Simulation s, int j, RandomStreams streams, int direction,
+			double[] colorChargeWidths, double mu, double ultravioletCutoffTransverse,
+			double longitudinalCoherenceLength, double infraredCoefficient) {
+		double as = s.grid.getLatticeSpacing();
+		int[] transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		int totalTransCells = GridFunctions.getTotalNumberOfCells(transNumCells);
+		int longitudinalNumCells = s.grid.getNumCells(direction);
+		double[] tempRho = new double[s.grid.getTotalNumberOfCells()];
+
+		// Takes care of the overall longitudinal profile!!!
+		for (int i = 0; i < totalTransCells; i++) {
+			Random rand = streams.getStream(j, i);
+			int[] transPos = GridFunctions.getCellPos(i, transNumCells);
+			for (int k = 0; k < longitudinalNumCells; k++) {
+				int[] gridPos = GridFunctions.insertGridPos(transPos, direction, k);
+				int index = s.grid.getCellIndex(gridPos);
+				tempRho[index] = rand.nextGaussian() * colorChargeWidths[index] * mu * s.getCouplingConstant() / Math.pow(as, 3/2);
+			}
+		}
+
+		// Apply soft momentum regulation in Fourier space.
+		tempRho = FourierFunctions.regulateChargeDensityGaussian(tempRho, s.grid.getNumCells(),
+				ultravioletCutoffTransverse, longitudinalCoherenceLength, infraredCoefficient, direction,
+				s.grid.getLatticeSpacing());
+
+		// Apply hard momentum regulation in Fourier space.
+		/*tempRho = FourierFunctions.regulateChargeDensityHard(tempRho, s.grid.getNumCells(),
+				ultravioletCutoffTransverse, ultravioletCutoffLongitudinal, infraredCoefficient, direction,
+				s.grid.getLatticeSpacing());*/
+
+		return tempRho;
+	}
+}
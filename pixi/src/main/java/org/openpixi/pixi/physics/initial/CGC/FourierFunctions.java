@@ -1,5 +1,7 @@
 package org.openpixi.pixi.physics.initial.CGC;
 
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
 import org.openpixi.pixi.physics.util.GridFunctions;
 
@@ -8,6 +10,12 @@ import org.openpixi.pixi.physics.util.GridFunctions;
  */
 public class FourierFunctions {
 
+	/**
+	 * Number of longitudinal sheets whose transverse Poisson equations are solved in one batch by
+	 * {@link #solvePoissonSheetBySheet(Simulation, IInitialChargeDensity)}.
+	 */
+	public static final int SHEETS_PER_BATCH = 8;
+
 	/**
 	 * Applies hard UV and IR regulation to (one color component of) a 3D charge density.
 	 *
@@ -21,49 +29,7 @@ public class FourierFunctions {
 	 */
 	public static double[] regulateChargeDensityHard(double[] rho, int[] numCells, double UVT, double UVL, double IR,
 													 int direction, double as) {
-		int totalCells = numCells[0] * numCells[1] * numCells[2];
-		int longitudinalNumCells = numCells[direction];
-		int[] transverseNumCells = GridFunctions.reduceGridPos(numCells, direction);
-
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(numCells);
-		double[] rhoReg = new double[fft.getFFTArraySize()]; // hardcoded for 3D, I know.
-		for (int i = 0; i < totalCells; i++) {
-			rhoReg[fft.getFFTArrayIndex(i)] = rho[i];
-		}
-		fft.complexForward(rhoReg);
-
-		// Remove global charge
-		rhoReg[0] = 0.0;
-		rhoReg[1] = 0.0;
-
-		// Apply momentum regulation
-		for (int i = 0; i < totalCells; i++) {
-			int[] gridPos = GridFunctions.getCellPos(i, numCells);
-			int longPos = gridPos[direction];
-			int[] transPos = GridFunctions.reduceGridPos(gridPos, direction);
-			int transIndex = GridFunctions.getCellIndex(transPos, transverseNumCells);
-
-			double kTeff2 = computeEffectiveTransverseMomentumSquared(transIndex, transverseNumCells, as);
-			double kT2 = computeTransverseMomentumSquared(transIndex, transverseNumCells, as);
-			double kL = Math.abs(computeLatticeMomentum1D(longPos, longitudinalNumCells, as));
-
-			// Apply hard UV regulation
-			if(kT2 <=  UVT * UVT && kL <= UVL && kT2 > 0) {
-				// Apply 'soft' IR regulation
-				double regulator = kTeff2 / (kTeff2 + IR * IR);
-				rhoReg[fft.getFFTArrayIndex(i)] *= regulator;
-				rhoReg[fft.getFFTArrayIndex(i)+1] *= regulator;
-			} else {
-				rhoReg[fft.getFFTArrayIndex(i)] = 0.0;
-				rhoReg[fft.getFFTArrayIndex(i)+1] = 0.0;
-			}
-		}
-
-		fft.complexInverse(rhoReg, true);
-		for (int i = 0; i < totalCells; i++) {
-			rho[i] = rhoReg[fft.getFFTArrayIndex(i)];
-		}
-		return rho;
+		return regulateChargeDensity(rho, numCells, UVT, UVL, 0.0, IR, direction, as, false);
 	}
 
 	/**
@@ -80,11 +46,44 @@ public class FourierFunctions {
 	 */
 	public static double[] regulateChargeDensityGaussian(double[] rho, int[] numCells, double UVT, double longWidth, double IR,
 													 int direction, double as) {
+		return regulateChargeDensity(rho, numCells, UVT, 0.0, longWidth, IR, direction, as, true);
+	}
+
+	/**
+	 * Common implementation of the hard and Gaussian regulation. The momenta only depend on the transverse index and
+	 * the longitudinal position, so the regulators are tabulated once instead of being computed for every cell.
+	 */
+	private static double[] regulateChargeDensity(double[] rho, int[] numCells, double UVT, double UVL,
+												  double longWidth, double IR, int direction, double as,
+												  boolean gaussian) {
 		int totalCells = numCells[0] * numCells[1] * numCells[2];
 		int longitudinalNumCells = numCells[direction];
 		int[] transverseNumCells = GridFunctions.reduceGridPos(numCells, direction);
+		int totalTransverseCells = transverseNumCells[0] * transverseNumCells[1];
+
+		// Transverse regulator, zero outside of the hard UV cutoff and for kT = 0.
+		double[] transRegulator = new double[totalTransverseCells];
+		for (int i = 0; i < totalTransverseCells; i++) {
+			double kTeff2 = computeEffectiveTransverseMomentumSquared(i, transverseNumCells, as);
+			double kT2 = computeTransverseMomentumSquared(i, transverseNumCells, as);
+			if (kT2 <= UVT * UVT && kT2 > 0) {
+				// Apply 'soft' IR regulation
+				transRegulator[i] = kTeff2 / (kTeff2 + IR * IR);
+			}
+		}
 
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(numCells);
+		// Longitudinal regulator
+		double[] longRegulator = new double[longitudinalNumCells];
+		for (int z = 0; z < longitudinalNumCells; z++) {
+			double kL = Math.abs(computeLatticeMomentum1D(z, longitudinalNumCells, as));
+			if (gaussian) {
+				longRegulator[z] = Math.exp(-0.25*kL*kL*longWidth*longWidth);
+			} else {
+				longRegulator[z] = (kL <= UVL) ? 1.0 : 0.0;
+			}
+		}
+
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getCached(numCells);
 		double[] rhoReg = new double[fft.getFFTArraySize()]; // hardcoded for 3D, I know.
 		for (int i = 0; i < totalCells; i++) {
 			rhoReg[fft.getFFTArrayIndex(i)] = rho[i];
@@ -96,31 +95,29 @@ public class FourierFunctions {
 		rhoReg[1] = 0.0;
 
 		// Apply momentum regulation
-		for (int i = 0; i < totalCells; i++) {
-			int[] gridPos = GridFunctions.getCellPos(i, numCells);
-			int longPos = gridPos[direction];
-			int[] transPos = GridFunctions.reduceGridPos(gridPos, direction);
-			int transIndex = GridFunctions.getCellIndex(transPos, transverseNumCells);
-
-			double kTeff2 = computeEffectiveTransverseMomentumSquared(transIndex, transverseNumCells, as);
-			double kT2 = computeTransverseMomentumSquared(transIndex, transverseNumCells, as);
-			double kL = Math.abs(computeLatticeMomentum1D(longPos, longitudinalNumCells, as));
-
-			// Apply hard UV regulation
-			if(kT2 <=  UVT * UVT && kT2 > 0) {
-				// Apply 'soft' IR regulation
-				double regulator = kTeff2 / (kTeff2 + IR * IR);
-				double longRegulator = Math.exp(-0.25*kL*kL*longWidth*longWidth);
-				rhoReg[fft.getFFTArrayIndex(i)] *= regulator*longRegulator;
-				rhoReg[fft.getFFTArrayIndex(i)+1] *= regulator*longRegulator;
-			} else {
-				rhoReg[fft.getFFTArrayIndex(i)] = 0.0;
-				rhoReg[fft.getFFTArrayIndex(i)+1] = 0.0;
+		int transDir0 = (direction == 0) ? 1 : 0;
+		int transDir1 = (direction == 2) ? 1 : 2;
+		int[] gridPos = new int[3];
+		int i = 0;
+		for (gridPos[0] = 0; gridPos[0] < numCells[0]; gridPos[0]++) {
+			for (gridPos[1] = 0; gridPos[1] < numCells[1]; gridPos[1]++) {
+				for (gridPos[2] = 0; gridPos[2] < numCells[2]; gridPos[2]++) {
+					int transIndex = gridPos[transDir0] * numCells[transDir1] + gridPos[transDir1];
+					double regulator = transRegulator[transIndex];
+					if (gaussian) {
+						regulator *= longRegulator[gridPos[direction]];
+					} else if (longRegulator[gridPos[direction]] == 0.0) {
+						regulator = 0.0;
+					}
+					rhoReg[fft.getFFTArrayIndex(i)] *= regulator;
+					rhoReg[fft.getFFTArrayIndex(i)+1] *= regulator;
+					i++;
+				}
 			}
 		}
 
 		fft.complexInverse(rhoReg, true);
-		for (int i = 0; i < totalCells; i++) {
+		for (i = 0; i < totalCells; i++) {
 			rho[i] = rhoReg[fft.getFFTArrayIndex(i)];
 		}
 		return rho;
@@ -135,30 +132,145 @@ public class FourierFunctions {
 	 * @return
 	 */
 	public static double[] solvePoisson2D(double[] rho, int[] transNumCells, double as) {
+		return solvePoisson2D(new double[][]{rho}, transNumCells, as)[0];
+	}
+
+	/**
+	 * Solves the 2D transverse Poisson equation for a batch of charge densities (e.g. all longitudinal slices and
+	 * color components) with the same grid size. The FFT plan and the inverse Laplace kernel are set up once for the
+	 * whole batch. Since the charge densities are real and the kernel is real and symmetric in momentum space, two
+	 * densities are packed into the real and imaginary part of a single complex transform.
+	 *
+	 * @param rho			2D charge densities
+	 * @param transNumCells	grid size
+	 * @param as			transverse lattice spacing
+	 * @return				2D potentials in the same order as the charge densities
+	 */
+	public static double[][] solvePoisson2D(double[][] rho, int[] transNumCells, double as) {
 		int totalCells = transNumCells[0] * transNumCells[1];
+		double[][] phi = new double[rho.length][totalCells];
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getCached(transNumCells);
+		solvePoisson2D(rho, phi, rho.length, getInverseLaplace(transNumCells, as), fft,
+				new double[fft.getFFTArraySize()]);
+		return phi;
+	}
+
+	/**
+	 * Solves the transverse Poisson equation for a 3D charge density 'sheet by sheet' in the longitudinal direction.
+	 * The sheets are streamed in batches of {@link #SHEETS_PER_BATCH}, so only the 2D charge densities and potentials
+	 * of a single batch (all color components) are held in memory at a time.
+	 *
+	 * @param s				Reference to the simulation
+	 * @param chargeDensity	3D charge density
+	 * @return				Potential in every cell of the grid
+	 */
+	public static AlgebraElement[] solvePoissonSheetBySheet(Simulation s, IInitialChargeDensity chargeDensity) {
+		int direction = chargeDensity.getDirection();
+		int longitudinalNumCells = s.grid.getNumCells(direction);
+		int[] transverseNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		int totalTransverseCells = GridFunctions.getTotalNumberOfCells(transverseNumCells);
+		int numberOfColors = s.getNumberOfColors();
+		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
 
-		DoubleFFTWrapper fft = new DoubleFFTWrapper(transNumCells);
+		AlgebraElement[] phi0 = new AlgebraElement[s.grid.getTotalNumberOfCells()];
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			phi0[i] = s.grid.getElementFactory().algebraZero();
+		}
+
+		int sheetsPerBatch = Math.min(SHEETS_PER_BATCH, longitudinalNumCells);
+		int[][] sheetIndices = new int[sheetsPerBatch][totalTransverseCells];
+		double[][] rho2D = new double[sheetsPerBatch * numberOfComponents][totalTransverseCells];
+		double[][] phi2D = new double[sheetsPerBatch * numberOfComponents][totalTransverseCells];
+		double[] inverseLaplace = getInverseLaplace(transverseNumCells, s.grid.getLatticeSpacing());
+		DoubleFFTWrapper fft = DoubleFFTWrapper.getCached(transverseNumCells);
 		double[] phiFFT = new double[fft.getFFTArraySize()];
-		for (int i = 0; i < totalCells; i++) {
-			phiFFT[fft.getFFTArrayIndex(i)] = rho[i];
+
+		for (int z0 = 0; z0 < longitudinalNumCells; z0 += sheetsPerBatch) {
+			int sheets = Math.min(sheetsPerBatch, longitudinalNumCells - z0);
+
+			// Prepare 2D charge densities of the sheets and color components of the batch.
+			for (int b = 0; b < sheets; b++) {
+				for (int i = 0; i < totalTransverseCells; i++) {
+					int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
+					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z0 + b);
+					sheetIndices[b][i] = s.grid.getCellIndex(gridPos);
+					AlgebraElement rho = chargeDensity.getChargeDensity(sheetIndices[b][i]);
+					for (int c = 0; c < numberOfComponents; c++) {
+						rho2D[b * numberOfComponents + c][i] = rho.get(c);
+					}
+				}
+			}
+
+			// Solve Poisson equation
+			solvePoisson2D(rho2D, phi2D, sheets * numberOfComponents, inverseLaplace, fft, phiFFT);
+
+			// Put result into phi0.
+			for (int b = 0; b < sheets; b++) {
+				for (int i = 0; i < totalTransverseCells; i++) {
+					AlgebraElement phi = phi0[sheetIndices[b][i]];
+					for (int c = 0; c < numberOfComponents; c++) {
+						phi.set(c, phi2D[b * numberOfComponents + c][i]);
+					}
+				}
+			}
 		}
-		fft.complexForward(phiFFT);
+		return phi0;
+	}
 
-		phiFFT[0] = 0.0;
-		phiFFT[1] = 0.0;
+	/**
+	 * Inverse of the lattice Laplace operator in transverse momentum space. The zero mode is removed.
+	 */
+	private static double[] getInverseLaplace(int[] transNumCells, double as) {
+		int totalCells = transNumCells[0] * transNumCells[1];
+		double[] inverseLaplace = new double[totalCells];
 		for (int i = 1; i < totalCells; i++) {
 			double kTeff2 = computeEffectiveTransverseMomentumSquared(i, transNumCells, as);
-			phiFFT[fft.getFFTArrayIndex(i)]   *= 1.0 / kTeff2;
-			phiFFT[fft.getFFTArrayIndex(i)+1] *= 1.0 / kTeff2;
+			inverseLaplace[i] = 1.0 / kTeff2;
 		}
-		fft.complexInverse(phiFFT, true);
+		return inverseLaplace;
+	}
 
-		double[] phi = new double[totalCells];
-		for (int i = 0; i < totalCells; i++) {
-			phi[i] = phiFFT[fft.getFFTArrayIndex(i)];
-		}
+	/**
+	 * Solves the 2D transverse Poisson equation for the first count charge densities and writes the potentials into
+	 * the given arrays. Two densities are packed into a single complex transform.
+	 *
+	 * @param rho				2D charge densities
+	 * @param phi				2D potentials
+	 * @param count				number of charge densities
+	 * @param inverseLaplace	inverse Laplace kernel (see {@link #getInverseLaplace(int[], double)})
+	 * @param fft				FFT wrapper for the transverse grid size
+	 * @param phiFFT			work array of size {@link DoubleFFTWrapper#getFFTArraySize()}
+	 */
+	private static void solvePoisson2D(double[][] rho, double[][] phi, int count, double[] inverseLaplace,
+									   DoubleFFTWrapper fft, double[] phiFFT) {
+		int totalCells = inverseLaplace.length;
+		for (int n = 0; n < count; n += 2) {
+			double[] rhoRe = rho[n];
+			double[] rhoIm = (n + 1 < count) ? rho[n + 1] : null;
 
-		return phi;
+			for (int i = 0; i < totalCells; i++) {
+				phiFFT[fft.getFFTArrayIndex(i)] = rhoRe[i];
+				phiFFT[fft.getFFTArrayIndex(i)+1] = (rhoIm != null) ? rhoIm[i] : 0.0;
+			}
+			fft.complexForward(phiFFT);
+
+			phiFFT[0] = 0.0;
+			phiFFT[1] = 0.0;
+			for (int i = 1; i < totalCells; i++) {
+				phiFFT[fft.getFFTArrayIndex(i)]   *= inverseLaplace[i];
+				phiFFT[fft.getFFTArrayIndex(i)+1] *= inverseLaplace[i];
+			}
+			fft.complexInverse(phiFFT, true);
+
+			for (int i = 0; i < totalCells; i++) {
+				phi[n][i] = phiFFT[fft.getFFTArrayIndex(i)];
+			}
+			if (rhoIm != null) {
+				for (int i = 0; i < totalCells; i++) {
+					phi[n + 1][i] = phiFFT[fft.getFFTArrayIndex(i)+1];
+				}
+			}
+		}
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package org.openpixi.pixi.physics.initial.CGC;
 
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.GroupElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.fields.NewLCPoissonSolver;
 import org.openpixi.pixi.physics.fields.currentgenerators.ICurrentGenerator;
@@ -111,13 +112,23 @@ public class LightConeNGPParticleCreator implements IParticleCreator {
 		for (int i = 0; i < totalTransversalCells; i++) {
 			longitudinalParticleList.add(new ArrayList<CGCParticle>());
 		}
-		// Traverse through charge density and add particles by sampling the charge distribution
+		// Velocity, acceleration and initial link are shared by all particles, see CGCParticle.
+		double[] particleVelocity = new double[s.getNumberOfDimensions()];
+		particleVelocity[direction] = 1.0 * orientation;	// particle velocity at t = -dt/2.
+		double[] particleAcceleration = new double[s.getNumberOfDimensions()];
+		GroupElement identity = s.grid.getElementFactory().groupIdentity();
+
+		// Traverse through charge density and add particles by sampling the charge distribution. All particles of a
+		// cell take their charge from the cell itself (NGP), so cells without charge are skipped.
 		double t0 = 0.0;	// Particles should be initialized at t = 0 and t = dt.
 		double FIX_ROUND_ERRORS = 10E-12 * as;
 		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			if (gaussConstraint[i].square() == 0.0) {
+				continue;
+			}
+			int[] gridPos = s.grid.getCellPos(i);
 			for (int j = 0; j < particlesPerCell; j++) {
 				double x = (1.0 * j - particlesPerLink/2) / (particlesPerLink);
-				int[] gridPos = s.grid.getCellPos(i);
 				double dz = x * as;
 
 				// Particle position
@@ -135,25 +146,9 @@ public class LightConeNGPParticleCreator implements IParticleCreator {
 
 				AlgebraElement charge = this.interpolateChargeFromGrid(s, particlePosition0).mult(1.0 / particlesPerLink);
 
-
-				// Particle velocity
-				double[] particleVelocity = new double[gridPos.length];
-				for (int k = 0; k < gridPos.length; k++) {
-					if(k == direction) {
-						particleVelocity[k] = 1.0 * orientation;
-					} else {
-						particleVelocity[k] = 0.0;
-					}
-				}
-
-				CGCParticle p = new CGCParticle(s.getNumberOfDimensions(), s.getNumberOfColors(), direction);
-				p.pos0 = particlePosition0; // position at t = 0
-				p.pos1 = particlePosition1; // position at t = dt (optional)
-				p.vel = particleVelocity;   // particle velocity at t = -dt/2.
-				p.Q0 = charge;              // charge at t = 0
-				p.Q1 = charge.copy();       // charge at t = dt, assume that there is no parallel transport initially (also optional).
-
 				if(charge.square() > cutoffCharge) {
+					CGCParticle p = new CGCParticle(direction, particlePosition0, particlePosition1,
+							particleVelocity, particleAcceleration, charge, identity);
 					s.particles.add(p);
 
 					// Add to extra particle array for charge refinement.
@@ -108,14 +108,21 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 		law at the boundaries of the regions, but these errors are (supposed to be) negligible.
 		 */
 
+		/*
+		Super particles count lattice indices with the longitudinal coordinate as the slowest index, see
+		CGCSuperParticle.getCellIndex(). For the x-direction this is the cell index of the grid.
+		 */
+		int[] numCells = s.grid.getNumCells();
+		int totalNumberOfCells = s.grid.getTotalNumberOfCells();
+
 		// Find max charges in transverse planes for each longitudinal coordinate and global charge maximum.
-		int lnum = s.grid.getNumCells(0);
+		int lnum = s.grid.getNumCells(direction);
 		double[] maxCharges = new double[lnum];
 		double globalMax = 0.0;
 		for (int z = 0; z < lnum; z++) {
 			double max = 0.0;
 			for (int j = 0; j < totalTransversalCells; j++) {
-				int index = z * totalTransversalCells + j;
+				int index = CGCSuperParticle.getCellIndex(z * totalTransversalCells + j, direction, numCells);
 				double charge = Math.sqrt(gaussConstraint[index].square());
 				if (max < charge) {
 					max = charge;
@@ -181,6 +188,7 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 			for (int k = 0; k < particlesPerCell; k++) {
 				if (j < nl) {
 					superParticles[particlesPerCell * j + k] = new CGCSuperParticle(orientation,
+							direction,
 							pl,
 							indexOffset,
 							totalTransversalCells,
@@ -188,6 +196,7 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 							particlesPerCell);
 				} else {
 					superParticles[particlesPerCell * j + k] = new CGCSuperParticle(orientation,
+							direction,
 							ps,
 							indexOffset,
 							totalTransversalCells,
@@ -202,8 +211,8 @@ public class LightConeNGPSuperParticleCreator implements IParticleCreator {
 			for (int i = 0; i < maxParticleNum; i++) {
 				int index = indexOffset + i;
 				for (int k = 0; k < particlesPerCell; k++) {
-					int ngp = (k < particlesPerCell / 2) ? index : s.grid.shift(index, 0, 1);
-					AlgebraElement charge = gaussConstraint[ngp].copy();
+					int ngp = (k < particlesPerCell / 2) ? index : (index + totalTransversalCells) % totalNumberOfCells;
+					AlgebraElement charge = gaussConstraint[CGCSuperParticle.getCellIndex(ngp, direction, numCells)].copy();
 					charge.multAssign(1.0 / particlesPerCell);
 					superParticles[j * particlesPerCell + k].Q[i] = charge;
 
@@ -48,41 +48,9 @@ public class LightConePoissonSolver implements ICGCPoissonSolver {
 		int longitudinalNumCells = s.grid.getNumCells(direction);
 		int[] transverseNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
 		int totalTransverseCells = GridFunctions.getTotalNumberOfCells(transverseNumCells);
-		int numberOfColors = s.getNumberOfColors();
-		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
 
 		// Solve for phi at t = - at/2 'sheet by sheet'
-		phi0 = new AlgebraElement[s.grid.getTotalNumberOfCells()];
-		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-			phi0[i] = s.grid.getElementFactory().algebraZero();
-		}
-
-		for (int z = 0; z < longitudinalNumCells; z++) {
-			for (int c = 0; c < numberOfComponents; c++) {
-				// Prepare 2D charge density.
-				double[] rho2D = new double[totalTransverseCells];
-				for (int i = 0; i < totalTransverseCells; i++) {
-					int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
-					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
-					int index = s.grid.getCellIndex(gridPos);
-
-					rho2D[i] = chargeDensity.getChargeDensity(index).get(c);
-				}
-
-				// Solve Poisson equation
-				double[] phi2D = FourierFunctions.solvePoisson2D(rho2D, transverseNumCells, s.grid.getLatticeSpacing());
-
-				// Put result into phi0.
-				for (int i = 0; i < totalTransverseCells; i++) {
-					int[] transGridPos = GridFunctions.getCellPos(i, transverseNumCells);
-					int[] gridPos = GridFunctions.insertGridPos(transGridPos, direction, z);
-					int index = s.grid.getCellIndex(gridPos);
-
-					// Already include gauge factor for Wilson line here.
-					phi0[index].set(c, phi2D[i]);
-				}
-			}
-		}
+		phi0 = FourierFunctions.solvePoissonSheetBySheet(s, chargeDensity);
 
 		// Compute V at t = - at/2 by constructing the Wilson line from gauge links.
 		V = new GroupElement[s.grid.getTotalNumberOfCells()];
@@ -141,7 +141,7 @@ public class MVModel implements IInitialChargeDensity {
 			int lmin = (int) Math.floor(zmin / s.grid.getLatticeSpacing());
 			int lmax = (int) Math.ceil(zmax / s.grid.getLatticeSpacing());
 			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				int longPos = s.grid.getCellPos(i)[direction];
+				int longPos = s.grid.getCellPos(i, direction);
 				if (lmin < longPos && longPos < lmax && s.grid.isActive(i)) {
 					this.rho[i].set(j, tempRho[i]);
 				}
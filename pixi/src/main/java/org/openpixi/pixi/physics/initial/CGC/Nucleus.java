@@ -2,8 +2,12 @@ package org.openpixi.pixi.physics.initial.CGC;
 
 import org.apache.commons.math3.analysis.function.Gaussian;
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
 import org.openpixi.pixi.physics.util.GridFunctions;
+import org.openpixi.pixi.physics.util.InitialConditionsCache;
+import org.openpixi.pixi.physics.util.RandomStreams;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -164,11 +168,9 @@ public class Nucleus implements IInitialChargeDensity {
 		this.quarks = new ArrayList<GaussianQuarkCharge>();
 	}
 
-	public void initialize(Simulation s) {
+	public void initialize(final Simulation s) {
 		int totalCells = s.grid.getTotalNumberOfCells();
-		int numberOfColors = s.getNumberOfColors();
-		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
-		double as = s.grid.getLatticeSpacing();
+		final double as = s.grid.getLatticeSpacing();
 		int[] transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
 		int totalTransCells = GridFunctions.getTotalNumberOfCells(transNumCells);
 		int longitudinalNumCells = s.grid.getNumCells(direction);
@@ -178,7 +180,13 @@ public class Nucleus implements IInitialChargeDensity {
 			this.rho[i] = s.grid.getElementFactory().algebraZero();
 		}
 
-		double[] colorChargeWidths = new double[totalCells];
+		// Load the charge density from the cache if it has been calculated before.
+		String key = getCacheKey(s);
+		if (InitialConditionsCache.load(s, key, rho)) {
+			return;
+		}
+
+		final double[] colorChargeWidths = new double[totalCells];
 
 		Random rand = new Random();
 		if(useSeed) {
@@ -217,10 +225,7 @@ public class Nucleus implements IInitialChargeDensity {
 		}
 
 
-		int numOverlappingQuarks = 1;
-		if(!useConstituentQuarks) {
-			numOverlappingQuarks = 3;
-		}
+		final int numOverlappingQuarks = useConstituentQuarks ? 1 : 3;
 
 		// Iterate over nucleons, create a quark distribution inside of them and add them to the quark array.
 		double ratio = Math.sqrt(2*Math.log(10))*longitudinalWidth/transversalRadius; //Ratio of the longitudinal width to the transverse radius.
@@ -246,52 +251,35 @@ public class Nucleus implements IInitialChargeDensity {
 			}
 		}
 
-		double norm = 0.0;
+		// Compute the widths of the color charge distribution. The cells are distributed among the threads and the
+		// quarks are summed up in the same order in every cell.
+		final int[] numCells = s.grid.getNumCells();
+		final Gaussian[] shapes = new Gaussian[quarks.size()];
 		for (int i = 0; i < quarks.size(); i++) {
-			GaussianQuarkCharge qc = quarks.get(i);
-			for (int k = 0; k < totalCells; k++) {
-				double distance = getDistance(qc.location, qc.longLocation, GridFunctions.getCellPos(k, s.grid.getNumCells()), as);
-				colorChargeWidths[k] += Math.abs(shapeFunction(distance, qc.width)/numOverlappingQuarks);
-				//norm += Math.abs(shapeFunction(distance, qc.width) / Math.pow(qc.width * Math.sqrt(2 * Math.PI), s.getNumberOfDimensions())/numOverlappingQuarks);
-			}
+			shapes[i] = new Gaussian(0.0, quarks.get(i).width);
 		}
-		/*for (int k = 0; k < totalCells; k++) {
-			colorChargeWidths[k] /= norm;
-		}*/
-
-		for (int j = 0; j < numberOfComponents; j++) {
-			double[] tempRho = new double[s.grid.getTotalNumberOfCells()];
-
-			// Place random charges on the grid (with longitudinal randomness). Takes care of the overall longitudinal profile!!!
-			//Gaussian gauss = new Gaussian(location, longitudinalWidth);
-			for (int i = 0; i < totalTransCells; i++) {
-				int[] transPos = GridFunctions.getCellPos(i, transNumCells);
-				for (int k = 0; k < longitudinalNumCells; k++) {
-					int[] gridPos = GridFunctions.insertGridPos(transPos, direction, k);
-					double longPos = gridPos[direction] * as;
-					int index = s.grid.getCellIndex(gridPos);
-					//double profile = Math.sqrt(gauss.value(longPos));
-					double charge = rand.nextGaussian() * colorChargeWidths[index] * mu * s.getCouplingConstant() / Math.pow(as, 3/2);
-
-					tempRho[index] = charge;
+		s.grid.getCellIterator().execute(s.grid, new CellAction() {
+			public void execute(Grid grid, int k) {
+				int[] position = GridFunctions.getCellPos(k, numCells);
+				double width = 0.0;
+				for (int i = 0; i < quarks.size(); i++) {
+					GaussianQuarkCharge qc = quarks.get(i);
+					double distance = getDistance(qc.location, qc.longLocation, position, as);
+					width += Math.abs(shapes[i].value(distance) / numOverlappingQuarks);
 				}
+				colorChargeWidths[k] = width;
 			}
+		});
 
-			// Apply soft momentum regulation in Fourier space.
-			tempRho = FourierFunctions.regulateChargeDensityGaussian(tempRho, s.grid.getNumCells(),
-					ultravioletCutoffTransverse, longitudinalCoherenceLength, infraredCoefficient, direction,
-					s.grid.getLatticeSpacing());
-
-			// Apply hard momentum regulation in Fourier space.
-			/*tempRho = FourierFunctions.regulateChargeDensityHard(tempRho, s.grid.getNumCells(),
-					ultravioletCutoffTransverse, ultravioletCutoffLongitudinal, infraredCoefficient, direction,
-					s.grid.getLatticeSpacing());*/
-
-			// Put everything into rho array.
-			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				this.rho[i].set(j, tempRho[i]);
+		// Sample and regulate the color components concurrently.
+		ColorChargeSampling.sampleComponents(s, rho, useSeed, seed, new ColorChargeSampling.ComponentSampler() {
+			public double[] sampleComponent(int j, RandomStreams streams) {
+				return ColorChargeSampling.sampleIncoherentComponent(s, j, streams, direction, colorChargeWidths, mu,
+						ultravioletCutoffTransverse, longitudinalCoherenceLength, infraredCoefficient);
 			}
-		}
+		});
+
+		InitialConditionsCache.store(s, key, rho);
 
 		// Done!
 	}
@@ -354,9 +342,14 @@ public class Nucleus implements IInitialChargeDensity {
 		return Math.sqrt(distance);
 	}
 
-	private double shapeFunction(double z, double width) {
-		Gaussian gauss = new Gaussian(0.0, width);
-		return gauss.value(z);
+	/**
+	 * Returns the key of the charge density in the initial conditions cache or null if it should not be cached.
+	 */
+	private String getCacheKey(Simulation s) {
+		return InitialConditionsCache.getKey(s, useSeed, "Nucleus", direction, location, locationTransverse,
+				longitudinalWidth, mu, seed, numberOfNucleons, useConstituentQuarks, transversalRadius, surfaceThickness,
+				nucleonWidth, partonWidth, ultravioletCutoffTransverse, longitudinalCoherenceLength,
+				infraredCoefficient);
 	}
 
 	private double[] getWoodsSaxonMonteCarlo(Random rand, double range) {
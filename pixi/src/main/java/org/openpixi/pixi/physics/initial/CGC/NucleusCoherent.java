@@ -4,6 +4,8 @@ import org.apache.commons.math3.analysis.function.Gaussian;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.util.GridFunctions;
+import org.openpixi.pixi.physics.util.InitialConditionsCache;
+import org.openpixi.pixi.physics.util.RandomStreams;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -156,10 +158,8 @@ public class NucleusCoherent implements IInitialChargeDensity {
 		this.quarks = new ArrayList<GaussianQuarkCharge>();
 	}
 
-	public void initialize(Simulation s) {
+	public void initialize(final Simulation s) {
 		int totalCells = s.grid.getTotalNumberOfCells();
-		int numberOfColors = s.getNumberOfColors();
-		int numberOfComponents = (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
 		double as = s.grid.getLatticeSpacing();
 		int[] transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
 		int totalTransCells = GridFunctions.getTotalNumberOfCells(transNumCells);
@@ -170,7 +170,13 @@ public class NucleusCoherent implements IInitialChargeDensity {
 			this.rho[i] = s.grid.getElementFactory().algebraZero();
 		}
 
-		double[] transversalWidths = new double[totalTransCells];
+		// Load the charge density from the cache if it has been calculated before.
+		String key = getCacheKey(s);
+		if (InitialConditionsCache.load(s, key, rho)) {
+			return;
+		}
+
+		final double[] transversalWidths = new double[totalTransCells];
 
 		Random rand = new Random();
 		if(useSeed) {
@@ -234,52 +240,23 @@ public class NucleusCoherent implements IInitialChargeDensity {
 			}
 		}
 
-		double norm = 0.0;
 		for (int i = 0; i < quarks.size(); i++) {
 			GaussianQuarkCharge qc = quarks.get(i);
+			Gaussian shape = new Gaussian(0.0, qc.width);
 			for (int k = 0; k < totalTransCells; k++) {
 				double distance = getDistance(qc.location, GridFunctions.getCellPos(k, transNumCells), as);
-				transversalWidths[k] += Math.abs(shapeFunction(distance, qc.width)/numOverlappingQuarks);
-				//norm += Math.abs(shapeFunction(distance, qc.width) / Math.pow(qc.width * Math.sqrt(2 * Math.PI), transNumCells.length)/numOverlappingQuarks);
+				transversalWidths[k] += Math.abs(shape.value(distance)/numOverlappingQuarks);
 			}
 		}
-		/*for (int k = 0; k < totalTransCells; k++) {
-			transversalWidths[k] /= norm;
-		}*/
-
-		for (int j = 0; j < numberOfComponents; j++) {
-			double[] tempRho = new double[s.grid.getTotalNumberOfCells()];
-
-			// Place random charges on the grid (with coherent longitudinal structure).
-			for (int i = 0; i < totalTransCells; i++) {
-				double charge = rand.nextGaussian() * transversalWidths[i] * mu * s.getCouplingConstant() / as;
-				int[] transPos = GridFunctions.getCellPos(i, transNumCells);
-				for (int k = 0; k < longitudinalNumCells; k++) {
-					int[] gridPos = GridFunctions.insertGridPos(transPos, direction, k);
-					int index = s.grid.getCellIndex(gridPos);
-					tempRho[index] = charge;
-				}
-			}
 
-			// Apply hard momentum regulation in Fourier space.
-			tempRho = FourierFunctions.regulateChargeDensityHard(tempRho, s.grid.getNumCells(),
-					ultravioletCutoffTransverse, ultravioletCutoffLongitudinal, infraredCoefficient, direction,
-					s.grid.getLatticeSpacing());
-
-			// Apply longitudinal profile.
-			Gaussian gauss = new Gaussian(location, longitudinalWidth);
-			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				int[] pos = s.grid.getCellPos(i);
-				double longPos = pos[direction] * s.grid.getLatticeSpacing();
-				double profile = gauss.value(longPos);
-				tempRho[i] *= profile;
+		// Sample and regulate the color components concurrently.
+		ColorChargeSampling.sampleComponents(s, rho, useSeed, seed, new ColorChargeSampling.ComponentSampler() {
+			public double[] sampleComponent(int j, RandomStreams streams) {
+				return sampleCoherentComponent(s, j, streams, transversalWidths);
 			}
+		});
 
-			// Put everything into rho array.
-			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
-				this.rho[i].set(j, tempRho[i]);
-			}
-		}
+		InitialConditionsCache.store(s, key, rho);
 
 		// Done!
 	}
@@ -330,9 +307,52 @@ public class NucleusCoherent implements IInitialChargeDensity {
 		return Math.sqrt(distance);
 	}
 
-	private double shapeFunction(double z, double width) {
-		Gaussian gauss = new Gaussian(0.0, width);
-		return gauss.value(z);
+	/**
+	 * Places random charges of a single color component on the grid (with coherent longitudinal structure), regulates
+	 * them and applies the longitudinal profile.
+	 */
+	private double[] sampleCoherentComponent(Simulation s, int j, RandomStreams streams, double[] transversalWidths) {
+		double as = s.grid.getLatticeSpacing();
+		int[] transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		int totalTransCells = GridFunctions.getTotalNumberOfCells(transNumCells);
+		int longitudinalNumCells = s.grid.getNumCells(direction);
+		double[] tempRho = new double[s.grid.getTotalNumberOfCells()];
+
+		for (int i = 0; i < totalTransCells; i++) {
+			double charge = streams.getStream(j, i).nextGaussian() * transversalWidths[i] * mu * s.getCouplingConstant() / as;
+			int[] transPos = GridFunctions.getCellPos(i, transNumCells);
+			for (int k = 0; k < longitudinalNumCells; k++) {
+				int[] gridPos = GridFunctions.insertGridPos(transPos, direction, k);
+				int index = s.grid.getCellIndex(gridPos);
+				tempRho[index] = charge;
+			}
+		}
+
+		// Apply hard momentum regulation in Fourier space.
+		tempRho = FourierFunctions.regulateChargeDensityHard(tempRho, s.grid.getNumCells(),
+				ultravioletCutoffTransverse, ultravioletCutoffLongitudinal, infraredCoefficient, direction,
+				s.grid.getLatticeSpacing());
+
+		// Apply longitudinal profile.
+		Gaussian gauss = new Gaussian(location, longitudinalWidth);
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			int[] pos = s.grid.getCellPos(i);
+			double longPos = pos[direction] * s.grid.getLatticeSpacing();
+			double profile = gauss.value(longPos);
+			tempRho[i] *= profile;
+		}
+
+		return tempRho;
+	}
+
+	/**
+	 * Returns the key of the charge density in the initial conditions cache or null if it should not be cached.
+	 */
+	private String getCacheKey(Simulation s) {
+		return InitialConditionsCache.getKey(s, useSeed, "NucleusCoherent", direction, location, locationTransverse,
+				longitudinalWidth, mu, seed, numberOfNucleons, useConstituentQuarks, transversalRadius,
+				surfaceThickness, nucleonWidth, partonWidth, ultravioletCutoffTransverse,
+				ultravioletCutoffLongitudinal, infraredCoefficient);
 	}
 
 	private double[] getWoodsSaxonMonteCarlo(Random rand, double range) {
@@ -83,12 +83,14 @@ public class WilsonLineObservables {
 			counter[i] = 0;
 		}
 
+		int[] x = new int[numCells.length];
+		int[] y = new int[numCells.length];
+		double[] dxy = new double[2];
 		for (int i = 0; i < totalCells; i++) {
 			GroupElement V1 = V[i];
-			int[] x = GridFunctions.getCellPos(i, numCells);
+			GridFunctions.getCellPos(i, numCells, x);
 			for (int j = 0; j < totalCells; j++) {
-				int[] y = GridFunctions.getCellPos(j, numCells);
-				double[] dxy = new double[2];
+				GridFunctions.getCellPos(j, numCells, y);
 				double dist = 0.0;
 				for (int k = 0; k < 2; k++) {
 					dxy[k] = Math.abs(x[k] - y[k]);
@@ -1,8 +1,10 @@
 package org.openpixi.pixi.physics.measurements;
 
 import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ScratchElements;
 import org.openpixi.pixi.physics.grid.Grid;
-import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.parallel.cellaccess.CellArrayReducer;
+import org.openpixi.pixi.parallel.cellaccess.CellReducer;
 
 
 public class FieldMeasurements {
@@ -24,58 +26,55 @@ public class FieldMeasurements {
 	}
 
 	public double calculateEsquared(Grid grid) {
-		Esquared.reset();
-		grid.getCellIterator().execute(grid, Esquared);
+		Esquared.calculate(grid);
         return Esquared.getSum(grid);
 	}
 	
 	public double calculateBsquared(Grid grid) {
-		Bsquared.reset();
-		grid.getCellIterator().execute(grid, Bsquared);
+		Bsquared.calculate(grid);
         return Bsquared.getSum(grid);
 	}
 	
 	public double calculateEsquared(Grid grid, int dir) {
-		Esquared.reset();
-		grid.getCellIterator().execute(grid, Esquared);
+		Esquared.calculate(grid);
         return Esquared.getSum(grid, dir);
 	}
 	
 	public double calculateBsquared(Grid grid, int dir) {
-		Bsquared.reset();
-		grid.getCellIterator().execute(grid, Bsquared);
+		Bsquared.calculate(grid);
         return Bsquared.getSum(grid, dir);
 	}
 	
 	public double calculateGaussConstraint(Grid grid) {
-		GaussConstraint.reset();
-		grid.getCellIterator().execute(grid, GaussConstraint);
+		GaussConstraint.calculate(grid);
         return GaussConstraint.getSum(grid);
 	}
 
 	public double calculateTotalCharge(Grid grid) {
-		totalCharge.reset(grid);
-		grid.getCellIterator().execute(grid, totalCharge);
+		totalCharge.calculate(grid);
 		return totalCharge.getSum(grid);
 	}
 
 	public double calculateTotalChargeSquared(Grid grid) {
-		totalChargeSquared.reset(grid);
-		grid.getCellIterator().execute(grid, totalChargeSquared);
+		totalChargeSquared.calculate(grid);
 		return totalChargeSquared.getSum(grid);
 	}
 
-	private class EFieldSquared implements CellAction {
+	private class EFieldSquared implements CellArrayReducer {
 
 		private double[] sum;
 
-        public void reset() {
-        	sum = new double[3];//TODO Make this method d-dimensional!!
+        public void calculate(Grid grid) {
+        	sum = grid.getCellIterator().reduce(grid, this, grid.getNumberOfDimensions());
         }
         
         public double getSum(Grid grid) {
 			double norm = Math.pow(grid.getLatticeSpacing()*grid.getGaugeCoupling(), 2) * grid.getTotalNumberOfCells();
-			return (sum[0]+sum[1]+sum[2]) / norm;
+			double total = 0.0;
+			for (int i = 0; i < sum.length; i++) {
+				total += sum[i];
+			}
+			return total / norm;
         }
         
         public double getSum(Grid grid, int dir) {
@@ -83,35 +82,33 @@ public class FieldMeasurements {
         	return sum[dir] / norm;
         }
 
-        public void execute(Grid grid, int index) {
+        public void reduce(Grid grid, int index, double[] sum) {
 			if(grid.isEvaluatable(index)) {
-				int numDir = grid.getNumberOfDimensions();
-				double[] res = new double[numDir];
-				for (int i = 0; i < numDir; i++) {
-					res[i] += grid.getE(index, i).square();
+				for (int i = 0; i < sum.length; i++) {
+					sum[i] += grid.getEsquared(index, i);
 					//res += grid.getEsquaredFromLinks(coor, i);
 				}
-				synchronized (this) {
-					for (int i = 0; i < numDir; i++) {
-						sum[i] += res[i];    // Synchronisierte Summenbildung
-					}
-				}
 			}
 		}
 	}
 
-	private class BFieldSquared implements CellAction {
+	private class BFieldSquared implements CellArrayReducer {
 
 		private double[] sum;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(2, 1);
 
-        public void reset() {
-        	sum = new double[3];
+        public void calculate(Grid grid) {
+        	sum = grid.getCellIterator().reduce(grid, this, grid.getNumberOfDimensions());
         }
         
         public double getSum(Grid grid)
 		{
 			double norm = Math.pow(grid.getLatticeSpacing()*grid.getGaugeCoupling(), 2) * grid.getTotalNumberOfCells();
-			return (sum[0]+sum[1]+sum[2]) / norm;
+			double total = 0.0;
+			for (int i = 0; i < sum.length; i++) {
+				total += sum[i];
+			}
+			return total / norm;
         }
 
 		public double getSum(Grid grid, int dir) {
@@ -119,31 +116,29 @@ public class FieldMeasurements {
 			return sum[dir] / norm;
 		}
         
-        public void execute(Grid grid, int index) {
+        public void reduce(Grid grid, int index, double[] sum) {
 			if(grid.isEvaluatable(index)) {
-				int numDir = grid.getNumberOfDimensions();
-				double[] res = new double[numDir];
-				for (int i = 0; i < numDir; i++) {
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				AlgebraElement B = s.algebra[0];
+				for (int i = 0; i < sum.length; i++) {
 					//res += grid.getB(coor, i).square();
 					// Averaging B(-dt/2) and B(dt/2) to approximate B(0).
-					res[i] += 0.5 * (grid.getBsquaredFromLinks(index, i, 0) + grid.getBsquaredFromLinks(index, i, 1));
-				}
-
-				synchronized (this) {
-					for (int i = 0; i < numDir; i++) {
-						sum[i] += res[i];    // Synchronisierte Summenbildung
-					}
+					grid.getBInto(index, i, 0, B, s.group[0], s.group[1]);
+					double b0 = B.square();
+					grid.getBInto(index, i, 1, B, s.group[0], s.group[1]);
+					sum[i] += 0.5 * (b0 + B.square());
 				}
 			}
 		}
 	}
 	
-	private class GaussLaw implements CellAction {
+	private class GaussLaw implements CellReducer {
 
 		private double sum;
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 2);
 
-        public void reset() {
-        	sum = 0.0;
+        public void calculate(Grid grid) {
+        	sum = grid.getCellIterator().reduce(grid, this);
         }
         
         public double getSum(Grid grid) {
@@ -151,22 +146,26 @@ public class FieldMeasurements {
 			return sum / norm;
         }
         
-        public void execute(Grid grid, int index) {
+        public double reduce(Grid grid, int index) {
 			if(grid.isEvaluatable(index)) {
-				double result = grid.getGaussConstraintSquared(index);
-				synchronized (this) {
-					sum += result;   // Synchronisierte Summenbildung
-				}
+				ScratchElements s = scratch.get(grid.getElementFactory());
+				grid.getGaussConstraintInto(index, s.algebra[0], s.algebra[1], s.group[0]);
+				return s.algebra[0].square();
 			}
+			return 0.0;
 		}
 	}
 
-	private class TotalCharge implements CellAction  {
+	private class TotalCharge implements CellArrayReducer  {
 
 		private AlgebraElement charge;
 
-		public void reset(Grid grid) {
+		public void calculate(Grid grid) {
 			charge = grid.getElementFactory().algebraZero();
+			double[] sum = grid.getCellIterator().reduce(grid, this, charge.getAdjointDimension());
+			for (int c = 0; c < sum.length; c++) {
+				charge.set(c, sum[c]);
+			}
 		}
 
 		public double getSum(Grid grid) {
@@ -175,21 +174,22 @@ public class FieldMeasurements {
 			return Math.sqrt(charge.square()) / latticeUnitsNorm;
 		}
 
-		public void execute(Grid grid, int index) {
+		public void reduce(Grid grid, int index, double[] sum) {
 			if(grid.isEvaluatable(index)) {
-				synchronized (this) {
-					charge.addAssign(grid.getRho(index));   // Synchronisierte Summenbildung
+				AlgebraElement rho = grid.getRho(index);
+				for (int c = 0; c < sum.length; c++) {
+					sum[c] += rho.get(c);
 				}
 			}
 		}
 	}
 
-	private class TotalChargeSquared implements CellAction  {
+	private class TotalChargeSquared implements CellReducer  {
 
 		private double charge;
 
-		public void reset(Grid grid) {
-			charge = 0.0;
+		public void calculate(Grid grid) {
+			charge = grid.getCellIterator().reduce(grid, this);
 		}
 
 		public double getSum(Grid grid) {
@@ -198,12 +198,11 @@ public class FieldMeasurements {
 			return Math.sqrt(charge) / latticeUnitsNorm;
 		}
 
-		public void execute(Grid grid, int index) {
+		public double reduce(Grid grid, int index) {
 			if(grid.isEvaluatable(index)) {
-				synchronized (this) {
-					charge += grid.getRho(index).square();   // Synchronisierte Summenbildung
-				}
+				return grid.getRho(index).square();
 			}
+			return 0.0;
 		}
 	}
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.openpixi.pixi.physics.movement.boundary;
 
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.physics.util.DoubleBox;
 
@@ -25,6 +26,10 @@ public class PeriodicParticleBoundaryConditions implements IParticleBoundaryCond
 
     public void applyOnParticle(IParticle particle)
     {
+        if (particle instanceof CGCParticleArray) {
+            applyOnParticleArray((CGCParticleArray) particle);
+            return;
+        }
         for(int i = 0; i < numberOfDimensions; i++)
         {
             double positionShift = (particle.getPosition(i) + simulationBox.getSize(i)) % simulationBox.getSize(i) - particle.getPosition(i);
@@ -40,4 +45,22 @@ public class PeriodicParticleBoundaryConditions implements IParticleBoundaryCond
             particle.addPrevPosition(i, positionShift);
         }
     }
+
+    /**
+     * Applies the boundary conditions to all particles of a block.
+     */
+    private void applyOnParticleArray(CGCParticleArray P)
+    {
+        for(int i = 0; i < P.numberOfParticles; i++)
+        {
+            int offset = i * P.numberOfDimensions;
+            for(int d = 0; d < numberOfDimensions; d++)
+            {
+                double size = simulationBox.getSize(d);
+                double positionShift = (P.pos0[offset + d] + size) % size - P.pos0[offset + d];
+                P.pos0[offset + d] += positionShift;
+                P.pos1[offset + d] += positionShift;
+            }
+        }
+    }
 }
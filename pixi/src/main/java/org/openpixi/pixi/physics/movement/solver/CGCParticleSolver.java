@@ -3,6 +3,7 @@ package org.openpixi.pixi.physics.movement.solver;
 import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.physics.force.Force;
 import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 
 /**
@@ -13,6 +14,11 @@ import org.openpixi.pixi.physics.particles.IParticle;
 public class CGCParticleSolver implements ParticleSolver {
 
 	public void updatePosition(IParticle p, Force f, double dt) {
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			updatePositions(P, 0, P.numberOfParticles, dt);
+			return;
+		}
 		CGCParticle P = (CGCParticle) p;
 
 		for (int i = 0; i < P.pos0.length; i++) {
@@ -22,6 +28,11 @@ public class CGCParticleSolver implements ParticleSolver {
 
 
 	public void updateCharge(IParticle p, Force f, double dt) {
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			updateCharges(P, 0, P.numberOfParticles);
+			return;
+		}
 		CGCParticle P = (CGCParticle) p;
 		if(P.updateCharge) {
 			// Charge has to be parallel transported.
@@ -35,6 +46,46 @@ public class CGCParticleSolver implements ParticleSolver {
 		}
 	}
 
+	/**
+	 * Updates the positions of the particles [start, end) of a block.
+	 *
+	 * @param P     Block of particles
+	 * @param start First particle
+	 * @param end   Last particle (exclusive)
+	 * @param dt    Time step
+	 */
+	public void updatePositions(CGCParticleArray P, int start, int end, double dt) {
+		int numberOfDimensions = P.numberOfDimensions;
+		double[] pos0 = P.pos0;
+		double[] pos1 = P.pos1;
+		for (int i = start; i < end; i++) {
+			int offset = i * numberOfDimensions;
+			for (int d = 0; d < numberOfDimensions; d++) {
+				pos1[offset + d] = pos0[offset + d];
+			}
+			pos1[offset + P.direction[i]] += P.velocity[i] * dt;
+		}
+	}
+
+	/**
+	 * Updates the charges of the particles [start, end) of a block. The parallel transport has already been applied
+	 * by the interpolation (see {@link CGCParticleArray}), all other charges stay the same.
+	 *
+	 * @param P     Block of particles
+	 * @param start First particle
+	 * @param end   Last particle (exclusive)
+	 */
+	public void updateCharges(CGCParticleArray P, int start, int end) {
+		int numberOfComponents = P.numberOfComponents;
+		for (int i = start; i < end; i++) {
+			if (P.transported[i]) {
+				P.transported[i] = false;
+			} else {
+				System.arraycopy(P.Q0, i * numberOfComponents, P.Q1, i * numberOfComponents, numberOfComponents);
+			}
+		}
+	}
+
 	public void prepare(IParticle p, Force f, double step) {
 		// Not implemented.
 	}
@@ -1,5 +1,6 @@
 package org.openpixi.pixi.physics.particles;
 
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.ElementFactory;
 import org.openpixi.pixi.math.GroupElement;
 
@@ -20,6 +21,33 @@ public class CGCParticle extends YangMillsParticle {
 		this.updateCharge = true;
 	}
 
+	/**
+	 * Creates a compact particle for large numbers of particles of the same nucleus. The particles move with the same
+	 * velocity, so the velocity and acceleration arrays and the initial link are shared between them. These are only
+	 * read by the CGC particle solvers and interpolators (the link is replaced, never changed in place).
+	 *
+	 * @param direction     Direction of movement
+	 * @param pos0          Position at t = 0
+	 * @param pos1          Position at t = dt
+	 * @param vel           Shared velocity
+	 * @param acc           Shared acceleration (zero)
+	 * @param Q0            Charge at t = 0. Q1 is set to a copy.
+	 * @param U             Shared initial link (identity)
+	 */
+	public CGCParticle(int direction, double[] pos0, double[] pos1, double[] vel, double[] acc,
+					   AlgebraElement Q0, GroupElement U) {
+		this.numberOfDimensions = pos0.length;
+		this.direction = direction;
+		this.pos0 = pos0;
+		this.pos1 = pos1;
+		this.vel = vel;
+		this.acc = acc;
+		this.Q0 = Q0;
+		this.Q1 = Q0.copy();
+		this.U = U;
+		this.updateCharge = true;
+	}
+
 	public IParticle copy() {
 		CGCParticle p = new CGCParticle(this.numberOfDimensions, Q0.getNumberOfColors(), this.direction);
 		p.U = this.U.copy();
@@ -0,0 +1,421 @@
+package org.openpixi.pixi.physics.particles;
+
+import org.openpixi.pixi.math.AlgebraElement;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This particle class stores a block of CGC particles as a structure of arrays. Positions and charges of all particles
+ * are kept in flat arrays instead of one object (with its own arrays and algebra elements) per particle. A block is a
+ * single entry in the particle list of the simulation and is distributed to the threads like any other particle. The
+ * particle solver ({@link org.openpixi.pixi.physics.movement.solver.CGCParticleSolver}) and the interpolation
+ * ({@link org.openpixi.pixi.physics.grid.CGCParticleInterpolationNGP}) process the particles of a block with bulk
+ * kernels which work on index ranges.
+ * <br>
+ * Instead of storing the parallel transporter U of every particle, the interpolation applies the parallel transport to
+ * the charges directly and marks the particle as transported. The charge update only copies the charges of all other
+ * particles.
+ * <br>
+ * Single particles can be accessed through views (see {@link #getParticle(int)} and {@link #getViews(List)}), e.g.
+ * for the panels of the user interface.
+ */
+public class CGCParticleArray implements IParticle {
+
+	/**
+	 * Number of particles in the block.
+	 */
+	public int numberOfParticles;
+
+	/**
+	 * Number of dimensions of the particle positions.
+	 */
+	public int numberOfDimensions;
+
+	/**
+	 * Number of components of the charges (dimension of the adjoint representation).
+	 */
+	public int numberOfComponents;
+
+	/**
+	 * Number of colors of the charges.
+	 */
+	public int numberOfColors;
+
+	/**
+	 * Positions at t and t + dt. The coordinate d of particle i is stored at i * numberOfDimensions + d.
+	 */
+	public double[] pos0;
+	public double[] pos1;
+
+	/**
+	 * Direction of movement of the particles.
+	 */
+	public int[] direction;
+
+	/**
+	 * Velocity of the particles along their direction of movement.
+	 */
+	public double[] velocity;
+
+	/**
+	 * Charges at t and t + dt. The component c of particle i is stored at i * numberOfComponents + c.
+	 */
+	public double[] Q0;
+	public double[] Q1;
+
+	/**
+	 * Whether the charge Q1 of a particle has already been parallel transported in the current time step.
+	 */
+	public boolean[] transported;
+
+	public CGCParticleArray(int numberOfParticles, int numberOfDimensions, int numberOfColors) {
+		this.numberOfParticles = numberOfParticles;
+		this.numberOfDimensions = numberOfDimensions;
+		this.numberOfColors = numberOfColors;
+		this.numberOfComponents = numberOfColors * numberOfColors - 1;
+
+		pos0 = new double[numberOfParticles * numberOfDimensions];
+		pos1 = new double[numberOfParticles * numberOfDimensions];
+		direction = new int[numberOfParticles];
+		velocity = new double[numberOfParticles];
+		Q0 = new double[numberOfParticles * numberOfComponents];
+		Q1 = new double[numberOfParticles * numberOfComponents];
+		transported = new boolean[numberOfParticles];
+	}
+
+	/**
+	 * Copies a particle into the block. The particle must not have a pending parallel transport, i.e. its link U has
+	 * to be the identity (as it is directly after the initial conditions).
+	 *
+	 * @param i Index in the block
+	 * @param p Particle
+	 */
+	public void set(int i, CGCParticle p) {
+		for (int d = 0; d < numberOfDimensions; d++) {
+			pos0[i * numberOfDimensions + d] = p.pos0[d];
+			pos1[i * numberOfDimensions + d] = p.pos1[d];
+		}
+		direction[i] = p.direction;
+		velocity[i] = p.vel[p.direction];
+		for (int c = 0; c < numberOfComponents; c++) {
+			Q0[i * numberOfComponents + c] = p.Q0.get(c);
+			Q1[i * numberOfComponents + c] = p.Q1.get(c);
+		}
+		transported[i] = false;
+	}
+
+	/**
+	 * Reads the charge Q0 of a particle.
+	 */
+	public void readQ0(int i, AlgebraElement out) {
+		int offset = i * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			out.set(c, Q0[offset + c]);
+		}
+	}
+
+	/**
+	 * Reads the charge Q1 of a particle.
+	 */
+	public void readQ1(int i, AlgebraElement out) {
+		int offset = i * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			out.set(c, Q1[offset + c]);
+		}
+	}
+
+	/**
+	 * Sets the charge Q1 of a particle.
+	 */
+	public void writeQ1(int i, AlgebraElement charge) {
+		int offset = i * numberOfComponents;
+		for (int c = 0; c < numberOfComponents; c++) {
+			Q1[offset + c] = charge.get(c);
+		}
+	}
+
+	/**
+	 * Returns a view of a single particle of the block. Changes of the position of the view are written to the block.
+	 *
+	 * @param i Index in the block
+	 * @return  View of the particle
+	 */
+	public IParticle getParticle(int i) {
+		return new View(i);
+	}
+
+	/**
+	 * Packs all CGC particles of a list into blocks. Other particles are kept. The blocks are appended to the list.
+	 *
+	 * @param particles         List of particles
+	 * @param blockSize         Maximal number of particles per block
+	 * @param numberOfColors    Number of colors
+	 */
+	public static void pack(List<IParticle> particles, int blockSize, int numberOfColors) {
+		ArrayList<CGCParticle> cgcParticles = new ArrayList<CGCParticle>();
+		ArrayList<IParticle> otherParticles = new ArrayList<IParticle>();
+		for (IParticle p : particles) {
+			if (p instanceof CGCParticle) {
+				cgcParticles.add((CGCParticle) p);
+			} else {
+				otherParticles.add(p);
+			}
+		}
+		if (cgcParticles.isEmpty()) {
+			return;
+		}
+
+		particles.clear();
+		particles.addAll(otherParticles);
+		int numberOfDimensions = cgcParticles.get(0).getNumberOfDimensions();
+		for (int start = 0; start < cgcParticles.size(); start += blockSize) {
+			int end = Math.min(start + blockSize, cgcParticles.size());
+			CGCParticleArray block = new CGCParticleArray(end - start, numberOfDimensions, numberOfColors);
+			for (int i = start; i < end; i++) {
+				block.set(i - start, cgcParticles.get(i));
+				// Release the particle object.
+				cgcParticles.set(i, null);
+			}
+			particles.add(block);
+		}
+	}
+
+	/**
+	 * Returns a list where all blocks are replaced by views of their particles.
+	 *
+	 * @param particles List of particles
+	 * @return          List of single particles
+	 */
+	public static List<IParticle> getViews(List<IParticle> particles) {
+		boolean hasBlocks = false;
+		for (IParticle p : particles) {
+			if (p instanceof CGCParticleArray) {
+				hasBlocks = true;
+				break;
+			}
+		}
+		if (!hasBlocks) {
+			return particles;
+		}
+		ArrayList<IParticle> views = new ArrayList<IParticle>();
+		for (IParticle p : particles) {
+			if (p instanceof CGCParticleArray) {
+				CGCParticleArray block = (CGCParticleArray) p;
+				for (int i = 0; i < block.numberOfParticles; i++) {
+					views.add(block.getParticle(i));
+				}
+			} else {
+				views.add(p);
+			}
+		}
+		return views;
+	}
+
+	// GETTERS
+
+	public double getPosition(int i) {
+		return 0;
+	}
+
+	public double getPrevPosition(int i) {
+		return 0;
+	}
+
+	public double getVelocity(int i) {
+		return 0;
+	}
+
+	public double[] getPosition() {
+		return new double[]{0};
+	}
+
+	public double[] getPrevPosition() {
+		return new double[]{0};
+	}
+
+	public double[] getVelocity() {
+		return new double[]{0};
+	}
+
+	public double getRadius() {
+		return 0;
+	}
+
+	public Color getDisplayColor() {
+		return Color.BLACK;
+	}
+
+	public int getNumberOfDimensions() {
+		return 0;
+	}
+
+	// SETTERS
+
+	public void setPosition(int i, double value) {
+
+	}
+
+	public void addPosition(int i, double value) {
+
+	}
+
+	public void setPrevPosition(int i, double value) {
+
+	}
+
+	public void addPrevPosition(int i, double value) {
+
+	}
+
+	public void setVelocity(int i, double value) {
+
+	}
+
+	public void addVelocity(int i, double value) {
+
+	}
+
+	public void setNumberOfDimensions(int numberOfDimensions) {
+	}
+
+	public void setRadius(double r) {
+
+	}
+
+	public void setDisplayColor(Color color) {
+
+	}
+
+	public void reassignValues() {
+		double[] tempPos = pos0;
+		pos0 = pos1;
+		pos1 = tempPos;
+
+		double[] tempQ = Q0;
+		Q0 = Q1;
+		Q1 = tempQ;
+	}
+
+	public IParticle copy() {
+		CGCParticleArray p = new CGCParticleArray(numberOfParticles, numberOfDimensions, numberOfColors);
+		System.arraycopy(pos0, 0, p.pos0, 0, pos0.length);
+		System.arraycopy(pos1, 0, p.pos1, 0, pos1.length);
+		System.arraycopy(direction, 0, p.direction, 0, direction.length);
+		System.arraycopy(velocity, 0, p.velocity, 0, velocity.length);
+		System.arraycopy(Q0, 0, p.Q0, 0, Q0.length);
+		System.arraycopy(Q1, 0, p.Q1, 0, Q1.length);
+		System.arraycopy(transported, 0, p.transported, 0, transported.length);
+		return p;
+	}
+
+	/**
+	 * View of a single particle of the block.
+	 */
+	private class View implements IParticle {
+
+		private final int index;
+
+		private View(int index) {
+			this.index = index;
+		}
+
+		public double getPosition(int d) {
+			return pos0[index * numberOfDimensions + d];
+		}
+
+		public double getPrevPosition(int d) {
+			return pos1[index * numberOfDimensions + d];
+		}
+
+		public double getVelocity(int d) {
+			return (d == direction[index]) ? velocity[index] : 0.0;
+		}
+
+		public double[] getPosition() {
+			double[] position = new double[numberOfDimensions];
+			System.arraycopy(pos0, index * numberOfDimensions, position, 0, numberOfDimensions);
+			return position;
+		}
+
+		public double[] getPrevPosition() {
+			double[] position = new double[numberOfDimensions];
+			System.arraycopy(pos1, index * numberOfDimensions, position, 0, numberOfDimensions);
+			return position;
+		}
+
+		public double[] getVelocity() {
+			double[] v = new double[numberOfDimensions];
+			v[direction[index]] = velocity[index];
+			return v;
+		}
+
+		public int getNumberOfDimensions() {
+			return numberOfDimensions;
+		}
+
+		public double getRadius() {
+			return 0;
+		}
+
+		public Color getDisplayColor() {
+			return Color.BLACK;
+		}
+
+		public void setPosition(int d, double x) {
+			pos0[index * numberOfDimensions + d] = x;
+		}
+
+		public void addPosition(int d, double x) {
+			pos0[index * numberOfDimensions + d] += x;
+		}
+
+		public void setPrevPosition(int d, double x) {
+			pos1[index * numberOfDimensions + d] = x;
+		}
+
+		public void addPrevPosition(int d, double x) {
+			pos1[index * numberOfDimensions + d] += x;
+		}
+
+		public void setVelocity(int d, double v) {
+			if (d == direction[index]) {
+				velocity[index] = v;
+			}
+		}
+
+		public void addVelocity(int d, double v) {
+			if (d == direction[index]) {
+				velocity[index] += v;
+			}
+		}
+
+		public void setNumberOfDimensions(int numberOfDimensions) {
+		}
+
+		public void setRadius(double r) {
+		}
+
+		public void setDisplayColor(Color color) {
+		}
+
+		public void reassignValues() {
+		}
+
+		/**
+		 * Returns a CGCParticle with the values of the particle.
+		 */
+		public IParticle copy() {
+			CGCParticle p = new CGCParticle(numberOfDimensions, numberOfColors, direction[index]);
+			for (int d = 0; d < numberOfDimensions; d++) {
+				p.pos0[d] = getPosition(d);
+				p.pos1[d] = getPrevPosition(d);
+				p.vel[d] = getVelocity(d);
+			}
+			readQ0(index, p.Q0);
+			readQ1(index, p.Q1);
+			return p;
+		}
+	}
+}
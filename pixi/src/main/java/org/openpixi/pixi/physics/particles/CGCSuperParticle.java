@@ -20,13 +20,19 @@ public class CGCSuperParticle implements IParticle {
 	 */
 	public int orientation;
 
+	/**
+	 * Direction of movement.
+	 */
+	public int direction;
+
 	/**
 	 * Total number of particles described by super particle.
 	 */
 	public int numberOfParticles;
 
 	/**
-	 * Longitudinal offset from z = 0 in terms of lattice indices.
+	 * Longitudinal offset from z = 0 in terms of lattice indices. Lattice indices of super particles are counted with
+	 * the longitudinal coordinate as the slowest index (see {@link #getCellIndex(int, int, int[])}).
 	 */
 	public int indexOffset;
 
@@ -51,7 +57,18 @@ public class CGCSuperParticle implements IParticle {
 	                        int particlesPerPlane,
 	                        int subLatticeShift,
 	                        int particlePerCell) {
+		this(orientation, 0, numberOfParticles, indexOffset, particlesPerPlane, subLatticeShift, particlePerCell);
+	}
+
+	public CGCSuperParticle(int orientation,
+	                        int direction,
+	                        int numberOfParticles,
+	                        int indexOffset,
+	                        int particlesPerPlane,
+	                        int subLatticeShift,
+	                        int particlePerCell) {
 		this.orientation = orientation;
+		this.direction = direction;
 		this.numberOfParticles = numberOfParticles;
 		this.indexOffset = indexOffset;
 		this.particlesPerPlane = particlesPerPlane;
@@ -104,6 +121,49 @@ public class CGCSuperParticle implements IParticle {
 		return 0 == (t - subLatticeShift + particlePerCell / 2) % particlePerCell;
 	}
 
+	/**
+	 * Converts a lattice index of the super particle layout, where the longitudinal coordinate is the slowest index
+	 * and the transverse cells follow in the order of the grid, to the cell index of the grid.
+	 *
+	 * @param index     lattice index in the layout of the super particle, between 0 and the total number of cells
+	 * @param numCells  grid size
+	 * @return          cell index of the grid
+	 */
+	public int getCellIndex(int index, int[] numCells) {
+		return getCellIndex(index, direction, numCells);
+	}
+
+	/**
+	 * Converts a lattice index of the super particle layout for a given direction to the cell index of the grid.
+	 * For movement in the x-direction both indices are the same.
+	 *
+	 * @param index     lattice index in the layout of the super particle, between 0 and the total number of cells
+	 * @param direction direction of movement
+	 * @param numCells  grid size
+	 * @return          cell index of the grid
+	 */
+	public static int getCellIndex(int index, int direction, int[] numCells) {
+		if (direction == 0) {
+			return index;
+		}
+		// Split off the transverse coordinates starting with the fastest one. The rest is the longitudinal coordinate.
+		int rest = index;
+		int cellIndex = 0;
+		int stride = 1;
+		int longitudinalStride = 1;
+		for (int i = numCells.length - 1; i >= 0; i--) {
+			if (i != direction) {
+				cellIndex += (rest % numCells[i]) * stride;
+				rest /= numCells[i];
+			} else {
+				longitudinalStride = stride;
+			}
+			stride *= numCells[i];
+		}
+		cellIndex += rest * longitudinalStride;
+		return cellIndex;
+	}
+
 	// GETTERS
 
 	public double getPosition(int i) {
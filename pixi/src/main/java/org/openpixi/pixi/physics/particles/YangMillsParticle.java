@@ -33,6 +33,12 @@ public class YangMillsParticle implements IParticle, Serializable {
 		this.Q1 = factory.algebraZero();
 	}
 
+	/**
+	 * Creates a particle without allocating its arrays and charges. Subclasses have to set them.
+	 */
+	protected YangMillsParticle() {
+	}
+
 	// GETTERS
 
 	public double getPosition(int i) {
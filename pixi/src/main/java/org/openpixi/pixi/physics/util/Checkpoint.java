@@ -0,0 +1,684 @@
+package org.openpixi.pixi.physics.util;
+
+import org.openpixi.pixi.diagnostics.OutputFile;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.SU2GroupElement;
+import org.openpixi.pixi.math.SU3AlgebraElement;
+import org.openpixi.pixi.math.SU3GroupElement;
+import org.openpixi.pixi.math.ScratchElements;
+import org.openpixi.pixi.parallel.cellaccess.CellAction;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.YangMillsParticle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the state of a simulation which can be written to and read from a binary checkpoint file.
+ * <br>
+ * The snapshot contains the gauge links U and Unext, the electric fields E, the currents J, the charge density rho,
+ * the active and evaluatable flags of all cells, the particles (YangMillsParticle, CGCParticle, CGCSuperParticle and
+ * CGCParticleArray), the step counters and the positions of the open output files (see
+ * {@link OutputFile#getPositions()}), so that a resumed simulation continues its output files exactly where the
+ * checkpoint was taken. Taking a snapshot with {@link #capture(Simulation)} only copies the state into memory, so
+ * that the (slow) writing of the file with {@link #write(File)} can happen on a different thread while the
+ * simulation continues.
+ * <br>
+ * File layout (big endian): header, cell data (doubles), cell flags (bytes), particle data, output file positions.
+ */
+public class Checkpoint {
+
+	/**
+	 * "PIXICKPT" in ASCII.
+	 */
+	private static final long MAGIC = 0x50495849434B5054L;
+
+	private static final int VERSION = 3;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Maximal size of a mapped region of the file.
+	 */
+	private static final int MAX_REGION_SIZE = 1 << 28;
+
+	private static final byte YANG_MILLS_PARTICLE = 0;
+	private static final byte CGC_PARTICLE = 1;
+	private static final byte CGC_SUPER_PARTICLE = 2;
+	private static final byte CGC_PARTICLE_ARRAY = 3;
+
+	private static final byte EVALUATABLE = 1;
+	private static final byte ACTIVE = 2;
+
+	private int numberOfDimensions;
+	private int numberOfColors;
+	private int[] numCells;
+	private int totalSimulationSteps;
+	private double totalSimulationTime;
+
+	private int groupSize;
+	private int algebraSize;
+	private int cellSize;
+
+	private double[] cellData;
+	private byte[] cellFlags;
+	private ByteBuffer particleData;
+	private Map<String, Long> outputPositions = new LinkedHashMap<String, Long>();
+
+	private CaptureAction captureAction = new CaptureAction();
+	private RestoreAction restoreAction = new RestoreAction();
+
+	/**
+	 * Copies the state of the simulation into this snapshot. Memory of a previous snapshot is reused. The output
+	 * files are flushed to record their positions, so all output of the current step has to be written before.
+	 *
+	 * @param s Simulation
+	 * @throws IOException
+	 */
+	public void capture(Simulation s) throws IOException {
+		Grid grid = s.grid;
+		setLayout(grid.getNumberOfDimensions(), grid.getElementFactory().numberOfColors, grid.getNumCells());
+		totalSimulationSteps = s.totalSimulationSteps;
+		totalSimulationTime = s.totalSimulationTime;
+
+		int totalNumberOfCells = grid.getTotalNumberOfCells();
+		if (cellData == null || cellData.length != totalNumberOfCells * cellSize) {
+			cellData = new double[totalNumberOfCells * cellSize];
+			cellFlags = new byte[totalNumberOfCells];
+		}
+		grid.getCellIterator().execute(grid, captureAction);
+
+		int particleBytes = 4;
+		for (IParticle p : s.particles) {
+			particleBytes += getParticleSize(p);
+		}
+		if (particleData == null || particleData.capacity() < particleBytes) {
+			particleData = ByteBuffer.allocate(particleBytes);
+		}
+		particleData.clear();
+		particleData.putInt(s.particles.size());
+		for (IParticle p : s.particles) {
+			putParticle(particleData, p);
+		}
+		particleData.flip();
+
+		outputPositions = OutputFile.getPositions();
+	}
+
+	/**
+	 * Restores the state of the simulation from this snapshot. The simulation has to use the same grid size and
+	 * gauge group.
+	 *
+	 * @param s Simulation
+	 */
+	public void restore(Simulation s) {
+		Grid grid = s.grid;
+		if (grid.getNumberOfDimensions() != numberOfDimensions
+				|| grid.getElementFactory().numberOfColors != numberOfColors) {
+			throw new RuntimeException("Checkpoint: number of dimensions or colors does not match.");
+		}
+		for (int i = 0; i < numberOfDimensions; i++) {
+			if (grid.getNumCells(i) != numCells[i]) {
+				throw new RuntimeException("Checkpoint: grid size does not match.");
+			}
+		}
+
+		grid.getCellIterator().execute(grid, restoreAction);
+		if (grid.getOccupiedSlabs() != null) {
+			grid.getOccupiedSlabs().invalidate();
+		}
+
+		ByteBuffer buffer = particleData.duplicate();
+		int numberOfParticles = buffer.getInt();
+		ArrayList<IParticle> particles = new ArrayList<IParticle>(numberOfParticles);
+		for (int i = 0; i < numberOfParticles; i++) {
+			particles.add(getParticle(buffer));
+		}
+		s.particles.clear();
+		s.particles.addAll(particles);
+
+		s.totalSimulationSteps = totalSimulationSteps;
+		s.totalSimulationTime = totalSimulationTime;
+		grid.setSimulationSteps(totalSimulationSteps);
+	}
+
+	public int getTotalSimulationSteps() {
+		return totalSimulationSteps;
+	}
+
+	/**
+	 * Returns the positions of the output files at the time of the snapshot (see
+	 * {@link OutputFile#setResumePositions(Map)}).
+	 */
+	public Map<String, Long> getOutputPositions() {
+		return outputPositions;
+	}
+
+	/**
+	 * Writes the snapshot to a file. The data is first written to a temporary file which replaces the checkpoint
+	 * file at the end, so that an interrupted write does not destroy an older checkpoint.
+	 *
+	 * @param file  Checkpoint file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		int headerSize = getHeaderSize();
+		long cellDataOffset = headerSize;
+		long cellFlagsOffset = cellDataOffset + 8L * cellData.length;
+		long particleDataOffset = cellFlagsOffset + cellFlags.length;
+		long outputDataOffset = particleDataOffset + particleData.remaining();
+		ByteBuffer outputData = getOutputData();
+		long size = outputDataOffset + outputData.remaining();
+
+		RandomAccessFile raf = new RandomAccessFile(temporaryFile, "rw");
+		try {
+			raf.setLength(size);
+			FileChannel channel = raf.getChannel();
+
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+			header.putLong(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(numberOfDimensions);
+			header.putInt(numberOfColors);
+			for (int i = 0; i < numberOfDimensions; i++) {
+				header.putInt(numCells[i]);
+			}
+			header.putInt(totalSimulationSteps);
+			header.putDouble(totalSimulationTime);
+			header.putInt(particleData.remaining());
+			header.putInt(outputData.remaining());
+			header.force();
+
+			int doublesPerRegion = MAX_REGION_SIZE / 8;
+			for (int start = 0; start < cellData.length; start += doublesPerRegion) {
+				int length = Math.min(doublesPerRegion, cellData.length - start);
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+						cellDataOffset + 8L * start, 8L * length);
+				region.asDoubleBuffer().put(cellData, start, length);
+				region.force();
+			}
+			writeBytes(channel, cellFlagsOffset, ByteBuffer.wrap(cellFlags));
+			writeBytes(channel, particleDataOffset, particleData.duplicate());
+			writeBytes(channel, outputDataOffset, outputData);
+		} finally {
+			raf.close();
+		}
+
+		if (!temporaryFile.renameTo(file)) {
+			file.delete();
+			if (!temporaryFile.renameTo(file)) {
+				throw new IOException("Checkpoint: could not rename " + temporaryFile.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a checkpoint file.
+	 *
+	 * @param file  Checkpoint file
+	 * @return      Snapshot
+	 * @throws IOException
+	 */
+	public static Checkpoint read(File file) throws IOException {
+		Checkpoint checkpoint = new Checkpoint();
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 1024));
+			if (header.getLong() != MAGIC) {
+				throw new IOException("Checkpoint: " + file.getPath() + " is not a checkpoint file.");
+			}
+			if (header.getInt() != VERSION) {
+				throw new IOException("Checkpoint: unsupported version of " + file.getPath());
+			}
+			int dimensions = header.getInt();
+			int colors = header.getInt();
+			int[] cells = new int[dimensions];
+			for (int i = 0; i < dimensions; i++) {
+				cells[i] = header.getInt();
+			}
+			checkpoint.setLayout(dimensions, colors, cells);
+			checkpoint.totalSimulationSteps = header.getInt();
+			checkpoint.totalSimulationTime = header.getDouble();
+			int particleBytes = header.getInt();
+			int outputBytes = header.getInt();
+
+			int totalNumberOfCells = 1;
+			for (int i = 0; i < dimensions; i++) {
+				totalNumberOfCells *= cells[i];
+			}
+			checkpoint.cellData = new double[totalNumberOfCells * checkpoint.cellSize];
+			checkpoint.cellFlags = new byte[totalNumberOfCells];
+			checkpoint.particleData = ByteBuffer.allocate(particleBytes);
+
+			long cellDataOffset = checkpoint.getHeaderSize();
+			long cellFlagsOffset = cellDataOffset + 8L * checkpoint.cellData.length;
+			long particleDataOffset = cellFlagsOffset + checkpoint.cellFlags.length;
+			long outputDataOffset = particleDataOffset + particleBytes;
+			if (channel.size() < outputDataOffset + outputBytes) {
+				throw new IOException("Checkpoint: " + file.getPath() + " is incomplete.");
+			}
+
+			int doublesPerRegion = MAX_REGION_SIZE / 8;
+			double[] cellData = checkpoint.cellData;
+			for (int start = 0; start < cellData.length; start += doublesPerRegion) {
+				int length = Math.min(doublesPerRegion, cellData.length - start);
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+						cellDataOffset + 8L * start, 8L * length);
+				region.asDoubleBuffer().get(cellData, start, length);
+			}
+			readBytes(channel, cellFlagsOffset, ByteBuffer.wrap(checkpoint.cellFlags));
+			readBytes(channel, particleDataOffset, checkpoint.particleData);
+			checkpoint.particleData.flip();
+			ByteBuffer outputData = ByteBuffer.allocate(outputBytes);
+			readBytes(channel, outputDataOffset, outputData);
+			outputData.flip();
+			checkpoint.setOutputData(outputData);
+		} finally {
+			raf.close();
+		}
+		return checkpoint;
+	}
+
+	private void setLayout(int dimensions, int colors, int[] cells) {
+		numberOfDimensions = dimensions;
+		numberOfColors = colors;
+		numCells = cells.clone();
+		groupSize = (colors == 3) ? 18 : 4;
+		algebraSize = (colors == 3) ? 9 : 3;
+		// U, Unext, E, J and rho
+		cellSize = 2 * dimensions * groupSize + 2 * dimensions * algebraSize + algebraSize;
+	}
+
+	private int getHeaderSize() {
+		int size = 8 + 4 * 3 + 4 * numberOfDimensions + 4 + 8 + 4 + 4;
+		// Align cell data to 8 bytes.
+		return (size + 7) & ~7;
+	}
+
+	/**
+	 * Output file positions: number of files (int), then the length of the path (int), the path (UTF-8) and the
+	 * position (long) of every file.
+	 */
+	private ByteBuffer getOutputData() {
+		ArrayList<byte[]> paths = new ArrayList<byte[]>();
+		int size = 4;
+		for (String path : outputPositions.keySet()) {
+			byte[] bytes = path.getBytes(UTF8);
+			paths.add(bytes);
+			size += 4 + bytes.length + 8;
+		}
+		ByteBuffer data = ByteBuffer.allocate(size);
+		data.putInt(paths.size());
+		int i = 0;
+		for (Long position : outputPositions.values()) {
+			data.putInt(paths.get(i).length);
+			data.put(paths.get(i));
+			data.putLong(position);
+			i++;
+		}
+		data.flip();
+		return data;
+	}
+
+	private void setOutputData(ByteBuffer data) {
+		outputPositions = new LinkedHashMap<String, Long>();
+		int numberOfFiles = data.getInt();
+		for (int i = 0; i < numberOfFiles; i++) {
+			byte[] bytes = new byte[data.getInt()];
+			data.get(bytes);
+			outputPositions.put(new String(bytes, UTF8), data.getLong());
+		}
+	}
+
+	private static void writeBytes(FileChannel channel, long offset, ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			int length = Math.min(MAX_REGION_SIZE, data.remaining());
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+			ByteBuffer slice = data.duplicate();
+			slice.limit(slice.position() + length);
+			region.put(slice);
+			region.force();
+			data.position(data.position() + length);
+			offset += length;
+		}
+	}
+
+	private static void readBytes(FileChannel channel, long offset, ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			int length = Math.min(MAX_REGION_SIZE, data.remaining());
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			data.put(region);
+			offset += length;
+		}
+	}
+
+	/*
+	 *      Elements
+	 */
+
+	private void putGroup(double[] data, int offset, GroupElement g) {
+		if (groupSize == 18) {
+			SU3GroupElement m = (SU3GroupElement) g;
+			for (int c = 0; c < 18; c++) {
+				data[offset + c] = m.get(c);
+			}
+		} else {
+			SU2GroupElement m = (SU2GroupElement) g;
+			for (int c = 0; c < 4; c++) {
+				data[offset + c] = m.get(c);
+			}
+		}
+	}
+
+	private void getGroup(double[] data, int offset, GroupElement g) {
+		if (groupSize == 18) {
+			SU3GroupElement m = (SU3GroupElement) g;
+			for (int c = 0; c < 18; c++) {
+				m.set(c, data[offset + c]);
+			}
+		} else {
+			SU2GroupElement m = (SU2GroupElement) g;
+			m.set(data[offset], data[offset + 1], data[offset + 2], data[offset + 3]);
+		}
+	}
+
+	private void putAlgebra(double[] data, int offset, AlgebraElement a) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				data[offset + c] = m.getEntry(c);
+			}
+		} else {
+			for (int c = 0; c < 3; c++) {
+				data[offset + c] = a.get(c);
+			}
+		}
+	}
+
+	private void getAlgebra(double[] data, int offset, AlgebraElement a) {
+		if (algebraSize == 9) {
+			SU3AlgebraElement m = (SU3AlgebraElement) a;
+			for (int c = 0; c < 9; c++) {
+				m.setEntry(c, data[offset + c]);
+			}
+		} else {
+			for (int c = 0; c < 3; c++) {
+				a.set(c, data[offset + c]);
+			}
+		}
+	}
+
+	private void putGroup(ByteBuffer buffer, GroupElement g) {
+		double[] values = new double[groupSize];
+		putGroup(values, 0, g);
+		for (int c = 0; c < groupSize; c++) {
+			buffer.putDouble(values[c]);
+		}
+	}
+
+	private GroupElement getGroup(ByteBuffer buffer) {
+		double[] values = new double[groupSize];
+		for (int c = 0; c < groupSize; c++) {
+			values[c] = buffer.getDouble();
+		}
+		GroupElement g = new ElementFactory(numberOfColors).groupZero();
+		getGroup(values, 0, g);
+		return g;
+	}
+
+	private void putAlgebra(ByteBuffer buffer, AlgebraElement a) {
+		double[] values = new double[algebraSize];
+		putAlgebra(values, 0, a);
+		for (int c = 0; c < algebraSize; c++) {
+			buffer.putDouble(values[c]);
+		}
+	}
+
+	private static void putDoubles(ByteBuffer buffer, double[] values) {
+		for (int i = 0; i < values.length; i++) {
+			buffer.putDouble(values[i]);
+		}
+	}
+
+	private static void getDoubles(ByteBuffer buffer, double[] values) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = buffer.getDouble();
+		}
+	}
+
+	private AlgebraElement getAlgebra(ByteBuffer buffer) {
+		double[] values = new double[algebraSize];
+		for (int c = 0; c < algebraSize; c++) {
+			values[c] = buffer.getDouble();
+		}
+		AlgebraElement a = new ElementFactory(numberOfColors).algebraZero();
+		getAlgebra(values, 0, a);
+		return a;
+	}
+
+	/*
+	 *      Particles
+	 */
+
+	private int getParticleSize(IParticle p) {
+		if (p instanceof CGCSuperParticle) {
+			CGCSuperParticle P = (CGCSuperParticle) p;
+			return 1 + 7 * 4 + P.numberOfParticles * (1 + 8 * algebraSize);
+		} else if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			return 1 + 2 * 4 + P.numberOfParticles * (2 * 8 * P.numberOfDimensions + 4 + 8 + 1
+					+ 2 * 8 * P.numberOfComponents);
+		} else if (p instanceof YangMillsParticle) {
+			int size = 1 + 4 + 4 * 8 * p.getNumberOfDimensions() + 2 * 8 + 2 * 8 * algebraSize;
+			if (p instanceof CGCParticle) {
+				size += 4 + 1 + 8 * groupSize;
+			}
+			return size;
+		}
+		throw new RuntimeException("Checkpoint: unsupported particle type " + p.getClass().getName());
+	}
+
+	private void putParticle(ByteBuffer buffer, IParticle p) {
+		if (p instanceof CGCSuperParticle) {
+			CGCSuperParticle P = (CGCSuperParticle) p;
+			buffer.put(CGC_SUPER_PARTICLE);
+			buffer.putInt(P.orientation);
+			buffer.putInt(P.direction);
+			buffer.putInt(P.numberOfParticles);
+			buffer.putInt(P.indexOffset);
+			buffer.putInt(P.particlesPerPlane);
+			buffer.putInt(P.subLatticeShift);
+			buffer.putInt(P.particlePerCell);
+			for (int i = 0; i < P.numberOfParticles; i++) {
+				if (P.Q[i] != null) {
+					buffer.put((byte) 1);
+					putAlgebra(buffer, P.Q[i]);
+				} else {
+					buffer.put((byte) 0);
+					for (int c = 0; c < algebraSize; c++) {
+						buffer.putDouble(0.0);
+					}
+				}
+			}
+			return;
+		}
+
+		if (p instanceof CGCParticleArray) {
+			CGCParticleArray P = (CGCParticleArray) p;
+			buffer.put(CGC_PARTICLE_ARRAY);
+			buffer.putInt(P.numberOfParticles);
+			buffer.putInt(P.numberOfDimensions);
+			putDoubles(buffer, P.pos0);
+			putDoubles(buffer, P.pos1);
+			for (int i = 0; i < P.numberOfParticles; i++) {
+				buffer.putInt(P.direction[i]);
+				buffer.putDouble(P.velocity[i]);
+				buffer.put((byte) (P.transported[i] ? 1 : 0));
+			}
+			putDoubles(buffer, P.Q0);
+			putDoubles(buffer, P.Q1);
+			return;
+		}
+
+		YangMillsParticle P = (YangMillsParticle) p;
+		buffer.put((p instanceof CGCParticle) ? CGC_PARTICLE : YANG_MILLS_PARTICLE);
+		int dimensions = P.getNumberOfDimensions();
+		buffer.putInt(dimensions);
+		for (int i = 0; i < dimensions; i++) {
+			buffer.putDouble(P.pos0[i]);
+			buffer.putDouble(P.pos1[i]);
+			buffer.putDouble(P.vel[i]);
+			buffer.putDouble(P.acc[i]);
+		}
+		buffer.putDouble(P.mass);
+		buffer.putDouble(P.r);
+		putAlgebra(buffer, P.Q0);
+		putAlgebra(buffer, P.Q1);
+		if (p instanceof CGCParticle) {
+			CGCParticle C = (CGCParticle) p;
+			buffer.putInt(C.direction);
+			buffer.put((byte) (C.updateCharge ? 1 : 0));
+			putGroup(buffer, C.U);
+		}
+	}
+
+	private IParticle getParticle(ByteBuffer buffer) {
+		byte type = buffer.get();
+		if (type == CGC_SUPER_PARTICLE) {
+			int orientation = buffer.getInt();
+			int direction = buffer.getInt();
+			int numberOfParticles = buffer.getInt();
+			int indexOffset = buffer.getInt();
+			int particlesPerPlane = buffer.getInt();
+			int subLatticeShift = buffer.getInt();
+			int particlePerCell = buffer.getInt();
+			CGCSuperParticle P = new CGCSuperParticle(orientation, direction, numberOfParticles, indexOffset,
+					particlesPerPlane, subLatticeShift, particlePerCell);
+			for (int i = 0; i < numberOfParticles; i++) {
+				boolean present = buffer.get() != 0;
+				AlgebraElement Q = getAlgebra(buffer);
+				P.Q[i] = present ? Q : null;
+			}
+			return P;
+		}
+		if (type == CGC_PARTICLE_ARRAY) {
+			int numberOfParticles = buffer.getInt();
+			int dimensions = buffer.getInt();
+			CGCParticleArray P = new CGCParticleArray(numberOfParticles, dimensions, numberOfColors);
+			getDoubles(buffer, P.pos0);
+			getDoubles(buffer, P.pos1);
+			for (int i = 0; i < numberOfParticles; i++) {
+				P.direction[i] = buffer.getInt();
+				P.velocity[i] = buffer.getDouble();
+				P.transported[i] = buffer.get() != 0;
+			}
+			getDoubles(buffer, P.Q0);
+			getDoubles(buffer, P.Q1);
+			return P;
+		}
+
+		int dimensions = buffer.getInt();
+		YangMillsParticle P;
+		if (type == CGC_PARTICLE) {
+			P = new CGCParticle(dimensions, numberOfColors, 0);
+		} else {
+			P = new YangMillsParticle(dimensions, numberOfColors);
+		}
+		for (int i = 0; i < dimensions; i++) {
+			P.pos0[i] = buffer.getDouble();
+			P.pos1[i] = buffer.getDouble();
+			P.vel[i] = buffer.getDouble();
+			P.acc[i] = buffer.getDouble();
+		}
+		P.mass = buffer.getDouble();
+		P.r = buffer.getDouble();
+		P.Q0 = getAlgebra(buffer);
+		P.Q1 = getAlgebra(buffer);
+		if (type == CGC_PARTICLE) {
+			CGCParticle C = (CGCParticle) P;
+			C.direction = buffer.getInt();
+			C.updateCharge = buffer.get() != 0;
+			C.U = getGroup(buffer);
+		}
+		return P;
+	}
+
+	/*
+	 *      Cell actions
+	 */
+
+	private class CaptureAction implements CellAction {
+
+		public void execute(Grid grid, int index) {
+			int offset = index * cellSize;
+			for (int i = 0; i < numberOfDimensions; i++) {
+				putGroup(cellData, offset, grid.getU(index, i));
+				offset += groupSize;
+				putGroup(cellData, offset, grid.getUnext(index, i));
+				offset += groupSize;
+				putAlgebra(cellData, offset, grid.getE(index, i));
+				offset += algebraSize;
+				putAlgebra(cellData, offset, grid.getJ(index, i));
+				offset += algebraSize;
+			}
+			putAlgebra(cellData, offset, grid.getRho(index));
+
+			byte flags = 0;
+			if (grid.isEvaluatable(index)) {
+				flags |= EVALUATABLE;
+			}
+			if (grid.isActive(index)) {
+				flags |= ACTIVE;
+			}
+			cellFlags[index] = flags;
+		}
+	}
+
+	private class RestoreAction implements CellAction {
+
+		private ScratchElements.Pool scratch = new ScratchElements.Pool(1, 1);
+
+		public void execute(Grid grid, int index) {
+			ScratchElements s = scratch.get(grid.getElementFactory());
+			GroupElement g = s.group[0];
+			AlgebraElement a = s.algebra[0];
+			int offset = index * cellSize;
+			for (int i = 0; i < numberOfDimensions; i++) {
+				getGroup(cellData, offset, g);
+				grid.setU(index, i, g);
+				offset += groupSize;
+				getGroup(cellData, offset, g);
+				grid.setUnext(index, i, g);
+				offset += groupSize;
+				getAlgebra(cellData, offset, a);
+				grid.setE(index, i, a);
+				offset += algebraSize;
+				getAlgebra(cellData, offset, a);
+				grid.getJ(index, i).set(a);
+				offset += algebraSize;
+			}
+			getAlgebra(cellData, offset, a);
+			grid.getRho(index).set(a);
+
+			grid.setEvaluatable(index, (cellFlags[index] & EVALUATABLE) != 0);
+			grid.setActive(index, (cellFlags[index] & ACTIVE) != 0);
+		}
+	}
+}
@@ -96,19 +96,45 @@ public class GridFunctions {
 	 */
 	public static int[] getCellPos(int index, int[] numCells)
 	{
-		int numDim = numCells.length;
-		int[] pos = new int[numDim];
+		return getCellPos(index, numCells, new int[numCells.length]);
+	}
 
-		for(int i = numDim-1; i >= 0; i--)
+	/**
+	 * Writes the grid position of cell index into an existing array.
+	 *
+	 * @param index    cell index
+	 * @param numCells array of grid sizes
+	 * @param pos      array which receives the grid position
+	 * @return         the array pos
+	 */
+	public static int[] getCellPos(int index, int[] numCells, int[] pos)
+	{
+		for(int i = numCells.length-1; i >= 0; i--)
 		{
 			pos[i] = index % numCells[i];
-			index -= pos[i];
 			index /= numCells[i];
 		}
 
 		return pos;
 	}
 
+	/**
+	 * Returns a single coordinate of the grid position of cell index.
+	 *
+	 * @param index    cell index
+	 * @param d        direction of the coordinate
+	 * @param numCells array of grid sizes
+	 * @return         grid coordinate of the cell in direction d
+	 */
+	public static int getCellPos(int index, int d, int[] numCells)
+	{
+		for(int i = numCells.length-1; i > d; i--)
+		{
+			index /= numCells[i];
+		}
+		return index % numCells[d];
+	}
+
 	/**
 	 * Returns the cell index of a given grid position.
 	 *
@@ -185,11 +211,14 @@ public class GridFunctions {
 	 */
 	public static int shift(int index, int d, int o, int[] numCells) {
 
-		int[] gpos = getCellPos(index, numCells);
-		gpos[d] += o;
-		gpos[d] = (gpos[d] % numCells[d] + numCells[d])  % numCells[d];
+		int stride = 1;
+		for (int i = numCells.length - 1; i > d; i--) {
+			stride *= numCells[i];
+		}
+		int pos = (index / stride) % numCells[d];
+		int shiftedPos = ((pos + o) % numCells[d] + numCells[d]) % numCells[d];
 
-		return GridFunctions.getCellIndex(gpos, numCells);
+		return index + (shiftedPos - pos) * stride;
 	}
 
 
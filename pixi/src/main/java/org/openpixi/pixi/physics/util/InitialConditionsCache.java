@@ -0,0 +1,220 @@
+package org.openpixi.pixi.physics.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.physics.Simulation;
+
+/**
+ * On-disk cache for solved initial conditions.
+ * <br>
+ * Models with a fixed seed produce the same initial conditions in every run. Their results (e.g. the transverse
+ * potentials of the Wilson lines or the regulated charge densities) are stored as arrays of doubles under a key which
+ * contains the name of the model, all of its parameters, the seed and the grid. Later runs with the same key load the
+ * arrays instead of sampling and solving again. The file name is a hash of the key and the key itself is stored in
+ * the file, so collisions are detected.
+ */
+public class InitialConditionsCache {
+
+	private static final int VERSION = 1;
+
+	/**
+	 * Creates the key of a cache entry.
+	 *
+	 * @param model         Name of the model
+	 * @param parameters    Parameters of the model, the seed and the grid
+	 * @return              Key
+	 */
+	public static String getKey(String model, Object... parameters) {
+		StringBuilder key = new StringBuilder(model);
+		for (Object p : parameters) {
+			key.append(' ');
+			if (p instanceof int[]) {
+				key.append(Arrays.toString((int[]) p));
+			} else if (p instanceof double[]) {
+				key.append(Arrays.toString((double[]) p));
+			} else {
+				key.append(p);
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Creates the key of a charge density or another field on the grid of a simulation. The key contains the number
+	 * of colors, the grid size, the lattice spacing and the coupling constant in addition to the given parameters.
+	 *
+	 * @param s             Reference to the simulation
+	 * @param useSeed       Whether the model uses a fixed seed
+	 * @param model         Name of the model
+	 * @param parameters    Parameters of the model and the seed
+	 * @return              Key or null if the values should not be cached
+	 */
+	public static String getKey(Simulation s, boolean useSeed, String model, Object... parameters) {
+		if (!useSeed || s.getInitialConditionsCache() == null) {
+			return null;
+		}
+		Object[] allParameters = new Object[parameters.length + 4];
+		allParameters[0] = s.getNumberOfColors();
+		allParameters[1] = s.grid.getNumCells();
+		allParameters[2] = s.grid.getLatticeSpacing();
+		allParameters[3] = s.getCouplingConstant();
+		System.arraycopy(parameters, 0, allParameters, 4, parameters.length);
+		return getKey(model, allParameters);
+	}
+
+	/**
+	 * Loads the algebra elements of every cell of the grid from the cache.
+	 *
+	 * @param s         Reference to the simulation
+	 * @param key       Key of the entry (see {@link #getKey(Simulation, boolean, String, Object...)}) or null
+	 * @param values    Algebra elements which are set to the cached values
+	 * @return          True if the values have been loaded
+	 */
+	public static boolean load(Simulation s, String key, AlgebraElement[] values) {
+		if (key == null) {
+			return false;
+		}
+		int numberOfComponents = getNumberOfComponents(s);
+		double[] cached = load(s.getInitialConditionsCache(), key, values.length * numberOfComponents);
+		if (cached == null) {
+			return false;
+		}
+		for (int i = 0; i < values.length; i++) {
+			for (int c = 0; c < numberOfComponents; c++) {
+				values[i].set(c, cached[i * numberOfComponents + c]);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the algebra elements of every cell of the grid in the cache.
+	 *
+	 * @param s         Reference to the simulation
+	 * @param key       Key of the entry (see {@link #getKey(Simulation, boolean, String, Object...)}) or null
+	 * @param values    Algebra elements
+	 */
+	public static void store(Simulation s, String key, AlgebraElement[] values) {
+		if (key == null) {
+			return;
+		}
+		int numberOfComponents = getNumberOfComponents(s);
+		double[] data = new double[values.length * numberOfComponents];
+		for (int i = 0; i < values.length; i++) {
+			for (int c = 0; c < numberOfComponents; c++) {
+				data[i * numberOfComponents + c] = values[i].get(c);
+			}
+		}
+		store(s.getInitialConditionsCache(), key, data);
+	}
+
+	private static int getNumberOfComponents(Simulation s) {
+		int numberOfColors = s.getNumberOfColors();
+		return (numberOfColors > 1) ? numberOfColors * numberOfColors - 1 : 1;
+	}
+
+	/**
+	 * Loads an entry from the cache.
+	 *
+	 * @param directory Directory of the cache
+	 * @param key       Key of the entry
+	 * @param length    Expected length of the array
+	 * @return          Cached values or null if there is no valid entry
+	 */
+	public static double[] load(String directory, String key, int length) {
+		File file = getFile(directory, key);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != VERSION || !in.readUTF().equals(key) || in.readInt() != length) {
+					System.out.println("InitialConditionsCache: ignoring invalid entry " + file.getPath());
+					return null;
+				}
+				double[] values = new double[length];
+				for (int i = 0; i < length; i++) {
+					values[i] = in.readDouble();
+				}
+				return values;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			System.out.println("InitialConditionsCache: Error reading " + file.getPath());
+			return null;
+		}
+	}
+
+	/**
+	 * Stores an entry in the cache. The entry is written to a temporary file first, so concurrent simulations never
+	 * read incomplete entries.
+	 *
+	 * @param directory Directory of the cache
+	 * @param key       Key of the entry
+	 * @param values    Values
+	 */
+	public static void store(String directory, String key, double[] values) {
+		File file = getFile(directory, key);
+		File folder = file.getParentFile();
+		if (!folder.exists() && !folder.mkdirs()) {
+			System.out.println("InitialConditionsCache: Error creating " + folder.getPath());
+			return;
+		}
+		try {
+			File temp = File.createTempFile(file.getName(), ".tmp", folder);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(VERSION);
+				out.writeUTF(key);
+				out.writeInt(values.length);
+				for (int i = 0; i < values.length; i++) {
+					out.writeDouble(values[i]);
+				}
+			} finally {
+				out.close();
+			}
+			if (!temp.renameTo(file)) {
+				file.delete();
+				if (!temp.renameTo(file)) {
+					temp.delete();
+					System.out.println("InitialConditionsCache: Error writing " + file.getPath());
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("InitialConditionsCache: Error writing " + file.getPath());
+		}
+	}
+
+	private static File getFile(String directory, String key) {
+		return new File(directory, hash(key) + ".bin");
+	}
+
+	private static String hash(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] bytes = digest.digest(key.getBytes("UTF-8"));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : bytes) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
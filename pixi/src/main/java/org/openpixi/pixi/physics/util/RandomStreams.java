@@ -0,0 +1,48 @@
+package org.openpixi.pixi.physics.util;
+
+import java.util.Random;
+
+/**
+ * Independent streams of random numbers which are split off a single seed.
+ * <br>
+ * Every stream is identified by a pair of indices (e.g. the color component and the transverse cell) and seeded with
+ * a SplitMix64 hash of the seed and the indices. The random numbers therefore do not depend on the order in which
+ * the streams are used, so loops over the streams can be distributed among threads and the results stay
+ * reproducible for a fixed seed.
+ */
+public class RandomStreams {
+
+	private final long seed;
+
+	/**
+	 * Creates streams for a fixed seed.
+	 */
+	public RandomStreams(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Creates streams with a random seed.
+	 */
+	public RandomStreams() {
+		this(new Random().nextLong());
+	}
+
+	/**
+	 * Returns a new generator for the stream with the given indices.
+	 */
+	public Random getStream(int i, int j) {
+		long z = mix(seed + 0x9E3779B97F4A7C15L * (i + 1));
+		z = mix(z + 0x9E3779B97F4A7C15L * (j + 1));
+		return new Random(z);
+	}
+
+	/**
+	 * Finalizer of SplitMix64.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -38,6 +38,11 @@ public class MainBatch {
 	public static int iterations;
 	private static Simulation simulation;
 
+	/**
+	 * Optional checkpoint file from which the simulation is resumed.
+	 */
+	private static String restartFile;
+
 	private static final long GIGABYTE = 1024L * 1024L * 1024L;
 
 
@@ -52,6 +57,17 @@ public class MainBatch {
 	 * <pre>
 	 * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.ui.MainBatch "One_particle_Test.yaml"
 	 * </pre>
+	 * An interrupted simulation can be resumed by passing a checkpoint file as second parameter:
+	 * <pre>
+	 * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.ui.MainBatch "One_particle_Test.yaml" "output/checkpoint.bin"
+	 * </pre>
+	 * An ensemble of events can be calculated from a template (see {@link EnsembleRunner}):
+	 * <pre>
+	 * java -cp target/pixi-0.6-SNAPSHOT.jar org.openpixi.pixi.ui.MainBatch --ensemble "template.yaml" --range 1 32
+	 *     --events 8 --threads 16 --output "output/ensemble.dat"
+	 * </pre>
+	 * The range can be omitted for input files of the batch script. By default one event per processor is calculated
+	 * at the same time.
 	 */
 	public static void main(String[] args) throws FileNotFoundException, IOException, InterruptedException {
 
@@ -62,8 +78,14 @@ public class MainBatch {
 		// Checks if the user has specified at least one parameter.
 		// If so creates a parser and uses the parameter as the
 		// path to the settings file.
-		if (args.length != 0) {
+		if (args.length != 0 && args[0].equals("--ensemble")) {
+			runEnsemble(args);
+		} else if (args.length != 0) {
 			File file = new File(args[0]);
+			if (args.length > 1) {
+				restartFile = args[1];
+				System.out.println("MainBatch: Resuming from " + restartFile);
+			}
 
 			if(file.exists()) {
 				if(file.isFile()) {
@@ -98,6 +120,43 @@ public class MainBatch {
 		System.exit(0);
 	}
 
+	private static void runEnsemble(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2) {
+			System.out.println("MainBatch: --ensemble requires a template.");
+			return;
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		int events = processors;
+		int threads = processors;
+		String output = "output/ensemble.dat";
+		EnsembleRunner runner = new EnsembleRunner(FileIO.readFile(new File(args[1])));
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("--range") && i + 2 < args.length) {
+				runner.setRange(Integer.parseInt(args[i + 1]), Integer.parseInt(args[i + 2]));
+				i += 2;
+			} else if (args[i].equals("--events") && i + 1 < args.length) {
+				events = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("--threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("--output") && i + 1 < args.length) {
+				output = args[++i];
+			} else {
+				System.out.println("MainBatch: Unknown option " + args[i]);
+			}
+		}
+		if (!runner.hasRange()) {
+			System.out.println("MainBatch: --ensemble requires a range.");
+			return;
+		}
+		runner.setNumberOfConcurrentEvents(events);
+		runner.setNumberOfThreads(threads);
+
+		long t0 = System.nanoTime();
+		int failed = runner.run(output);
+		int dt = (int) ((System.nanoTime() - t0) / 1000 / 1000 / 1000);
+		System.out.println("MainBatch: Ensemble time: " + dt + " s (" + failed + " events failed)");
+	}
+
 	public static void runSimulationFromString(String configurationString) {
 		initializeSimulationFromString(configurationString);
 
@@ -136,6 +195,9 @@ public class MainBatch {
 		Settings settings = new Settings();
 		YamlParser yamlParser = new YamlParser(settings);
 		yamlParser.parseString(configurationString);
+		if (restartFile != null) {
+			settings.setRestartFile(restartFile);
+		}
 
 		// Initialization time measurement
 		long t0 = System.nanoTime();
@@ -61,12 +61,10 @@ public class MainControlApplet extends JApplet
 	 */
 	class SliderListener implements ChangeListener {
 		public void stateChanged(ChangeEvent eve) {
-			Timer timer = simulationAnimation.getTimer();
 			JSlider source = (JSlider) eve.getSource();
 			if(source.getValueIsAdjusting())
 			{
-				int delay = (int) (1000 * Math.exp(-source.getValue() * speedSliderScaling));
-				timer.setDelay(delay);
+				simulationAnimation.setStepDelay(getStepDelay(source.getValue()));
 			}
 		}
 	}
@@ -218,18 +216,27 @@ public class MainControlApplet extends JApplet
 	public void setSlidersValue()
 	{
 		Simulation s = simulationAnimation.getSimulation();
-		Timer timer = simulationAnimation.getTimer();
 
 		speedSlider.setValue(50);
-		timer.setDelay((int) (1000 * Math.exp(-50 * speedSliderScaling)));
+		simulationAnimation.setStepDelay(getStepDelay(50));
+	}
+
+	/**
+	 * Delay between two simulation steps for a position of the speed slider. The rightmost position runs the
+	 * simulation at full speed.
+	 */
+	private int getStepDelay(int sliderValue)
+	{
+		if(sliderValue >= speedSlider.getMaximum())
+			return 0;
+		return (int) (1000 * Math.exp(-sliderValue * speedSliderScaling));
 	}
 
 	@Override
 	public void init() {
 		super.init();
 
-		Timer timer = simulationAnimation.getTimer();
-		timer.start();
+		simulationAnimation.startAnimation();
 		setSlidersValue();
 	}
 
@@ -1,81 +1,222 @@
 package org.openpixi.pixi.ui;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 import org.openpixi.pixi.physics.Settings;
 import org.openpixi.pixi.physics.Simulation;
-import org.openpixi.pixi.ui.panel.Particle2DPanel;
 import org.openpixi.pixi.ui.util.FrameRateDetector;
 
 /**
  * Wrapper for the simulation class in GUI applications.
+ * <br>
+ * The simulation runs on its own thread, so the Event Dispatch Thread only paints. The simulation thread advances the
+ * simulation as fast as possible (or with the delay set by {@link #setStepDelay(int)}) and publishes a frame at most
+ * every {@link #getFrameInterval()} milliseconds. Frames are dropped while the previous frame has not been handed to
+ * the panels yet, so slow panels never slow down the simulation.
+ * <br>
+ * The simulation is only advanced while the lock {@link #getLock()} is held. Panels copy the data they display in
+ * {@link SimulationAnimationListener#prepareFrame()}, which is called by the simulation thread between two steps.
+ * Panels which read the simulation on the Event Dispatch Thread acquire the lock with {@link #tryLockForPainting()}
+ * and skip the frame if a simulation step takes too long, so the Event Dispatch Thread is never blocked by the
+ * simulation.
+ * <br>
+ * Starting, stopping, single steps and resets are only requested by the Event Dispatch Thread. The simulation thread
+ * carries them out, so a new simulation (whose initial conditions may take minutes) is also built on the simulation
+ * thread.
  */
 public class SimulationAnimation {
 
-	protected Simulation s;
+	protected volatile Simulation s;
 
-	/** Milliseconds between updates */
-	private int interval = 30;
+	/** Settings of the current simulation, used to terminate its threads when it is replaced */
+	private Settings settings;
 
-	/** Timer for animation */
-	private Timer timer;
+	/** Milliseconds between frames */
+	private int frameInterval = 30;
+
+	/** Milliseconds between simulation steps */
+	private volatile int stepDelay = 0;
+
+	/** Lock which is held while the simulation is advanced. The lock is fair, so painting is not starved. */
+	private final ReentrantLock lock = new ReentrantLock(true);
+
+	/** Monitor which guards the requests to the simulation thread */
+	private final Object requests = new Object();
+
+	private Thread simulationThread;
+
+	private volatile boolean running = false;
+
+	/** Number of single steps requested while the animation is stopped */
+	private int requestedSteps = 0;
+
+	/** Settings of a requested reset */
+	private Settings requestedSettings;
+
+	private final AtomicBoolean framePending = new AtomicBoolean(false);
+
+	private long lastFrameTime;
 
 	private FrameRateDetector frameratedetector;
 
-	private ArrayList<SimulationAnimationListener> listeners = new ArrayList<SimulationAnimationListener>();
+	private FrameRateDetector stepratedetector;
+
+	private CopyOnWriteArrayList<SimulationAnimationListener> listeners = new CopyOnWriteArrayList<SimulationAnimationListener>();
 
 	/** Constructor */
 	public SimulationAnimation() {
-		timer = new Timer(interval, new TimerListener());
 		frameratedetector = new FrameRateDetector(500);
-		Settings settings = new Settings();
+		stepratedetector = new FrameRateDetector(500);
+		settings = new Settings();
 		s = new Simulation(settings);
 	}
 
-	/** Listener for timer */
-	public class TimerListener implements ActionListener {
+	/** Loop of the simulation thread */
+	private class SimulationLoop implements Runnable {
 
-		public void actionPerformed(ActionEvent eve) {
-			doSimulationStep();
+		public void run() {
+			while (true) {
+				Settings newSettings;
+				boolean singleStep;
+				synchronized (requests) {
+					try {
+						while (!running && requestedSteps == 0 && requestedSettings == null) {
+							requests.wait();
+						}
+					} catch (InterruptedException e) {
+						return;
+					}
+					newSettings = requestedSettings;
+					requestedSettings = null;
+					singleStep = !running;
+					if (newSettings == null && singleStep) {
+						requestedSteps--;
+					}
+				}
+
+				if (newSettings != null) {
+					replaceSimulation(newSettings);
+					continue;
+				}
+
+				doSimulationStep();
+				publishFrame(singleStep);
+
+				int delay = stepDelay;
+				if (delay > 0 && !singleStep) {
+					try {
+						Thread.sleep(delay);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
 		}
 	}
 
 	public void startAnimation() {
-		timer.start();
+		synchronized (requests) {
+			startSimulationThread();
+			running = true;
+			requests.notifyAll();
+		}
 	}
 
 	public void stopAnimation() {
-		timer.stop();
+		running = false;
+	}
+
+	private void startSimulationThread() {
+		if (simulationThread == null) {
+			simulationThread = new Thread(new SimulationLoop(), "Simulation");
+			simulationThread.setDaemon(true);
+			simulationThread.start();
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
 	}
 
 	/**
-	 * Perform a single animation step
+	 * Stops the animation and requests a single step from the simulation thread. Returns immediately.
 	 */
 	public void stepAnimation() {
-		// stop animation first
-		stopAnimation();
-
-		doSimulationStep();
+		synchronized (requests) {
+			startSimulationThread();
+			running = false;
+			requestedSteps++;
+			requests.notifyAll();
+		}
 	}
 
 	public Simulation getSimulation() {
 		return s;
 	}
 
+	/**
+	 * Lock which is held while the simulation is advanced or replaced. Hold it while reading the simulation outside
+	 * of the simulation thread.
+	 */
+	public ReentrantLock getLock() {
+		return lock;
+	}
+
+	/**
+	 * Acquires the lock on the Event Dispatch Thread. Waits at most one frame interval for the current simulation
+	 * step to finish. If the lock is acquired, the caller has to release it.
+	 *
+	 * @return false if the frame should be skipped
+	 */
+	public boolean tryLockForPainting() {
+		try {
+			return lock.tryLock(frameInterval, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
 	public FrameRateDetector getFrameRateDetector() {
 		return frameratedetector;
 	}
 
-	public Timer getTimer() {
-		return timer;
+	public FrameRateDetector getStepRateDetector() {
+		return stepratedetector;
+	}
+
+	/**
+	 * Sets the delay between two simulation steps. A delay of 0 runs the simulation at full speed.
+	 * @param stepDelay delay in milliseconds
+	 */
+	public void setStepDelay(int stepDelay) {
+		this.stepDelay = Math.max(stepDelay, 0);
+	}
+
+	public int getStepDelay() {
+		return stepDelay;
+	}
+
+	/**
+	 * Sets the minimum time between two frames which are published to the panels.
+	 * @param frameInterval interval in milliseconds
+	 */
+	public void setFrameInterval(int frameInterval) {
+		this.frameInterval = frameInterval;
+	}
+
+	public int getFrameInterval() {
+		return frameInterval;
 	}
 
 	/**
@@ -109,32 +250,130 @@ public class SimulationAnimation {
 	}
 
 	private void doSimulationStep() {
+		lock.lock();
 		try {
-			s.step();
-			if (s.totalSimulationSteps == s.getIterations()) {
-				// Stop simulation (the user can continue by hand)
+			try {
+				s.step();
+				if (s.totalSimulationSteps == s.getIterations()) {
+					// Stop simulation (the user can continue by hand)
+					stopAnimation();
+				}
+			} catch (FileNotFoundException ex) {
 				stopAnimation();
+				Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex);
+			} catch (IOException ex2) {
+				stopAnimation();
+				Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex2);
+			}
+		} finally {
+			lock.unlock();
+		}
+		stepratedetector.update();
+	}
+
+	/**
+	 * Hands the current state to the panels. Unless forced, frames are dropped if the last frame is more recent than
+	 * the frame interval or has not been handed to the panels yet. Forced frames replace a pending frame.
+	 */
+	private void publishFrame(boolean force) {
+		long time = System.currentTimeMillis();
+		if (!force && time - lastFrameTime < frameInterval) {
+			return;
+		}
+		if (!framePending.compareAndSet(false, true)) {
+			if (force) {
+				prepareFrame();
 			}
-		} catch (FileNotFoundException ex) {
-			Logger.getLogger(Particle2DPanel.class.getName()).log(Level.SEVERE, null, ex);
-		} catch (IOException ex2) {
-			Logger.getLogger(Particle2DPanel.class.getName()).log(Level.SEVERE, null, ex2);
+			return;
 		}
-		frameratedetector.update();
-		repaint();
+		lastFrameTime = time;
+		prepareFrame();
+
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				framePending.set(false);
+				frameratedetector.update();
+				repaint();
+			}
+		});
 	}
 
 	/**
-	 * Reset animation according to settings
+	 * Lets the panels copy the data of the next frame.
+	 */
+	private void prepareFrame() {
+		lock.lock();
+		try {
+			for (SimulationAnimationListener l : listeners) {
+				l.prepareFrame();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the animation and requests a reset according to settings. The new simulation is built on the simulation
+	 * thread and replaces the current simulation when it is ready, so this method returns immediately. Animation
+	 * requests which follow the reset are carried out with the new simulation.
 	 *
 	 * @param settings New settings for animation.
 	 */
 	public void resetAnimation(Settings settings) {
-		// timer.restart();
-		timer.stop();
-		s = new Simulation(settings);
-		clear();
-		repaint();
+		synchronized (requests) {
+			startSimulationThread();
+			running = false;
+			requestedSteps = 0;
+			requestedSettings = settings;
+			requests.notifyAll();
+		}
+	}
+
+	/**
+	 * Builds a new simulation, swaps it in under the lock and shuts down the diagnostics and threads of the old
+	 * simulation. Called by the simulation thread.
+	 */
+	private void replaceSimulation(Settings newSettings) {
+		Simulation newSimulation;
+		try {
+			newSimulation = new Simulation(newSettings);
+		} catch (RuntimeException ex) {
+			newSettings.terminateThreads();
+			Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex);
+			return;
+		}
+
+		Simulation oldSimulation;
+		Settings oldSettings;
+		lock.lock();
+		try {
+			oldSimulation = s;
+			oldSettings = settings;
+			s = newSimulation;
+			settings = newSettings;
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			oldSimulation.shutdownDiagnostics();
+		} catch (IOException ex) {
+			Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex);
+		}
+		oldSettings.terminateThreads();
+
+		try {
+			SwingUtilities.invokeAndWait(new Runnable() {
+				public void run() {
+					clear();
+				}
+			});
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException ex) {
+			Logger.getLogger(SimulationAnimation.class.getName()).log(Level.SEVERE, null, ex);
+		}
+		publishFrame(true);
 	}
 
 }
@@ -15,4 +15,10 @@ public interface SimulationAnimationListener {
 	 * Clear the screen from traces
 	 */
 	public void clear();
+
+	/**
+	 * Called by the simulation thread before a new frame is painted. The simulation is not advanced during this call,
+	 * so panels can copy the data which they display.
+	 */
+	public void prepareFrame();
 }
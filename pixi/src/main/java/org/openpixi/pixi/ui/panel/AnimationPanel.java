@@ -3,6 +3,7 @@ package org.openpixi.pixi.ui.panel;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 
 import javax.swing.Box;
 import javax.swing.JLabel;
@@ -18,6 +19,9 @@ public class AnimationPanel extends JPanel implements FocusablePanel {
 	private MyAnimationListener listener;
 	boolean focus = false;
 
+	/** Last frame which has been painted, shown while the simulation is busy */
+	private BufferedImage lastFrame;
+
 	/** Constructor */
 	public AnimationPanel(SimulationAnimation simulationAnimation) {
 		this.simulationAnimation = simulationAnimation;
@@ -36,6 +40,10 @@ public class AnimationPanel extends JPanel implements FocusablePanel {
 		public void clear() {
 			AnimationPanel.this.clear();
 		}
+
+		public void prepareFrame() {
+			AnimationPanel.this.prepareFrame();
+		}
 	}
 
 	public SimulationAnimation getSimulationAnimation() {
@@ -47,6 +55,11 @@ public class AnimationPanel extends JPanel implements FocusablePanel {
 	public void clear() {
 	}
 
+	/** Copy the data of the next frame on the simulation thread.
+	 * (Overwrite for custom behavior.) */
+	public void prepareFrame() {
+	}
+
 	/** Unregister this panel */
 	public void destruct() {
 		simulationAnimation.removeListener(listener);
@@ -60,6 +73,34 @@ public class AnimationPanel extends JPanel implements FocusablePanel {
 		return focus;
 	}
 
+	/**
+	 * Paints the panel while the simulation is not advanced. If the current simulation step takes too long, the last
+	 * frame is shown again instead of blocking the Event Dispatch Thread.
+	 */
+	public void paint(Graphics graph) {
+		if (getWidth() <= 0 || getHeight() <= 0) {
+			return;
+		}
+		if (simulationAnimation.tryLockForPainting()) {
+			try {
+				if (lastFrame == null || lastFrame.getWidth() != getWidth() || lastFrame.getHeight() != getHeight()) {
+					lastFrame = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+				}
+				Graphics frameGraph = lastFrame.createGraphics();
+				try {
+					super.paint(frameGraph);
+				} finally {
+					frameGraph.dispose();
+				}
+			} finally {
+				simulationAnimation.getLock().unlock();
+			}
+		}
+		if (lastFrame != null) {
+			graph.drawImage(lastFrame, 0, 0, null);
+		}
+	}
+
 	public void paintComponent(Graphics graph1) {
 		super.paintComponent(graph1);
 		if (focus) {
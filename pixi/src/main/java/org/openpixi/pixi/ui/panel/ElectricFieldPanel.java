@@ -3,11 +3,13 @@ package org.openpixi.pixi.ui.panel;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.util.List;
 
 import javax.swing.Box;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.CoulombGauge;
 import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.ui.SimulationAnimation;
 import org.openpixi.pixi.ui.panel.properties.BooleanArrayProperties;
@@ -138,8 +140,9 @@ public class ElectricFieldPanel extends AnimationPanel {
 		// TODO: display particles according to showCoordinateProperties (see below)
 
 		// Draw particles on a central line:
-		for (int i = 0; i < s.particles.size(); i++) {
-			IParticle par = s.particles.get(i);
+		List<IParticle> particles = CGCParticleArray.getViews(s.particles);
+		for (int i = 0; i < particles.size(); i++) {
+			IParticle par = particles.get(i);
 			graph.setColor(par.getDisplayColor());
 			double radius = par.getRadius();
 			int width = (int) (2*sx*radius);
@@ -50,6 +50,7 @@ public class InfoPanel extends AnimationPanel {
 		super.paintComponent(graph1);
 
 		FrameRateDetector frameratedetector = getSimulationAnimation().getFrameRateDetector();
+		FrameRateDetector stepratedetector = getSimulationAnimation().getStepRateDetector();
 		Simulation s = getSimulationAnimation().getSimulation();
 
 		graph.translate(0.0, getHeight());
@@ -58,6 +59,7 @@ public class InfoPanel extends AnimationPanel {
 		graph.drawString("Frame rate: " + frameratedetector.getRateString() + " fps", 30, 30);
 		graph.drawString("Time step: " + (float) s.tstep, 30, 50);
 		graph.drawString("Total time: " + (float) s.totalSimulationTime, 30, 70);
+		graph.drawString("Step rate: " + stepratedetector.getRateString() + " steps/s", 30, 90);
 
 		Runtime runtime = Runtime.getRuntime();
 		long maxMemory = runtime.maxMemory();
@@ -25,9 +25,11 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
+import java.util.List;
 
 import javax.swing.Box;
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.ui.SimulationAnimation;
 import org.openpixi.pixi.ui.panel.properties.ColorProperties;
@@ -69,8 +71,9 @@ public class Particle2DPanel extends AnimationPanel {
 		/** Scaling factor for the displayed panel in y-direction*/
 		double sy = getHeight() / s.getHeight();
 
-		for (int i = 0; i < s.particles.size(); i++) {
-			IParticle par = (IParticle) s.particles.get(i);
+		List<IParticle> particles = CGCParticleArray.getViews(s.particles);
+		for (int i = 0; i < particles.size(); i++) {
+			IParticle par = particles.get(i);
 			graph.setColor(par.getDisplayColor());
 			double radius = par.getRadius();//double radius = par.getRadius()*(2 - 1.9*par.getZ()/s.getDepth());
 			int width = (int) (2*sx*radius);
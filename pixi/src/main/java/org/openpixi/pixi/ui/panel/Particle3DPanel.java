@@ -27,6 +27,7 @@ import java.awt.event.MouseEvent;
 import javax.swing.Box;
 
 import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
 import org.openpixi.pixi.physics.particles.IParticle;
 import org.openpixi.pixi.ui.SimulationAnimation;
 import org.openpixi.pixi.ui.panel.properties.ColorProperties;
@@ -123,7 +124,7 @@ public class Particle3DPanel extends AnimationPanel {
 
 		spheres.clear();
 
-		for (IParticle p : s.particles) {
+		for (IParticle p : CGCParticleArray.getViews(s.particles)) {
 			double x = p.getPosition(0);
 			double y = p.getPosition(1);
 			double z = p.getPosition(2);
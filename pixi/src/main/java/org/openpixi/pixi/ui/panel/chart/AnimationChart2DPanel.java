@@ -40,6 +40,10 @@ public class AnimationChart2DPanel extends Chart2D implements FocusablePanel {
 		public void clear() {
 			AnimationChart2DPanel.this.clear();
 		}
+
+		public void prepareFrame() {
+			AnimationChart2DPanel.this.prepareFrame();
+		}
 	}
 
 	public void update() {
@@ -48,6 +52,9 @@ public class AnimationChart2DPanel extends Chart2D implements FocusablePanel {
 	public void clear() {
 	}
 
+	public void prepareFrame() {
+	}
+
 	public SimulationAnimation getSimulationAnimation() {
 		return simulationAnimation;
 	}
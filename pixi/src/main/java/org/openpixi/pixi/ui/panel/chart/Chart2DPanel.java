@@ -11,6 +11,8 @@ import info.monitorenter.gui.chart.traces.Trace2DLtd;
 
 import java.awt.Color;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.swing.Box;
 
@@ -108,6 +110,23 @@ public class Chart2DPanel extends AnimationChart2DPanel {
 
 	private PoyntingTheoremBuffer poyntingTheorem;
 
+	/** Values measured by the simulation thread which have not been added to the traces yet */
+	private ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<Sample>();
+
+	/**
+	 * Values of all charts at one point in time. Charts which have not been computed are NaN.
+	 */
+	private static class Sample {
+		double time;
+		double[] values;
+
+		Sample(double time, int numberOfCharts) {
+			this.time = time;
+			values = new double[numberOfCharts];
+			Arrays.fill(values, Double.NaN);
+		}
+	}
+
 	/** Constructor */
 	public Chart2DPanel(SimulationAnimation simulationAnimation) {
 		super(simulationAnimation);
@@ -136,8 +155,6 @@ public class Chart2DPanel extends AnimationChart2DPanel {
 	}
 
 	public void update() {
-		this.fieldMeasurements = new FieldMeasurements();
-
 		if (logarithmicProperty.getValue() != oldLogarithmicValue) {
 			oldLogarithmicValue = logarithmicProperty.getValue();
 			if (oldLogarithmicValue) {
@@ -155,8 +172,31 @@ public class Chart2DPanel extends AnimationChart2DPanel {
 			}
 		}
 
+		Sample sample = samples.poll();
+		while (sample != null) {
+			for (int i = 0; i < sample.values.length; i++) {
+				if (!Double.isNaN(sample.values[i])) {
+					traces[i].addPoint(sample.time, sample.values[i]);
+				}
+			}
+			sample = samples.poll();
+		}
+
+		for (int i = 0; i < showChartsProperty.getSize(); i++) {
+			traces[i].setVisible(showChartsProperty.getValue(i));
+		}
+	}
+
+	/**
+	 * Measures the values of the charts. This is called by the simulation thread, the values are added to the
+	 * traces in {@link #update()}.
+	 */
+	public void prepareFrame() {
+		this.fieldMeasurements = new FieldMeasurements();
+
 		Simulation s = getSimulationAnimation().getSimulation();
-		double time = s.totalSimulationTime;
+		Sample sample = new Sample(s.totalSimulationTime, chartLabel.length);
+		double[] values = sample.values;
 
 		//TODO Make this method d-dimensional!!
 		// The values computed from fieldMeasurements already come in "physical units", i.e. the factor g*a is accounted for.
@@ -179,20 +219,20 @@ public class Chart2DPanel extends AnimationChart2DPanel {
 		double totalCharge = fieldMeasurements.calculateTotalCharge(s.grid);
 		double totalChargeSquared = fieldMeasurements.calculateTotalChargeSquared(s.grid);
 
-		traces[INDEX_E_SQUARED].addPoint(time, eSquared);
-		traces[INDEX_B_SQUARED].addPoint(time, bSquared);
-		traces[INDEX_GAUSS_VIOLATION].addPoint(time, gaussViolation);
-		traces[INDEX_ENERGY_DENSITY].addPoint(time, energyDensity);
-		traces[INDEX_PX].addPoint(time, px);
-		traces[INDEX_PY].addPoint(time, py);
-		traces[INDEX_PZ].addPoint(time, pz);
-		traces[INDEX_TOTAL_CHARGE].addPoint(time, totalCharge);
-		traces[INDEX_TOTAL_CHARGE_SQUARED].addPoint(time, totalChargeSquared);
+		values[INDEX_E_SQUARED] = eSquared;
+		values[INDEX_B_SQUARED] = bSquared;
+		values[INDEX_GAUSS_VIOLATION] = gaussViolation;
+		values[INDEX_ENERGY_DENSITY] = energyDensity;
+		values[INDEX_PX] = px;
+		values[INDEX_PY] = py;
+		values[INDEX_PZ] = pz;
+		values[INDEX_TOTAL_CHARGE] = totalCharge;
+		values[INDEX_TOTAL_CHARGE_SQUARED] = totalChargeSquared;
 
 		if (showChartsProperty.getValue(INDEX_ENERGY_DENSITY_2)) {
 			occupationNumbers.initialize(s);
 			occupationNumbers.calculate(s.grid, s.particles, 0);
-			traces[INDEX_ENERGY_DENSITY_2].addPoint(time, occupationNumbers.energyDensity);
+			values[INDEX_ENERGY_DENSITY_2] = occupationNumbers.energyDensity;
 		}
 
 		// Poynting theorem calculations
@@ -221,26 +261,23 @@ public class Chart2DPanel extends AnimationChart2DPanel {
 			double integratedPoyntingTheorem2 = poyntingTheorem.getTotalEnergyDensity()
 					+ integratedBrotEminusErotB + integratedJS;
 
-			traces[INDEX_ENERGY_DENSITY_DERIVATIVE].addPoint(time, energyDensityDerivative);
-			traces[INDEX_DIV_S].addPoint(time, divS);
-			traces[INDEX_B_ROT_E_MINUS_E_ROT_B].addPoint(time, brotEminusErotB);
-			traces[INDEX_JE].addPoint(time, jS);
-			traces[INDEX_POYNTING_THEOREM].addPoint(time, poyntingTheoremSum);
-			traces[INDEX_INTEGRATED_DIV_S].addPoint(time, integratedDivS);
-			traces[INDEX_INTEGRATED_B_ROT_E_MINUS_E_ROT_B].addPoint(time, integratedBrotEminusErotB);
-			traces[INDEX_INTEGRATED_JE].addPoint(time, integratedJS);
-			traces[INDEX_INTEGRATED_POYNTING_THEOREM_1].addPoint(time, integratedPoyntingTheorem1);
-			traces[INDEX_INTEGRATED_POYNTING_THEOREM_2].addPoint(time, integratedPoyntingTheorem2);
+			values[INDEX_ENERGY_DENSITY_DERIVATIVE] = energyDensityDerivative;
+			values[INDEX_DIV_S] = divS;
+			values[INDEX_B_ROT_E_MINUS_E_ROT_B] = brotEminusErotB;
+			values[INDEX_JE] = jS;
+			values[INDEX_POYNTING_THEOREM] = poyntingTheoremSum;
+			values[INDEX_INTEGRATED_DIV_S] = integratedDivS;
+			values[INDEX_INTEGRATED_B_ROT_E_MINUS_E_ROT_B] = integratedBrotEminusErotB;
+			values[INDEX_INTEGRATED_JE] = integratedJS;
+			values[INDEX_INTEGRATED_POYNTING_THEOREM_1] = integratedPoyntingTheorem1;
+			values[INDEX_INTEGRATED_POYNTING_THEOREM_2] = integratedPoyntingTheorem2;
 		}
 
-		for (int i = 0; i < showChartsProperty.getSize(); i++) {
-			traces[i].setVisible(showChartsProperty.getValue(i));
-		}
-
-
+		samples.add(sample);
 	}
 
 	public void clear() {
+		samples.clear();
 		for (int i = 0; i < showChartsProperty.getSize(); i++) {
 			traces[i].removeAllPoints();
 			((Trace2DLtd) traces[i]).setMaxSize(simulationAnimation.getSimulation().getIterations());
@@ -1,5 +1,7 @@
 package org.openpixi.pixi.ui.panel.gl;
 
+import java.awt.Graphics;
+
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
 import javax.media.opengl.GLEventListener;
@@ -39,6 +41,38 @@ public class AnimationGLPanel extends GLJPanel implements GLEventListener, Focus
 
 		public void clear() {
 		}
+
+		public void prepareFrame() {
+			AnimationGLPanel.this.prepareFrame();
+		}
+	}
+
+	/** Copy the data of the next frame on the simulation thread.
+	 * (Overwrite for custom behavior.) */
+	public void prepareFrame() {
+	}
+
+	/**
+	 * Panels which only display the data copied in {@link #prepareFrame()} do not need the simulation lock while
+	 * they paint.
+	 * (Overwrite for custom behavior.)
+	 */
+	protected boolean usesFrameSnapshot() {
+		return false;
+	}
+
+	@Override
+	public void paintComponent(Graphics graph) {
+		if (usesFrameSnapshot()) {
+			super.paintComponent(graph);
+		} else if (simulationAnimation.tryLockForPainting()) {
+			try {
+				super.paintComponent(graph);
+			} finally {
+				simulationAnimation.getLock().unlock();
+			}
+		}
+		// Otherwise the frame is skipped, the next frame repaints the panel.
 	}
 
 	public SimulationAnimation getSimulationAnimation() {
@@ -88,6 +88,29 @@ public class EnergyDensityVoxelGLPanel extends AnimationGLPanel {
 
 	public boolean shiftKeyPressed = false;
 
+	/** Data of the latest frame */
+	private volatile Frame frame;
+
+	/**
+	 * Values and colors of all cells at a certain time step. Frames are created by the simulation thread and are not
+	 * modified afterwards, so they can be drawn while the simulation continues.
+	 */
+	private static class Frame {
+		final Simulation simulation;
+		final int dataIndex;
+		final int direction;
+		final double[] values;
+		final double[] colors;
+
+		Frame(Simulation simulation, int dataIndex, int direction) {
+			this.simulation = simulation;
+			this.dataIndex = dataIndex;
+			this.direction = direction;
+			this.values = new double[simulation.grid.getTotalNumberOfCells()];
+			this.colors = new double[3 * values.length];
+		}
+	}
+
 	/** Constructor */
 	public EnergyDensityVoxelGLPanel(SimulationAnimation simulationAnimation) {
 		super(simulationAnimation);
@@ -132,7 +155,12 @@ public class EnergyDensityVoxelGLPanel extends AnimationGLPanel {
 
 		double scale = scaleProperties.getScale();
 		scaleProperties.resetAutomaticScale();
-		Simulation s = getSimulationAnimation().getSimulation();
+		Frame frame = getFrame(dataIndex, direction);
+		if (frame == null) {
+			// The simulation is busy, the next frame repaints the panel.
+			return;
+		}
+		Simulation s = frame.simulation;
 
 		double visibilityThreshold = visibilityThresholdProperties.getValue();
 		double opacity = opacityProperties.getValue();
@@ -308,36 +336,11 @@ public class EnergyDensityVoxelGLPanel extends AnimationGLPanel {
 					float y = (float) (as * pos[1]);
 					float z = (float) (as * pos[2]);
 
-					double value = 0;
-					color[RED] = 0;
-					color[GREEN] = 0;
-					color[BLUE] = 0;
+					double value = frame.values[index];
+					color[RED] = frame.colors[3 * index + RED];
+					color[GREEN] = frame.colors[3 * index + GREEN];
+					color[BLUE] = frame.colors[3 * index + BLUE];
 					double alpha = 0;
-					if(s.grid.isEvaluatable(index)) {
-						switch(dataIndex) {
-						case INDEX_ENERGY_DENSITY:
-							value = getEnergyDensity(s, index, color, direction, true, true, true, true);
-							break;
-						case INDEX_ENERGY_DENSITY_LONGITUDINAL_ELECTRIC:
-							value = getEnergyDensity(s, index, color, direction, true, false, true, false);
-							break;
-						case INDEX_ENERGY_DENSITY_LONGITUDINAL_MAGNETIC:
-							value = getEnergyDensity(s, index, color, direction, true, false, false, true);
-							break;
-						case INDEX_ENERGY_DENSITY_TRANSVERSE_ELECTRIC:
-							value = getEnergyDensity(s, index, color, direction, false, true, true, false);
-							break;
-						case INDEX_ENERGY_DENSITY_TRANSVERSE_MAGNETIC:
-							value = getEnergyDensity(s, index, color, direction, false, true, false, true);
-							break;
-						case INDEX_GAUSS_VIOLATION:
-							value = getGaussViolation(s, index, color);
-							break;
-						case INDEX_U_LONGITUDINAL:
-							value = getU(s, index, color, direction);
-							break;
-						}
-					}
 					// Normalize
 					double norm = Math.max(color[RED] + color[GREEN] + color[BLUE], 10E-20);
 					double limitedValue = Math.min(1, scale * Math.abs(value));
@@ -361,6 +364,80 @@ public class EnergyDensityVoxelGLPanel extends AnimationGLPanel {
 		scaleProperties.calculateAutomaticScale(1.0);
 	}
 
+	@Override
+	public void prepareFrame() {
+		if (isShowing()) {
+			frame = createFrame(getSimulationAnimation().getSimulation(), dataProperties.getIndex(),
+					directionProperties.getIndex());
+		}
+	}
+
+	@Override
+	protected boolean usesFrameSnapshot() {
+		return true;
+	}
+
+	/**
+	 * Returns the latest frame. A new frame is created if the simulation has been reset or the data to be displayed
+	 * has changed since. If the simulation is busy, the latest frame is returned (or null if there is none).
+	 */
+	private Frame getFrame(int dataIndex, int direction) {
+		Frame frame = this.frame;
+		if (frame == null || frame.simulation != getSimulationAnimation().getSimulation()
+				|| frame.dataIndex != dataIndex || frame.direction != direction) {
+			if (getSimulationAnimation().tryLockForPainting()) {
+				try {
+					frame = createFrame(getSimulationAnimation().getSimulation(), dataIndex, direction);
+				} finally {
+					getSimulationAnimation().getLock().unlock();
+				}
+				this.frame = frame;
+			}
+		}
+		return frame;
+	}
+
+	private Frame createFrame(Simulation s, int dataIndex, int direction) {
+		Frame frame = new Frame(s, dataIndex, direction);
+		double[] color = new double[3];
+		for (int index = 0; index < frame.values.length; index++) {
+			double value = 0;
+			color[RED] = 0;
+			color[GREEN] = 0;
+			color[BLUE] = 0;
+			if(s.grid.isEvaluatable(index)) {
+				switch(dataIndex) {
+				case INDEX_ENERGY_DENSITY:
+					value = getEnergyDensity(s, index, color, direction, true, true, true, true);
+					break;
+				case INDEX_ENERGY_DENSITY_LONGITUDINAL_ELECTRIC:
+					value = getEnergyDensity(s, index, color, direction, true, false, true, false);
+					break;
+				case INDEX_ENERGY_DENSITY_LONGITUDINAL_MAGNETIC:
+					value = getEnergyDensity(s, index, color, direction, true, false, false, true);
+					break;
+				case INDEX_ENERGY_DENSITY_TRANSVERSE_ELECTRIC:
+					value = getEnergyDensity(s, index, color, direction, false, true, true, false);
+					break;
+				case INDEX_ENERGY_DENSITY_TRANSVERSE_MAGNETIC:
+					value = getEnergyDensity(s, index, color, direction, false, true, false, true);
+					break;
+				case INDEX_GAUSS_VIOLATION:
+					value = getGaussViolation(s, index, color);
+					break;
+				case INDEX_U_LONGITUDINAL:
+					value = getU(s, index, color, direction);
+					break;
+				}
+			}
+			frame.values[index] = value;
+			frame.colors[3 * index + RED] = color[RED];
+			frame.colors[3 * index + GREEN] = color[GREEN];
+			frame.colors[3 * index + BLUE] = color[BLUE];
+		}
+		return frame;
+	}
+
 	private void drawCubeWireframe(GL2 gl2, double x, double y, double z, double sizex, double sizey, double sizez, double thickness) {
 		gl2.glPushMatrix();
 		gl2.glTranslated(x, y, z);
@@ -0,0 +1,208 @@
+package org.openpixi.pixi.ui.util;
+
+import edu.emory.mathcs.utils.ConcurrencyUtils;
+import org.openpixi.pixi.diagnostics.EnsembleStatistics;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.ui.util.yaml.YamlParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs an ensemble of simulations (events) in a single JVM.
+ * <br>
+ * The events are created from a YAML template with the placeholders of the batch script
+ * (scripts/vsc batch/openpixi_batch.py): %i% is replaced by the index of the event (e.g. to set the random seeds and
+ * the output paths), %i0% and %i1% by the first and the last index and %f BEGIN END% by a linear range of floating
+ * point numbers. Input files of the batch script can be used directly: only the part between %yaml begin% and
+ * %yaml end% is used and the range is read from %range BEGIN END%.
+ * <br>
+ * Several events are calculated at the same time. Their output paths have to contain %i%, otherwise the events would
+ * write to the same files. They share a fixed budget of threads: the thread pools of the
+ * parallel iterators are shared by all events and every event uses an equal part of the budget. Since the event
+ * threads are reused, later events also reuse the FFT plans (see DoubleFFTWrapper#getCached) and the JIT compiled
+ * code of the earlier ones.
+ * <br>
+ * The output of all events is collected by {@link EnsembleStatistics}. The running means and variances are written
+ * to the ensemble file whenever an event has finished.
+ */
+public class EnsembleRunner {
+
+	private static final Pattern RANGE = Pattern.compile("%range\\s+(-?\\d+)\\s+(-?\\d+)%");
+	private static final Pattern FLOAT_RANGE = Pattern.compile("%f\\s+(\\S+)\\s+(\\S+)%");
+
+	private String template;
+	private int rangeBegin;
+	private int rangeEnd;
+	private boolean hasRange = false;
+
+	private int numberOfConcurrentEvents = 1;
+	private int numberOfThreads = 1;
+
+	private final EnsembleStatistics statistics = new EnsembleStatistics();
+
+	/**
+	 * Creates a runner for a template. If the template is an input file of the batch script, its range is used.
+	 *
+	 * @param template  YAML template or input file of the batch script
+	 */
+	public EnsembleRunner(String template) {
+		int yamlBegin = template.indexOf("%yaml begin%");
+		int yamlEnd = template.indexOf("%yaml end%");
+		if (yamlBegin >= 0 && yamlEnd > yamlBegin) {
+			Matcher matcher = RANGE.matcher(template);
+			if (matcher.find()) {
+				setRange(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+			}
+			template = template.substring(yamlBegin + "%yaml begin%".length(), yamlEnd);
+		}
+		if (template.contains("%eval")) {
+			System.out.println("EnsembleRunner: %eval ...% is not supported.");
+		}
+		this.template = template;
+	}
+
+	/**
+	 * Sets the indices of the first and the last event (inclusive).
+	 */
+	public void setRange(int rangeBegin, int rangeEnd) {
+		this.rangeBegin = rangeBegin;
+		this.rangeEnd = rangeEnd;
+		this.hasRange = true;
+	}
+
+	public boolean hasRange() {
+		return hasRange;
+	}
+
+	/**
+	 * Sets the number of events which are calculated at the same time.
+	 */
+	public void setNumberOfConcurrentEvents(int numberOfConcurrentEvents) {
+		this.numberOfConcurrentEvents = Math.max(numberOfConcurrentEvents, 1);
+	}
+
+	/**
+	 * Sets the total number of threads which is shared by all events.
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(numberOfThreads, 1);
+	}
+
+	public EnsembleStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns the YAML configuration of an event.
+	 *
+	 * @param i Index of the event
+	 * @return  YAML string
+	 */
+	public String getConfiguration(int i) {
+		String configuration = template.replace("%i%", Integer.toString(i))
+				.replace("%i0%", Integer.toString(rangeBegin))
+				.replace("%i1%", Integer.toString(rangeEnd));
+
+		Matcher matcher = FLOAT_RANGE.matcher(configuration);
+		StringBuffer buffer = new StringBuffer();
+		while (matcher.find()) {
+			double begin = Double.parseDouble(matcher.group(1));
+			double end = Double.parseDouble(matcher.group(2));
+			double value = begin;
+			if (rangeEnd > rangeBegin) {
+				value += (end - begin) * (i - rangeBegin) / (rangeEnd - rangeBegin);
+			}
+			matcher.appendReplacement(buffer, Double.toString(value));
+		}
+		matcher.appendTail(buffer);
+		return buffer.toString();
+	}
+
+	/**
+	 * Runs all events of the range and writes the ensemble statistics.
+	 *
+	 * @param ensemblePath  Path of the ensemble file
+	 * @return              Number of events which have failed
+	 */
+	public int run(final String ensemblePath) throws InterruptedException {
+		if (numberOfConcurrentEvents > 1 && rangeEnd > rangeBegin && !template.contains("%i%")) {
+			throw new RuntimeException("EnsembleRunner: The template does not contain %i%. Concurrent events would "
+					+ "write to the same output files.");
+		}
+		int threadsPerEvent = Math.max(numberOfThreads / numberOfConcurrentEvents, 1);
+		final ExecutorService threadsExecutor = Executors.newFixedThreadPool(numberOfThreads);
+		final ForkJoinPool forkJoinPool = new ForkJoinPool(numberOfThreads);
+		ExecutorService eventExecutor = Executors.newFixedThreadPool(numberOfConcurrentEvents);
+
+		// Multithreaded FFTs would exceed the budget.
+		ConcurrencyUtils.setNumberOfThreads(threadsPerEvent);
+
+		System.out.println("EnsembleRunner: Running events " + rangeBegin + " to " + rangeEnd + " ("
+				+ numberOfConcurrentEvents + " at the same time, " + threadsPerEvent + " threads each)");
+
+		ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+		final int eventThreads = threadsPerEvent;
+		for (int i = rangeBegin; i <= rangeEnd; i++) {
+			final int index = i;
+			results.add(eventExecutor.submit(new Runnable() {
+				public void run() {
+					try {
+						runEvent(index, eventThreads, threadsExecutor, forkJoinPool);
+						synchronized (statistics) {
+							statistics.write(ensemblePath);
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}));
+		}
+
+		int failed = 0;
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (ExecutionException e) {
+				System.out.println("EnsembleRunner: Event " + (rangeBegin + i) + " failed: " + e.getCause());
+				failed++;
+			}
+		}
+
+		eventExecutor.shutdown();
+		threadsExecutor.shutdown();
+		forkJoinPool.shutdown();
+		return failed;
+	}
+
+	private void runEvent(int i, int threads, ExecutorService threadsExecutor, ForkJoinPool forkJoinPool)
+			throws IOException {
+		statistics.beginEvent();
+		try {
+			Settings settings = new Settings();
+			YamlParser yamlParser = new YamlParser(settings);
+			yamlParser.parseString(getConfiguration(i));
+			settings.setNumOfThreads(threads);
+			settings.setSharedThreadPools(threadsExecutor, forkJoinPool);
+
+			long t0 = System.nanoTime();
+			Simulation simulation = new Simulation(settings);
+			simulation.run();
+			simulation.shutdownDiagnostics();
+			settings.terminateThreads();
+
+			int dt = (int) ((System.nanoTime() - t0) / 1000 / 1000);
+			System.out.println("EnsembleRunner: Event " + i + " finished (" + dt + " ms)");
+		} finally {
+			statistics.endEvent();
+		}
+	}
+}
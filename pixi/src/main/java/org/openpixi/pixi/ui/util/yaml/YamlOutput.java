@@ -35,6 +35,8 @@ public class YamlOutput {
 
 	public ArrayList<YamlTimeMeasurement> timeMeasurement = new ArrayList<YamlTimeMeasurement>();
 
+	public ArrayList<YamlCheckpoint> checkpoints = new ArrayList<YamlCheckpoint>();
+
 	/**
 	 * Creates FileGenerator instances and applies them to the Settings instance.
 	 * @param s
@@ -91,6 +93,10 @@ public class YamlOutput {
 		for(YamlTimeMeasurement output : timeMeasurement) {
 			s.addDiagnostics(output.getFileGenerator());
 		}
+
+		for(YamlCheckpoint output : checkpoints) {
+			s.addDiagnostics(output.getFileGenerator());
+		}
 	}
 	
 }
@@ -21,6 +21,23 @@ public class YamlSettings {
 	public Double gridStep;
 	public Double duration;
 	public List<Integer> gridCells;
+	public Boolean flatGrid;
+	public Boolean neighbourTable;
+	public Boolean blockCellIterator;
+	public Integer cellBlockSize;
+	public Boolean orderedReduction;
+	public Double depositionBufferThreshold;
+	public Integer diagnosticsQueueDepth;
+	public Boolean fusedSolver;
+	public Integer temporalBlocking;
+	public String restartFile;
+	public Boolean movingWindow;
+	public Integer movingWindowMargin;
+	public Boolean occupiedSlabs;
+	public Integer occupiedSlabsDirection;
+	public Double vacuumTolerance;
+	public Integer particleArraySize;
+	public String initialConditionsCache;
 
 	public YamlRegion evaluationRegion;
 	public YamlRegion activeRegion;
@@ -97,6 +114,74 @@ public class YamlSettings {
 			settings.setGridStep(gridStep);
 		}
 
+		if (flatGrid != null) {
+			settings.useFlatGrid(flatGrid);
+		}
+
+		if (neighbourTable != null) {
+			settings.useNeighbourTable(neighbourTable);
+		}
+
+		if (blockCellIterator != null) {
+			settings.useBlockCellIterator(blockCellIterator);
+		}
+
+		if (cellBlockSize != null) {
+			settings.setCellBlockSize(cellBlockSize);
+		}
+
+		if (orderedReduction != null) {
+			settings.useOrderedReduction(orderedReduction);
+		}
+
+		if (depositionBufferThreshold != null) {
+			settings.setDepositionBufferThreshold(depositionBufferThreshold);
+		}
+
+		if (diagnosticsQueueDepth != null) {
+			settings.setDiagnosticsQueueDepth(diagnosticsQueueDepth);
+		}
+
+		if (fusedSolver != null) {
+			settings.useFusedSolver(fusedSolver);
+		}
+
+		if (temporalBlocking != null) {
+			settings.setTemporalBlocking(temporalBlocking);
+		}
+
+		if (restartFile != null) {
+			settings.setRestartFile(restartFile);
+		}
+
+		if (movingWindow != null) {
+			settings.useMovingWindow(movingWindow);
+		}
+
+		if (movingWindowMargin != null) {
+			settings.setMovingWindowMargin(movingWindowMargin);
+		}
+
+		if (occupiedSlabs != null) {
+			settings.useOccupiedSlabs(occupiedSlabs);
+		}
+
+		if (occupiedSlabsDirection != null) {
+			settings.setOccupiedSlabsDirection(occupiedSlabsDirection);
+		}
+
+		if (vacuumTolerance != null) {
+			settings.setVacuumTolerance(vacuumTolerance);
+		}
+
+		if (particleArraySize != null) {
+			settings.setParticleArraySize(particleArraySize);
+		}
+
+		if (initialConditionsCache != null) {
+			settings.setInitialConditionsCache(initialConditionsCache);
+		}
+
 		if (gridCells != null) {
 			if(gridCells.size() != numberOfDimensions) {
 				throw new RuntimeException("Size of gridCells does not match numberOfDimensions.");
@@ -14,6 +14,11 @@ public class YamlBulkQuantitiesInTime {
 	 */
 	public String path;
 
+	/**
+	 * Output format: "text" (default), "gzip" or "binary".
+	 */
+	public String format;
+
 	/**
 	 * Measurement interval.
 	 */
@@ -27,6 +32,9 @@ public class YamlBulkQuantitiesInTime {
 	 */
 	public BulkQuantitiesInTime getFileGenerator() {
 		BulkQuantitiesInTime fileGen = new BulkQuantitiesInTime(path, interval);
+		if(format != null) {
+			fileGen.setFormat(format);
+		}
 		return fileGen;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package org.openpixi.pixi.ui.util.yaml.filegenerators;
+
+import org.openpixi.pixi.diagnostics.methods.CheckpointWriter;
+
+/**
+ * Yaml wrapper for the CheckpointWriter FileGenerator.
+ */
+public class YamlCheckpoint {
+
+	/**
+	 * Checkpoint file name.
+	 */
+	public String path;
+
+	/**
+	 * Time interval between checkpoints.
+	 */
+	public double interval;
+
+
+	/**
+	 * Returns an instance of CheckpointWriter according to the parameters in the YAML file.
+	 *
+	 * @return Instance of CheckpointWriter.
+	 */
+	public CheckpointWriter getFileGenerator() {
+		CheckpointWriter fileGen = new CheckpointWriter(path, interval);
+		return fileGen;
+	}
+}
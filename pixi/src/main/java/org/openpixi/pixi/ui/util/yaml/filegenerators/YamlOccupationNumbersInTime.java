@@ -1,6 +1,8 @@
 package org.openpixi.pixi.ui.util.yaml.filegenerators;
 import org.openpixi.pixi.diagnostics.methods.OccupationNumbersInTime;
 
+import java.util.List;
+
 /**
  * Yaml wrapper for the YamlParticlesInTime FileGenerator.
  */
@@ -13,7 +15,8 @@ public class YamlOccupationNumbersInTime {
 
 	/**
 	 * Format type of the output.
-	 * Supported types are: "csv"
+	 * Supported types are: "csv", "csv_with_vectors", "csv_only_energy", "csv_radial" (binned in |k|),
+	 * "csv_transverse_longitudinal" (binned in |k_T| and |k_L|), "csv_color_sums" and "none"
 	 */
 	public String outputType;
 
@@ -22,11 +25,36 @@ public class YamlOccupationNumbersInTime {
 	 */
 	public String path;
 
+	/**
+	 * Output format: "text" (default), "gzip" or "binary".
+	 */
+	public String format;
+
 	/**
 	 * True/False. Decides whether to output 'colored' occupation numbers or ouput the sum over all colors.
 	 */
 	public Boolean colorful = false;
 
+	/**
+	 * Bin edges of |k| (csv_radial) or |k_T| (csv_transverse_longitudinal).
+	 */
+	public List<Double> binEdges;
+
+	/**
+	 * Bin edges of |k_L| (csv_transverse_longitudinal).
+	 */
+	public List<Double> longitudinalBinEdges;
+
+	/**
+	 * Number of equally sized bins up to the largest momentum if no bin edges are given.
+	 */
+	public Integer numberOfBins;
+
+	/**
+	 * Longitudinal direction (csv_transverse_longitudinal).
+	 */
+	public Integer longitudinalDirection;
+
 	/**
 	 * Returns an instance of CoulombGaugeInTime according to the parameters in the YAML file.
 	 *
@@ -39,6 +67,29 @@ public class YamlOccupationNumbersInTime {
 		} else {
 			fileGen = new OccupationNumbersInTime(interval, outputType, path, false);
 		}
+		if(format != null) {
+			fileGen.setFormat(format);
+		}
+		if(binEdges != null) {
+			fileGen.setBinEdges(getDoubleArray(binEdges));
+		}
+		if(longitudinalBinEdges != null) {
+			fileGen.setLongitudinalBinEdges(getDoubleArray(longitudinalBinEdges));
+		}
+		if(numberOfBins != null) {
+			fileGen.setNumberOfBins(numberOfBins);
+		}
+		if(longitudinalDirection != null) {
+			fileGen.setLongitudinalDirection(longitudinalDirection);
+		}
 		return fileGen;
 	}
+
+	private double[] getDoubleArray(List<Double> list) {
+		double[] array = new double[list.size()];
+		for (int i = 0; i < list.size(); i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
 }
@@ -23,6 +23,11 @@ public class YamlPlanarFields {
 	 */
 	public String path;
 
+	/**
+	 * Output format: "text" (default), "gzip" or "binary".
+	 */
+	public String format;
+
 	/**
 	 * Direction orthogonal the plane.
 	 */
@@ -43,6 +48,10 @@ public class YamlPlanarFields {
 			finalTime = Double.MAX_VALUE;
 		}
 
-		return new PlanarFields(interval, path, startingTime, finalTime, direction, planarIndex);
+		PlanarFields fileGen = new PlanarFields(interval, path, startingTime, finalTime, direction, planarIndex);
+		if(format != null) {
+			fileGen.setFormat(format);
+		}
+		return fileGen;
 	}
 }
@@ -9,6 +9,11 @@ public class YamlProjectedEnergyDensity {
 	 */
 	public String path;
 
+	/**
+	 * Output format: "text" (default), "gzip" or "binary".
+	 */
+	public String format;
+
 	/**
 	 * Measurement interval.
 	 */
@@ -22,6 +27,9 @@ public class YamlProjectedEnergyDensity {
 
 	public ProjectedEnergyDensity getFileGenerator() {
 		ProjectedEnergyDensity generator = new ProjectedEnergyDensity(path, interval, direction);
+		if(format != null) {
+			generator.setFormat(format);
+		}
 		return generator;
 	}
 }
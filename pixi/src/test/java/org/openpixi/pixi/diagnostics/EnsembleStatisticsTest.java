@@ -0,0 +1,137 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.ui.util.EnsembleRunner;
+
+public class EnsembleStatisticsTest {
+
+	private final double accuracy = 1.E-12;
+
+	private final int numberOfEvents = 4;
+
+	@Test
+	public void testEnsemble() throws IOException, InterruptedException {
+		String directory = "ensemble_test_" + System.nanoTime();
+		String template = "simulationType: temporal yang-mills\n"
+				+ "gridStep: 1\n"
+				+ "couplingConstant: 1\n"
+				+ "numberOfDimensions: 3\n"
+				+ "numberOfColors: 2\n"
+				+ "gridCells: [16, 8, 8]\n"
+				+ "timeStep: 0.5\n"
+				+ "duration: 4\n"
+				+ "currents:\n"
+				+ "  randomTemporalColorCurrents:\n"
+				+ "    - direction: 0\n"
+				+ "      orientation: 1\n"
+				+ "      longitudinalLocation: 4\n"
+				+ "      longitudinalWidth: 1.0\n"
+				+ "      transversalWidth: 2.0\n"
+				+ "      transversalLocation: [4, 4]\n"
+				+ "      numberOfCharges: 10\n"
+				+ "      colorDistributionWidth: 0.2\n"
+				+ "      numberOfColors: 2\n"
+				+ "      randomSeed: %i%\n"
+				+ "output:\n"
+				+ "  bulkQuantitiesInTime:\n"
+				+ "    - path: " + directory + "/a_%i%.dat\n"
+				+ "      interval: 0.5\n"
+				+ "    - path: " + directory + "/b_%i%.dat\n"
+				+ "      interval: 1.0\n";
+
+		File outputDirectory = new File("output", directory);
+		boolean createOutput = !outputDirectory.getParentFile().exists();
+		try {
+			EnsembleRunner runner = new EnsembleRunner(template);
+			runner.setRange(0, numberOfEvents - 1);
+			runner.setNumberOfConcurrentEvents(2);
+			runner.setNumberOfThreads(4);
+			String ensemblePath = new File(outputDirectory, "ensemble.dat").getPath();
+			Assert.assertEquals(0, runner.run(ensemblePath));
+
+			List<String> lines = OutputFileTest.readText(ensemblePath, false);
+			Assert.assertEquals("# events: " + numberOfEvents, lines.get(0));
+
+			// The k-th file of every event belongs to the k-th output of the ensemble, the label is the path of
+			// one of the events.
+			int line = 1;
+			String[] names = {"a", "b"};
+			for (String name : names) {
+				double[][][] events = new double[numberOfEvents][][];
+				for (int i = 0; i < numberOfEvents; i++) {
+					events[i] = readRecords(new File(outputDirectory, name + "_" + i + ".dat").getPath());
+				}
+				Assert.assertTrue(lines.get(line).matches("# mean: .*" + directory + "/" + name + "_\\d\\.dat"));
+				line = assertBlock(lines, line + 1, events, false);
+				Assert.assertTrue(lines.get(line).matches("# variance: .*" + directory + "/" + name + "_\\d\\.dat"));
+				line = assertBlock(lines, line + 1, events, true);
+			}
+			Assert.assertEquals(lines.size(), line);
+		} finally {
+			if (outputDirectory.exists()) {
+				OutputFileTest.deleteDirectory(outputDirectory);
+			}
+			if (createOutput) {
+				outputDirectory.getParentFile().delete();
+			}
+		}
+	}
+
+	/**
+	 * Compares a block of the ensemble file with the means or the variances of the per-event records.
+	 *
+	 * @return  Index of the first line after the block
+	 */
+	private int assertBlock(List<String> lines, int line, double[][][] events, boolean variance) {
+		int rows = events[0].length;
+		double sum = 0.0;
+		for (int row = 0; row < rows; row++) {
+			String[] columns = lines.get(line + row).split("\t");
+			Assert.assertEquals(events[0][row].length + 1, columns.length);
+			Assert.assertEquals(numberOfEvents, Double.parseDouble(columns[0]), 0.0);
+			for (int c = 0; c < events[0][row].length; c++) {
+				double mean = 0.0;
+				for (int i = 0; i < numberOfEvents; i++) {
+					mean += events[i][row][c] / numberOfEvents;
+				}
+				double expected = mean;
+				if (variance) {
+					expected = 0.0;
+					for (int i = 0; i < numberOfEvents; i++) {
+						expected += Math.pow(events[i][row][c] - mean, 2) / (numberOfEvents - 1);
+					}
+				}
+				double actual = Double.parseDouble(columns[c + 1]);
+				Assert.assertEquals(expected, actual, accuracy * Math.abs(expected) + 1.E-30);
+				sum += Math.abs(actual);
+			}
+		}
+		// The events differ by their random seeds.
+		Assert.assertTrue(sum > 0.0);
+		Assert.assertEquals("", lines.get(line + rows));
+		return line + rows + 1;
+	}
+
+	private double[][] readRecords(String path) throws IOException {
+		List<double[]> records = new ArrayList<double[]>();
+		for (String line : OutputFileTest.readText(path, false)) {
+			if (line.startsWith("#")) {
+				continue;
+			}
+			String[] columns = line.split("\t");
+			double[] values = new double[columns.length];
+			for (int c = 0; c < columns.length; c++) {
+				values[c] = Double.parseDouble(columns[c]);
+			}
+			records.add(values);
+		}
+		Assert.assertTrue(records.size() > 1);
+		return records.toArray(new double[records.size()][]);
+	}
+}
@@ -0,0 +1,190 @@
+package org.openpixi.pixi.diagnostics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutputFileTest {
+
+	@Test
+	public void testResume() throws IOException {
+		File directory = createDirectory();
+		try {
+			String[] formats = {OutputFile.TEXT, OutputFile.GZIP, OutputFile.BINARY};
+			for (String format : formats) {
+				String path = new File(directory, "resume_" + format).getPath();
+				OutputFile file = OutputFile.create(path, format);
+				file.writeHeader("#header");
+				writeRecord(file, 1.0, 2.0);
+				Map<String, Long> positions = OutputFile.getPositions();
+
+				// Records after the checkpoint are written by the earlier run, but not part of the resumed run.
+				writeRecord(file, 3.0, 4.0);
+				file.flush();
+
+				OutputFile.setResumePositions(positions);
+				try {
+					file = OutputFile.create(path, format);
+					file.writeHeader("#header");
+				} finally {
+					OutputFile.setResumePositions(null);
+				}
+				writeRecord(file, 5.0, 6.0);
+				file.close();
+
+				if (format.equals(OutputFile.BINARY)) {
+					Assert.assertArrayEquals(new double[]{1.0, 2.0, 5.0, 6.0}, readBinary(file.getPath(), "#header\n"), 0.0);
+				} else {
+					List<String> lines = readText(file.getPath(), format.equals(OutputFile.GZIP));
+					Assert.assertEquals(3, lines.size());
+					Assert.assertEquals("#header", lines.get(0));
+					assertRecord(lines.get(1), 1.0, 2.0);
+					assertRecord(lines.get(2), 5.0, 6.0);
+				}
+			}
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		File directory = createDirectory();
+		try {
+			String[] formats = {OutputFile.TEXT, OutputFile.GZIP, OutputFile.BINARY};
+			for (String format : formats) {
+				OutputFile file = OutputFile.create(new File(directory, "round_trip").getPath(), format);
+				file.writeHeader("#first line");
+				file.writeHeader("#second line");
+				writeRecord(file, 1.0, -2.5);
+				writeRecord(file, 1.0E-300, Double.MAX_VALUE, 0.1);
+				file.close();
+
+				if (format.equals(OutputFile.BINARY)) {
+					Assert.assertArrayEquals(new double[]{1.0, -2.5, 1.0E-300, Double.MAX_VALUE, 0.1},
+							readBinary(file.getPath(), "#first line\n#second line\n"), 0.0);
+				} else {
+					Assert.assertEquals(format.equals(OutputFile.GZIP), file.getPath().endsWith(".gz"));
+					List<String> lines = readText(file.getPath(), format.equals(OutputFile.GZIP));
+					Assert.assertEquals(4, lines.size());
+					Assert.assertEquals("#first line", lines.get(0));
+					Assert.assertEquals("#second line", lines.get(1));
+					assertRecord(lines.get(2), 1.0, -2.5);
+					assertRecord(lines.get(3), 1.0E-300, Double.MAX_VALUE, 0.1);
+				}
+			}
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	@Test
+	public void testBinaryLayout() throws IOException {
+		File directory = createDirectory();
+		try {
+			OutputFile file = OutputFile.create(new File(directory, "layout").getPath(), OutputFile.BINARY);
+			file.writeHeader("#t");
+			writeRecord(file, 0.5);
+			file.close();
+
+			// Magic number, header length (little-endian int), header and the values (little-endian doubles).
+			byte[] bytes = new byte[(int) new File(file.getPath()).length()];
+			FileInputStream in = new FileInputStream(file.getPath());
+			try {
+				Assert.assertEquals(bytes.length, in.read(bytes));
+			} finally {
+				in.close();
+			}
+			Assert.assertEquals(8 + 4 + 3 + 8, bytes.length);
+			Assert.assertEquals("PIXIBIN1", new String(bytes, 0, 8, "US-ASCII"));
+			ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			Assert.assertEquals(3, buffer.getInt(8));
+			Assert.assertEquals("#t\n", new String(bytes, 12, 3, "UTF-8"));
+			Assert.assertEquals(0.5, buffer.getDouble(15), 0.0);
+		} finally {
+			deleteDirectory(directory);
+		}
+	}
+
+	static File createDirectory() throws IOException {
+		File directory = File.createTempFile("output", "");
+		directory.delete();
+		directory.mkdir();
+		return directory;
+	}
+
+	static void deleteDirectory(File directory) {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	static void writeRecord(OutputFile file, double... values) throws IOException {
+		file.writeValues(values);
+		file.endLine();
+	}
+
+	static void assertRecord(String line, double... values) {
+		String[] columns = line.split("\t");
+		Assert.assertEquals(values.length, columns.length);
+		for (int i = 0; i < values.length; i++) {
+			Assert.assertEquals(values[i], Double.parseDouble(columns[i]), 0.0);
+		}
+	}
+
+	static List<String> readText(String path, boolean gzip) throws IOException {
+		InputStream in = new FileInputStream(path);
+		if (gzip) {
+			in = new GZIPInputStream(in);
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+		try {
+			List<String> lines = new ArrayList<String>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+			return lines;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Reads a binary file and checks the magic number and the header.
+	 */
+	static double[] readBinary(String path, String header) throws IOException {
+		File file = new File(path);
+		ByteBuffer buffer = ByteBuffer.allocate((int) file.length()).order(ByteOrder.LITTLE_ENDIAN);
+		FileInputStream in = new FileInputStream(file);
+		try {
+			in.getChannel().read(buffer);
+		} finally {
+			in.close();
+		}
+		buffer.flip();
+		Assert.assertEquals("PIXIBIN1", new String(buffer.array(), 0, 8, "US-ASCII"));
+		buffer.position(8);
+		int headerLength = buffer.getInt();
+		Assert.assertEquals(header, new String(buffer.array(), 12, headerLength, "UTF-8"));
+		buffer.position(12 + headerLength);
+		double[] values = new double[buffer.remaining() / 8];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = buffer.getDouble();
+		}
+		return values;
+	}
+}
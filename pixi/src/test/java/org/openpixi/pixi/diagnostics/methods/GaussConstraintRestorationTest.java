@@ -0,0 +1,131 @@
+package org.openpixi.pixi.diagnostics.methods;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.math.SU2GroupElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.measurements.FieldMeasurements;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
+
+public class GaussConstraintRestorationTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testRestoration() {
+		int[] threads = {1, 4};
+		Grid[] grids = new Grid[threads.length];
+		FieldMeasurements fieldMeasurements = new FieldMeasurements();
+		for (int t = 0; t < threads.length; t++) {
+			Settings settings = getStandardSettings();
+			settings.setNumOfThreads(threads[t]);
+			Simulation s = new Simulation(settings);
+
+			// Random electric fields violate the Gauss constraint.
+			Random random = new Random(13);
+			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+				for (int j = 0; j < s.grid.getNumberOfDimensions(); j++) {
+					s.grid.setU(i, j, getRandomAlgebraElement(random, 0.3).getLink());
+					s.grid.setE(i, j, getRandomAlgebraElement(random, 0.1));
+				}
+			}
+			s.grid.updateLinks(s.getTimeStep());
+			double violation = fieldMeasurements.calculateGaussConstraint(s.grid);
+
+			GaussConstraintRestoration restoration = new GaussConstraintRestoration(1.0, 0.0, 0.25, 20, 0.0, true);
+			restoration.initialize(s);
+			restoration.iterateRestorationAlgorithm(s.grid);
+			double restoredViolation = fieldMeasurements.calculateGaussConstraint(s.grid);
+			Assert.assertTrue(violation > 0.0);
+			Assert.assertTrue(restoredViolation < 0.5 * violation);
+
+			grids[t] = s.grid;
+			settings.terminateThreads();
+		}
+
+		// The restoration on the threads of the parallel iterator gives the fields of the serial restoration.
+		for (int i = 0; i < grids[0].getTotalNumberOfCells(); i++) {
+			for (int j = 0; j < grids[0].getNumberOfDimensions(); j++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(grids[0].getE(i, j).get(c), grids[1].getE(i, j).get(c), accuracy);
+				}
+				SU2GroupElement U0 = (SU2GroupElement) grids[0].getUnext(i, j);
+				SU2GroupElement U1 = (SU2GroupElement) grids[1].getUnext(i, j);
+				for (int c = 0; c < 4; c++) {
+					Assert.assertEquals(U0.get(c), U1.get(c), accuracy);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testInstability() {
+		Settings settings = getStandardSettings();
+		settings.setNumOfThreads(4);
+		Simulation s = new Simulation(settings);
+		Random random = new Random(17);
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int j = 0; j < s.grid.getNumberOfDimensions(); j++) {
+				s.grid.setU(i, j, getRandomAlgebraElement(random, 0.3).getLink());
+				s.grid.setE(i, j, getRandomAlgebraElement(random, 0.1));
+			}
+		}
+		s.grid.updateLinks(s.getTimeStep());
+		Grid initialGrid = new Grid(s.grid);
+
+		// The first correction with a large gamma increases the violation and is undone.
+		GaussConstraintRestoration restoration = new GaussConstraintRestoration(1.0, 0.0, 10.0, 20, 0.0, true);
+		restoration.initialize(s);
+		restoration.iterateRestorationAlgorithm(s.grid);
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int j = 0; j < s.grid.getNumberOfDimensions(); j++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(initialGrid.getE(i, j).get(c), s.grid.getE(i, j).get(c), 0.0);
+				}
+				SU2GroupElement U0 = (SU2GroupElement) initialGrid.getUnext(i, j);
+				SU2GroupElement U1 = (SU2GroupElement) s.grid.getUnext(i, j);
+				for (int c = 0; c < 4; c++) {
+					Assert.assertEquals(U0.get(c), U1.get(c), 0.0);
+				}
+			}
+		}
+		settings.terminateThreads();
+	}
+
+	private SU2AlgebraElement getRandomAlgebraElement(Random random, double width) {
+		return new SU2AlgebraElement(width * random.nextGaussian(), width * random.nextGaussian(),
+				width * random.nextGaussian());
+	}
+
+	private Settings getStandardSettings() {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new TemporalYangMillsSolver());
+		s.useGrid(true);
+		s.setInterpolator(new CGCParticleInterpolation());
+		s.setParticleSolver(new CGCParticleSolver());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 8);
+		s.setGridCells(1, 6);
+		s.setGridCells(2, 4);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+
+		return s;
+	}
+}
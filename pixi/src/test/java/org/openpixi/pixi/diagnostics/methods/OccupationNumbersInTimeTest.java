@@ -0,0 +1,402 @@
+package org.openpixi.pixi.diagnostics.methods;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.diagnostics.OutputFile;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+public class OccupationNumbersInTimeTest {
+
+	private final double accuracy = 1.E-10;
+
+	@Test
+	public void testPackedSpectrum() {
+		// Plain grid and grid which is mirrored in the z-direction.
+		int[] mirroredDirections = {-1, 2};
+		for (int mirroredDirection : mirroredDirections) {
+			Settings settings = getStandardSettings();
+			Simulation s = new Simulation(settings);
+			setRandomFields(s.grid, new Random(5));
+
+			OccupationNumbersInTime diagnostic;
+			if (mirroredDirection >= 0) {
+				diagnostic = new OccupationNumbersInTime(1.0, "none", "", true, mirroredDirection);
+			} else {
+				diagnostic = new OccupationNumbersInTime(1.0, "none", "", true);
+			}
+			diagnostic.initialize(s);
+			diagnostic.calculate(s.grid, new ArrayList<IParticle>(), 0);
+
+			// Spectra of E and A with separate real transforms of the gauge fixed fields.
+			double[][] expected = getOccupationNumbers(diagnostic.getGaugedGrid(), s.grid.getLatticeSpacing());
+			Assert.assertEquals(expected.length, diagnostic.occupationNumbers.length);
+			double maximum = 0.0;
+			double energy = 0.0;
+			for (int i = 0; i < expected.length; i++) {
+				for (int k = 0; k < expected[i].length; k++) {
+					maximum = Math.max(maximum, Math.abs(expected[i][k]));
+					energy += expected[i][k];
+				}
+			}
+			Assert.assertTrue(maximum > 0.0);
+			for (int i = 0; i < expected.length; i++) {
+				for (int k = 0; k < expected[i].length; k++) {
+					Assert.assertEquals(expected[i][k], diagnostic.occupationNumbers[i][k], accuracy * maximum);
+				}
+			}
+
+			// The energy density is normalized with the volume of the (doubled) box.
+			double volume = 1.0;
+			for (int n : diagnostic.getGaugedGrid().getNumCells()) {
+				volume *= n * s.grid.getLatticeSpacing();
+			}
+			Assert.assertEquals(energy / (2.0 * volume * volume), diagnostic.energyDensity,
+					accuracy * Math.abs(diagnostic.energyDensity));
+
+			settings.terminateThreads();
+		}
+	}
+
+	/**
+	 * Occupation numbers from the FFTs of the real electric and gauge fields. In the mirrored mode the momenta are
+	 * those of the doubled grid.
+	 */
+	private double[][] getOccupationNumbers(Grid grid, double latticeSpacing) {
+		int[] numCells = grid.getNumCells();
+		int numberOfComponents = grid.getElementFactory().numberOfComponents;
+		int numberOfDimensions = grid.getNumberOfDimensions();
+		double gainv = 1.0 / (latticeSpacing * grid.getGaugeCoupling());
+		DoubleFFTWrapper fft = new DoubleFFTWrapper(numCells);
+
+		double[][][] e = new double[numberOfDimensions][numberOfComponents][fft.getFFTArraySize()];
+		double[][][] a = new double[numberOfDimensions][numberOfComponents][fft.getFFTArraySize()];
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			int fftIndex = fft.getFFTArrayIndex(i);
+			for (int j = 0; j < numberOfDimensions; j++) {
+				for (int k = 0; k < numberOfComponents; k++) {
+					e[j][k][fftIndex] = grid.getE(i, j).get(k) * gainv;
+					a[j][k][fftIndex] = 0.5 * (grid.getU(i, j).getAlgebraElement().get(k)
+							+ grid.getUnext(i, j).getAlgebraElement().get(k)) * gainv;
+				}
+			}
+		}
+		for (int j = 0; j < numberOfDimensions; j++) {
+			for (int k = 0; k < numberOfComponents; k++) {
+				fft.complexForward(e[j][k]);
+				fft.complexForward(a[j][k]);
+			}
+		}
+
+		int effectiveNumberOfDimensions = 0;
+		for (int n : numCells) {
+			if (n > 1) {
+				effectiveNumberOfDimensions++;
+			}
+		}
+		double factor = Math.pow(latticeSpacing, 2 * effectiveNumberOfDimensions);
+		double[][] occupationNumbers = new double[grid.getTotalNumberOfCells()][numberOfComponents];
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			int fftIndex = fft.getFFTArrayIndex(i);
+			double[] momentum = getMomentum(grid, i, latticeSpacing);
+			double w2 = 0.0;
+			for (int j = 0; j < numberOfDimensions; j++) {
+				w2 += 2.0 * (1.0 - Math.cos(momentum[j] * latticeSpacing)) / (latticeSpacing * latticeSpacing);
+			}
+			double w = Math.sqrt(w2);
+			for (int k = 0; k < numberOfComponents; k++) {
+				double eSquared = 0.0;
+				double aSquared = 0.0;
+				double mixed = 0.0;
+				for (int j = 0; j < numberOfDimensions; j++) {
+					double eRe = e[j][k][fftIndex];
+					double eIm = e[j][k][fftIndex + 1];
+					double aRe = a[j][k][fftIndex];
+					double aIm = a[j][k][fftIndex + 1];
+					eSquared += eRe * eRe + eIm * eIm;
+					aSquared += aRe * aRe + aIm * aIm;
+					mixed -= 2.0 * (-aIm * eRe + aRe * eIm);
+				}
+				occupationNumbers[i][k] = (eSquared + w * w * aSquared + w * mixed) * factor;
+			}
+		}
+		return occupationNumbers;
+	}
+
+	@Test
+	public void testFindBin() {
+		double[] edges = {0.0, 1.0, 2.0, 4.0};
+		Assert.assertEquals(0, OccupationNumbersInTime.findBin(edges, 0.0));
+		Assert.assertEquals(0, OccupationNumbersInTime.findBin(edges, 0.5));
+		Assert.assertEquals(1, OccupationNumbersInTime.findBin(edges, 1.0));
+		Assert.assertEquals(2, OccupationNumbersInTime.findBin(edges, 3.9));
+
+		// The last edge belongs to the last bin.
+		Assert.assertEquals(2, OccupationNumbersInTime.findBin(edges, 4.0));
+
+		// Values outside of all bins
+		Assert.assertEquals(-1, OccupationNumbersInTime.findBin(edges, -0.1));
+		Assert.assertEquals(-1, OccupationNumbersInTime.findBin(edges, 4.1));
+		Assert.assertEquals(-1, OccupationNumbersInTime.findBin(new double[]{1.0}, 1.0));
+	}
+
+	@Test
+	public void testBinEdgeValidation() {
+		OccupationNumbersInTime diagnostic = new OccupationNumbersInTime(1.0, "csv_radial", "", true);
+		double[][] invalidEdges = {{0.0, 2.0, 1.0}, {0.0, 1.0, 1.0}, {1.0}};
+		for (double[] edges : invalidEdges) {
+			try {
+				diagnostic.setBinEdges(edges);
+				Assert.fail();
+			} catch (RuntimeException e) {
+				// expected
+			}
+			try {
+				diagnostic.setLongitudinalBinEdges(edges);
+				Assert.fail();
+			} catch (RuntimeException e) {
+				// expected
+			}
+		}
+		diagnostic.setBinEdges(new double[]{0.0, 1.0});
+	}
+
+	@Test
+	public void testBinnedOutput() throws IOException {
+		String directory = "occupation_test_" + System.nanoTime();
+		File outputDirectory = new File("output", directory);
+		boolean createOutput = !outputDirectory.getParentFile().exists();
+		try {
+			// Radial bins with an empty bin and modes outside of all bins (the largest |k| is about 10.7).
+			double[] edges = {0.0, 1.0, 2.0, 3.0, 5.0, 8.0};
+			String path = directory + "/radial.dat";
+			OccupationNumbersInTime diagnostic = new OccupationNumbersInTime(1.0, "csv_radial", path, true);
+			diagnostic.setBinEdges(edges);
+			List<String> lines = runDiagnostic(diagnostic, path);
+			Assert.assertEquals(7, lines.size());
+			assertValues(lines.get(1), edges);
+			int[] modesPerBin = assertBins(diagnostic, lines, 2, edges, new double[]{0.0, Double.MAX_VALUE}, -1, 3);
+			Assert.assertEquals(1, modesPerBin[0]);
+			Assert.assertEquals(0, modesPerBin[1]);
+			int sum = 0;
+			for (int m : modesPerBin) {
+				sum += m;
+			}
+			Assert.assertTrue(sum < diagnostic.occupationNumbers.length);
+
+			// Equally sized bins up to the largest momenta contain all modes. The output is summed over the colors.
+			path = directory + "/transverse_longitudinal.dat";
+			diagnostic = new OccupationNumbersInTime(1.0, "csv_transverse_longitudinal", path, false);
+			diagnostic.setNumberOfBins(3);
+			diagnostic.setLongitudinalDirection(2);
+			lines = runDiagnostic(diagnostic, path);
+			Assert.assertEquals(6, lines.size());
+			modesPerBin = assertBins(diagnostic, lines, 3, parseValues(lines.get(1)), parseValues(lines.get(2)), 2, 1);
+			Assert.assertEquals(9, modesPerBin.length);
+			sum = 0;
+			for (int m : modesPerBin) {
+				sum += m;
+			}
+			Assert.assertEquals(diagnostic.occupationNumbers.length, sum);
+
+			// Sums over all momenta
+			path = directory + "/color_sums.dat";
+			diagnostic = new OccupationNumbersInTime(1.0, "csv_color_sums", path, true);
+			lines = runDiagnostic(diagnostic, path);
+			Assert.assertEquals(3, lines.size());
+			double[] sums = new double[3];
+			for (int i = 0; i < diagnostic.occupationNumbers.length; i++) {
+				for (int k = 0; k < 3; k++) {
+					sums[k] += diagnostic.occupationNumbers[i][k];
+				}
+			}
+			assertValues(lines.get(2), sums);
+		} finally {
+			if (outputDirectory.exists()) {
+				for (File file : outputDirectory.listFiles()) {
+					file.delete();
+				}
+				outputDirectory.delete();
+			}
+			if (createOutput) {
+				outputDirectory.getParentFile().delete();
+			}
+		}
+	}
+
+	/**
+	 * Runs a single measurement on a random grid and returns the lines of the output file.
+	 */
+	private List<String> runDiagnostic(OccupationNumbersInTime diagnostic, String path) throws IOException {
+		Settings settings = getStandardSettings();
+		Simulation s = new Simulation(settings);
+		setRandomFields(s.grid, new Random(7));
+		diagnostic.initialize(s);
+		diagnostic.calculate(s.grid, new ArrayList<IParticle>(), 0);
+		settings.terminateThreads();
+		OutputFile.flushAll();
+
+		BufferedReader reader = new BufferedReader(new FileReader(new File("output", path)));
+		try {
+			List<String> lines = new ArrayList<String>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+			Assert.assertEquals("6, 4, 5", lines.get(0));
+			return lines;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Assigns the modes to the bins by a linear search and compares the number of modes and the mean occupation
+	 * numbers with the output.
+	 *
+	 * @param line						index of the line with the numbers of modes
+	 * @param longitudinalDirection	direction which is not included in the radial momentum or -1
+	 * @param rows						number of rows with mean occupation numbers (3 if colorful, 1 otherwise)
+	 * @return							number of modes in every bin
+	 */
+	private int[] assertBins(OccupationNumbersInTime diagnostic, List<String> lines, int line, double[] radialEdges,
+							 double[] longitudinalEdges, int longitudinalDirection, int rows) {
+		Grid grid = diagnostic.getGaugedGrid();
+		int numberOfLongitudinalBins = longitudinalEdges.length - 1;
+		int[] modesPerBin = new int[(radialEdges.length - 1) * numberOfLongitudinalBins];
+		double[][] sums = new double[rows][modesPerBin.length];
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			double[] momentum = getMomentum(grid, i, grid.getLatticeSpacing());
+			double k2 = 0.0;
+			double longitudinalMomentum = 0.0;
+			for (int j = 0; j < momentum.length; j++) {
+				if (j == longitudinalDirection) {
+					longitudinalMomentum = Math.abs(momentum[j]);
+				} else {
+					k2 += momentum[j] * momentum[j];
+				}
+			}
+			int radialBin = findBinLinear(radialEdges, Math.sqrt(k2));
+			int longitudinalBin = findBinLinear(longitudinalEdges, longitudinalMomentum);
+			if (radialBin >= 0 && longitudinalBin >= 0) {
+				int bin = radialBin * numberOfLongitudinalBins + longitudinalBin;
+				modesPerBin[bin]++;
+				for (int k = 0; k < 3; k++) {
+					sums[(rows > 1) ? k : 0][bin] += diagnostic.occupationNumbers[i][k];
+				}
+			}
+		}
+		Assert.assertArrayEquals(modesPerBin, diagnostic.getModesPerBin());
+		double[] modes = new double[modesPerBin.length];
+		for (int b = 0; b < modesPerBin.length; b++) {
+			modes[b] = modesPerBin[b];
+		}
+		assertValues(lines.get(line), modes);
+		for (int r = 0; r < rows; r++) {
+			for (int b = 0; b < modesPerBin.length; b++) {
+				sums[r][b] = (modesPerBin[b] > 0) ? sums[r][b] / modesPerBin[b] : 0.0;
+			}
+			assertValues(lines.get(line + 2 + r), sums[r]);
+		}
+		return modesPerBin;
+	}
+
+	private int findBinLinear(double[] edges, double value) {
+		for (int b = 0; b < edges.length - 1; b++) {
+			if (value >= edges[b] && (value < edges[b + 1] || (b == edges.length - 2 && value == edges[b + 1]))) {
+				return b;
+			}
+		}
+		return -1;
+	}
+
+	private double[] parseValues(String line) {
+		String[] columns = line.split(", ");
+		double[] values = new double[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			values[i] = Double.parseDouble(columns[i]);
+		}
+		return values;
+	}
+
+	private void assertValues(String line, double[] expected) {
+		double[] values = parseValues(line);
+		Assert.assertEquals(expected.length, values.length);
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], values[i], accuracy * Math.abs(expected[i]));
+		}
+	}
+
+	/**
+	 * Momentum vector of a lattice index in the spectrum of a grid.
+	 */
+	private double[] getMomentum(Grid grid, int index, double latticeSpacing) {
+		int[] coordinate = grid.getCellPos(index);
+		double[] k = new double[coordinate.length];
+		for (int j = 0; j < coordinate.length; j++) {
+			double delta = coordinate[j] / ((double) grid.getNumCells(j));
+			if (delta < 0.5) {
+				k[j] = 2.0 * delta * Math.PI / latticeSpacing;
+			} else {
+				k[j] = 2.0 * (delta - 1.0) * Math.PI / latticeSpacing;
+			}
+		}
+		return k;
+	}
+
+	private void setRandomFields(Grid grid, Random random) {
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int j = 0; j < grid.getNumberOfDimensions(); j++) {
+				grid.setU(i, j, getRandomAlgebraElement(random, 0.3).getLink());
+				grid.setUnext(i, j, getRandomAlgebraElement(random, 0.3).getLink());
+				grid.setE(i, j, getRandomAlgebraElement(random, 0.1));
+			}
+		}
+	}
+
+	private SU2AlgebraElement getRandomAlgebraElement(Random random, double width) {
+		return new SU2AlgebraElement(width * random.nextGaussian(), width * random.nextGaussian(),
+				width * random.nextGaussian());
+	}
+
+	private Settings getStandardSettings() {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new TemporalYangMillsSolver());
+		s.useGrid(true);
+		s.setInterpolator(new CGCParticleInterpolation());
+		s.setParticleSolver(new CGCParticleSolver());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(0.5);
+		s.setTimeStep(0.25);
+		s.setGridCells(0, 6);
+		s.setGridCells(1, 4);
+		s.setGridCells(2, 5);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(2);
+
+		return s;
+	}
+}
@@ -0,0 +1,359 @@
+package org.openpixi.pixi.diagnostics.methods;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+public class PoyntingTheoremBufferTest {
+
+	private final double accuracy = 1.E-10;
+
+	@Test
+	public void testSimple() throws IOException {
+		testAccuracy(PoyntingTheoremBuffer.CalculationAccuracy.SIMPLE);
+	}
+
+	@Test
+	public void testInterpolated() throws IOException {
+		testAccuracy(PoyntingTheoremBuffer.CalculationAccuracy.INTERPOLATED);
+	}
+
+	/**
+	 * Compares the buffered quantities with the formulas of single cells which keep the values of the previous time
+	 * step in separate arrays. The buffer of the averaged electric field (INTERPOLATED) is allocated after the first
+	 * energy densities have been calculated, so the energy densities and their derivatives agree from the fourth step
+	 * on.
+	 */
+	private void testAccuracy(PoyntingTheoremBuffer.CalculationAccuracy calculationAccuracy) throws IOException {
+		Settings settings = getStandardSettings();
+		Simulation s = new Simulation(settings);
+		Random random = new Random(3);
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int j = 0; j < s.grid.getNumberOfDimensions(); j++) {
+				s.grid.setU(i, j, getRandomAlgebraElement(random, 0.3).getLink());
+				s.grid.setE(i, j, getRandomAlgebraElement(random, 0.1));
+			}
+		}
+
+		PoyntingTheoremBuffer buffer = new PoyntingTheoremBuffer(s);
+		buffer.setAccuracy(calculationAccuracy);
+		buffer.initialize(s);
+		Reference reference = new Reference(s,
+				calculationAccuracy == PoyntingTheoremBuffer.CalculationAccuracy.INTERPOLATED);
+
+		int cells = s.grid.getTotalNumberOfCells();
+		for (int step = 1; step <= 7; step++) {
+			s.step();
+			for (int i = 0; i < cells; i++) {
+				for (int j = 0; j < s.grid.getNumberOfDimensions(); j++) {
+					s.grid.getJ(i, j).set(getRandomAlgebraElement(random, 0.1));
+				}
+			}
+			buffer.calculate(s.grid, new ArrayList<IParticle>(), s.totalSimulationSteps);
+			reference.update();
+
+			// The totals are requested first, so the single cells are taken from the buffers of the same step.
+			double totalDivS = buffer.getTotalDivS();
+			double totalBrotEminusErotB = buffer.getTotalBrotEminusErotB();
+			double totalJE = buffer.getTotalJE();
+			double totalEnergyDensity = buffer.getTotalEnergyDensity();
+			for (int i = 0; i < cells; i++) {
+				buffer.getEnergyDensityDerivative(i);
+			}
+			if (step < 4) {
+				continue;
+			}
+
+			assertEquals(reference.energyDensity, totalEnergyDensity);
+			assertEquals(reference.divS, totalDivS);
+			assertEquals(reference.brotEminusErotB, totalBrotEminusErotB);
+			assertEquals(reference.currentElectricField, totalJE);
+			double[] derivative = new double[cells];
+			for (int i = 0; i < cells; i++) {
+				derivative[i] = buffer.getEnergyDensityDerivative(i);
+			}
+			assertEquals(reference.energyDensityDerivative, derivative);
+			double[] values = new double[cells];
+			for (int i = 0; i < cells; i++) {
+				values[i] = buffer.getEnergyDensity(i);
+			}
+			assertEquals(reference.energyDensity, values);
+			for (int i = 0; i < cells; i++) {
+				values[i] = buffer.getDivPoyntingVector(i);
+			}
+			assertEquals(reference.divS, values);
+			for (int i = 0; i < cells; i++) {
+				values[i] = buffer.getBrotEminusErotB(i);
+			}
+			assertEquals(reference.brotEminusErotB, values);
+			for (int i = 0; i < cells; i++) {
+				values[i] = buffer.getCurrentElectricField(i);
+			}
+			assertEquals(reference.currentElectricField, values);
+		}
+
+		settings.terminateThreads();
+	}
+
+	private void assertEquals(double[] expected, double total) {
+		double sum = 0.0;
+		double maximum = 0.0;
+		for (int i = 0; i < expected.length; i++) {
+			sum += expected[i];
+			maximum = Math.max(maximum, Math.abs(expected[i]));
+		}
+		Assert.assertTrue(maximum > 0.0);
+		Assert.assertEquals(sum / expected.length, total, accuracy * maximum);
+	}
+
+	private void assertEquals(double[] expected, double[] values) {
+		double maximum = 0.0;
+		for (int i = 0; i < expected.length; i++) {
+			maximum = Math.max(maximum, Math.abs(expected[i]));
+		}
+		Assert.assertTrue(maximum > 0.0);
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], values[i], accuracy * maximum);
+		}
+	}
+
+	/**
+	 * Quantities of the Poynting theorem of every cell from the fields of the grid. The fields of the previous time step
+	 * are stored per cell.
+	 */
+	private static class Reference {
+
+		private final Simulation s;
+		private final Grid grid;
+		private final boolean interpolated;
+		private final int cells;
+		private final int dimensions;
+		private final double factor;
+
+		double[] energyDensity;
+		double[] energyDensityDerivative;
+		double[] divS;
+		double[] brotEminusErotB;
+		double[] currentElectricField;
+
+		private AlgebraElement[][] previousE;
+		private AlgebraElement[][] previousRotE;
+		private AlgebraElement[][] previousJ;
+		private AlgebraElement[][] previousEAverage;
+		private double[][] previousS;
+		private double[] previousJE;
+		private double[] previousEnergyDensity;
+
+		Reference(Simulation s, boolean interpolated) {
+			this.s = s;
+			this.grid = s.grid;
+			this.interpolated = interpolated;
+			this.cells = grid.getTotalNumberOfCells();
+			this.dimensions = grid.getNumberOfDimensions();
+			double as = grid.getLatticeSpacing();
+			double g = s.getCouplingConstant();
+			this.factor = 1.0 / (as * g * as * g);
+		}
+
+		void update() {
+			AlgebraElement[][] e = new AlgebraElement[cells][dimensions];
+			AlgebraElement[][] eTimeAverage = new AlgebraElement[cells][dimensions];
+			AlgebraElement[][] rotE = new AlgebraElement[cells][dimensions];
+			AlgebraElement[][] j = new AlgebraElement[cells][dimensions];
+			AlgebraElement[][] eAverage = new AlgebraElement[cells][dimensions];
+			double[][] rawS = new double[cells][dimensions];
+			double[] rawJE = new double[cells];
+			for (int i = 0; i < cells; i++) {
+				for (int d = 0; d < dimensions; d++) {
+					e[i][d] = grid.getE(i, d).copy();
+					eTimeAverage[i][d] = average(e[i][d], previousE, i, d);
+					rotE[i][d] = grid.getRotE(i, d);
+					j[i][d] = grid.getJ(i, d).copy();
+					eAverage[i][d] = e[i][d].add(getEShifted(i, d, d, -1)).mult(0.5);
+				}
+			}
+
+			energyDensity = new double[cells];
+			energyDensityDerivative = new double[cells];
+			divS = new double[cells];
+			brotEminusErotB = new double[cells];
+			currentElectricField = new double[cells];
+			double[][] poyntingVector = new double[cells][dimensions];
+			for (int i = 0; i < cells; i++) {
+				for (int d = 0; d < dimensions; d++) {
+					if (interpolated) {
+						AlgebraElement E = average(eAverage[i][d], previousEAverage, i, d);
+						AlgebraElement B = getB(i, d, 0).add(getBShifted(i, d, 0, 0, 0))
+								.add(getBShifted(i, d, d, -1, 0))
+								.add(getBDoubleShifted(i, d, 0, 0, d, -1, 0).add(getBDoubleShifted(i, d, d, -1, 0, 0, 0))
+										.mult(0.5)).mult(0.25);
+						energyDensity[i] += E.square() + B.square();
+					} else {
+						AlgebraElement B = getB(i, d, 0).add(getB(i, d, 1)).mult(0.5);
+						energyDensity[i] += e[i][d].square() + B.square();
+					}
+				}
+				energyDensity[i] *= factor / 2;
+				if (previousEnergyDensity != null) {
+					energyDensityDerivative[i] = (energyDensity[i] - previousEnergyDensity[i]) / s.tstep;
+				}
+
+				for (int d = 0; d < dimensions; d++) {
+					int d1 = (d + 1) % 3;
+					int d2 = (d + 2) % 3;
+					if (interpolated) {
+						rawS[i][d] = (getEAverage(i, d1, d).mult(getBAverage(i, d2, d))
+								- getEAverage(i, d2, d).mult(getBAverage(i, d1, d))) * factor;
+						poyntingVector[i][d] = (previousS != null) ? previousS[i][d] : rawS[i][d];
+					} else {
+						poyntingVector[i][d] = (eTimeAverage[i][d1].mult(getB(i, d2, 0))
+								- eTimeAverage[i][d2].mult(getB(i, d1, 0))) * factor;
+					}
+
+					AlgebraElement rotETimeAverage = average(rotE[i][d], previousRotE, i, d);
+					brotEminusErotB[i] += getB(i, d, 0).mult(rotETimeAverage)
+							- eTimeAverage[i][d].mult(grid.getRotB(i, d, 0));
+
+					if (interpolated) {
+						int shifted = grid.shift(i, d, -1);
+						AlgebraElement J = j[i][d].add(grid.getJ(shifted, d).act(grid.getLink(i, d, -1, 1))).mult(0.5);
+						if (previousJ != null) {
+							AlgebraElement J34 = previousJ[i][d].add(previousJ[i][d].act(grid.getLink(i, d, -1, 0)))
+									.mult(0.5);
+							J = J.add(J34).mult(0.5);
+						}
+						rawJE[i] += J.mult(eAverage[i][d]);
+					} else {
+						AlgebraElement J = (previousJ != null) ? previousJ[i][d] : j[i][d];
+						currentElectricField[i] += J.mult(eTimeAverage[i][d]);
+					}
+				}
+				brotEminusErotB[i] *= factor;
+				rawJE[i] *= factor;
+				currentElectricField[i] *= factor;
+				if (interpolated) {
+					currentElectricField[i] = (previousJE != null) ? previousJE[i] : rawJE[i];
+				}
+			}
+
+			for (int i = 0; i < cells; i++) {
+				for (int d = 0; d < dimensions; d++) {
+					divS[i] += poyntingVector[i][d] - poyntingVector[grid.shift(i, d, -1)][d];
+				}
+				divS[i] /= grid.getLatticeSpacing();
+			}
+
+			previousE = e;
+			previousRotE = rotE;
+			previousJ = j;
+			previousEAverage = eAverage;
+			previousS = rawS;
+			previousJE = rawJE;
+			previousEnergyDensity = energyDensity;
+		}
+
+		private AlgebraElement average(AlgebraElement value, AlgebraElement[][] previous, int index, int direction) {
+			if (previous == null) {
+				return value;
+			}
+			return value.add(previous[index][direction]).mult(0.5);
+		}
+
+		/**
+		 * E at the center of the face in the shift direction (average over 4 points).
+		 */
+		private AlgebraElement getEAverage(int index, int direction, int shiftDirection) {
+			AlgebraElement E4 = getEDoubleShifted(index, direction, shiftDirection, 1, direction, -1)
+					.add(getEDoubleShifted(index, direction, direction, -1, shiftDirection, 1)).mult(0.5);
+			return grid.getE(index, direction).add(getEShifted(index, direction, shiftDirection, 1))
+					.add(getEShifted(index, direction, direction, -1)).add(E4).mult(0.25);
+		}
+
+		/**
+		 * B at the center of the face in the shift direction (average over 2 points and 2 time slices).
+		 */
+		private AlgebraElement getBAverage(int index, int direction, int shiftDirection) {
+			int orthogonal = (3 - direction - shiftDirection) % 3;
+			return getB(index, direction, 1).add(getBShifted(index, direction, orthogonal, -1, 1))
+					.add(getB(index, direction, 0)).add(getBShifted(index, direction, orthogonal, -1, 0)).mult(0.25);
+		}
+
+		private AlgebraElement getB(int index, int direction, int timeIndex) {
+			return grid.getB(index, direction, timeIndex);
+		}
+
+		private AlgebraElement getEShifted(int index, int direction, int shiftDirection, int shiftOrientation) {
+			int shifted = grid.shift(index, shiftDirection, shiftOrientation);
+			return grid.getE(shifted, direction).act(grid.getLink(index, shiftDirection, shiftOrientation, 0));
+		}
+
+		private AlgebraElement getEDoubleShifted(int index, int direction, int shiftDirection1, int shiftOrientation1,
+												 int shiftDirection2, int shiftOrientation2) {
+			int shifted1 = grid.shift(index, shiftDirection1, shiftOrientation1);
+			int shifted12 = grid.shift(shifted1, shiftDirection2, shiftOrientation2);
+			return grid.getE(shifted12, direction)
+					.act(grid.getLink(shifted1, shiftDirection2, shiftOrientation2, 0))
+					.act(grid.getLink(index, shiftDirection1, shiftOrientation1, 0));
+		}
+
+		private AlgebraElement getBShifted(int index, int direction, int shiftDirection, int shiftOrientation,
+										   int timeIndex) {
+			int shifted = grid.shift(index, shiftDirection, shiftOrientation);
+			return grid.getB(shifted, direction, timeIndex)
+					.act(grid.getLink(index, shiftDirection, shiftOrientation, timeIndex));
+		}
+
+		private AlgebraElement getBDoubleShifted(int index, int direction, int shiftDirection1, int shiftOrientation1,
+												 int shiftDirection2, int shiftOrientation2, int timeIndex) {
+			int shifted1 = grid.shift(index, shiftDirection1, shiftOrientation1);
+			int shifted12 = grid.shift(shifted1, shiftDirection2, shiftOrientation2);
+			return grid.getB(shifted12, direction, timeIndex)
+					.act(grid.getLink(shifted1, shiftDirection2, shiftOrientation2, timeIndex))
+					.act(grid.getLink(index, shiftDirection1, shiftOrientation1, timeIndex));
+		}
+	}
+
+	private SU2AlgebraElement getRandomAlgebraElement(Random random, double width) {
+		return new SU2AlgebraElement(width * random.nextGaussian(), width * random.nextGaussian(),
+				width * random.nextGaussian());
+	}
+
+	private Settings getStandardSettings() {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new TemporalYangMillsSolver());
+		s.useGrid(true);
+		s.setInterpolator(new CGCParticleInterpolation());
+		s.setParticleSolver(new CGCParticleSolver());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 6);
+		s.setGridCells(1, 5);
+		s.setGridCells(2, 4);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(2);
+		s.setTMax(10.0);
+
+		return s;
+	}
+}
@@ -53,15 +53,33 @@ public class CoulombGaugeTest {
 		Assert.assertTrue(convergenceList.length > 2);
 	}
 
+	@Test
+	public void testAbelianCoulombConfiguration2D() {
+		if (printDebugOutput) {
+			System.out.println("Abelian Coulomb Configuration (2D)");
+		}
+		Double[] convergenceList = testForSU2Fields(new SU2AlgebraElement(.1, 0, 0), new SU2AlgebraElement(0, 0, 0),
+				new int[] {4, 2});
+
+		// The inverse Laplace operator works in any number of dimensions:
+		Assert.assertEquals(convergenceList.length, 2);
+	}
+
 	private Double[] testForSU2Fields(SU2AlgebraElement field1, SU2AlgebraElement field2) {
+		return testForSU2Fields(field1, field2, new int[] {2, 2, 2});
+	}
+
+	private Double[] testForSU2Fields(SU2AlgebraElement field1, SU2AlgebraElement field2, int[] gridCells) {
 		// Initialize simulation
 
 		Settings settings = new Settings();
 		settings.setNumberOfColors(2);
-		settings.setGridCells(new int[] {2, 2, 2});
+		settings.setNumberOfDimensions(gridCells.length);
+		settings.setGridCells(gridCells);
 
-		double[] k = new double[] {0, 0, 0};
-		double[] amplitudeSpatialDirection = new double[] {1, 0, 0};
+		double[] k = new double[gridCells.length];
+		double[] amplitudeSpatialDirection = new double[gridCells.length];
+		amplitudeSpatialDirection[0] = 1;
 		double[] amplitudeColorDirection = new double[] {1, 0, 0};
 		double amplitudeMagnitude = 0;
 		SU2PlaneWave constantfield = new SU2PlaneWave(k, amplitudeSpatialDirection, amplitudeColorDirection, amplitudeMagnitude);
@@ -406,6 +406,56 @@ public class SU2MatrixTest {
 
 	}
 
+	@Test
+	public void testInPlaceOperations() {
+		int numberOfTests = 10;
+		for (int t = 0; t < numberOfTests; t++) {
+			SU2GroupElement a = createRandomSU2Matrix();
+			SU2GroupElement b = createRandomSU2Matrix();
+			SU2GroupElement out = new SU2GroupElement();
+
+			/*
+				Products written into a separate target.
+			 */
+			a.multInto(b, out);
+			compareMatrices(convertToMatrix(a.mult(b)), convertToMatrix(out));
+			a.adjMultInto(b, out);
+			compareMatrices(convertToMatrix(a.adj().mult(b)), convertToMatrix(out));
+			a.multAdjInto(b, out);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(out));
+			a.adjInto(out);
+			compareMatrices(convertToMatrix(a.adj()), convertToMatrix(out));
+
+			/*
+				The target may be the same instance as one of the factors.
+			 */
+			GroupElement c = a.copy();
+			c.multAdjInto(b, c);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(c));
+			c = b.copy();
+			a.adjMultInto(c, c);
+			compareMatrices(convertToMatrix(a.adj().mult(b)), convertToMatrix(c));
+
+			/*
+				Projection, exponential map and scaled addition.
+			 */
+			SU2AlgebraElement f1 = createRandomSU2AlgebraElement();
+			SU2AlgebraElement f2 = new SU2AlgebraElement();
+			a.projInto(f2);
+			compareMatrices(convertToMatrix(a.proj()), convertToMatrix(f2));
+			f1.getLinkInto(out);
+			compareMatrices(convertToMatrix(f1.getLink()), convertToMatrix(out));
+			f2.set(f1);
+			f2.addAssign(f1, -0.5);
+			compareMatrices(convertToMatrix(f1.mult(0.5)), convertToMatrix(f2));
+
+			out.setIdentity();
+			compareMatrices(convertToMatrix(a), convertToMatrix(a.mult(out)));
+			out.reset();
+			Assert.assertEquals(0.0, out.getRealTrace(), accuracy);
+		}
+	}
+
 	@Test
 	public void testPow() {
 		// This test needs a different accuracy limit to pass.
@@ -397,6 +397,56 @@ public class SU3EverythingTest {
 		}
 	}
 
+	@Test
+	public void testInPlaceOperations() {
+		int numberOfTests = 10;
+		for (int t = 0; t < numberOfTests; t++) {
+			SU3GroupElement a = createRandomSU3Matrix();
+			SU3GroupElement b = createRandomSU3Matrix();
+			SU3GroupElement out = new SU3GroupElement();
+
+			/*
+				Products written into a separate target.
+			 */
+			a.multInto(b, out);
+			compareMatrices(convertToMatrix(a.mult(b)), convertToMatrix(out));
+			a.adjMultInto(b, out);
+			compareMatrices(convertToMatrix(a.adj().mult(b)), convertToMatrix(out));
+			a.multAdjInto(b, out);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(out));
+			a.adjInto(out);
+			compareMatrices(convertToMatrix(a.adj()), convertToMatrix(out));
+
+			/*
+				The target may be the same instance as one of the factors.
+			 */
+			GroupElement c = a.copy();
+			c.multAdjInto(b, c);
+			compareMatrices(convertToMatrix(a.mult(b.adj())), convertToMatrix(c));
+			c = b.copy();
+			a.adjMultInto(c, c);
+			compareMatrices(convertToMatrix(a.adj().mult(b)), convertToMatrix(c));
+
+			/*
+				Projection, exponential map and scaled addition.
+			 */
+			SU3AlgebraElement f1 = (SU3AlgebraElement) createRandomSU3Matrix().getAlgebraElement();
+			SU3AlgebraElement f2 = new SU3AlgebraElement();
+			a.projInto(f2);
+			compareMatrices(convertToMatrix(a.proj()), convertToMatrix(f2));
+			f1.getLinkInto(out);
+			compareMatrices(convertToMatrix(f1.getLink()), convertToMatrix(out));
+			f2.set(f1);
+			f2.addAssign(f1, -0.5);
+			compareMatrices(convertToMatrix(f1.mult(0.5)), convertToMatrix(f2));
+
+			out.setIdentity();
+			compareMatrices(convertToMatrix(a), convertToMatrix(a.mult(out)));
+			out.reset();
+			Assert.assertEquals(0.0, out.getRealTrace(), accuracy);
+		}
+	}
+
 	@Test
 	public void testDimensions(){
 		SU3GroupElement U = new SU3GroupElement();
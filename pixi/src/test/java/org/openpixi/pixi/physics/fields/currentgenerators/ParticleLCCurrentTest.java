@@ -0,0 +1,141 @@
+package org.openpixi.pixi.physics.fields.currentgenerators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolationNGP;
+import org.openpixi.pixi.physics.grid.Grid;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+
+public class ParticleLCCurrentTest {
+
+	private final double accuracy = 1.E-13;
+
+	@Test
+	public void testSparseSpawning() throws IOException {
+		for (int ngp = 0; ngp < 2; ngp++) {
+			Simulation[] simulations = new Simulation[2];
+			for (int sparse = 0; sparse < 2; sparse++) {
+				Settings settings = getStandardSettings(ngp == 1);
+				Simulation s = new Simulation(settings);
+
+				ParticleLCCurrent current;
+				if (ngp == 1) {
+					current = new ParticleLCCurrentNGP(0, 1, 4.0, 1.0);
+				} else {
+					current = new ParticleLCCurrent(0, 1, 4.0, 1.0);
+				}
+				current.setTransversalChargeDensity(getLocalizedChargeDensity(s));
+				current.sparseSpawning = (sparse == 1);
+				current.initializeCurrent(s, 1);
+				simulations[sparse] = s;
+			}
+
+			// The same charged particles are spawned.
+			List<CGCParticle> dense = getChargedParticles(simulations[0].particles);
+			List<CGCParticle> sparse = getChargedParticles(simulations[1].particles);
+			Assert.assertTrue(sparse.size() > 0);
+			Assert.assertEquals(dense.size(), sparse.size());
+			Assert.assertTrue(simulations[1].particles.size() < simulations[0].particles.size() || ngp == 1);
+			for (int k = 0; k < dense.size(); k++) {
+				for (int d = 0; d < 3; d++) {
+					Assert.assertEquals(dense.get(k).pos0[d], sparse.get(k).pos0[d], accuracy);
+				}
+				assertEquals(dense.get(k).Q0, sparse.get(k).Q0);
+			}
+
+			// The same currents and charge densities are interpolated.
+			for (int t = 0; t < 5; t++) {
+				simulations[0].step();
+				simulations[1].step();
+			}
+			Grid g0 = simulations[0].grid;
+			Grid g1 = simulations[1].grid;
+			for (int i = 0; i < g0.getTotalNumberOfCells(); i++) {
+				assertEquals(g0.getRho(i), g1.getRho(i));
+				for (int d = 0; d < g0.getNumberOfDimensions(); d++) {
+					assertEquals(g0.getJ(i, d), g1.getJ(i, d));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Random transversal charge density which only occupies a small patch of the transversal plane.
+	 */
+	private AlgebraElement[] getLocalizedChargeDensity(Simulation s) {
+		int ny = s.grid.getNumCells(1);
+		int nz = s.grid.getNumCells(2);
+		AlgebraElement[] density = new AlgebraElement[ny * nz];
+		Random random = new Random(13);
+		for (int i = 0; i < density.length; i++) {
+			density[i] = s.grid.getElementFactory().algebraZero();
+		}
+		for (int y = 2; y < 5; y++) {
+			for (int z = 3; z < 7; z++) {
+				density[y * nz + z] = new SU2AlgebraElement(random.nextDouble() - 0.5,
+						random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+			}
+		}
+		return density;
+	}
+
+	private List<CGCParticle> getChargedParticles(List<IParticle> particles) {
+		List<CGCParticle> charged = new ArrayList<CGCParticle>();
+		for (IParticle p : particles) {
+			CGCParticle P = (CGCParticle) p;
+			if (P.Q0.square() > 0.0) {
+				charged.add(P);
+			}
+		}
+		return charged;
+	}
+
+	private void assertEquals(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private Settings getStandardSettings(boolean ngp) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new TemporalYangMillsSolver());
+		s.useGrid(true);
+		if (ngp) {
+			s.setInterpolator(new CGCParticleInterpolationNGP());
+		} else {
+			s.setInterpolator(new CGCParticleInterpolation());
+		}
+		s.setParticleSolver(new CGCParticleSolver());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.5);
+		s.setGridCells(0, 16);
+		s.setGridCells(1, 8);
+		s.setGridCells(2, 10);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		return s;
+	}
+}
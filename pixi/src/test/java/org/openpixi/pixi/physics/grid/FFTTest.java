@@ -1,7 +1,16 @@
 package org.openpixi.pixi.physics.grid;
 import org.junit.Assert;
 import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.gauge.DoubleFFTWrapper;
+import org.openpixi.pixi.physics.initial.CGC.FourierFunctions;
+import org.openpixi.pixi.physics.initial.CGC.IInitialChargeDensity;
+import org.openpixi.pixi.physics.util.GridFunctions;
+
+import java.util.Random;
 
 public class FFTTest {
 
@@ -30,4 +39,86 @@ public class FFTTest {
 			Assert.assertEquals(0.0, data[fft.getFFTArrayIndex(i)+1], accuracy);
 		}
 	}
+
+	@Test
+	public void testBatchedPoissonSolver() {
+		int[] transNumCells = {16, 12};
+		int totalCells = transNumCells[0] * transNumCells[1];
+		double as = 0.5;
+		Random random = new Random(1);
+
+		// Odd number of charge densities, so that the last one is not packed with another one.
+		double[][] rho = new double[5][totalCells];
+		for (int n = 0; n < rho.length; n++) {
+			for (int i = 0; i < totalCells; i++) {
+				rho[n][i] = random.nextGaussian();
+			}
+		}
+
+		double[][] phi = FourierFunctions.solvePoisson2D(rho, transNumCells, as);
+		for (int n = 0; n < rho.length; n++) {
+			double[] expected = FourierFunctions.solvePoisson2D(rho[n], transNumCells, as);
+			for (int i = 0; i < totalCells; i++) {
+				Assert.assertEquals(expected[i], phi[n][i], accuracy);
+			}
+		}
+
+		// The cached wrapper is shared by all calls with the same grid size.
+		Assert.assertSame(DoubleFFTWrapper.getCached(transNumCells), DoubleFFTWrapper.getCached(transNumCells.clone()));
+
+		// Only the most recently used wrappers are kept.
+		DoubleFFTWrapper cached = DoubleFFTWrapper.getCached(transNumCells);
+		for (int n = 1; n <= 8; n++) {
+			DoubleFFTWrapper.getCached(new int[]{n, 4});
+		}
+		Assert.assertNotSame(cached, DoubleFFTWrapper.getCached(transNumCells));
+	}
+
+	@Test
+	public void testSheetBySheetPoissonSolver() {
+		Settings settings = new Settings();
+		settings.setNumberOfDimensions(3);
+		settings.setGridStep(0.5);
+		// The number of longitudinal sheets is not a multiple of the batch size.
+		settings.setGridCells(0, 2 * FourierFunctions.SHEETS_PER_BATCH + 3);
+		settings.setGridCells(1, 6);
+		settings.setGridCells(2, 5);
+		settings.setNumberOfColors(2);
+		Simulation s = new Simulation(settings);
+
+		final int direction = 0;
+		final AlgebraElement[] rho = new AlgebraElement[s.grid.getTotalNumberOfCells()];
+		Random random = new Random(3);
+		for (int i = 0; i < rho.length; i++) {
+			rho[i] = new SU2AlgebraElement(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+		}
+		IInitialChargeDensity chargeDensity = new IInitialChargeDensity() {
+			public void initialize(Simulation s) {}
+			public AlgebraElement getChargeDensity(int index) { return rho[index]; }
+			public AlgebraElement[] getChargeDensity() { return rho; }
+			public int getDirection() { return direction; }
+			public int getOrientation() { return 1; }
+			public String getInfo() { return ""; }
+			public void clear() {}
+		};
+
+		AlgebraElement[] phi = FourierFunctions.solvePoissonSheetBySheet(s, chargeDensity);
+
+		int[] transNumCells = GridFunctions.reduceGridPos(s.grid.getNumCells(), direction);
+		int totalTransCells = GridFunctions.getTotalNumberOfCells(transNumCells);
+		for (int z = 0; z < s.grid.getNumCells(direction); z++) {
+			for (int c = 0; c < 3; c++) {
+				double[] rho2D = new double[totalTransCells];
+				for (int i = 0; i < totalTransCells; i++) {
+					int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(i, transNumCells), direction, z);
+					rho2D[i] = rho[s.grid.getCellIndex(gridPos)].get(c);
+				}
+				double[] expected = FourierFunctions.solvePoisson2D(rho2D, transNumCells, s.grid.getLatticeSpacing());
+				for (int i = 0; i < totalTransCells; i++) {
+					int[] gridPos = GridFunctions.insertGridPos(GridFunctions.getCellPos(i, transNumCells), direction, z);
+					Assert.assertEquals(expected[i], phi[s.grid.getCellIndex(gridPos)].get(c), accuracy);
+				}
+			}
+		}
+	}
 }
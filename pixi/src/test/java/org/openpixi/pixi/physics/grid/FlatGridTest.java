@@ -0,0 +1,281 @@
+package org.openpixi.pixi.physics.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.ElementFactory;
+import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.FastTYMSolver;
+import org.openpixi.pixi.physics.fields.FieldSolver;
+import org.openpixi.pixi.physics.fields.FusedTYMSolver;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+
+import java.util.Random;
+
+public class FlatGridTest {
+
+	private final double accuracy = 1.E-12;
+
+	@Test
+	public void testViews() {
+		for (int colors = 2; colors <= 3; colors++) {
+			Simulation s = new Simulation(getStandardSettings(colors, new TemporalYangMillsSolver(), true));
+			Grid g = s.grid;
+			ElementFactory factory = g.getElementFactory();
+			Random random = new Random(1);
+
+			AlgebraElement a = createRandomAlgebraElement(factory, random);
+			int index = g.getCellIndex(new int[]{1, 2, 3});
+
+			// Modifications of views are written back to the grid.
+			g.getE(index, 1).set(a);
+			assertEquals(a, g.getE(index, 1));
+			g.getE(index, 1).addAssign(a);
+			assertEquals(a.mult(2.0), g.getE(index, 1));
+			g.getCell(index).getE(1).reset();
+			assertEquals(factory.algebraZero(), g.getE(index, 1));
+
+			GroupElement u = a.getLink();
+			g.getU(index, 2).set(u);
+			assertEquals(u, g.getU(index, 2));
+			g.getU(index, 2).adjAssign();
+			assertEquals(u.adj(), g.getU(index, 2));
+
+			g.getU(index, 2).multAssign(u);
+			assertEquals(u.adj().mult(u), g.getU(index, 2));
+			g.getU(index, 2).reset();
+			assertEquals(factory.groupZero(), g.getU(index, 2));
+			g.getU(index, 2).setIdentity();
+			assertEquals(factory.groupIdentity(), g.getU(index, 2));
+			g.getU(index, 2).addAssign(u);
+			g.getU(index, 2).subAssign(factory.groupIdentity());
+			assertEquals(u, g.getU(index, 2));
+
+			// Modifications through the out parameters of the in-place methods.
+			a.getLinkInto(g.getU(index, 0));
+			assertEquals(u, g.getU(index, 0));
+			u.multInto(u, g.getU(index, 0));
+			assertEquals(u.mult(u), g.getU(index, 0));
+			u.projInto(g.getJ(index, 0));
+			assertEquals(u.proj(), g.getJ(index, 0));
+
+			g.getJ(index, 0).set(0, 0.25);
+			Assert.assertEquals(0.25, g.getJ(index, 0).get(0), accuracy);
+			g.getJ(index, 0).multAssign(2.0);
+			Assert.assertEquals(0.5, g.getJ(index, 0).get(0), accuracy);
+			g.getJ(index, 0).set(a);
+			g.getJ(index, 0).actAssign(u);
+			assertEquals(a.act(u), g.getJ(index, 0));
+			g.getJ(index, 0).addAssign(a, -1.0);
+			assertEquals(a.act(u).sub(a), g.getJ(index, 0));
+			g.getRho(index).set(a);
+			assertEquals(a, g.getRho(index));
+
+			// Detached copies are not written back to the grid.
+			((FlatGrid) g).readU(index, 2).set(factory.groupIdentity());
+			assertEquals(u, g.getU(index, 2));
+
+			// Cell copies.
+			Cell copy = g.getCell(index).copy();
+			assertEquals(u, copy.getU(2));
+		}
+	}
+
+	@Test
+	public void testMeasurements() {
+		for (int colors = 2; colors <= 3; colors++) {
+			Simulation s1 = new Simulation(getStandardSettings(colors, new TemporalYangMillsSolver(), false));
+			Simulation s2 = new Simulation(getStandardSettings(colors, new TemporalYangMillsSolver(), true));
+			Grid g1 = s1.grid;
+			Grid g2 = s2.grid;
+			ElementFactory factory = g1.getElementFactory();
+			Random random = new Random(5);
+			setRandomFields(g1, random, false);
+			for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+				g1.setRho(i, createRandomAlgebraElement(factory, random));
+			}
+			g2.copyValuesFrom(g1);
+
+			AlgebraElement out1 = factory.algebraZero();
+			AlgebraElement out2 = factory.algebraZero();
+			AlgebraElement temp = factory.algebraZero();
+			GroupElement link = factory.groupZero();
+			for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+				g1.getGaussConstraintInto(i, out1, temp, link);
+				g2.getGaussConstraintInto(i, out2, temp, link);
+				assertEquals(out1, out2);
+				for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+					Assert.assertEquals(g1.getEsquared(i, d), g2.getEsquared(i, d), accuracy);
+					g1.getRotEInto(i, d, out1, temp, link);
+					g2.getRotEInto(i, d, out2, temp, link);
+					assertEquals(out1, out2);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEvolution() {
+		FieldSolver[] solvers = new FieldSolver[]{new TemporalYangMillsSolver(), new FastTYMSolver()};
+		for (int colors = 2; colors <= 3; colors++) {
+			for (FieldSolver solver : solvers) {
+				Simulation s1 = new Simulation(getStandardSettings(colors, solver, false));
+				Simulation s2 = new Simulation(getStandardSettings(colors, solver, true));
+				Assert.assertTrue(s2.grid instanceof FlatGrid);
+
+				// Random initial fields
+				Grid g1 = s1.grid;
+				setRandomFields(g1, new Random(2), true);
+				s2.grid.copyValuesFrom(g1);
+
+				for (int t = 0; t < 3; t++) {
+					s1.grid.updateGrid(s1.getTimeStep());
+					s1.grid.storeFields();
+					s2.grid.updateGrid(s2.getTimeStep());
+					s2.grid.storeFields();
+				}
+
+				for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+					for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+						assertEquals(s1.grid.getE(i, d), s2.grid.getE(i, d));
+						assertEquals(s1.grid.getU(i, d), s2.grid.getU(i, d));
+						assertEquals(s1.grid.getUnext(i, d), s2.grid.getUnext(i, d));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBlockCellIterator() {
+		FieldSolver[] solvers = new FieldSolver[]{new TemporalYangMillsSolver(), new FastTYMSolver()};
+		for (FieldSolver solver : solvers) {
+			for (int blockSize = 0; blockSize <= 7; blockSize += 7) {
+				Settings settings = getStandardSettings(2, solver, true);
+				settings.setNumOfThreads(3);
+				settings.useBlockCellIterator(true);
+				settings.setCellBlockSize(blockSize);
+				Simulation s1 = new Simulation(getStandardSettings(2, solver, true));
+				Simulation s2 = new Simulation(settings);
+
+				Grid g1 = s1.grid;
+				setRandomFields(g1, new Random(3), false);
+				s2.grid.copyValuesFrom(g1);
+
+				for (int t = 0; t < 3; t++) {
+					s1.grid.updateGrid(s1.getTimeStep());
+					s1.grid.storeFields();
+					s2.grid.updateGrid(s2.getTimeStep());
+					s2.grid.storeFields();
+				}
+				settings.terminateThreads();
+
+				for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+					for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+						assertEquals(s1.grid.getE(i, d), s2.grid.getE(i, d));
+						assertEquals(s1.grid.getU(i, d), s2.grid.getU(i, d));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTemporalBlocking() {
+		for (int colors = 2; colors <= 3; colors++) {
+			for (int steps = 2; steps <= 4; steps++) {
+				for (int flat = 0; flat <= 1; flat++) {
+					Simulation s1 = new Simulation(getStandardSettings(colors, new FastTYMSolver(), false));
+					Simulation s2 = new Simulation(getStandardSettings(colors, new FusedTYMSolver(), flat == 1));
+
+					Grid g1 = s1.grid;
+					ElementFactory factory = g1.getElementFactory();
+					setRandomFields(g1, new Random(4), true);
+					s2.grid.copyValuesFrom(g1);
+
+					// Steps of the first grid, the current is only applied in the first step.
+					for (int t = 0; t < steps; t++) {
+						s1.grid.storeFields();
+						s1.grid.updateGrid(s1.getTimeStep());
+						s1.grid.resetCurrent();
+					}
+					s2.grid.storeFields();
+					s2.grid.updateGrid(s2.getTimeStep(), steps);
+
+					for (int i = 0; i < g1.getTotalNumberOfCells(); i++) {
+						for (int d = 0; d < g1.getNumberOfDimensions(); d++) {
+							assertEquals(s1.grid.getE(i, d), s2.grid.getE(i, d));
+							assertEquals(s1.grid.getU(i, d), s2.grid.getU(i, d));
+							assertEquals(s1.grid.getUnext(i, d), s2.grid.getUnext(i, d));
+							assertEquals(factory.algebraZero(), s2.grid.getJ(i, d));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void assertEquals(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private void assertEquals(GroupElement a, GroupElement b) {
+		Assert.assertEquals(0.0, a.sub(b).proj().square(), accuracy);
+		Assert.assertEquals(a.getRealTrace(), b.getRealTrace(), accuracy);
+	}
+
+	/**
+	 * Sets random electric fields and links in every cell of a grid. If requested, small random currents are set
+	 * as well.
+	 */
+	private void setRandomFields(Grid grid, Random random, boolean currents) {
+		ElementFactory factory = grid.getElementFactory();
+		for (int i = 0; i < grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < grid.getNumberOfDimensions(); d++) {
+				grid.setE(i, d, createRandomAlgebraElement(factory, random));
+				grid.setU(i, d, createRandomAlgebraElement(factory, random).getLink());
+				if (currents) {
+					grid.getJ(i, d).set(createRandomAlgebraElement(factory, random).mult(0.1));
+				}
+			}
+		}
+	}
+
+	private AlgebraElement createRandomAlgebraElement(ElementFactory factory, Random random) {
+		AlgebraElement a = factory.algebraZero();
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			a.set(c, random.nextDouble() - 0.5);
+		}
+		return a;
+	}
+
+	private Settings getStandardSettings(int colors, FieldSolver solver, boolean flat) {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(solver);
+		s.useGrid(true);
+		s.useFlatGrid(flat);
+		s.setInterpolator(new EmptyInterpolator());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.1);
+		s.setGridCells(0, 4);
+		s.setGridCells(1, 5);
+		s.setGridCells(2, 6);
+
+		s.setNumberOfColors(colors);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		return s;
+	}
+}
@@ -1,17 +1,34 @@
 package org.openpixi.pixi.physics.grid;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.openpixi.pixi.diagnostics.AsynchronousDiagnostics;
+import org.openpixi.pixi.math.AlgebraElement;
 import org.openpixi.pixi.math.GroupElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
 import org.openpixi.pixi.math.SU2GroupElement;
 import org.openpixi.pixi.physics.GeneralBoundaryType;
 import org.openpixi.pixi.physics.Settings;
 import org.openpixi.pixi.physics.Simulation;
 import org.openpixi.pixi.physics.fields.fieldgenerators.SU2RandomFields;
 import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.measurements.FieldMeasurements;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
 import org.openpixi.pixi.physics.movement.solver.LeapFrogRelativisticParticleSolver;
+import org.openpixi.pixi.physics.particles.CGCParticle;
+import org.openpixi.pixi.physics.particles.CGCParticleArray;
+import org.openpixi.pixi.physics.particles.CGCSuperParticle;
+import org.openpixi.pixi.physics.particles.IParticle;
+import org.openpixi.pixi.physics.particles.YangMillsParticle;
+import org.openpixi.pixi.physics.util.Checkpoint;
+import org.openpixi.pixi.physics.util.GridFunctions;
 
 public class GridTest {
 
@@ -165,6 +182,31 @@ public class GridTest {
 		}
 	}
 
+	@Test
+	public void testNeighbourTable()
+	{
+		Settings settings = getStandardSettings();
+		Grid stride = new Simulation(settings).grid;
+		settings.useNeighbourTable(true);
+		Grid table = new Simulation(settings).grid;
+		int[] numCells = table.getNumCells();
+		int[] pos = new int[table.getNumberOfDimensions()];
+
+		// Compare all shifts and coordinates with and without the table
+		for (int index = 0; index < table.getTotalNumberOfCells(); index++) {
+			Assert.assertArrayEquals(table.getCellPos(index), table.getCellPos(index, pos));
+			Assert.assertArrayEquals(table.getCellPos(index), GridFunctions.getCellPos(index, numCells, pos));
+			for (int d = 0; d < table.getNumberOfDimensions(); d++) {
+				Assert.assertEquals(table.getCellPos(index)[d], table.getCellPos(index, d));
+				Assert.assertEquals(table.getCellPos(index)[d], GridFunctions.getCellPos(index, d, numCells));
+				for (int o = -1; o <= 1; o++) {
+					Assert.assertEquals(stride.shift(index, d, o), table.shift(index, d, o));
+					Assert.assertEquals(stride.shift(index, d, o), GridFunctions.shift(index, d, o, numCells));
+				}
+			}
+		}
+	}
+
 	@Test
 	public void testShiftSpeed()
 	{
@@ -244,6 +286,611 @@ public class GridTest {
 		return pos;
 	}
 
+	@Test
+	public void testReduction() {
+		double[][] results = new double[4][];
+		for (int mode = 0; mode < 4; mode++) {
+			Settings settings = getStandardSettings();
+			settings.useOrderedReduction(true);
+			if (mode == 0) {
+				settings.setNumOfThreads(1);
+			} else if (mode == 2) {
+				settings.useBlockCellIterator(true);
+			} else if (mode == 3) {
+				settings.setNumOfThreads(3);
+				settings.useBlockCellIterator(true);
+				settings.setCellBlockSize(50);
+			}
+			Simulation s = new Simulation(settings);
+			// Identical random fields in all modes.
+			Random random = new Random(4);
+			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+					s.grid.setU(i, d, new SU2GroupElement(random.nextDouble() - 0.5, random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+					s.grid.setUnext(i, d, new SU2GroupElement(random.nextDouble() - 0.5, random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+					s.grid.setE(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5, random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5));
+				}
+			}
+			FieldMeasurements measurements = new FieldMeasurements();
+			results[mode] = new double[] {
+					measurements.calculateBsquared(s.grid),
+					measurements.calculateBsquared(s.grid, 1),
+					measurements.calculateGaussConstraint(s.grid)
+			};
+
+			// Default mode agrees up to rounding errors.
+			s.grid.getCellIterator().setOrderedReduction(false);
+			Assert.assertEquals(results[mode][0], measurements.calculateBsquared(s.grid), accuracy * results[mode][0]);
+			settings.terminateThreads();
+		}
+
+		// Ordered mode is bitwise reproducible.
+		for (int mode = 1; mode < 4; mode++) {
+			for (int i = 0; i < results[0].length; i++) {
+				Assert.assertTrue(results[0][i] == results[mode][i]);
+			}
+		}
+	}
+
+	@Test
+	public void testDepositionBuffer() throws InterruptedException {
+		for (int flat = 0; flat < 2; flat++) {
+			Settings settings = getStandardSettings();
+			settings.useFlatGrid(flat == 1);
+			Simulation s = new Simulation(settings);
+			final Grid g = s.grid;
+			final int numberOfDepositions = 5000;
+			final int numberOfCells = g.getTotalNumberOfCells();
+
+			// Expected result from sequential deposition.
+			double[] expected = new double[numberOfCells];
+			Random random = new Random(5);
+			for (int i = 0; i < numberOfDepositions; i++) {
+				expected[random.nextInt(numberOfCells)] += 1.0;
+			}
+
+			// Every deposition is done by new threads, which reuse the pages of the earlier threads.
+			final DepositionBuffer buffer = new DepositionBuffer(g);
+			for (int round = 1; round <= 3; round++) {
+				g.setDepositionBuffer(buffer);
+				Thread[] threads = new Thread[4];
+				for (int t = 0; t < threads.length; t++) {
+					final int offset = t;
+					threads[t] = new Thread(new Runnable() {
+						public void run() {
+							Random random = new Random(5);
+							SU2AlgebraElement charge = new SU2AlgebraElement(1.0, 0.0, 0.0);
+							for (int i = 0; i < numberOfDepositions; i++) {
+								int index = random.nextInt(numberOfCells);
+								if (i % 4 == offset) {
+									g.addRho(index, charge);
+									g.addJ(index, 1, charge);
+								}
+							}
+						}
+					});
+					threads[t].start();
+				}
+				for (int t = 0; t < threads.length; t++) {
+					threads[t].join();
+				}
+				g.setDepositionBuffer(null);
+				buffer.merge(g);
+				Assert.assertEquals(threads.length, buffer.getNumberOfThreadPages());
+
+				for (int i = 0; i < numberOfCells; i++) {
+					Assert.assertEquals(round * expected[i], g.getRho(i).get(0), accuracy);
+					Assert.assertEquals(round * expected[i], g.getJ(i, 1).get(0), accuracy);
+					Assert.assertEquals(0.0, g.getJ(i, 0).get(0), accuracy);
+				}
+			}
+			settings.terminateThreads();
+		}
+	}
+
+	@Test
+	public void testCheckpoint() throws IOException {
+		File file = File.createTempFile("checkpoint", ".bin");
+		file.deleteOnExit();
+
+		Settings settings = getStandardSettings();
+		settings.setIterations(20);
+		Simulation s = new Simulation(settings);
+		Random random = new Random(6);
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+				GroupElement U = new SU2GroupElement(1.0, 0.1 * (random.nextDouble() - 0.5),
+						0.1 * (random.nextDouble() - 0.5), 0.1 * (random.nextDouble() - 0.5));
+				s.grid.setU(i, d, U);
+				s.grid.setUnext(i, d, U);
+				s.grid.setE(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5, random.nextDouble() - 0.5,
+						random.nextDouble() - 0.5));
+			}
+		}
+		YangMillsParticle particle = new YangMillsParticle(3, 2);
+		particle.setPosition(0, 3.5);
+		particle.setVelocity(1, 0.5);
+		particle.Q0 = new SU2AlgebraElement(0.1, 0.2, 0.3);
+		particle.Q1 = new SU2AlgebraElement(0.1, 0.2, 0.3);
+		s.particles.add(particle);
+
+		for (int i = 0; i < 3; i++) {
+			s.step();
+		}
+		Checkpoint checkpoint = new Checkpoint();
+		checkpoint.capture(s);
+		checkpoint.write(file);
+		for (int i = 0; i < 3; i++) {
+			s.step();
+		}
+
+		Settings restartSettings = getStandardSettings();
+		restartSettings.setIterations(20);
+		restartSettings.setRestartFile(file.getPath());
+		Simulation r = new Simulation(restartSettings);
+		Assert.assertEquals(3, r.totalSimulationSteps);
+		Assert.assertEquals(1, r.particles.size());
+		for (int i = 0; i < 3; i++) {
+			r.step();
+		}
+
+		// The restarted simulation continues exactly like the original one.
+		for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+			for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertTrue(s.grid.getE(i, d).get(c) == r.grid.getE(i, d).get(c));
+				}
+				for (int c = 0; c < 4; c++) {
+					Assert.assertTrue(((SU2GroupElement) s.grid.getU(i, d)).get(c)
+							== ((SU2GroupElement) r.grid.getU(i, d)).get(c));
+				}
+			}
+		}
+		Assert.assertTrue(s.particles.get(0).getPosition(1) == r.particles.get(0).getPosition(1));
+		settings.terminateThreads();
+		restartSettings.terminateThreads();
+	}
+
+	@Test
+	public void testAsynchronousDiagnostics() throws IOException {
+		ArrayList<ArrayList<Double>> results = new ArrayList<ArrayList<Double>>();
+		for (int queueDepth = 0; queueDepth < 3; queueDepth++) {
+			Settings settings = getStandardSettings();
+			settings.setIterations(10);
+			settings.setDiagnosticsQueueDepth(queueDepth);
+			settings.useOrderedReduction(true);
+			final ArrayList<Double> values = new ArrayList<Double>();
+			settings.addDiagnostics(new AsynchronousDiagnostics() {
+				private FieldMeasurements measurements = new FieldMeasurements();
+
+				public int getRequiredFields() {
+					return Grid.FIELD_U | Grid.FIELD_UNEXT | Grid.FIELD_E | Grid.FIELD_RHO;
+				}
+
+				public boolean isDue(int steps) {
+					return steps % 2 == 0;
+				}
+
+				public void initialize(Simulation s) {
+				}
+
+				public void calculate(Grid grid, ArrayList<IParticle> particles, int steps) {
+					if (isDue(steps)) {
+						values.add(measurements.calculateEsquared(grid));
+						values.add(measurements.calculateBsquared(grid));
+						values.add(measurements.calculateGaussConstraint(grid));
+					}
+				}
+			});
+			Simulation s = new Simulation(settings);
+			Random random = new Random(7);
+			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+					GroupElement U = new SU2GroupElement(1.0, 0.1 * (random.nextDouble() - 0.5),
+							0.1 * (random.nextDouble() - 0.5), 0.1 * (random.nextDouble() - 0.5));
+					s.grid.setU(i, d, U);
+					s.grid.setUnext(i, d, U);
+					s.grid.setE(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5, random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5));
+				}
+			}
+			s.run();
+			results.add(values);
+			settings.terminateThreads();
+		}
+
+		// Snapshots give the same results as the synchronous calculation.
+		Assert.assertEquals(3 * 6, results.get(0).size());
+		for (int queueDepth = 1; queueDepth < 3; queueDepth++) {
+			Assert.assertEquals(results.get(0), results.get(queueDepth));
+		}
+	}
+
+	@Test
+	public void testMovingWindow() {
+		Settings settings = getStandardSettings();
+		settings.addFieldGenerator(new SU2RandomFields());
+		Simulation s = new Simulation(settings);
+		Grid g = s.grid;
+
+		CGCParticle p1 = new CGCParticle(3, 2, 0);
+		CGCParticle p2 = new CGCParticle(3, 2, 0);
+		ArrayList<IParticle> particles = new ArrayList<IParticle>();
+		particles.add(p1);
+		particles.add(p2);
+
+		MovingWindow window = new MovingWindow(g, 2);
+		g.setMovingWindow(window);
+		double[][] positions = {{5.5, 8.2}, {6.5, 12.0}, {14.0, 15.9}, {1.0, 2.0}};
+		for (int t = 0; t < positions.length; t++) {
+			p1.setPosition(0, positions[t][0]);
+			p2.setPosition(0, positions[t][1]);
+			window.update(g, particles);
+			int start = Math.max((int) positions[t][0] - 2, 0);
+			int end = Math.min((int) positions[t][1] + 2, g.getNumCells(0) - 1);
+			Assert.assertEquals(start, window.getWindowStart());
+			Assert.assertEquals(end, window.getWindowEnd());
+
+			// The field solver only visits the slices within the window.
+			int[] ranges = g.getUpdateRanges();
+			boolean[] visited = new boolean[g.getTotalNumberOfCells()];
+			if (ranges == null) {
+				Arrays.fill(visited, true);
+			} else {
+				for (int k = 0; k < ranges.length; k += 2) {
+					for (int i = ranges[k]; i < ranges[k + 1]; i++) {
+						visited[i] = true;
+					}
+				}
+			}
+			for (int i = 0; i < g.getTotalNumberOfCells(); i++) {
+				int x = g.getCellPos(i)[0];
+				Assert.assertEquals(start <= x && x <= end, visited[i]);
+				Assert.assertEquals(start <= x && x <= end, g.isActive(i));
+				if (!g.isActive(i)) {
+					// Frozen cells must not change when U and Unext are swapped.
+					for (int c = 0; c < 4; c++) {
+						Assert.assertTrue(((SU2GroupElement) g.getU(i, 1)).get(c)
+								== ((SU2GroupElement) g.getUnext(i, 1)).get(c));
+					}
+				}
+			}
+		}
+		Assert.assertArrayEquals(new int[]{5, 10, 20, 25, 28, 29},
+				Grid.intersectRanges(new int[]{0, 10, 20, 30}, new int[]{5, 25, 28, 29, 35, 40}));
+		settings.terminateThreads();
+	}
+
+	@Test
+	public void testOccupiedSlabs() throws IOException {
+		for (int flat = 0; flat < 2; flat++) {
+			// Slabs in the x-direction for the cell grid and in the z-direction for the flat grid.
+			int direction = 2 * flat;
+			Simulation[] simulations = new Simulation[2];
+			Settings[] settingsList = new Settings[2];
+			for (int tracking = 0; tracking < 2; tracking++) {
+				Settings settings = getStandardSettings();
+				settingsList[tracking] = settings;
+				settings.useFlatGrid(flat == 1);
+				settings.useOccupiedSlabs(tracking == 1);
+				settings.setOccupiedSlabsDirection(direction);
+				settings.setIterations(10);
+				Simulation s = new Simulation(settings);
+
+				// Random fields in two slabs, vacuum everywhere else.
+				Random random = new Random(7);
+				for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+					int x = s.grid.getCellPos(i)[direction];
+					if (x == 7 || x == 8) {
+						for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+							s.grid.setE(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5,
+									random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+						}
+					}
+				}
+				for (int i = 0; i < 4; i++) {
+					s.step();
+				}
+				simulations[tracking] = s;
+			}
+
+			Grid g0 = simulations[0].grid;
+			Grid g1 = simulations[1].grid;
+			for (int i = 0; i < g0.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < g0.getNumberOfDimensions(); d++) {
+					for (int c = 0; c < 3; c++) {
+						Assert.assertEquals(g0.getE(i, d).get(c), g1.getE(i, d).get(c), accuracy);
+					}
+					for (int c = 0; c < 4; c++) {
+						Assert.assertEquals(((SU2GroupElement) g0.getU(i, d)).get(c),
+								((SU2GroupElement) g1.getU(i, d)).get(c), accuracy);
+					}
+				}
+			}
+
+			// The fields have only spread over a few slabs.
+			OccupiedSlabs slabs = g1.getOccupiedSlabs();
+			Assert.assertTrue(slabs.isOccupied(7));
+			Assert.assertFalse(slabs.isOccupied(0));
+			Assert.assertFalse(slabs.isOccupied(15));
+			settingsList[0].terminateThreads();
+			settingsList[1].terminateThreads();
+		}
+	}
+
+	@Test
+	public void testOccupiedSlabsRanges() {
+		Settings settings = getStandardSettings();
+		Grid g = new Simulation(settings).grid;
+		for (int direction = 0; direction < g.getNumberOfDimensions(); direction++) {
+			for (int i = 0; i < g.getTotalNumberOfCells(); i++) {
+				g.setE(i, 0, new SU2AlgebraElement(0.0, 0.0, 0.0));
+				if (g.getCellPos(i)[direction] == 5) {
+					g.setE(i, 0, new SU2AlgebraElement(0.1, 0.0, 0.0));
+				}
+			}
+
+			// The occupied slab and its neighbours are updated.
+			OccupiedSlabs slabs = new OccupiedSlabs(direction, OccupiedSlabs.DEFAULT_TOLERANCE);
+			int[] ranges = slabs.getRanges(g);
+			boolean[] updated = new boolean[g.getTotalNumberOfCells()];
+			for (int k = 0; k < ranges.length; k += 2) {
+				for (int i = ranges[k]; i < ranges[k + 1]; i++) {
+					Assert.assertFalse(updated[i]);
+					updated[i] = true;
+				}
+			}
+			for (int i = 0; i < g.getTotalNumberOfCells(); i++) {
+				int x = g.getCellPos(i)[direction];
+				Assert.assertEquals(4 <= x && x <= 6, updated[i]);
+				Assert.assertEquals(x, slabs.getSlab(i));
+			}
+
+			// Fields below the tolerance count as vacuum. The slab is released when it is checked again.
+			for (int i = 0; i < g.getTotalNumberOfCells(); i++) {
+				if (g.getCellPos(i)[direction] == 5) {
+					g.setE(i, 0, new SU2AlgebraElement(1.E-14, 0.0, 0.0));
+				}
+			}
+			for (int update = 1; update < OccupiedSlabs.RECHECK_INTERVAL; update++) {
+				slabs.updateHalo(g);
+				Assert.assertTrue(slabs.isOccupied(5));
+			}
+			slabs.updateHalo(g);
+			Assert.assertFalse(slabs.isOccupied(5));
+			Assert.assertEquals(0, slabs.getRanges(g).length);
+		}
+		settings.terminateThreads();
+	}
+
+	@Test
+	public void testSuperParticleCellIndex() {
+		int[] numCells = new int[]{4, 6, 5};
+		int total = 4 * 6 * 5;
+		for (int direction = 0; direction < numCells.length; direction++) {
+			int[] transversalNumCells = GridFunctions.reduceGridPos(numCells, direction);
+			int totalTransversalCells = GridFunctions.getTotalNumberOfCells(transversalNumCells);
+			boolean[] visited = new boolean[total];
+			for (int index = 0; index < total; index++) {
+				int z = index / totalTransversalCells;
+				int[] transversalPos = GridFunctions.getCellPos(index % totalTransversalCells, transversalNumCells);
+				int[] pos = GridFunctions.insertGridPos(transversalPos, direction, z);
+				int cellIndex = CGCSuperParticle.getCellIndex(index, direction, numCells);
+				Assert.assertEquals(GridFunctions.getCellIndex(pos, numCells), cellIndex);
+				visited[cellIndex] = true;
+			}
+			for (int i = 0; i < total; i++) {
+				Assert.assertTrue(visited[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testSuperParticleDeposition() {
+		// The deposition of a sequential and a parallel cell iterator gives the same results.
+		Settings[] settingsList = new Settings[2];
+		Grid[] grids = new Grid[2];
+		CGCSuperParticle[][] particles = new CGCSuperParticle[2][];
+		double[][] expectedJ = null;
+		AlgebraElement[][] expectedQ = null;
+		for (int parallel = 0; parallel < 2; parallel++) {
+			Settings settings = getStandardSettings();
+			settings.setNumOfThreads(parallel == 0 ? 1 : 6);
+			settingsList[parallel] = settings;
+			Grid g = new Simulation(settings).grid;
+			grids[parallel] = g;
+
+			Random random = new Random(12);
+			for (int i = 0; i < g.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < g.getNumberOfDimensions(); d++) {
+					g.setUnext(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5).getLink());
+				}
+			}
+
+			// Super particles in every direction and orientation which extend beyond the grid, so that the charges
+			// inside the grid are split into several chunks.
+			particles[parallel] = new CGCSuperParticle[2 * g.getNumberOfDimensions()];
+			for (int k = 0; k < particles[parallel].length; k++) {
+				int direction = k / 2;
+				int orientation = (k % 2 == 0) ? 1 : -1;
+				int particlesPerPlane = g.getTotalNumberOfCells() / g.getNumCells(direction);
+				int numberOfParticles = (g.getNumCells(direction) / 2 + 3) * particlesPerPlane;
+				int indexOffset = -2 * particlesPerPlane;
+				CGCSuperParticle P = new CGCSuperParticle(orientation, direction, numberOfParticles, indexOffset,
+						particlesPerPlane, 0, 1);
+				for (int j = 0; j < numberOfParticles; j++) {
+					P.Q[j] = new SU2AlgebraElement(random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+				}
+				Assert.assertTrue(numberOfParticles > 2 * CGCSuperParticleInterpolationNGP.CHUNK_SIZE);
+				particles[parallel][k] = P;
+			}
+
+			if (parallel == 0) {
+				// Reference deposition with the allocating methods.
+				expectedJ = new double[g.getTotalNumberOfCells() * g.getNumberOfDimensions()][3];
+				expectedQ = new AlgebraElement[particles[0].length][];
+				for (int k = 0; k < particles[0].length; k++) {
+					CGCSuperParticle P = particles[0][k];
+					expectedQ[k] = new AlgebraElement[P.numberOfParticles];
+					for (int j = 0; j < P.numberOfParticles; j++) {
+						AlgebraElement Q = P.Q[j].copy();
+						int lattice = P.getCurrentOffset(g.getSimulationSteps()) + j;
+						if (lattice >= 0 && lattice < g.getTotalNumberOfCells()) {
+							int index = P.getCellIndex(lattice, g.getNumCells());
+							GroupElement U = g.getUnext(index, P.direction);
+							AlgebraElement J;
+							if (P.orientation > 0) {
+								J = Q.mult(1.0 / g.getTemporalSpacing());
+								Q.actAssign(U.adj());
+							} else {
+								Q.actAssign(U);
+								J = Q.mult(-1.0 / g.getTemporalSpacing());
+							}
+							for (int c = 0; c < 3; c++) {
+								expectedJ[index * g.getNumberOfDimensions() + P.direction][c] += J.get(c);
+							}
+						}
+						expectedQ[k][j] = Q;
+					}
+				}
+			}
+
+			CGCSuperParticleInterpolationNGP interpolation = new CGCSuperParticleInterpolationNGP();
+			for (CGCSuperParticle P : particles[parallel]) {
+				interpolation.interpolateToGrid(P, g);
+				interpolation.interpolateChargedensity(P, g);
+			}
+		}
+
+		for (int i = 0; i < grids[0].getTotalNumberOfCells(); i++) {
+			for (int c = 0; c < 3; c++) {
+				Assert.assertEquals(grids[0].getRho(i).get(c), grids[1].getRho(i).get(c), accuracy);
+			}
+			for (int d = 0; d < grids[0].getNumberOfDimensions(); d++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(grids[0].getJ(i, d).get(c), grids[1].getJ(i, d).get(c), accuracy);
+					Assert.assertEquals(expectedJ[i * grids[0].getNumberOfDimensions() + d][c],
+							grids[1].getJ(i, d).get(c), accuracy);
+				}
+			}
+		}
+		for (int k = 0; k < particles[0].length; k++) {
+			for (int j = 0; j < particles[0][k].numberOfParticles; j++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(particles[0][k].Q[j].get(c), particles[1][k].Q[j].get(c), accuracy);
+					Assert.assertEquals(expectedQ[k][j].get(c), particles[1][k].Q[j].get(c), accuracy);
+				}
+			}
+		}
+		settingsList[0].terminateThreads();
+		settingsList[1].terminateThreads();
+	}
+
+	@Test
+	public void testSuperParticleOccupiedSlabs() {
+		Settings settings = getStandardSettings();
+		settings.useOccupiedSlabs(true);
+		Grid g = new Simulation(settings).grid;
+		OccupiedSlabs slabs = g.getOccupiedSlabs();
+		Assert.assertEquals(0, slabs.getRanges(g).length);
+
+		// A super particle moving along x which covers the planes x = 3, ..., 9. The charges lie in different chunks.
+		int particlesPerPlane = g.getTotalNumberOfCells() / g.getNumCells(0);
+		CGCSuperParticle P = new CGCSuperParticle(1, 0, 7 * particlesPerPlane, 3 * particlesPerPlane,
+				particlesPerPlane, 0, 1);
+		for (int j = 0; j < P.numberOfParticles; j++) {
+			P.Q[j] = new SU2AlgebraElement(0.1, 0.2, 0.3);
+		}
+		Assert.assertTrue(P.numberOfParticles > 2 * CGCSuperParticleInterpolationNGP.CHUNK_SIZE);
+		new CGCSuperParticleInterpolationNGP().interpolateToGrid(P, g);
+		for (int s = 0; s < g.getNumCells(0); s++) {
+			Assert.assertEquals(3 <= s && s <= 9, slabs.isOccupied(s));
+		}
+		settings.terminateThreads();
+	}
+
+	@Test
+	public void testParticleArray() throws IOException {
+		Simulation[] simulations = new Simulation[2];
+		Settings[] settingsList = new Settings[2];
+		for (int packed = 0; packed < 2; packed++) {
+			Settings settings = getStandardSettings();
+			settingsList[packed] = settings;
+			settings.setInterpolator(new CGCParticleInterpolationNGP());
+			settings.setParticleSolver(new CGCParticleSolver());
+			Simulation s = new Simulation(settings);
+
+			// Same random fields in both simulations.
+			Random random = new Random(11);
+			for (int i = 0; i < s.grid.getTotalNumberOfCells(); i++) {
+				for (int d = 0; d < s.grid.getNumberOfDimensions(); d++) {
+					s.grid.setU(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5).getLink());
+					s.grid.setE(i, d, new SU2AlgebraElement(random.nextDouble() - 0.5,
+							random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+				}
+			}
+
+			// Particles moving in both orientations along x and y.
+			for (int k = 0; k < 50; k++) {
+				int direction = k % 2;
+				double orientation = (k % 4 < 2) ? 1.0 : -1.0;
+				double[] pos = new double[3];
+				for (int d = 0; d < 3; d++) {
+					pos[d] = random.nextInt(s.grid.getNumCells(d));
+				}
+				pos[direction] += 0.1 * random.nextInt(10) - 0.45;
+				double[] vel = new double[3];
+				vel[direction] = orientation;
+				SU2AlgebraElement charge = new SU2AlgebraElement(random.nextDouble() - 0.5,
+						random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+				s.particles.add(new CGCParticle(direction, pos, pos.clone(), vel, new double[3], charge,
+						s.grid.getElementFactory().groupIdentity()));
+			}
+			if (packed == 1) {
+				CGCParticleArray.pack(s.particles, 7, 2);
+				Assert.assertEquals(8, s.particles.size());
+			}
+			for (int i = 0; i < 25; i++) {
+				s.step();
+			}
+			simulations[packed] = s;
+		}
+
+		Grid g0 = simulations[0].grid;
+		Grid g1 = simulations[1].grid;
+		for (int i = 0; i < g0.getTotalNumberOfCells(); i++) {
+			for (int c = 0; c < 3; c++) {
+				Assert.assertEquals(g0.getRho(i).get(c), g1.getRho(i).get(c), accuracy);
+			}
+			for (int d = 0; d < g0.getNumberOfDimensions(); d++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(g0.getJ(i, d).get(c), g1.getJ(i, d).get(c), accuracy);
+					Assert.assertEquals(g0.getE(i, d).get(c), g1.getE(i, d).get(c), accuracy);
+				}
+			}
+		}
+		List<IParticle> views = CGCParticleArray.getViews(simulations[1].particles);
+		for (int k = 0; k < views.size(); k++) {
+			CGCParticle p0 = (CGCParticle) simulations[0].particles.get(k);
+			CGCParticle p1 = (CGCParticle) views.get(k).copy();
+			for (int d = 0; d < 3; d++) {
+				Assert.assertEquals(p0.pos0[d], p1.pos0[d], accuracy);
+			}
+			// Charge at t + dt (Q0 of single particles may be swapped until the next step)
+			for (int c = 0; c < 3; c++) {
+				Assert.assertEquals(p0.Q1.get(c), p1.Q1.get(c), accuracy);
+			}
+		}
+		settingsList[0].terminateThreads();
+		settingsList[1].terminateThreads();
+	}
+
 	private Settings getStandardSettings() {
 		Settings s = new Settings();
 
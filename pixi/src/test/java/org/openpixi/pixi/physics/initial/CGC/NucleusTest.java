@@ -0,0 +1,154 @@
+package org.openpixi.pixi.physics.initial.CGC;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openpixi.pixi.math.AlgebraElement;
+import org.openpixi.pixi.math.SU2AlgebraElement;
+import org.openpixi.pixi.physics.GeneralBoundaryType;
+import org.openpixi.pixi.physics.Settings;
+import org.openpixi.pixi.physics.Simulation;
+import org.openpixi.pixi.physics.fields.TemporalYangMillsSolver;
+import org.openpixi.pixi.physics.grid.CGCParticleInterpolation;
+import org.openpixi.pixi.physics.movement.solver.CGCParticleSolver;
+import org.openpixi.pixi.physics.util.InitialConditionsCache;
+
+public class NucleusTest {
+
+	private final double accuracy = 1.E-13;
+
+	@Test
+	public void testThreadIndependence() {
+		AlgebraElement[][] nucleus = new AlgebraElement[2][];
+		AlgebraElement[][] coherent = new AlgebraElement[2][];
+		int[] threads = {1, 4};
+		for (int t = 0; t < threads.length; t++) {
+			Settings settings = getStandardSettings();
+			settings.setNumOfThreads(threads[t]);
+			Simulation s = new Simulation(settings);
+
+			Nucleus n = createNucleus(5);
+			n.initialize(s);
+			nucleus[t] = n.getChargeDensity();
+
+			NucleusCoherent c = createNucleusCoherent(5);
+			c.initialize(s);
+			coherent[t] = c.getChargeDensity();
+
+			settings.terminateThreads();
+		}
+
+		// The random streams of the components and cells do not depend on the number of threads.
+		assertNonZero(nucleus[0]);
+		assertNonZero(coherent[0]);
+		for (int i = 0; i < nucleus[0].length; i++) {
+			assertEquals(nucleus[0][i], nucleus[1][i]);
+			assertEquals(coherent[0][i], coherent[1][i]);
+		}
+	}
+
+	@Test
+	public void testCache() throws IOException {
+		File directory = File.createTempFile("cache", "");
+		directory.delete();
+		directory.mkdir();
+
+		try {
+			Settings settings = getStandardSettings();
+			settings.setInitialConditionsCache(directory.getPath());
+			Simulation s = new Simulation(settings);
+
+			// Store and load arbitrary values.
+			Random random = new Random(11);
+			AlgebraElement[] values = new AlgebraElement[s.grid.getTotalNumberOfCells()];
+			AlgebraElement[] loaded = new AlgebraElement[values.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = new SU2AlgebraElement(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+				loaded[i] = s.grid.getElementFactory().algebraZero();
+			}
+			String key = InitialConditionsCache.getKey(s, true, "Test", 1, 2.0);
+			Assert.assertFalse(InitialConditionsCache.load(s, key, loaded));
+			InitialConditionsCache.store(s, key, values);
+			Assert.assertTrue(InitialConditionsCache.load(s, key, loaded));
+			for (int i = 0; i < values.length; i++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(values[i].get(c), loaded[i].get(c), 0.0);
+				}
+			}
+			Assert.assertFalse(InitialConditionsCache.load(s, InitialConditionsCache.getKey(s, true, "Test", 1, 3.0), loaded));
+			Assert.assertNull(InitialConditionsCache.getKey(s, false, "Test", 1, 2.0));
+			Assert.assertFalse(InitialConditionsCache.load(s, null, loaded));
+
+			// The second nucleus loads the charge density of the first one.
+			Nucleus stored = createNucleus(7);
+			stored.initialize(s);
+			int entries = directory.list().length;
+			Nucleus cached = createNucleus(7);
+			cached.initialize(s);
+			Assert.assertEquals(entries, directory.list().length);
+			assertNonZero(stored.getChargeDensity());
+			for (int i = 0; i < values.length; i++) {
+				for (int c = 0; c < 3; c++) {
+					Assert.assertEquals(stored.getChargeDensity(i).get(c), cached.getChargeDensity(i).get(c), 0.0);
+				}
+			}
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	private Nucleus createNucleus(int seed) {
+		return new Nucleus(0, 1, 8.0, new double[]{4.0, 5.0}, 1.0, 1.0, true, seed, 3, false, 3.0, 0.5,
+				1.0, 0.5, 4.0, 2.0, 0.5);
+	}
+
+	private NucleusCoherent createNucleusCoherent(int seed) {
+		return new NucleusCoherent(0, 1, 8.0, new double[]{4.0, 5.0}, 1.0, 1.0, true, seed, 3, false, 3.0, 0.5,
+				1.0, 0.5, 4.0, 10.0, 0.5);
+	}
+
+	private void assertNonZero(AlgebraElement[] rho) {
+		double sum = 0.0;
+		for (int i = 0; i < rho.length; i++) {
+			sum += rho[i].square();
+		}
+		Assert.assertTrue(sum > 0.0);
+	}
+
+	private void assertEquals(AlgebraElement a, AlgebraElement b) {
+		for (int c = 0; c < a.getAdjointDimension(); c++) {
+			Assert.assertEquals(a.get(c), b.get(c), accuracy);
+		}
+	}
+
+	private Settings getStandardSettings() {
+		Settings s = new Settings();
+
+		s.setRelativistic(true);
+		s.setBoundary(GeneralBoundaryType.Periodic);
+		s.setFieldSolver(new TemporalYangMillsSolver());
+		s.useGrid(true);
+		s.setInterpolator(new CGCParticleInterpolation());
+		s.setParticleSolver(new CGCParticleSolver());
+		s.setSpeedOfLight(1.0);
+		s.setNumberOfDimensions(3);
+
+		s.setGridStep(1.0);
+		s.setTimeStep(0.5);
+		s.setGridCells(0, 16);
+		s.setGridCells(1, 8);
+		s.setGridCells(2, 10);
+
+		s.setNumberOfColors(2);
+		s.setCouplingConstant(1.0);
+		s.setNumOfThreads(1);
+
+		return s;
+	}
+}